@@ -0,0 +1,108 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Graph;
+import edu.grinnell.csc207.util.UndirectedGraph;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of saving and reading graphs.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBenchmark {
+
+  /**
+   * A saved copy of the graph, and a scratch file.
+   */
+  @State(Scope.Thread)
+  public static class Files {
+    /**
+     * The saved graph.
+     */
+    File saved;
+
+    /**
+     * Where to save.
+     */
+    File scratch;
+
+    /**
+     * Save the graph.
+     *
+     * @param state
+     *   The graph.
+     *
+     * @throws Exception
+     *   If the files cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void save(GraphState state) throws Exception {
+      this.saved = File.createTempFile("graph", ".txt");
+      this.scratch = File.createTempFile("graph", ".txt");
+      state.graph.save(this.saved.getPath());
+    } // save(GraphState)
+
+    /**
+     * Remove the files.
+     */
+    @TearDown(Level.Trial)
+    public void delete() {
+      this.saved.delete();
+      this.scratch.delete();
+    } // delete()
+  } // class Files
+
+  /**
+   * Save the graph as text.
+   *
+   * @param state
+   *   The graph.
+   * @param files
+   *   The files.
+   *
+   * @throws Exception
+   *   If the file cannot be written.
+   */
+  @Benchmark
+  public void save(GraphState state, Files files) throws Exception {
+    state.graph.save(files.scratch.getPath());
+  } // save(GraphState, Files)
+
+  /**
+   * Read the graph from text.
+   *
+   * @param state
+   *   The graph (used only for its parameters).
+   * @param files
+   *   The files.
+   *
+   * @return the graph read.
+   *
+   * @throws Exception
+   *   If the file cannot be read.
+   */
+  @Benchmark
+  public Graph readGraph(GraphState state, Files files) throws Exception {
+    Graph g = state.directed ? new Graph(state.size) : new UndirectedGraph();
+    g.readGraph(files.saved.getPath());
+    return g;
+  } // readGraph(GraphState, Files)
+} // class FileBenchmark
@@ -0,0 +1,219 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Edge;
+import edu.grinnell.csc207.util.Graph;
+import edu.grinnell.csc207.util.UndirectedGraph;
+import java.util.ArrayList;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A graph to benchmark, chosen by the parameters, with a supply of
+ * random vertices and edges to operate on.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@State(Scope.Thread)
+public class GraphState {
+
+  // +------------+--------------------------------------------------
+  // | Parameters |
+  // +------------+
+
+  /**
+   * The number of vertices.
+   */
+  @Param({"1000", "100000"})
+  public int size;
+
+  /**
+   * The shape of the graph: "random" (edges between uniformly random
+   * vertices), "grid" (a square grid, with edges both ways), or "hub"
+   * (most edges touch a few hub vertices).
+   */
+  @Param({"random", "grid", "hub"})
+  public String shape;
+
+  /**
+   * Whether the graph is directed.
+   */
+  @Param({"true", "false"})
+  public boolean directed;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of random vertex pairs to cycle through.
+   */
+  static final int PAIRS = 1 << 12;
+
+  /**
+   * The graph.
+   */
+  public Graph graph;
+
+  /**
+   * The edges of the graph, as built.
+   */
+  public Edge[] edges;
+
+  /**
+   * Random vertices, in pairs.
+   */
+  public int[] vertices;
+
+  /**
+   * The position of the next pair.
+   */
+  int next;
+
+  /**
+   * The source of randomness (fixed, so that runs are comparable).
+   */
+  Random random;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Build the graph.
+   *
+   * @throws Exception
+   *   If the graph cannot be built.
+   */
+  @Setup(Level.Trial)
+  public void build() throws Exception {
+    this.random = new Random(207);
+    // Both kinds get exactly the capacity they need, so that a removed
+    // vertex is the only free number and comes back with its old one.
+    this.graph = this.directed ? new Graph(this.size)
+        : new UndirectedGraph(this.size);
+    if (this.indexed()) {
+      this.graph.indexIncomingEdges();
+    } // if
+    for (int i = 0; i < this.size; i++) {
+      this.graph.addVertex();
+    } // for
+    switch (this.shape) {
+      case "grid":
+        this.grid();
+        break;
+      case "hub":
+        this.hub();
+        break;
+      default:
+        this.uniform();
+        break;
+    } // switch
+    ArrayList<Edge> all = new ArrayList<Edge>();
+    this.graph.edges().forEach(all::add);
+    this.edges = all.toArray(new Edge[0]);
+    this.vertices = new int[2 * PAIRS];
+    for (int i = 0; i < this.vertices.length; i++) {
+      this.vertices[i] = this.random.nextInt(this.size);
+    } // for
+  } // build()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine whether the graph should index its incoming edges. Graphs
+   * do not by default, so most benchmarks measure them without.
+   *
+   * @return true if the graph should index incoming edges.
+   */
+  public boolean indexed() {
+    return false;
+  } // indexed()
+
+  /**
+   * Get the next random vertex.
+   *
+   * @return a vertex number.
+   */
+  public int vertex() {
+    int v = this.vertices[this.next];
+    this.next = (this.next + 1) & (this.vertices.length - 1);
+    return v;
+  } // vertex()
+
+  /**
+   * Get an edge of the original graph, chosen at random.
+   *
+   * @return an edge.
+   */
+  public Edge edge() {
+    return this.edges[this.vertex() % this.edges.length];
+  } // edge()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Add about four edges per vertex between random vertices.
+   *
+   * @throws Exception
+   *   If an edge cannot be added.
+   */
+  void uniform() throws Exception {
+    for (int i = 0; i < 4 * this.size; i++) {
+      int u = this.random.nextInt(this.size);
+      int v = this.random.nextInt(this.size);
+      if (u != v) {
+        this.graph.addEdge(u, v, 1 + this.random.nextInt(100));
+      } // if
+    } // for
+  } // uniform()
+
+  /**
+   * Connect the vertices in a square grid, row by row.
+   *
+   * @throws Exception
+   *   If an edge cannot be added.
+   */
+  void grid() throws Exception {
+    int width = (int) Math.ceil(Math.sqrt(this.size));
+    for (int v = 0; v < this.size; v++) {
+      if ((v % width != width - 1) && (v + 1 < this.size)) {
+        this.graph.addEdge(v, v + 1, 1 + this.random.nextInt(100));
+        this.graph.addEdge(v + 1, v, 1 + this.random.nextInt(100));
+      } // if
+      if (v + width < this.size) {
+        this.graph.addEdge(v, v + width, 1 + this.random.nextInt(100));
+        this.graph.addEdge(v + width, v, 1 + this.random.nextInt(100));
+      } // if
+    } // for
+  } // grid()
+
+  /**
+   * Add about four edges per vertex, each from or to one of a few hubs
+   * (the square root of the number of vertices).
+   *
+   * @throws Exception
+   *   If an edge cannot be added.
+   */
+  void hub() throws Exception {
+    int hubs = Math.max(1, (int) Math.sqrt(this.size));
+    for (int i = 0; i < 4 * this.size; i++) {
+      int h = this.random.nextInt(hubs);
+      int v = this.random.nextInt(this.size);
+      if (h != v) {
+        if (this.random.nextBoolean()) {
+          this.graph.addEdge(h, v, 1 + this.random.nextInt(100));
+        } else {
+          this.graph.addEdge(v, h, 1 + this.random.nextInt(100));
+        } // if/else
+      } // if
+    } // for
+  } // hub()
+} // class GraphState
@@ -0,0 +1,28 @@
+package edu.grinnell.csc207.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A graph to benchmark, as in GraphState, that also indexes its incoming
+ * edges.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@State(Scope.Thread)
+public class IndexedGraphState extends GraphState {
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine whether the graph should index its incoming edges.
+   *
+   * @return true.
+   */
+  @Override
+  public boolean indexed() {
+    return true;
+  } // indexed()
+} // class IndexedGraphState
@@ -0,0 +1,110 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Edge;
+import edu.grinnell.csc207.util.Graph;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of changes to graphs. Each operation undoes itself (or is
+ * undone), so the graph stays the same size from one call to the next.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark {
+
+  /**
+   * Replace the weight of an existing edge.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @throws Exception
+   *   If the edge cannot be added.
+   */
+  @Benchmark
+  public void replaceEdge(GraphState state) throws Exception {
+    Edge e = state.edge();
+    state.graph.addEdge(e.source(), e.target(), e.weight());
+  } // replaceEdge(GraphState)
+
+  /**
+   * Add a new edge between random vertices, then remove it.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @throws Exception
+   *   If the edge cannot be added.
+   */
+  @Benchmark
+  public void addAndRemoveEdge(GraphState state) throws Exception {
+    int u = state.vertex();
+    int v = state.vertex();
+    if ((u != v) && !state.graph.hasEdge(u, v)) {
+      state.graph.addEdge(u, v, 1);
+      state.graph.removeEdge(u, v);
+    } // if
+  } // addAndRemoveEdge(GraphState)
+
+  /**
+   * Remove an existing edge, then put it back.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @throws Exception
+   *   If the edge cannot be added.
+   */
+  @Benchmark
+  public void removeAndRestoreEdge(GraphState state) throws Exception {
+    Edge e = state.edge();
+    state.graph.removeEdge(e.source(), e.target());
+    state.graph.addEdge(e.source(), e.target(), e.weight());
+  } // removeAndRestoreEdge(GraphState)
+
+  /**
+   * Remove a random vertex, then put it (and its edges) back. Since the
+   * graph is full, the vertex comes back with the same number.
+   *
+   * @param state
+   *   The graph, which indexes incoming edges so that finding the edges
+   *   into the vertex does not scan the whole graph.
+   *
+   * @throws Exception
+   *   If the vertex cannot be restored.
+   */
+  @Benchmark
+  public void removeAndRestoreVertex(IndexedGraphState state) throws Exception {
+    Graph g = state.graph;
+    int v = state.vertex();
+    String name = g.vertexName(v);
+    ArrayList<Edge> out = new ArrayList<Edge>();
+    g.edgesFrom(v).forEach(out::add);
+    ArrayList<Edge> in = new ArrayList<Edge>();
+    g.edgesTo(v).forEach(in::add);
+    g.removeVertex(v);
+    if (g.addVertex(name) != v) {
+      // Otherwise later calls would pick numbers with no vertex.
+      throw new IllegalStateException("Vertex " + v + " was renumbered");
+    } // if
+    for (Edge e : out) {
+      g.addEdge(v, e.target(), e.weight());
+    } // for
+    for (Edge e : in) {
+      g.addEdge(e.source(), v, e.weight());
+    } // for
+  } // removeAndRestoreVertex(IndexedGraphState)
+} // class MutationBenchmark
@@ -0,0 +1,129 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.util.Edge;
+import edu.grinnell.csc207.util.MarkContext;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of reading graphs: iteration, searches, and marks.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+
+  /**
+   * Iterate every edge with edges().
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the total weight (so that the loop is not optimized away).
+   */
+  @Benchmark
+  public long edges(GraphState state) {
+    long total = 0;
+    for (Edge e : state.graph.edges()) {
+      total += e.weight();
+    } // for
+    return total;
+  } // edges(GraphState)
+
+  /**
+   * Iterate every edge with edgesFrom, vertex by vertex.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the total weight.
+   */
+  @Benchmark
+  public long edgesFrom(GraphState state) {
+    long total = 0;
+    for (int v : state.graph.vertices()) {
+      for (Edge e : state.graph.edgesFrom(v)) {
+        total += e.weight();
+      } // for
+    } // for
+    return total;
+  } // edgesFrom(GraphState)
+
+  /**
+   * Find an unweighted path between random vertices.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the path.
+   */
+  @Benchmark
+  public List<Edge> path(GraphState state) {
+    return state.graph.path(state.vertex(), state.vertex());
+  } // path(GraphState)
+
+  /**
+   * Find a shortest path between random vertices.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the predecessors.
+   */
+  @Benchmark
+  public Integer[] shortestPath(GraphState state) {
+    return state.graph.shortestPath(state.vertex(), state.vertex());
+  } // shortestPath(GraphState)
+
+  /**
+   * Mark everything reachable from a random vertex, in a fresh context.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the number of vertices marked.
+   */
+  @Benchmark
+  public int markReachable(GraphState state) {
+    try (MarkContext context = state.graph.markContext()) {
+      return state.graph.markReachable(context, state.vertex());
+    } // try
+  } // markReachable(GraphState)
+
+  /**
+   * Mark a batch of random vertices, test another batch, then clear the
+   * marks.
+   *
+   * @param state
+   *   The graph.
+   *
+   * @return the number of vertices found marked.
+   */
+  @Benchmark
+  public int markAndClear(GraphState state) {
+    int found = 0;
+    try (MarkContext context = state.graph.markContext()) {
+      for (int i = 0; i < 64; i++) {
+        state.graph.mark(context, state.vertex());
+      } // for
+      for (int i = 0; i < 64; i++) {
+        if (state.graph.isMarked(context, state.vertex())) {
+          ++found;
+        } // if
+      } // for
+      context.clear();
+    } // try
+    return found;
+  } // markAndClear(GraphState)
+} // class TraversalBenchmark
@@ -0,0 +1,124 @@
+package edu.grinnell.csc207.experiments;
+
+import edu.grinnell.csc207.generators.BarabasiAlbertGenerator;
+import edu.grinnell.csc207.generators.ChainGenerator;
+import edu.grinnell.csc207.generators.ErdosRenyiGenerator;
+import edu.grinnell.csc207.generators.GraphGenerator;
+import edu.grinnell.csc207.generators.GridGenerator;
+import edu.grinnell.csc207.generators.RMatGenerator;
+import edu.grinnell.csc207.util.Graph;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+/**
+ * How the main graph operations scale on generated graphs. Doubles the
+ * size of the graph from 2^min to 2^max vertices (with about 16 edges
+ * per vertex) and reports the time each operation takes.
+ *
+ * Usage: ScalingExperiment [rmat|er|ba|grid|chain] [min] [max] [seed]
+ *
+ * With max = 23 and rmat, the largest graph has about 1.3 * 10^8 edges;
+ * give the JVM plenty of memory (-Xmx32g or so).
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ScalingExperiment {
+
+  /**
+   * Run the experiment.
+   *
+   * @param args
+   *   Command-line arguments, as above.
+   */
+  public static void main(String[] args) throws Exception {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    String kind = (args.length > 0) ? args[0] : "rmat";
+    int min = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+    int max = (args.length > 2) ? Integer.parseInt(args[2]) : 18;
+    long seed = (args.length > 3) ? Long.parseLong(args[3]) : 1;
+
+    pen.printf("%-6s %10s %11s %9s %9s %9s %9s %9s %9s%n", kind, "vertices",
+        "edges", "build", "dijkstra", "path", "reach", "write", "read");
+    for (int scale = min; scale <= max; scale++) {
+      GraphGenerator generator = generator(kind, scale).seed(seed);
+      long start = System.nanoTime();
+      Graph g = generator.toGraph();
+      long build = System.nanoTime() - start;
+      // Barabási–Albert edges lead to older vertices, so start at the
+      // newest one.
+      int source = kind.equals("ba") ? g.numVertices() - 1 : 0;
+      int sink = g.numVertices() - 1 - source;
+
+      start = System.nanoTime();
+      g.shortestPaths(source);
+      long dijkstra = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      g.path(source, sink);
+      long path = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      g.reachable(source);
+      long reach = System.nanoTime() - start;
+
+      File file = File.createTempFile("scaling", ".txt");
+      file.deleteOnExit();
+      start = System.nanoTime();
+      generator.write(file.getPath());
+      long write = System.nanoTime() - start;
+
+      Graph h = new Graph();
+      start = System.nanoTime();
+      h.readGraph(file.getPath());
+      long read = System.nanoTime() - start;
+      file.delete();
+
+      pen.printf("%-6d %10d %11d %9s %9s %9s %9s %9s %9s%n", scale,
+          g.numVertices(), g.numEdges(), ms(build), ms(dijkstra), ms(path),
+          ms(reach), ms(write), ms(read));
+    } // for
+  } // main(String[])
+
+  /**
+   * Make a generator for graphs with about 2^scale vertices.
+   *
+   * @param kind
+   *   The kind of graph.
+   * @param scale
+   *   log2 of the number of vertices.
+   *
+   * @return the generator.
+   */
+  static GraphGenerator generator(String kind, int scale) {
+    int n = 1 << scale;
+    switch (kind) {
+      case "rmat":
+        return new RMatGenerator(scale, 16);
+      case "er":
+        return new ErdosRenyiGenerator(n, 16L * n);
+      case "ba":
+        return new BarabasiAlbertGenerator(n, 16);
+      case "grid":
+        return new GridGenerator(1 << (scale / 2), 1 << (scale - scale / 2))
+            .roads(0.1, 0.001);
+      case "chain":
+        return new ChainGenerator(n).bidirectional(true);
+      default:
+        throw new IllegalArgumentException("Unknown kind of graph: " + kind);
+    } // switch
+  } // generator(String, int)
+
+  /**
+   * Format a time in milliseconds.
+   *
+   * @param nanos
+   *   The time, in nanoseconds.
+   *
+   * @return the formatted time.
+   */
+  static String ms(long nanos) {
+    return String.format("%.1f", nanos / 1e6);
+  } // ms(long)
+
+} // class ScalingExperiment
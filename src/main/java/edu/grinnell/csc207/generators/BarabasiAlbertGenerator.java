@@ -0,0 +1,129 @@
+package edu.grinnell.csc207.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Barabási–Albert graphs, grown by preferential attachment: each new
+ * vertex adds m edges to earlier vertices, choosing them with
+ * probability proportional to their degree. The result has a power-law
+ * degree distribution with a few very large hubs.
+ *
+ * Each vertex's edges go to the earlier vertices it chose (so hubs have
+ * high in-degree).
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class BarabasiAlbertGenerator extends GraphGenerator {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Preferential attachment looks inherently sequential, but it need
+   * not be (Sanders and Schulz, "Scalable Generation of Scale-free
+   * Graphs"). Imagine the classic list in which each edge e contributes
+   * two entries: its source at position 2e and its target at 2e+1.
+   * Choosing a uniformly random entry of the list so far chooses a
+   * vertex with probability proportional to its degree. So edge e
+   * picks a random position r < 2e. If r is even, it names edge r/2's
+   * source, which is just (r/2)/m. If r is odd, it names edge
+   * (r-1)/2's target, which we find by repeating the process for that
+   * (earlier) edge.
+   *
+   * The random position for edge e comes from a hash of the seed and e,
+   * so any thread can recompute the choice made by any earlier edge, and
+   * the edges can be generated in any order. Following the chain takes
+   * O(log) steps on average.
+   *
+   * The first vertex has no edges, and the first m edges (from vertex 1)
+   * all go to vertex 0. Repeated choices make duplicate edges, which
+   * Graph merges, so vertices may end up with fewer than m edges.
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of vertices.
+   */
+  final int n;
+
+  /**
+   * The number of edges each vertex adds.
+   */
+  final int m;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator for graphs with n vertices, each of which adds m
+   * edges to earlier vertices.
+   *
+   * @param n
+   *   The number of vertices (at least 2).
+   * @param m
+   *   The number of edges per vertex (at least 1).
+   */
+  public BarabasiAlbertGenerator(int n, int m) {
+    if ((n < 2) || (m < 1)) {
+      throw new IllegalArgumentException("Invalid size: " + n + ", " + m);
+    } // if
+    this.n = n;
+    this.m = m;
+  } // BarabasiAlbertGenerator(int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public int numVertices() {
+    return this.n;
+  } // numVertices()
+
+  @Override
+  long numSlots() {
+    return (long) this.m * this.n;
+  } // numSlots()
+
+  @Override
+  public long expectedEdges() {
+    return (long) this.m * (this.n - 1);
+  } // expectedEdges()
+
+  @Override
+  void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+    // Edges m*v .. m*v+m-1 come from vertex v. Vertex 0 has none.
+    for (long e = Math.max(from, this.m); e < to; e++) {
+      int source = (int) (e / this.m);
+      int target = this.target(e);
+      if (target != source) {
+        sink.edge(source, target, this.weight(random));
+      } // if
+    } // for
+  } // generate(long, long, SplittableRandom, EdgeSink)
+
+  /**
+   * Find the target chosen by an edge.
+   *
+   * @param e
+   *   The number of the edge.
+   *
+   * @return the target vertex.
+   */
+  int target(long e) {
+    while (e >= this.m) {
+      long r = Long.remainderUnsigned(mix(this.seed, e), 2 * e);
+      if ((r & 1) == 0) {
+        // This may be e's own source; generate skips the self-loop.
+        return (int) ((r >>> 1) / this.m);
+      } // if
+      e = r >>> 1;
+    } // while
+    return 0;
+  } // target(long)
+} // class BarabasiAlbertGenerator
@@ -0,0 +1,90 @@
+package edu.grinnell.csc207.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chains: v0 -> v1 -> ... -> v(n-1), optionally with the reverse edges
+ * as well. Chains have the largest possible diameter, so they are the
+ * worst case for anything that works level by level.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ChainGenerator extends GraphGenerator {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of vertices.
+   */
+  final int n;
+
+  /**
+   * Whether to include the edges back toward v0.
+   */
+  boolean bidirectional = false;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator for chains of n vertices.
+   *
+   * @param n
+   *   The number of vertices (at least 1).
+   */
+  public ChainGenerator(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("Invalid size: " + n);
+    } // if
+    this.n = n;
+  } // ChainGenerator(int)
+
+  // +-----------+---------------------------------------------------
+  // | Configure |
+  // +-----------+
+
+  /**
+   * Decide whether to include the reverse edges.
+   *
+   * @param bidirectional
+   *   true to include them and false (the default) not to.
+   *
+   * @return this generator.
+   */
+  public ChainGenerator bidirectional(boolean bidirectional) {
+    this.bidirectional = bidirectional;
+    return this;
+  } // bidirectional(boolean)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public int numVertices() {
+    return this.n;
+  } // numVertices()
+
+  @Override
+  long numSlots() {
+    return this.n - 1;
+  } // numSlots()
+
+  @Override
+  public long expectedEdges() {
+    return (this.bidirectional ? 2L : 1L) * (this.n - 1);
+  } // expectedEdges()
+
+  @Override
+  void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+    for (int v = (int) from; v < to; v++) {
+      sink.edge(v, v + 1, this.weight(random));
+      if (this.bidirectional) {
+        sink.edge(v + 1, v, this.weight(random));
+      } // if
+    } // for
+  } // generate(long, long, SplittableRandom, EdgeSink)
+} // class ChainGenerator
@@ -0,0 +1,21 @@
+package edu.grinnell.csc207.generators;
+
+/**
+ * Something that accepts generated edges.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@FunctionalInterface
+public interface EdgeSink {
+  /**
+   * Accept an edge.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge (never the same as the source).
+   * @param weight
+   *   The weight of the edge.
+   */
+  void edge(int source, int target, int weight);
+} // interface EdgeSink
@@ -0,0 +1,79 @@
+package edu.grinnell.csc207.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Erdős–Rényi graphs in the G(n, m) form: m edges, each between a
+ * uniformly chosen pair of distinct vertices. Degrees are nearly
+ * uniform, which makes these a useful contrast to R-MAT graphs.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ErdosRenyiGenerator extends GraphGenerator {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of vertices.
+   */
+  final int n;
+
+  /**
+   * The number of edges.
+   */
+  final long m;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator for graphs with n vertices and m edges.
+   *
+   * @param n
+   *   The number of vertices (at least 2).
+   * @param m
+   *   The number of edges.
+   */
+  public ErdosRenyiGenerator(int n, long m) {
+    if ((n < 2) || (m < 0)) {
+      throw new IllegalArgumentException("Invalid size: " + n + ", " + m);
+    } // if
+    this.n = n;
+    this.m = m;
+  } // ErdosRenyiGenerator(int, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public int numVertices() {
+    return this.n;
+  } // numVertices()
+
+  @Override
+  long numSlots() {
+    return this.m;
+  } // numSlots()
+
+  @Override
+  public long expectedEdges() {
+    return this.m;
+  } // expectedEdges()
+
+  @Override
+  void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+    for (long slot = from; slot < to; slot++) {
+      int u = random.nextInt(this.n);
+      // Pick from the other n-1 vertices.
+      int v = random.nextInt(this.n - 1);
+      if (v >= u) {
+        ++v;
+      } // if
+      sink.edge(u, v, this.weight(random));
+    } // for
+  } // generate(long, long, SplittableRandom, EdgeSink)
+} // class ErdosRenyiGenerator
@@ -0,0 +1,346 @@
+package edu.grinnell.csc207.generators;
+
+import edu.grinnell.csc207.util.Graph;
+import edu.grinnell.csc207.util.GraphBuilder;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * A generator of random graphs. Generation is split into chunks, each
+ * with its own random numbers derived from the seed, so the chunks can
+ * be generated in parallel and the result depends only on the seed (not
+ * on the number of threads).
+ *
+ * Vertices are numbered 0 .. numVertices()-1 and named "v0", "v1", ...,
+ * as GraphBuilder.addVertices names them. Generators never produce
+ * self-loops, but may produce the same edge more than once; as with
+ * Graph.addEdge, the last weight wins.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public abstract class GraphGenerator {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Each generator describes its output as a sequence of "slots"
+   * (usually one per edge, sometimes one per vertex), and can generate
+   * the edges for any range of slots. We divide the slots into chunks of
+   * CHUNK_SLOTS, generate the chunks in parallel, and deliver them in
+   * order.
+   *
+   * To write files, we format each chunk into a byte array in parallel
+   * and write the arrays in order, a window of chunks at a time so that
+   * memory use stays bounded.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of slots in a chunk.
+   */
+  static final int CHUNK_SLOTS = 1 << 18;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The seed for the random numbers.
+   */
+  long seed = 1;
+
+  /**
+   * The largest weight (weights are uniform in 1 .. maxWeight).
+   */
+  int maxWeight = 100;
+
+  // +-----------+---------------------------------------------------
+  // | Configure |
+  // +-----------+
+
+  /**
+   * Set the seed.
+   *
+   * @param seed
+   *   The seed.
+   *
+   * @return this generator.
+   */
+  public GraphGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  } // seed(long)
+
+  /**
+   * Set the largest weight.
+   *
+   * @param maxWeight
+   *   The largest weight (at least 1).
+   *
+   * @return this generator.
+   */
+  public GraphGenerator maxWeight(int maxWeight) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("Invalid maximum weight: " + maxWeight);
+    } // if
+    this.maxWeight = maxWeight;
+    return this;
+  } // maxWeight(int)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of vertices.
+   *
+   * @return the number of vertices.
+   */
+  public abstract int numVertices();
+
+  /**
+   * Get the number of slots.
+   *
+   * @return the number of slots.
+   */
+  abstract long numSlots();
+
+  /**
+   * Estimate the number of edges generated (before duplicates are
+   * merged).
+   *
+   * @return the estimate.
+   */
+  public abstract long expectedEdges();
+
+  /**
+   * Get the name of a vertex.
+   *
+   * @param vertex
+   *   The vertex number.
+   *
+   * @return the name.
+   */
+  public static String vertexName(int vertex) {
+    return "v" + vertex;
+  } // vertexName(int)
+
+  // +------------+--------------------------------------------------
+  // | Generation |
+  // +------------+
+
+  /**
+   * Generate the edges for a range of slots.
+   *
+   * @param from
+   *   The first slot.
+   * @param to
+   *   One past the last slot.
+   * @param random
+   *   The random numbers for this range.
+   * @param sink
+   *   Where to send the edges.
+   */
+  abstract void generate(long from, long to, SplittableRandom random, EdgeSink sink);
+
+  /**
+   * Generate every edge, in order, on the calling thread.
+   *
+   * @param sink
+   *   Where to send the edges.
+   */
+  public void forEachEdge(EdgeSink sink) {
+    int chunks = this.numChunks();
+    for (int c = 0; c < chunks; c++) {
+      this.generateChunk(c, sink);
+    } // for
+  } // forEachEdge(EdgeSink)
+
+  /**
+   * Generate a graph, in parallel.
+   *
+   * @return the graph.
+   *
+   * @throws Exception
+   *   If the graph cannot be built.
+   */
+  public Graph toGraph() throws Exception {
+    GraphBuilder builder = new GraphBuilder(this.numVertices(),
+        (int) Math.min(Integer.MAX_VALUE - 8, this.expectedEdges()));
+    builder.addVertices(this.numVertices());
+    int chunks = this.numChunks();
+    int window = 4 * Runtime.getRuntime().availableProcessors();
+    for (int first = 0; first < chunks; first += window) {
+      int[][][] parts = IntStream.range(first, Math.min(chunks, first + window))
+          .parallel()
+          .mapToObj(this::chunkArrays)
+          .toArray(int[][][]::new);
+      for (int[][] part : parts) {
+        builder.addEdges(part[0], part[1], part[2]);
+      } // for
+    } // for
+    return builder.build();
+  } // toGraph()
+
+  /**
+   * Write the edges to a file in the form read by Graph.readGraph, one
+   * "FROM TO WEIGHT" line per edge. Chunks are formatted in parallel.
+   *
+   * The format has no way to declare a vertex, so vertices without
+   * edges (which Erdős–Rényi and grids with missing streets can have)
+   * are not written, and reading the file back gives a graph without
+   * them. Use toGraph when they matter.
+   *
+   * @param fname
+   *   The name of the file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  public void write(String fname) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fname), 1 << 16)) {
+      this.write(out);
+    } // try
+  } // write(String)
+
+  /**
+   * Write the edges to a stream in the form read by Graph.readGraph.
+   * As with write(String), vertices without edges are lost.
+   *
+   * @param out
+   *   Where to write the edges.
+   *
+   * @throws IOException
+   *   If the edges cannot be written.
+   */
+  public void write(OutputStream out) throws IOException {
+    int chunks = this.numChunks();
+    int window = 4 * Runtime.getRuntime().availableProcessors();
+    for (int first = 0; first < chunks; first += window) {
+      byte[][] parts = IntStream.range(first, Math.min(chunks, first + window))
+          .parallel()
+          .mapToObj(this::chunkText)
+          .toArray(byte[][]::new);
+      for (byte[] part : parts) {
+        out.write(part);
+      } // for
+    } // for
+    out.flush();
+  } // write(OutputStream)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Pick a weight.
+   *
+   * @param random
+   *   The random numbers to use.
+   *
+   * @return a weight between 1 and maxWeight.
+   */
+  int weight(SplittableRandom random) {
+    return 1 + random.nextInt(this.maxWeight);
+  } // weight(SplittableRandom)
+
+  /**
+   * Get the number of chunks.
+   *
+   * @return the number of chunks.
+   */
+  int numChunks() {
+    long chunks = (this.numSlots() + CHUNK_SLOTS - 1) / CHUNK_SLOTS;
+    if (chunks > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Graph too large");
+    } // if
+    return (int) chunks;
+  } // numChunks()
+
+  /**
+   * Generate one chunk.
+   *
+   * @param chunk
+   *   The chunk number.
+   * @param sink
+   *   Where to send the edges.
+   */
+  void generateChunk(int chunk, EdgeSink sink) {
+    long from = (long) chunk * CHUNK_SLOTS;
+    long to = Math.min(this.numSlots(), from + CHUNK_SLOTS);
+    this.generate(from, to, new SplittableRandom(mix(this.seed, chunk)), sink);
+  } // generateChunk(int, EdgeSink)
+
+  /**
+   * Generate one chunk as arrays of sources, targets, and weights.
+   *
+   * @param chunk
+   *   The chunk number.
+   *
+   * @return the three arrays, of equal length.
+   */
+  int[][] chunkArrays(int chunk) {
+    int[][] result = new int[3][64];
+    int[] size = {0};
+    this.generateChunk(chunk, (source, target, weight) -> {
+      int i = size[0]++;
+      if (i == result[0].length) {
+        for (int k = 0; k < 3; k++) {
+          result[k] = Arrays.copyOf(result[k], 2 * i);
+        } // for
+      } // if
+      result[0][i] = source;
+      result[1][i] = target;
+      result[2][i] = weight;
+    });
+    for (int k = 0; k < 3; k++) {
+      result[k] = Arrays.copyOf(result[k], size[0]);
+    } // for
+    return result;
+  } // chunkArrays(int)
+
+  /**
+   * Generate one chunk as text.
+   *
+   * @param chunk
+   *   The chunk number.
+   *
+   * @return the lines for its edges, in UTF-8.
+   */
+  byte[] chunkText(int chunk) {
+    StringBuilder text = new StringBuilder();
+    this.generateChunk(chunk, (source, target, weight) -> {
+      text.append('v').append(source).append(" v").append(target)
+          .append(' ').append(weight).append('\n');
+    });
+    return text.toString().getBytes(StandardCharsets.UTF_8);
+  } // chunkText(int)
+
+  /**
+   * Mix a seed and a number into a well-distributed 64-bit value.
+   *
+   * @param seed
+   *   The seed.
+   * @param n
+   *   The number.
+   *
+   * @return the mixed value.
+   */
+  static long mix(long seed, long n) {
+    long z = seed + (n + 1) * 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  } // mix(long, long)
+} // class GraphGenerator
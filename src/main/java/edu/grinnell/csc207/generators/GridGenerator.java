@@ -0,0 +1,129 @@
+package edu.grinnell.csc207.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Two-dimensional grids, as a stand-in for road networks. Vertex
+ * (x, y) is numbered y * width + x, and has edges both ways to its
+ * neighbors to the right and below. To look more like a road network,
+ * each street segment may be dropped with some probability, and a few
+ * random "highways" may be added between distant vertices.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class GridGenerator extends GraphGenerator {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of columns.
+   */
+  final int width;
+
+  /**
+   * The number of rows.
+   */
+  final int height;
+
+  /**
+   * The probability that a street segment is missing.
+   */
+  double missing = 0.0;
+
+  /**
+   * The probability that a vertex starts a highway.
+   */
+  double highways = 0.0;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator for width-by-height grids.
+   *
+   * @param width
+   *   The number of columns.
+   * @param height
+   *   The number of rows.
+   */
+  public GridGenerator(int width, int height) {
+    if ((width < 1) || (height < 1) || ((long) width * height > Integer.MAX_VALUE - 8)) {
+      throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+    } // if
+    this.width = width;
+    this.height = height;
+  } // GridGenerator(int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Configure |
+  // +-----------+
+
+  /**
+   * Make the grid more like a road network.
+   *
+   * @param missing
+   *   The probability that a street segment (both directions) is left
+   *   out.
+   * @param highways
+   *   The probability that a vertex gets a two-way highway to a random
+   *   vertex, with weight proportional to the distance it covers.
+   *
+   * @return this generator.
+   */
+  public GridGenerator roads(double missing, double highways) {
+    if ((missing < 0) || (missing > 1) || (highways < 0) || (highways > 1)) {
+      throw new IllegalArgumentException("Invalid probabilities");
+    } // if
+    this.missing = missing;
+    this.highways = highways;
+    return this;
+  } // roads(double, double)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public int numVertices() {
+    return this.width * this.height;
+  } // numVertices()
+
+  @Override
+  long numSlots() {
+    return this.numVertices();
+  } // numSlots()
+
+  @Override
+  public long expectedEdges() {
+    long streets = 2L * (this.width - 1) * this.height + 2L * this.width * (this.height - 1);
+    return (long) (streets * (1 - this.missing) + 2 * this.highways * this.numVertices());
+  } // expectedEdges()
+
+  @Override
+  void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+    for (int v = (int) from; v < to; v++) {
+      int x = v % this.width;
+      int y = v / this.width;
+      if ((x + 1 < this.width) && (random.nextDouble() >= this.missing)) {
+        sink.edge(v, v + 1, this.weight(random));
+        sink.edge(v + 1, v, this.weight(random));
+      } // if
+      if ((y + 1 < this.height) && (random.nextDouble() >= this.missing)) {
+        sink.edge(v, v + this.width, this.weight(random));
+        sink.edge(v + this.width, v, this.weight(random));
+      } // if
+      if ((this.highways > 0) && (random.nextDouble() < this.highways)) {
+        int u = random.nextInt(this.numVertices());
+        if (u != v) {
+          int distance = Math.abs(u % this.width - x) + Math.abs(u / this.width - y);
+          int weight = (int) Math.min(Integer.MAX_VALUE, (long) distance * this.maxWeight / 4 + 1);
+          sink.edge(v, u, weight);
+          sink.edge(u, v, weight);
+        } // if
+      } // if
+    } // for
+  } // generate(long, long, SplittableRandom, EdgeSink)
+} // class GridGenerator
@@ -0,0 +1,177 @@
+package edu.grinnell.csc207.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * R-MAT (recursive matrix, or stochastic Kronecker) graphs, as used by
+ * the Graph500 benchmark. Each edge picks a quadrant of the adjacency
+ * matrix with probabilities a, b, c, and d = 1 - a - b - c, then
+ * recurses into it, once per bit of the vertex numbers. The result has
+ * a skewed, power-law-like degree distribution and small diameter.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class RMatGenerator extends GraphGenerator {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * log2 of the number of vertices.
+   */
+  final int scale;
+
+  /**
+   * The number of edges.
+   */
+  final long numEdges;
+
+  /**
+   * The quadrant probabilities.
+   */
+  double a = 0.57;
+
+  /**
+   * The probability of the upper right quadrant.
+   */
+  double b = 0.19;
+
+  /**
+   * The probability of the lower left quadrant.
+   */
+  double c = 0.19;
+
+  /**
+   * Whether to scramble the vertex numbers (so that vertex number says
+   * nothing about degree).
+   */
+  boolean scramble = true;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a generator for a graph with 2^scale vertices and
+   * edgeFactor * 2^scale edges, with the Graph500 probabilities
+   * (0.57, 0.19, 0.19, 0.05).
+   *
+   * @param scale
+   *   log2 of the number of vertices (at most 30).
+   * @param edgeFactor
+   *   The number of edges per vertex.
+   */
+  public RMatGenerator(int scale, int edgeFactor) {
+    if ((scale < 1) || (scale > 30)) {
+      throw new IllegalArgumentException("Invalid scale: " + scale);
+    } // if
+    this.scale = scale;
+    this.numEdges = (long) edgeFactor << scale;
+  } // RMatGenerator(int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Configure |
+  // +-----------+
+
+  /**
+   * Set the quadrant probabilities.
+   *
+   * @param a
+   *   The probability of the upper left quadrant.
+   * @param b
+   *   The probability of the upper right quadrant.
+   * @param c
+   *   The probability of the lower left quadrant. (The lower right gets
+   *   the rest.)
+   *
+   * @return this generator.
+   */
+  public RMatGenerator probabilities(double a, double b, double c) {
+    if ((a < 0) || (b < 0) || (c < 0) || (a + b + c > 1)) {
+      throw new IllegalArgumentException("Invalid probabilities");
+    } // if
+    this.a = a;
+    this.b = b;
+    this.c = c;
+    return this;
+  } // probabilities(double, double, double)
+
+  /**
+   * Decide whether to scramble the vertex numbers.
+   *
+   * @param scramble
+   *   true to scramble them (the default), false to leave the
+   *   high-degree vertices at the low numbers.
+   *
+   * @return this generator.
+   */
+  public RMatGenerator scramble(boolean scramble) {
+    this.scramble = scramble;
+    return this;
+  } // scramble(boolean)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  @Override
+  public int numVertices() {
+    return 1 << this.scale;
+  } // numVertices()
+
+  @Override
+  long numSlots() {
+    return this.numEdges;
+  } // numSlots()
+
+  @Override
+  public long expectedEdges() {
+    return this.numEdges;
+  } // expectedEdges()
+
+  @Override
+  void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+    double ab = this.a + this.b;
+    double abc = ab + this.c;
+    for (long slot = from; slot < to; slot++) {
+      int u = 0;
+      int v = 0;
+      for (int bit = this.scale - 1; bit >= 0; bit--) {
+        double r = random.nextDouble();
+        if (r >= abc) {
+          u |= 1 << bit;
+          v |= 1 << bit;
+        } else if (r >= ab) {
+          u |= 1 << bit;
+        } else if (r >= this.a) {
+          v |= 1 << bit;
+        } // if/else
+      } // for
+      int weight = this.weight(random);
+      if (u != v) {
+        sink.edge(this.label(u), this.label(v), weight);
+      } // if
+    } // for
+  } // generate(long, long, SplittableRandom, EdgeSink)
+
+  /**
+   * Scramble a vertex number, if we are scrambling. (Multiplying by an
+   * odd number and xoring with a constant are both bijections on
+   * numbers of scale bits.)
+   *
+   * @param v
+   *   The vertex number.
+   *
+   * @return the scrambled number.
+   */
+  int label(int v) {
+    if (!this.scramble) {
+      return v;
+    } // if
+    int mask = (1 << this.scale) - 1;
+    int key = (int) mix(this.seed, -1);
+    v = ((v * 0x2545f491) ^ key) & mask;
+    return (v * 0x6a09e667) & mask;
+  } // label(int)
+} // class RMatGenerator
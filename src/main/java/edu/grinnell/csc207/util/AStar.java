@@ -0,0 +1,99 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A* search: Dijkstra's algorithm, guided toward the target by a
+ * heuristic.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class AStar {
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private AStar() {
+  } // AStar()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find a shortest path from source to sink. Vertices are ordered by
+   * distance plus estimate. If the heuristic is consistent, no vertex is
+   * expanded twice; if it is only admissible, vertices may be reopened,
+   * but the result is still a shortest path.
+   *
+   * @param graph
+   *   The graph to search. Weights must be non-negative.
+   * @param source
+   *   The start of the path.
+   * @param sink
+   *   The end of the path.
+   * @param heuristic
+   *   An admissible estimate of the distance to sink.
+   *
+   * @return the edges of a shortest path, or null if there is none.
+   *
+   * @throws IllegalArgumentException
+   *   If the search reaches an edge with a negative weight.
+   */
+  static List<Edge> run(Adjacency graph, int source, int sink,
+      Heuristic heuristic) {
+    if (!graph.validVertex(source) || !graph.validVertex(sink)) {
+      return null;
+    } // if
+    int capacity = graph.capacity();
+    long[] distances = new long[capacity];
+    int[] predecessors = new int[capacity];
+    int[] weights = new int[capacity];
+    Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+    IndexedMinHeap heap = new IndexedMinHeap(capacity);
+    distances[source] = 0;
+    heap.insertOrDecrease(source, heuristic.estimate(source, sink));
+    boolean found = false;
+    while (!heap.isEmpty()) {
+      int u = heap.removeMin();
+      if (u == sink) {
+        found = true;
+        break;
+      } // if
+      long du = distances[u];
+      int degree = graph.degree(u);
+      for (int i = 0; i < degree; i++) {
+        int v = graph.target(u, i);
+        int w = graph.weight(u, i);
+        if (w < 0) {
+          // Otherwise a negative cycle would reopen vertices forever.
+          throw new IllegalArgumentException("Negative weight from " + u);
+        } // if
+        long d = du + w;
+        if (d < distances[v]) {
+          distances[v] = d;
+          predecessors[v] = u;
+          weights[v] = w;
+          heap.insertOrDecrease(v, d + heuristic.estimate(v, sink));
+        } // if
+      } // for
+    } // while
+
+    if (!found) {
+      return null;
+    } // if
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    for (int v = sink; v != source; v = predecessors[v]) {
+      path.add(new Edge(predecessors[v], v, weights[v]));
+    } // for
+    Collections.reverse(path);
+    return path;
+  } // run(Adjacency, int, int, Heuristic)
+} // class AStar
@@ -0,0 +1,62 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A read-only view of the adjacency structure of a graph, in terms of
+ * primitive values. The graph algorithms are written against this
+ * interface so that they work on both mutable graphs and snapshots.
+ *
+ * @author Samuel A. Rebelsky
+ */
+interface Adjacency {
+  /**
+   * Get the number of vertex slots. Every vertex number is in the range
+   * 0 .. capacity()-1.
+   *
+   * @return the capacity.
+   */
+  int capacity();
+
+  /**
+   * Determine if a vertex is valid.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return true if the vertex is valid and false otherwise.
+   */
+  boolean validVertex(int vertex);
+
+  /**
+   * Get the number of edges from a vertex.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return the out-degree of the vertex.
+   */
+  int degree(int vertex);
+
+  /**
+   * Get the target of one of the edges from a vertex.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the target of the edge.
+   */
+  int target(int vertex, int i);
+
+  /**
+   * Get the weight of one of the edges from a vertex.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the weight of the edge.
+   */
+  int weight(int vertex, int i);
+} // interface Adjacency
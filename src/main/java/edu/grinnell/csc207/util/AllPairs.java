@@ -0,0 +1,685 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * All-pairs shortest paths. Uses blocked Floyd–Warshall for dense graphs
+ * and Dijkstra's algorithm from every source for sparse ones, both in
+ * parallel on a fork-join pool. Weights must be non-negative.
+ *
+ * <pre>
+ *   DistanceMatrix d = new AllPairs(graph.freeze()).nextHops(true).run();
+ * </pre>
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class AllPairs {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Dijkstra from every source costs about n * m relaxations (each
+   * with a heap operation), while Floyd–Warshall costs n^3 very cheap
+   * steps. A relaxation costs roughly DENSE steps, so we use
+   * Floyd–Warshall when m * DENSE >= n^2. Either way, each
+   * result row is built in an ordinary array and copied into the
+   * matrix, which may be on the heap, off it, or in a mapped file.
+   *
+   * Blocked Floyd–Warshall divides the matrix into BLOCK x BLOCK tiles
+   * and, for each block of intermediate vertices k, (1) runs plain
+   * Floyd–Warshall on the diagonal tile (k, k); (2) updates the tiles in
+   * row k and column k, which depend only on themselves and the
+   * diagonal; and (3) updates every other tile (i, j) from tiles (i, k)
+   * and (k, j). Each tile fits in the L1 cache, and the tiles within a
+   * phase are independent, so phases 2 and 3 run in parallel. We copy
+   * row k and column k of tiles out of the matrix for each block, and
+   * phase 3 works on one block of rows at a time.
+   *
+   * Sums are computed as longs, so adding to INFINITY never wraps;
+   * distances that would reach INFINITY are treated as unreachable.
+   *
+   * Next hops: when the path i -> k -> j improves on i -> j, the first
+   * step toward j becomes the first step toward k. In Dijkstra's
+   * algorithm, the first step toward a vertex is that of its
+   * predecessor (or the vertex itself if its predecessor is the source),
+   * which is known because the predecessor was settled first.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Choose the algorithm automatically.
+   */
+  public static final int AUTO = 0;
+
+  /**
+   * Use Floyd–Warshall.
+   */
+  public static final int FLOYD_WARSHALL = 1;
+
+  /**
+   * Use Dijkstra's algorithm from each source.
+   */
+  public static final int DIJKSTRA = 2;
+
+  /**
+   * The width of the tiles for Floyd–Warshall.
+   */
+  static final int BLOCK = 64;
+
+  /**
+   * Roughly how many steps of Floyd–Warshall cost as much as one
+   * relaxation in Dijkstra's algorithm.
+   */
+  static final int DENSE = 8;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The pool we run on.
+   */
+  final ForkJoinPool pool;
+
+  /**
+   * The algorithm to use.
+   */
+  int method = AUTO;
+
+  /**
+   * Whether to compute next hops.
+   */
+  boolean nextHops = false;
+
+  /**
+   * Whether to store the matrices off the heap.
+   */
+  boolean offHeap = false;
+
+  /**
+   * The directory in which to map the matrices, or null.
+   */
+  Path directory = null;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prepare to compute all-pairs shortest paths on the common pool.
+   *
+   * @param graph
+   *   The graph.
+   */
+  public AllPairs(CsrGraph graph) {
+    this(graph, ForkJoinPool.commonPool());
+  } // AllPairs(CsrGraph)
+
+  /**
+   * Prepare to compute all-pairs shortest paths on a particular pool.
+   *
+   * @param graph
+   *   The graph.
+   * @param pool
+   *   The pool to run on.
+   */
+  public AllPairs(CsrGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.pool = pool;
+  } // AllPairs(CsrGraph, ForkJoinPool)
+
+  // +-----------+---------------------------------------------------
+  // | Configure |
+  // +-----------+
+
+  /**
+   * Choose the algorithm.
+   *
+   * @param method
+   *   AUTO (the default), FLOYD_WARSHALL, or DIJKSTRA.
+   *
+   * @return this object.
+   */
+  public AllPairs method(int method) {
+    if ((method < AUTO) || (method > DIJKSTRA)) {
+      throw new IllegalArgumentException("Invalid method: " + method);
+    } // if
+    this.method = method;
+    return this;
+  } // method(int)
+
+  /**
+   * Decide whether to compute next hops, so that the matrix can produce
+   * paths. They double the space needed.
+   *
+   * @param nextHops
+   *   true to compute them and false (the default) not to.
+   *
+   * @return this object.
+   */
+  public AllPairs nextHops(boolean nextHops) {
+    this.nextHops = nextHops;
+    return this;
+  } // nextHops(boolean)
+
+  /**
+   * Decide whether to keep the matrices in direct buffers rather than
+   * on the heap.
+   *
+   * @param offHeap
+   *   true for direct buffers and false (the default) for the heap.
+   *
+   * @return this object.
+   */
+  public AllPairs offHeap(boolean offHeap) {
+    this.offHeap = offHeap;
+    return this;
+  } // offHeap(boolean)
+
+  /**
+   * Keep the matrices in memory-mapped files (distances.bin and, if
+   * needed, nexthops.bin) in a directory.
+   *
+   * @param directory
+   *   The directory, or null to stop mapping.
+   *
+   * @return this object.
+   */
+  public AllPairs mapTo(Path directory) {
+    this.directory = directory;
+    return this;
+  } // mapTo(Path)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Compute the distances.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the matrices cannot be mapped.
+   * @throws IllegalArgumentException
+   *   If the graph has negative weights.
+   */
+  public DistanceMatrix run() throws IOException {
+    int n = this.graph.numVertices();
+    for (int v = 0; v < this.graph.capacity(); v++) {
+      for (int i = 0; i < this.graph.degree(v); i++) {
+        if (this.graph.weight(v, i) < 0) {
+          throw new IllegalArgumentException("Negative weight from " + v);
+        } // if
+      } // for
+    } // for
+    IntMatrix distances = new IntMatrix(n, this.offHeap,
+        (this.directory == null) ? null : this.directory.resolve("distances.bin"));
+    IntMatrix next = null;
+    if (this.nextHops) {
+      next = new IntMatrix(n, this.offHeap,
+          (this.directory == null) ? null : this.directory.resolve("nexthops.bin"));
+    } // if
+    DistanceMatrix result = new DistanceMatrix(this.graph, distances, next);
+    if (this.useFloydWarshall()) {
+      this.floydWarshall(result);
+    } else {
+      this.pool.invoke(new Sources(result, 0, n, Math.max(1,
+          n / (8 * this.pool.getParallelism()))));
+    } // if/else
+    return result;
+  } // run()
+
+  /**
+   * Determine which algorithm run will use.
+   *
+   * @return true for Floyd–Warshall and false for Dijkstra.
+   */
+  boolean useFloydWarshall() {
+    if (this.method != AUTO) {
+      return this.method == FLOYD_WARSHALL;
+    } // if
+    long n = this.graph.numVertices();
+    return (long) this.graph.numEdges() * DENSE >= n * n;
+  } // useFloydWarshall()
+
+  // +----------------+----------------------------------------------
+  // | Floyd–Warshall |
+  // +----------------+
+
+  /**
+   * Run blocked Floyd–Warshall.
+   *
+   * @param result
+   *   The matrix to fill in.
+   */
+  void floydWarshall(DistanceMatrix result) {
+    this.initialize(result);
+    for (int k0 = 0; k0 < result.size(); k0 += BLOCK) {
+      this.floydWarshallBlock(result, k0);
+    } // for
+  } // floydWarshall(DistanceMatrix)
+
+  /**
+   * Use one block of intermediate vertices in blocked Floyd–Warshall.
+   *
+   * @param result
+   *   The matrix.
+   * @param k0
+   *   The first intermediate vertex of the block.
+   */
+  void floydWarshallBlock(DistanceMatrix result, int k0) {
+    int n = result.size();
+    boolean hops = result.nextHops != null;
+    int kw = Math.min(BLOCK, n - k0);
+    int[] row = new int[kw * n];
+    int[] col = new int[n * kw];
+    int[] rowHops = hops ? new int[kw * n] : null;
+    int[] colHops = hops ? new int[n * kw] : null;
+    result.distances.getRows(k0, kw, row);
+    result.distances.getColumns(k0, kw, col);
+    if (hops) {
+      result.nextHops.getRows(k0, kw, rowHops);
+      result.nextHops.getColumns(k0, kw, colHops);
+    } // if
+
+    // Phase 1: the diagonal tile, which we then copy into the column.
+    relax(row, k0, n, row, k0, n, row, k0, n, kw, kw, kw, rowHops, rowHops);
+    for (int r = 0; r < kw; r++) {
+      System.arraycopy(row, r * n + k0, col, (k0 + r) * kw, kw);
+      if (hops) {
+        System.arraycopy(rowHops, r * n + k0, colHops, (k0 + r) * kw, kw);
+      } // if
+    } // for
+
+    // Phase 2: the rest of the row and column of tiles.
+    ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+    for (int t0 = 0; t0 < n; t0 += BLOCK) {
+      if (t0 == k0) {
+        continue;
+      } // if
+      int start = t0;
+      int tw = Math.min(BLOCK, n - t0);
+      tasks.add(action(() -> {
+        relax(row, start, n, row, k0, n, row, start, n, kw, tw, kw, rowHops, rowHops);
+        relax(col, start * kw, kw, col, start * kw, kw, row, k0, n, tw, kw, kw,
+            colHops, colHops);
+      }));
+    } // for
+    this.pool.invoke(action(() -> ForkJoinTask.invokeAll(tasks)));
+
+    // Phase 3: everything else, a block of rows at a time.
+    tasks.clear();
+    for (int i0 = 0; i0 < n; i0 += BLOCK) {
+      int start = i0;
+      tasks.add(action(() -> {
+        if (start == k0) {
+          result.distances.putRows(k0, kw, row);
+          if (hops) {
+            result.nextHops.putRows(k0, kw, rowHops);
+          } // if
+        } else {
+          this.updateRows(result, start, k0, kw, row, col, rowHops, colHops);
+        } // if/else
+      }));
+    } // for
+    this.pool.invoke(action(() -> ForkJoinTask.invokeAll(tasks)));
+  } // floydWarshallBlock(DistanceMatrix, int)
+
+  /**
+   * Phase 3 of blocked Floyd–Warshall for one block of rows.
+   *
+   * @param result
+   *   The matrix.
+   * @param i0
+   *   The first row of the block.
+   * @param k0
+   *   The first intermediate vertex.
+   * @param kw
+   *   The number of intermediate vertices.
+   * @param row
+   *   Rows k0 .. k0+kw-1 of the distances.
+   * @param col
+   *   Columns k0 .. k0+kw-1 of the distances.
+   * @param rowHops
+   *   The same rows of the next hops, or null.
+   * @param colHops
+   *   The same columns of the next hops, or null.
+   */
+  void updateRows(DistanceMatrix result, int i0, int k0, int kw, int[] row,
+      int[] col, int[] rowHops, int[] colHops) {
+    int n = result.size();
+    int iw = Math.min(BLOCK, n - i0);
+    int[] block = new int[iw * n];
+    int[] blockHops = (rowHops == null) ? null : new int[iw * n];
+    result.distances.getRows(i0, iw, block);
+    if (blockHops != null) {
+      result.nextHops.getRows(i0, iw, blockHops);
+    } // if
+    for (int j0 = 0; j0 < n; j0 += BLOCK) {
+      int jw = Math.min(BLOCK, n - j0);
+      if (j0 == k0) {
+        for (int r = 0; r < iw; r++) {
+          System.arraycopy(col, (i0 + r) * kw, block, r * n + k0, kw);
+          if (blockHops != null) {
+            System.arraycopy(colHops, (i0 + r) * kw, blockHops, r * n + k0, kw);
+          } // if
+        } // for
+      } else {
+        relax(block, j0, n, col, i0 * kw, kw, row, j0, n, iw, jw, kw, blockHops, colHops);
+      } // if/else
+    } // for
+    result.distances.putRows(i0, iw, block);
+    if (blockHops != null) {
+      result.nextHops.putRows(i0, iw, blockHops);
+    } // if
+  } // updateRows(DistanceMatrix, int, int, int, int[], int[], int[], int[])
+
+  /**
+   * Fill in the matrices with the edges of the graph.
+   *
+   * @param result
+   *   The matrices.
+   */
+  void initialize(DistanceMatrix result) {
+    int n = result.size();
+    int[] row = new int[n];
+    int[] hops = new int[n];
+    for (int r = 0; r < n; r++) {
+      Arrays.fill(row, DistanceMatrix.INFINITY);
+      Arrays.fill(hops, -1);
+      int v = result.vertices[r];
+      for (int i = 0; i < this.graph.degree(v); i++) {
+        int c = result.rows[this.graph.target(v, i)];
+        if (this.graph.weight(v, i) < row[c]) {
+          row[c] = this.graph.weight(v, i);
+          hops[c] = c;
+        } // if
+      } // for
+      row[r] = 0;
+      hops[r] = -1;
+      result.distances.putRows(r, 1, row);
+      if (result.nextHops != null) {
+        result.nextHops.putRows(r, 1, hops);
+      } // if
+    } // for
+  } // initialize(DistanceMatrix)
+
+  /**
+   * The Floyd–Warshall step on one tile: c[i][j] = min(c[i][j],
+   * a[i][k] + b[k][j]) for each k in turn. Each matrix is given as an
+   * array, the offset of the tile's first entry, and the distance
+   * between rows. c may be the same tile as a or b.
+   *
+   * @param c
+   *   The tile to update.
+   * @param co
+   *   The offset of c.
+   * @param cs
+   *   The stride of c.
+   * @param a
+   *   The tile of paths to the intermediate vertices.
+   * @param ao
+   *   The offset of a.
+   * @param as
+   *   The stride of a.
+   * @param b
+   *   The tile of paths from the intermediate vertices.
+   * @param bo
+   *   The offset of b.
+   * @param bs
+   *   The stride of b.
+   * @param rows
+   *   The number of rows of c (and a).
+   * @param cols
+   *   The number of columns of c (and b).
+   * @param ks
+   *   The number of intermediate vertices.
+   * @param ch
+   *   The next hops for c, in the same layout, or null.
+   * @param ah
+   *   The next hops for a, in the same layout, or null.
+   */
+  static void relax(int[] c, int co, int cs, int[] a, int ao, int as,
+      int[] b, int bo, int bs, int rows, int cols, int ks, int[] ch, int[] ah) {
+    for (int k = 0; k < ks; k++) {
+      int bk = bo + k * bs;
+      for (int i = 0; i < rows; i++) {
+        int aik = a[ao + i * as + k];
+        if (aik == DistanceMatrix.INFINITY) {
+          continue;
+        } // if
+        int ci = co + i * cs;
+        if (ch == null) {
+          for (int j = 0; j < cols; j++) {
+            long d = (long) aik + b[bk + j];
+            if (d < c[ci + j]) {
+              c[ci + j] = (int) d;
+            } // if
+          } // for
+        } else {
+          int hop = ah[ao + i * as + k];
+          for (int j = 0; j < cols; j++) {
+            long d = (long) aik + b[bk + j];
+            if (d < c[ci + j]) {
+              c[ci + j] = (int) d;
+              ch[ci + j] = hop;
+            } // if
+          } // for
+        } // if/else
+      } // for
+    } // for
+  } // relax(int[], int, int, int[], int, int, int[], int, int, int, int, int, int[], int[])
+
+  // +----------+----------------------------------------------------
+  // | Dijkstra |
+  // +----------+
+
+  /**
+   * Run Dijkstra's algorithm from one source, filling in its row.
+   *
+   * @param result
+   *   The matrices.
+   * @param r
+   *   The row of the source.
+   * @param work
+   *   The workspace.
+   */
+  void dijkstra(DistanceMatrix result, int r, Workspace work) {
+    long[] distances = work.distances;
+    int[] first = work.first;
+    int[] settled = work.settled;
+    int count = 0;
+    int source = result.vertices[r];
+    distances[source] = 0;
+    first[source] = -1;
+    work.heap.insertOrDecrease(source, 0);
+    while (!work.heap.isEmpty()) {
+      int u = work.heap.removeMin();
+      settled[count++] = u;
+      long du = distances[u];
+      int degree = this.graph.degree(u);
+      for (int i = 0; i < degree; i++) {
+        int v = this.graph.target(u, i);
+        long d = du + this.graph.weight(u, i);
+        if (d < distances[v]) {
+          distances[v] = d;
+          first[v] = (u == source) ? v : first[u];
+          work.heap.insertOrDecrease(v, d);
+        } // if
+      } // for
+    } // while
+
+    int[] row = work.row;
+    int[] hops = work.hops;
+    Arrays.fill(row, DistanceMatrix.INFINITY);
+    Arrays.fill(hops, -1);
+    for (int i = 0; i < count; i++) {
+      int v = settled[i];
+      if (distances[v] < DistanceMatrix.INFINITY) {
+        int c = result.rows[v];
+        row[c] = (int) distances[v];
+        hops[c] = (first[v] == -1) ? -1 : result.rows[first[v]];
+      } // if
+      distances[v] = Long.MAX_VALUE;
+    } // for
+    result.distances.putRows(r, 1, row);
+    if (result.nextHops != null) {
+      result.nextHops.putRows(r, 1, hops);
+    } // if
+  } // dijkstra(DistanceMatrix, int, Workspace)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The arrays one thread needs to run Dijkstra's algorithm repeatedly.
+   */
+  class Workspace {
+    /**
+     * Tentative distances, indexed by vertex (Long.MAX_VALUE between
+     * runs).
+     */
+    final long[] distances;
+
+    /**
+     * The first step toward each vertex, indexed by vertex.
+     */
+    final int[] first;
+
+    /**
+     * The vertices settled, in order.
+     */
+    final int[] settled;
+
+    /**
+     * The queue.
+     */
+    final IndexedMinHeap heap;
+
+    /**
+     * A row of distances.
+     */
+    final int[] row;
+
+    /**
+     * A row of next hops.
+     */
+    final int[] hops;
+
+    /**
+     * Create a workspace.
+     *
+     * @param n
+     *   The number of rows.
+     */
+    Workspace(int n) {
+      int capacity = AllPairs.this.graph.capacity();
+      this.distances = new long[capacity];
+      Arrays.fill(this.distances, Long.MAX_VALUE);
+      this.first = new int[capacity];
+      this.settled = new int[n];
+      this.heap = new IndexedMinHeap(capacity);
+      this.row = new int[n];
+      this.hops = new int[n];
+    } // Workspace(int)
+  } // class Workspace
+
+  /**
+   * Run Dijkstra's algorithm from a range of sources.
+   */
+  @SuppressWarnings("serial")
+  class Sources extends RecursiveAction {
+    /**
+     * The matrices.
+     */
+    final DistanceMatrix result;
+
+    /**
+     * The first row.
+     */
+    final int lo;
+
+    /**
+     * One past the last row.
+     */
+    final int hi;
+
+    /**
+     * The number of sources below which we stop splitting.
+     */
+    final int grain;
+
+    /**
+     * Create a task.
+     *
+     * @param result
+     *   The matrices.
+     * @param lo
+     *   The first row.
+     * @param hi
+     *   One past the last row.
+     * @param grain
+     *   The number of sources below which we stop splitting.
+     */
+    Sources(DistanceMatrix result, int lo, int hi, int grain) {
+      this.result = result;
+      this.lo = lo;
+      this.hi = hi;
+      this.grain = grain;
+    } // Sources(DistanceMatrix, int, int, int)
+
+    @Override
+    protected void compute() {
+      if (this.hi - this.lo <= this.grain) {
+        Workspace work = new Workspace(this.result.size());
+        for (int r = this.lo; r < this.hi; r++) {
+          AllPairs.this.dijkstra(this.result, r, work);
+        } // for
+      } else {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(new Sources(this.result, this.lo, mid, this.grain),
+            new Sources(this.result, mid, this.hi, this.grain));
+      } // if/else
+    } // compute()
+  } // class Sources
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Wrap some code as a fork-join action.
+   *
+   * @param body
+   *   The code.
+   *
+   * @return the action.
+   */
+  @SuppressWarnings("serial")
+  static RecursiveAction action(Runnable body) {
+    return new RecursiveAction() {
+      @Override
+      protected void compute() {
+        body.run();
+      } // compute()
+    };
+  } // action(Runnable)
+} // class AllPairs
@@ -0,0 +1,179 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a breadth-first search: the level (number of edges from
+ * the source) and BFS parent of every reached vertex.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class BfsTree {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph that was searched.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The source of the search.
+   */
+  final int source;
+
+  /**
+   * The level of each vertex, or -1 if it was not reached.
+   */
+  final int[] levels;
+
+  /**
+   * The parent of each vertex, or -1 for the source and for vertices
+   * that were not reached.
+   */
+  final int[] parents;
+
+  /**
+   * The number of vertices reached (including the source).
+   */
+  final int numReached;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a tree from its parts.
+   *
+   * @param graph
+   *   The graph that was searched.
+   * @param source
+   *   The source of the search.
+   * @param levels
+   *   The levels of the vertices.
+   * @param parents
+   *   The parents of the vertices.
+   * @param numReached
+   *   The number of vertices reached.
+   */
+  BfsTree(CsrGraph graph, int source, int[] levels, int[] parents,
+      int numReached) {
+    this.graph = graph;
+    this.source = source;
+    this.levels = levels;
+    this.parents = parents;
+    this.numReached = numReached;
+  } // BfsTree(CsrGraph, int, int[], int[], int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the source of the search.
+   *
+   * @return the source.
+   */
+  public int source() {
+    return this.source;
+  } // source()
+
+  /**
+   * Determine if a vertex was reached.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return true if there is a path from the source to vertex and false
+   *   otherwise.
+   */
+  public boolean reached(int vertex) {
+    return (vertex >= 0) && (vertex < this.levels.length)
+        && (this.levels[vertex] != -1);
+  } // reached(int)
+
+  /**
+   * Get the number of vertices reached, including the source.
+   *
+   * @return the number of reached vertices.
+   */
+  public int numReached() {
+    return this.numReached;
+  } // numReached()
+
+  /**
+   * Get the level of a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the number of edges on a shortest path from the source, or
+   *   -1 if the vertex was not reached.
+   */
+  public int level(int vertex) {
+    return reached(vertex) ? this.levels[vertex] : -1;
+  } // level(int)
+
+  /**
+   * Get the BFS parent of a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the parent, or -1 for the source and unreached vertices.
+   */
+  public int parent(int vertex) {
+    return reached(vertex) ? this.parents[vertex] : -1;
+  } // parent(int)
+
+  /**
+   * Get a copy of all of the levels.
+   *
+   * @return the levels, indexed by vertex number.
+   */
+  public int[] levels() {
+    return this.levels.clone();
+  } // levels()
+
+  /**
+   * Get a copy of all of the parents.
+   *
+   * @return the parents, indexed by vertex number.
+   */
+  public int[] parents() {
+    return this.parents.clone();
+  } // parents()
+
+  /**
+   * Get a path with the fewest edges to a vertex.
+   *
+   * @param vertex
+   *   The destination.
+   *
+   * @return the edges of the path, in order, or null if the vertex was
+   *   not reached.
+   */
+  public List<Edge> pathTo(int vertex) {
+    if (!reached(vertex)) {
+      return null;
+    } // if
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    for (int v = vertex; v != this.source; v = this.parents[v]) {
+      int u = this.parents[v];
+      int weight = 0;
+      for (int i = 0; i < this.graph.degree(u); i++) {
+        if (this.graph.target(u, i) == v) {
+          weight = this.graph.weight(u, i);
+          break;
+        } // if
+      } // for
+      path.add(new Edge(u, v, weight));
+    } // for
+    Collections.reverse(path);
+    return path;
+  } // pathTo(int)
+} // class BfsTree
@@ -0,0 +1,328 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Point-to-point searches that work forward from the source and backward
+ * from the target at the same time, stopping when the two searches meet.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class BidirectionalSearch {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Both searches take the forward adjacency and its reverse. For each
+   * vertex we record its parent in each direction and the weight of the
+   * edge to that parent, so that we can rebuild the path without looking
+   * edges up again.
+   *
+   * The meeting point is an edge from a vertex reached by the forward
+   * search (meetFrom) to a vertex reached by the backward search
+   * (meetTo).
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The parent of each vertex in the forward search, or -1.
+   */
+  final int[] parentF;
+
+  /**
+   * The weight of the edge from parentF[v] to v.
+   */
+  final int[] weightF;
+
+  /**
+   * The parent of each vertex in the backward search (the next vertex
+   * on the way to the target), or -1.
+   */
+  final int[] parentB;
+
+  /**
+   * The weight of the edge from v to parentB[v].
+   */
+  final int[] weightB;
+
+  /**
+   * The source of the search.
+   */
+  final int source;
+
+  /**
+   * The target of the search.
+   */
+  final int target;
+
+  /**
+   * The forward end of the meeting edge.
+   */
+  int meetFrom = -1;
+
+  /**
+   * The backward end of the meeting edge.
+   */
+  int meetTo = -1;
+
+  /**
+   * The weight of the meeting edge.
+   */
+  int meetWeight;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Set up a search.
+   *
+   * @param capacity
+   *   The number of vertex slots.
+   * @param source
+   *   The source of the search.
+   * @param target
+   *   The target of the search.
+   */
+  private BidirectionalSearch(int capacity, int source, int target) {
+    this.parentF = new int[capacity];
+    this.weightF = new int[capacity];
+    this.parentB = new int[capacity];
+    this.weightB = new int[capacity];
+    Arrays.fill(this.parentF, -1);
+    Arrays.fill(this.parentB, -1);
+    this.source = source;
+    this.target = target;
+  } // BidirectionalSearch(int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find a path with the fewest edges, using bidirectional BFS. The
+   * source and target must differ.
+   *
+   * @param forward
+   *   The graph.
+   * @param backward
+   *   The reverse of the graph.
+   * @param source
+   *   The start of the path.
+   * @param target
+   *   The end of the path.
+   *
+   * @return the path, or null if there is no path.
+   */
+  static List<Edge> path(Adjacency forward, Adjacency backward,
+      int source, int target) {
+    if (!forward.validVertex(source) || !forward.validVertex(target)
+        || (source == target)) {
+      return null;
+    } // if
+    int capacity = forward.capacity();
+    BidirectionalSearch search = new BidirectionalSearch(capacity, source, target);
+
+    boolean[] seenF = new boolean[capacity];
+    boolean[] seenB = new boolean[capacity];
+    int[] queueF = new int[capacity];
+    int[] queueB = new int[capacity];
+    int headF = 0;
+    int tailF = 0;
+    int headB = 0;
+    int tailB = 0;
+    queueF[tailF++] = source;
+    seenF[source] = true;
+    queueB[tailB++] = target;
+    seenB[target] = true;
+
+    while ((headF < tailF) && (headB < tailB)) {
+      // Expand one full level of whichever frontier is smaller.
+      if (tailF - headF <= tailB - headB) {
+        int end = tailF;
+        while (headF < end) {
+          int u = queueF[headF++];
+          int degree = forward.degree(u);
+          for (int i = 0; i < degree; i++) {
+            int v = forward.target(u, i);
+            if (!seenF[v]) {
+              seenF[v] = true;
+              search.parentF[v] = u;
+              search.weightF[v] = forward.weight(u, i);
+              queueF[tailF++] = v;
+            } // if
+            if (seenB[v]) {
+              search.meet(u, v, forward.weight(u, i));
+              return search.edges();
+            } // if
+          } // for
+        } // while
+      } else {
+        int end = tailB;
+        while (headB < end) {
+          int v = queueB[headB++];
+          int degree = backward.degree(v);
+          for (int i = 0; i < degree; i++) {
+            int u = backward.target(v, i);
+            if (!seenB[u]) {
+              seenB[u] = true;
+              search.parentB[u] = v;
+              search.weightB[u] = backward.weight(v, i);
+              queueB[tailB++] = u;
+            } // if
+            if (seenF[u]) {
+              search.meet(u, v, backward.weight(v, i));
+              return search.edges();
+            } // if
+          } // for
+        } // while
+      } // if/else
+    } // while
+    return null;
+  } // path(Adjacency, Adjacency, int, int)
+
+  /**
+   * Find a shortest weighted path, using bidirectional Dijkstra. Weights
+   * must be non-negative.
+   *
+   * @param forward
+   *   The graph.
+   * @param backward
+   *   The reverse of the graph.
+   * @param source
+   *   The start of the path.
+   * @param target
+   *   The end of the path.
+   *
+   * @return the path, or null if there is no path.
+   *
+   * @throws IllegalArgumentException
+   *   If either search reaches an edge with a negative weight.
+   */
+  static List<Edge> shortestPath(Adjacency forward, Adjacency backward,
+      int source, int target) {
+    if (!forward.validVertex(source) || !forward.validVertex(target)) {
+      return null;
+    } // if
+    int capacity = forward.capacity();
+    BidirectionalSearch search = new BidirectionalSearch(capacity, source, target);
+    if (source == target) {
+      return new ArrayList<Edge>();
+    } // if
+
+    long[] distF = new long[capacity];
+    long[] distB = new long[capacity];
+    Arrays.fill(distF, ShortestPathTree.UNREACHABLE);
+    Arrays.fill(distB, ShortestPathTree.UNREACHABLE);
+    IndexedMinHeap heapF = new IndexedMinHeap(capacity);
+    IndexedMinHeap heapB = new IndexedMinHeap(capacity);
+    distF[source] = 0;
+    distB[target] = 0;
+    heapF.insertOrDecrease(source, 0);
+    heapB.insertOrDecrease(target, 0);
+
+    // The length of the best path found so far.
+    long best = ShortestPathTree.UNREACHABLE;
+
+    while (!heapF.isEmpty() && !heapB.isEmpty()) {
+      if (heapF.minKey() + heapB.minKey() >= best) {
+        break;
+      } // if
+      if (heapF.size() <= heapB.size()) {
+        int u = heapF.removeMin();
+        int degree = forward.degree(u);
+        for (int i = 0; i < degree; i++) {
+          int v = forward.target(u, i);
+          int w = forward.weight(u, i);
+          if (w < 0) {
+            throw new IllegalArgumentException("Negative weight from " + u);
+          } // if
+          long d = distF[u] + w;
+          if (d < distF[v]) {
+            distF[v] = d;
+            search.parentF[v] = u;
+            search.weightF[v] = w;
+            heapF.insertOrDecrease(v, d);
+          } // if
+          if ((distB[v] != ShortestPathTree.UNREACHABLE) && (d + distB[v] < best)) {
+            best = d + distB[v];
+            search.meet(u, v, w);
+          } // if
+        } // for
+      } else {
+        int v = heapB.removeMin();
+        int degree = backward.degree(v);
+        for (int i = 0; i < degree; i++) {
+          int u = backward.target(v, i);
+          int w = backward.weight(v, i);
+          if (w < 0) {
+            // The edge runs from u to v in the graph itself.
+            throw new IllegalArgumentException("Negative weight from " + u);
+          } // if
+          long d = distB[v] + w;
+          if (d < distB[u]) {
+            distB[u] = d;
+            search.parentB[u] = v;
+            search.weightB[u] = w;
+            heapB.insertOrDecrease(u, d);
+          } // if
+          if ((distF[u] != ShortestPathTree.UNREACHABLE) && (d + distF[u] < best)) {
+            best = d + distF[u];
+            search.meet(u, v, w);
+          } // if
+        } // for
+      } // if/else
+    } // while
+
+    if (best == ShortestPathTree.UNREACHABLE) {
+      return null;
+    } // if
+    return search.edges();
+  } // shortestPath(Adjacency, Adjacency, int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Record the meeting edge.
+   *
+   * @param from
+   *   The forward end of the edge.
+   * @param to
+   *   The backward end of the edge.
+   * @param weight
+   *   The weight of the edge.
+   */
+  private void meet(int from, int to, int weight) {
+    this.meetFrom = from;
+    this.meetTo = to;
+    this.meetWeight = weight;
+  } // meet(int, int, int)
+
+  /**
+   * Build the path through the meeting edge.
+   *
+   * @return the edges of the path, in order.
+   */
+  private List<Edge> edges() {
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    for (int v = this.meetFrom; v != this.source; v = this.parentF[v]) {
+      path.add(new Edge(this.parentF[v], v, this.weightF[v]));
+    } // for
+    Collections.reverse(path);
+    path.add(new Edge(this.meetFrom, this.meetTo, this.meetWeight));
+    for (int v = this.meetTo; v != this.target; v = this.parentB[v]) {
+      path.add(new Edge(v, this.parentB[v], this.weightB[v]));
+    } // for
+    return path;
+  } // edges()
+} // class BidirectionalSearch
@@ -0,0 +1,172 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A snapshot of the statistics of a graph's query cache. Get one from
+ * Graph.cacheStats() after calling Graph.enableCache(long).
+ *
+ * @author Samuel A. Rebelsky
+ */
+public final class CacheStats {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of queries answered from the cache.
+   */
+  final long hits;
+
+  /**
+   * The number of queries that had to search.
+   */
+  final long misses;
+
+  /**
+   * The number of entries dropped to stay within the budget.
+   */
+  final long evictions;
+
+  /**
+   * The number of times the cache was emptied because the graph changed.
+   */
+  final long invalidations;
+
+  /**
+   * The number of entries now in the cache.
+   */
+  final int entries;
+
+  /**
+   * The estimated size of those entries, in bytes.
+   */
+  final long bytes;
+
+  /**
+   * The budget, in bytes.
+   */
+  final long maxBytes;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a snapshot.
+   *
+   * @param hits
+   *   The number of hits.
+   * @param misses
+   *   The number of misses.
+   * @param evictions
+   *   The number of evictions.
+   * @param invalidations
+   *   The number of invalidations.
+   * @param entries
+   *   The number of entries.
+   * @param bytes
+   *   The estimated size of the entries.
+   * @param maxBytes
+   *   The budget.
+   */
+  CacheStats(long hits, long misses, long evictions, long invalidations,
+      int entries, long bytes, long maxBytes) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.invalidations = invalidations;
+    this.entries = entries;
+    this.bytes = bytes;
+    this.maxBytes = maxBytes;
+  } // CacheStats(long, long, long, long, int, long, long)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of queries answered from the cache.
+   *
+   * @return the number of hits.
+   */
+  public long hits() {
+    return this.hits;
+  } // hits()
+
+  /**
+   * Get the number of queries that had to search.
+   *
+   * @return the number of misses.
+   */
+  public long misses() {
+    return this.misses;
+  } // misses()
+
+  /**
+   * Get the fraction of queries answered from the cache.
+   *
+   * @return the hit rate, or 0 if there have been no queries.
+   */
+  public double hitRate() {
+    long total = this.hits + this.misses;
+    return (total == 0) ? 0 : (double) this.hits / total;
+  } // hitRate()
+
+  /**
+   * Get the number of entries dropped to stay within the budget.
+   *
+   * @return the number of evictions.
+   */
+  public long evictions() {
+    return this.evictions;
+  } // evictions()
+
+  /**
+   * Get the number of times the cache was emptied because the graph
+   * changed.
+   *
+   * @return the number of invalidations.
+   */
+  public long invalidations() {
+    return this.invalidations;
+  } // invalidations()
+
+  /**
+   * Get the number of entries in the cache.
+   *
+   * @return the number of entries.
+   */
+  public int entries() {
+    return this.entries;
+  } // entries()
+
+  /**
+   * Get the estimated size of the entries in the cache.
+   *
+   * @return the size, in bytes.
+   */
+  public long bytes() {
+    return this.bytes;
+  } // bytes()
+
+  /**
+   * Get the budget of the cache.
+   *
+   * @return the budget, in bytes.
+   */
+  public long maxBytes() {
+    return this.maxBytes;
+  } // maxBytes()
+
+  /**
+   * Summarize the statistics.
+   *
+   * @return a one-line summary.
+   */
+  @Override
+  public String toString() {
+    return String.format("hits=%d misses=%d (%.1f%%) evictions=%d invalidations=%d "
+        + "entries=%d bytes=%d/%d", this.hits, this.misses, 100 * this.hitRate(),
+        this.evictions, this.invalidations, this.entries, this.bytes, this.maxBytes);
+  } // toString()
+} // class CacheStats
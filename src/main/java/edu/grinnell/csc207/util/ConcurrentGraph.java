@@ -0,0 +1,659 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A weighted, directed graph that many threads may change at once. The
+ * vertices are divided into stripes, each with its own lock, so threads
+ * adding edges from different vertices rarely wait for each other.
+ * Vertices are numbered and named without any global lock.
+ *
+ * Use freeze() to get a snapshot for the algorithms.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ConcurrentGraph {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Vertex v belongs to stripe v % stripes.length; its edge list may
+   * only be read or changed while holding that stripe's lock. Because
+   * consecutive vertices fall in different stripes, even a burst of
+   * edges from neighboring vertices spreads across the locks.
+   *
+   * The edge lists and names live in segments of SEGMENT_SIZE vertices.
+   * Segments never move once created, so growing the graph copies only
+   * the (short) array of segments, and threads holding an edge list are
+   * never disturbed by growth.
+   *
+   * A vertex is valid exactly when its name is non-null. Names are kept
+   * in atomic arrays so that validity can be checked without a lock. A
+   * new vertex gets its name only after it has won the name in the
+   * table, so a vertex that loses a race for a name is never seen. To
+   * remove a vertex we first clear its name, and only then visit the
+   * stripes to delete the edges into it. An edge is added only if its
+   * target is still valid while the source's lock is held, so either
+   * the removal sees the edge or the addition sees the removal.
+   *
+   * Numbers of removed vertices go on a concurrent free list, and are
+   * reused only once the removal is complete.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * log2 of the number of vertices in a segment.
+   */
+  static final int SEGMENT_BITS = 10;
+
+  /**
+   * The number of vertices in a segment.
+   */
+  static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+  /**
+   * The mask for a vertex's position in its segment.
+   */
+  static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The locks for the stripes.
+   */
+  final Object[] stripes;
+
+  /**
+   * The segments of vertices.
+   */
+  volatile Segment[] segments;
+
+  /**
+   * The next never-used vertex number.
+   */
+  final AtomicInteger nextVertex = new AtomicInteger(0);
+
+  /**
+   * The numbers of removed vertices, available for reuse.
+   */
+  final ConcurrentLinkedQueue<Integer> unusedVertices =
+      new ConcurrentLinkedQueue<Integer>();
+
+  /**
+   * The number of each vertex name.
+   */
+  final ConcurrentHashMap<String, Integer> vertexNumbers =
+      new ConcurrentHashMap<String, Integer>();
+
+  /**
+   * The number of vertices.
+   */
+  final LongAdder numVertices = new LongAdder();
+
+  /**
+   * The number of edges.
+   */
+  final LongAdder numEdges = new LongAdder();
+
+  /**
+   * The number of changes to the graph.
+   */
+  final LongAdder version = new LongAdder();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty graph, with a few stripes per processor.
+   */
+  public ConcurrentGraph() {
+    this(4 * Runtime.getRuntime().availableProcessors());
+  } // ConcurrentGraph()
+
+  /**
+   * Create an empty graph with a particular number of stripes.
+   *
+   * @param numStripes
+   *   The number of stripes (rounded up to a power of two).
+   */
+  public ConcurrentGraph(int numStripes) {
+    int n = Integer.highestOneBit(Math.max(1, numStripes));
+    if (n < numStripes) {
+      n *= 2;
+    } // if
+    this.stripes = new Object[n];
+    for (int i = 0; i < n; i++) {
+      this.stripes[i] = new Object();
+    } // for
+    this.segments = new Segment[0];
+  } // ConcurrentGraph(int)
+
+  // +----------------------+----------------------------------------
+  // | Vertex names/numbers |
+  // +----------------------+
+
+  /**
+   * Given a vertex number, get the corresponding vertex name.
+   *
+   * @param vertexNumber
+   *   The number of a vertex.
+   *
+   * @return the name, or null if there is no such vertex.
+   */
+  public String vertexName(int vertexNumber) {
+    Segment[] segs = this.segments;
+    int s = vertexNumber >>> SEGMENT_BITS;
+    if ((vertexNumber < 0) || (s >= segs.length)) {
+      return null;
+    } // if
+    return segs[s].names.get(vertexNumber & SEGMENT_MASK);
+  } // vertexName(int)
+
+  /**
+   * Given a vertex name, get the corresponding vertex number.
+   *
+   * @param vertexName
+   *   The name of the vertex.
+   *
+   * @return the number, or -1 if there is no such vertex.
+   */
+  public int vertexNumber(String vertexName) {
+    Integer v = this.vertexNumbers.get(vertexName);
+    if ((v == null) || !vertexName.equals(this.vertexName(v))) {
+      return -1;
+    } // if
+    return v;
+  } // vertexNumber(String)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of vertices.
+   *
+   * @return the number of vertices.
+   */
+  public int numVertices() {
+    return this.numVertices.intValue();
+  } // numVertices()
+
+  /**
+   * Get the number of edges.
+   *
+   * @return the number of edges.
+   */
+  public int numEdges() {
+    return this.numEdges.intValue();
+  } // numEdges()
+
+  /**
+   * Determine if there is an edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return true if the edge exists and false otherwise.
+   */
+  public boolean hasEdge(int source, int target) {
+    return this.edgeWeight(source, target) != null;
+  } // hasEdge(int, int)
+
+  /**
+   * Get the weight of the edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return the weight, or null if there is no such edge.
+   */
+  public Integer edgeWeight(int source, int target) {
+    if (!this.validVertex(source)) {
+      return null;
+    } // if
+    synchronized (this.stripe(source)) {
+      EdgeList edges = this.edgeList(source);
+      int i = edges.indexOf(target);
+      return (i == -1) ? null : edges.weight(i);
+    } // synchronized
+  } // edgeWeight(int, int)
+
+  /**
+   * Get all of the edges from a particular vertex, as they are at the
+   * time of the call.
+   *
+   * @param vertex
+   *   The vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for a copy
+   *   of the edges.
+   */
+  public Iterable<Edge> edgesFrom(int vertex) {
+    if (!this.validVertex(vertex)) {
+      return new EdgeList(vertex, 0);
+    } // if
+    synchronized (this.stripe(vertex)) {
+      return this.edgeList(vertex).copy();
+    } // synchronized
+  } // edgesFrom(int)
+
+  /**
+   * Get a compressed-sparse-row snapshot of the graph. Each vertex's
+   * edges are copied atomically, but the snapshot as a whole is
+   * consistent only if no other thread is changing the graph.
+   *
+   * @return a snapshot of the graph.
+   */
+  public CsrGraph freeze() {
+    Segment[] segs = this.segments;
+    int capacity = segs.length << SEGMENT_BITS;
+    EdgeList[] lists = new EdgeList[capacity];
+    String[] names = new String[capacity];
+    int vertices = 0;
+    for (int s = 0; s < this.stripes.length; s++) {
+      synchronized (this.stripes[s]) {
+        for (int v = s; v < capacity; v += this.stripes.length) {
+          names[v] = segs[v >>> SEGMENT_BITS].names.get(v & SEGMENT_MASK);
+          if (names[v] != null) {
+            lists[v] = this.edgeList(v).copy();
+            ++vertices;
+          } // if
+        } // for
+      } // synchronized
+    } // for
+    int[] offsets = new int[capacity + 1];
+    for (int v = 0; v < capacity; v++) {
+      offsets[v + 1] = offsets[v] + ((lists[v] == null) ? 0 : lists[v].size());
+    } // for
+    int[] targets = new int[offsets[capacity]];
+    int[] weights = new int[offsets[capacity]];
+    for (int v = 0; v < capacity; v++) {
+      if (lists[v] != null) {
+        System.arraycopy(lists[v].targets, 0, targets, offsets[v], lists[v].size());
+        System.arraycopy(lists[v].weights, 0, weights, offsets[v], lists[v].size());
+      } // if
+    } // for
+    return new CsrGraph(vertices, offsets, targets, weights, names,
+        this.version.sum());
+  } // freeze()
+
+  // +----------+----------------------------------------------------
+  // | Mutators |
+  // +----------+
+
+  /**
+   * Add an edge between two vertices. If the edge already exists, replace it.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, or they are the same.
+   */
+  public void addEdge(int source, int target, int weight) throws Exception {
+    if (!this.validVertex(source) || !this.validVertex(target)) {
+      throw new Exception("Invalid ends");
+    } // if
+    if (source == target) {
+      throw new Exception("Cannot add an edge from a vertex to itself");
+    } // if
+    synchronized (this.stripe(source)) {
+      // Check again, in case a removal got in first.
+      if (!this.validVertex(source) || !this.validVertex(target)) {
+        throw new Exception("Invalid ends");
+      } // if
+      if (this.edgeList(source).put(target, weight)) {
+        this.numEdges.increment();
+      } // if
+    } // synchronized
+    this.version.increment();
+  } // addEdge(int, int, int)
+
+  /**
+   * Add an edge between two vertices. If the edge already exists, replace it.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, or they are the same.
+   */
+  public void addEdge(String source, String target, int weight)
+      throws Exception {
+    this.addEdge(this.vertexNumber(source), this.vertexNumber(target), weight);
+  } // addEdge(String, String, int)
+
+  /**
+   * Add a vertex with a particular name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   *
+   * @throws Exception
+   *   If there is already a vertex with that name.
+   */
+  public int addVertex(String name) throws Exception {
+    int v = this.tryAddVertex(name);
+    if (v == -1) {
+      throw new Exception("Already have a node named " + name);
+    } // if
+    return v;
+  } // addVertex(String)
+
+  /**
+   * Add an unnamed vertex.
+   *
+   * @return the number of the vertex.
+   */
+  public int addVertex() {
+    int v = this.newVertexNumber();
+    String name = "v" + v;
+    // On the off chance there is already a vertex with that name,
+    // we try some other names.
+    while (!this.claim(name, v)) {
+      name = "v" + name;
+    } // while
+    return v;
+  } // addVertex()
+
+  /**
+   * Get the number of the vertex with a particular name, adding the
+   * vertex if there is none. If several threads ask for the same new
+   * name at once, exactly one vertex is added and all of them get its
+   * number.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   */
+  public int vertex(String name) {
+    while (true) {
+      int v = this.vertexNumber(name);
+      if (v != -1) {
+        return v;
+      } // if
+      v = this.tryAddVertex(name);
+      if (v != -1) {
+        return v;
+      } // if
+    } // while
+  } // vertex(String)
+
+  /**
+   * Remove an edge. If the edge does not exist, does nothing.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   */
+  public void removeEdge(int source, int target) {
+    if (!this.validVertex(source)) {
+      return;
+    } // if
+    synchronized (this.stripe(source)) {
+      if (this.edgeList(source).remove(target)) {
+        this.numEdges.decrement();
+        this.version.increment();
+      } // if
+    } // synchronized
+  } // removeEdge(int, int)
+
+  /**
+   * Remove an edge. If the edge does not exist, does nothing.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   */
+  public void removeEdge(String source, String target) {
+    this.removeEdge(this.vertexNumber(source), this.vertexNumber(target));
+  } // removeEdge(String, String)
+
+  /**
+   * Remove a vertex and every edge into or out of it. If the vertex does
+   * not exist, does nothing. Takes time proportional to the size of the
+   * graph, since we must look for edges into the vertex.
+   *
+   * @param vertex
+   *   The vertex to remove.
+   */
+  public void removeVertex(int vertex) {
+    String name = this.vertexName(vertex);
+    if ((name == null) || !this.names(vertex).compareAndSet(
+        vertex & SEGMENT_MASK, name, null)) {
+      return;
+    } // if
+    this.vertexNumbers.remove(name, vertex);
+    this.numVertices.decrement();
+    Segment[] segs = this.segments;
+    int capacity = segs.length << SEGMENT_BITS;
+    for (int s = 0; s < this.stripes.length; s++) {
+      synchronized (this.stripes[s]) {
+        for (int v = s; v < capacity; v += this.stripes.length) {
+          if (segs[v >>> SEGMENT_BITS].edges[v & SEGMENT_MASK].remove(vertex)) {
+            this.numEdges.decrement();
+          } // if
+        } // for
+      } // synchronized
+    } // for
+    synchronized (this.stripe(vertex)) {
+      EdgeList out = this.edgeList(vertex);
+      this.numEdges.add(-out.size());
+      out.clear();
+    } // synchronized
+    this.version.increment();
+    this.unusedVertices.add(vertex);
+  } // removeVertex(int)
+
+  /**
+   * Remove a vertex. If the vertex does not exist, does nothing.
+   *
+   * @param vertex
+   *   The name of the vertex to remove.
+   */
+  public void removeVertex(String vertex) {
+    this.removeVertex(this.vertexNumber(vertex));
+  } // removeVertex(String)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The names and edges of SEGMENT_SIZE consecutive vertices.
+   */
+  static final class Segment {
+    /**
+     * The names of the vertices (null for unused numbers).
+     */
+    final AtomicReferenceArray<String> names =
+        new AtomicReferenceArray<String>(SEGMENT_SIZE);
+
+    /**
+     * The edges from the vertices.
+     */
+    final EdgeList[] edges = new EdgeList[SEGMENT_SIZE];
+
+    /**
+     * Create a segment.
+     *
+     * @param base
+     *   The number of its first vertex.
+     */
+    Segment(int base) {
+      for (int i = 0; i < SEGMENT_SIZE; i++) {
+        this.edges[i] = new EdgeList(base + i);
+      } // for
+    } // Segment(int)
+  } // class Segment
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Add a vertex unless there is already one with the name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the new vertex, or -1 if the name is taken.
+   */
+  private int tryAddVertex(String name) {
+    if (this.vertexNumber(name) != -1) {
+      return -1;
+    } // if
+    int v = this.newVertexNumber();
+    if (!this.claim(name, v)) {
+      this.unusedVertices.add(v);
+      return -1;
+    } // if
+    return v;
+  } // tryAddVertex(String)
+
+  /**
+   * Try to give an unused vertex number a name.
+   *
+   * @param name
+   *   The name.
+   * @param v
+   *   The vertex number, which no other thread knows about.
+   *
+   * @return true if the vertex now has the name and false if another
+   *   vertex already has it.
+   */
+  private boolean claim(String name, int v) {
+    // Claims of a name are serialized by compute, and we name the vertex
+    // only once the claim has succeeded, so no other thread ever sees a
+    // vertex that loses. An entry whose vertex has no name belongs to a
+    // vertex that is being removed, and we may take it over.
+    int winner = this.vertexNumbers.compute(name, (key, old) -> {
+      if ((old != null) && name.equals(this.vertexName(old))) {
+        return old;
+      } // if
+      this.names(v).set(v & SEGMENT_MASK, name);
+      return v;
+    });
+    if (winner != v) {
+      return false;
+    } // if
+    this.numVertices.increment();
+    this.version.increment();
+    return true;
+  } // claim(String, int)
+
+  /**
+   * Get an unused vertex number, making room for it if necessary.
+   *
+   * @return an unused vertex number.
+   */
+  private int newVertexNumber() {
+    Integer v = this.unusedVertices.poll();
+    if (v != null) {
+      return v;
+    } // if
+    int n = this.nextVertex.getAndIncrement();
+    if ((n >>> SEGMENT_BITS) >= this.segments.length) {
+      this.expand(n >>> SEGMENT_BITS);
+    } // if
+    return n;
+  } // newVertexNumber()
+
+  /**
+   * Make sure that a segment exists.
+   *
+   * @param s
+   *   The index of the segment.
+   */
+  private synchronized void expand(int s) {
+    Segment[] segs = this.segments;
+    if (s < segs.length) {
+      return;
+    } // if
+    int size = Math.max(s + 1, segs.length * 2);
+    Segment[] expanded = Arrays.copyOf(segs, size);
+    for (int i = segs.length; i < size; i++) {
+      expanded[i] = new Segment(i << SEGMENT_BITS);
+    } // for
+    this.segments = expanded;
+  } // expand(int)
+
+  /**
+   * Determine if a vertex is valid.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return true if the vertex is valid and false otherwise.
+   */
+  private boolean validVertex(int vertex) {
+    return this.vertexName(vertex) != null;
+  } // validVertex(int)
+
+  /**
+   * Get the lock for a vertex's stripe.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the lock.
+   */
+  private Object stripe(int vertex) {
+    return this.stripes[vertex & (this.stripes.length - 1)];
+  } // stripe(int)
+
+  /**
+   * Get the names of a vertex's segment.
+   *
+   * @param vertex
+   *   The vertex, which must be in an existing segment.
+   *
+   * @return the names.
+   */
+  private AtomicReferenceArray<String> names(int vertex) {
+    return this.segments[vertex >>> SEGMENT_BITS].names;
+  } // names(int)
+
+  /**
+   * Get the edges from a vertex. The caller must hold the vertex's lock.
+   *
+   * @param vertex
+   *   The vertex, which must be in an existing segment.
+   *
+   * @return the edges.
+   */
+  private EdgeList edgeList(int vertex) {
+    return this.segments[vertex >>> SEGMENT_BITS].edges[vertex & SEGMENT_MASK];
+  } // edgeList(int)
+} // class ConcurrentGraph
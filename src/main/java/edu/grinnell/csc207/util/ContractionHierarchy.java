@@ -0,0 +1,1014 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A contraction-hierarchy index for answering many shortest-path queries
+ * on a graph that rarely changes. Building the index is expensive; each
+ * query then explores only a small part of the graph.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ContractionHierarchy {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * We contract the vertices one at a time, in order of "importance".
+   * When we contract v, for every pair of remaining neighbors u -> v -> x
+   * we add a shortcut u -> x unless a limited "witness" search finds a
+   * path from u to x that avoids v and is no longer. The rank of a vertex
+   * is its position in the contraction order.
+   *
+   * The index stores the edges (original and shortcut) in two CSR
+   * structures. The upward graph holds, for each vertex u, the edges
+   * u -> x with rank[x] > rank[u]. The downward graph holds, for each
+   * vertex x, the edges u -> x with rank[u] > rank[x], indexed by x so
+   * that a backward search can follow them. Each edge also records the
+   * vertex it bypasses (its "middle"), or -1 for an original edge, so that
+   * we can unpack shortcuts into paths of the original graph.
+   *
+   * A query runs Dijkstra upward from the source and (backward) upward
+   * from the target; the shortest path goes through the vertex where the
+   * two searches meet with the smallest total distance.
+   *
+   * The index remembers the version of the graph it was built from and
+   * rebuilds itself when a query finds that the graph has changed.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The maximum number of vertices a witness search may settle. Smaller
+   * values make preprocessing faster but add more shortcuts.
+   */
+  static final int WITNESS_LIMIT = 500;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph we index.
+   */
+  final Graph graph;
+
+  /**
+   * The current index. (Replaced as a whole by rebuild().)
+   */
+  volatile Index index;
+
+  /**
+   * Per-thread query workspaces.
+   */
+  final ThreadLocal<Query> queries = new ThreadLocal<Query>();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a contraction hierarchy for a graph.
+   *
+   * @param graph
+   *   The graph to index. Edge weights must be non-negative.
+   */
+  public ContractionHierarchy(Graph graph) {
+    this.graph = graph;
+    this.rebuild();
+  } // ContractionHierarchy(Graph)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Determine if the index reflects the current state of the graph.
+   *
+   * @return true if the graph has not changed since the index was built
+   *   and false otherwise.
+   */
+  public boolean isCurrent() {
+    return this.index.version == this.graph.version;
+  } // isCurrent()
+
+  /**
+   * Get the number of shortcut edges the index added.
+   *
+   * @return the number of shortcuts.
+   */
+  public int numShortcuts() {
+    return this.index.numShortcuts;
+  } // numShortcuts()
+
+  /**
+   * Get the rank of a vertex in the contraction order.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the rank of the vertex, or -1 for an invalid vertex.
+   */
+  public int rank(int vertex) {
+    Index idx = this.index;
+    if ((vertex < 0) || (vertex >= idx.rank.length)) {
+      return -1;
+    } // if
+    return idx.rank[vertex];
+  } // rank(int)
+
+  // +---------+-----------------------------------------------------
+  // | Queries |
+  // +---------+
+
+  /**
+   * Find the length of a shortest path.
+   *
+   * @param source
+   *   The start of the path.
+   * @param sink
+   *   The end of the path.
+   *
+   * @return the length of the shortest path from source to sink, or
+   *   ShortestPathTree.UNREACHABLE if there is none.
+   */
+  public long distance(int source, int sink) {
+    Index idx = this.current();
+    Query query = this.query(idx);
+    long result = query.search(idx, source, sink);
+    query.reset();
+    return result;
+  } // distance(int, int)
+
+  /**
+   * Find a shortest path.
+   *
+   * @param source
+   *   The start of the path.
+   * @param sink
+   *   The end of the path.
+   *
+   * @return the edges of a shortest path from source to sink (in terms of
+   *   the original graph), or null if there is none.
+   */
+  public List<Edge> path(int source, int sink) {
+    Index idx = this.current();
+    Query query = this.query(idx);
+    long result = query.search(idx, source, sink);
+    List<Edge> path = null;
+    if (result != ShortestPathTree.UNREACHABLE) {
+      path = query.path(idx, source, sink);
+    } // if
+    query.reset();
+    return path;
+  } // path(int, int)
+
+  // +----------+----------------------------------------------------
+  // | Mutators |
+  // +----------+
+
+  /**
+   * Rebuild the index from the current state of the graph.
+   */
+  public synchronized void rebuild() {
+    CsrGraph csr = this.graph.freeze();
+    this.index = new Builder(csr).build();
+  } // rebuild()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Get an index that matches the graph, rebuilding if necessary.
+   *
+   * @return the index.
+   */
+  private Index current() {
+    if (!this.isCurrent()) {
+      synchronized (this) {
+        if (!this.isCurrent()) {
+          this.rebuild();
+        } // if
+      } // synchronized
+    } // if
+    return this.index;
+  } // current()
+
+  /**
+   * Get this thread's query workspace, sized for an index.
+   *
+   * @param idx
+   *   The index to be searched.
+   *
+   * @return the workspace.
+   */
+  private Query query(Index idx) {
+    Query query = this.queries.get();
+    if ((query == null) || (query.distF.length != idx.rank.length)) {
+      query = new Query(idx.rank.length);
+      this.queries.set(query);
+    } // if
+    return query;
+  } // query(Index)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The finished (immutable) index.
+   */
+  static final class Index {
+    /**
+     * The version of the graph the index was built from.
+     */
+    long version;
+
+    /**
+     * The rank of each vertex.
+     */
+    int[] rank;
+
+    /**
+     * The number of shortcuts.
+     */
+    int numShortcuts;
+
+    /**
+     * Row offsets of the upward graph.
+     */
+    int[] upOffsets;
+
+    /**
+     * Targets of the upward graph.
+     */
+    int[] upTargets;
+
+    /**
+     * Weights of the upward graph.
+     */
+    int[] upWeights;
+
+    /**
+     * Middles of the upward graph (-1 for original edges).
+     */
+    int[] upMiddles;
+
+    /**
+     * Row offsets of the downward graph (indexed by the lower vertex).
+     */
+    int[] downOffsets;
+
+    /**
+     * Sources of the downward graph.
+     */
+    int[] downSources;
+
+    /**
+     * Weights of the downward graph.
+     */
+    int[] downWeights;
+
+    /**
+     * Middles of the downward graph (-1 for original edges).
+     */
+    int[] downMiddles;
+  } // class Index
+
+  /**
+   * Reusable state for queries. Only touched entries are reset between
+   * queries, so a query costs time proportional to the part of the
+   * hierarchy it explores.
+   */
+  static final class Query {
+    /**
+     * Forward distances.
+     */
+    final long[] distF;
+
+    /**
+     * Backward distances.
+     */
+    final long[] distB;
+
+    /**
+     * The upward-graph slot of the edge that reached each vertex in the
+     * forward search.
+     */
+    final int[] slotF;
+
+    /**
+     * The downward-graph slot of the edge that reached each vertex in
+     * the backward search.
+     */
+    final int[] slotB;
+
+    /**
+     * The vertex from which the forward search reached each vertex.
+     */
+    final int[] parentF;
+
+    /**
+     * The vertex from which the backward search reached each vertex.
+     */
+    final int[] parentB;
+
+    /**
+     * The forward heap.
+     */
+    final IndexedMinHeap heapF;
+
+    /**
+     * The backward heap.
+     */
+    final IndexedMinHeap heapB;
+
+    /**
+     * The vertices whose distances we have changed.
+     */
+    final int[] touched;
+
+    /**
+     * The number of touched vertices.
+     */
+    int numTouched;
+
+    /**
+     * The vertex at which the best path meets.
+     */
+    int meet;
+
+    /**
+     * Create a workspace.
+     *
+     * @param capacity
+     *   The number of vertex slots.
+     */
+    Query(int capacity) {
+      this.distF = new long[capacity];
+      this.distB = new long[capacity];
+      this.slotF = new int[capacity];
+      this.slotB = new int[capacity];
+      this.parentF = new int[capacity];
+      this.parentB = new int[capacity];
+      Arrays.fill(this.distF, ShortestPathTree.UNREACHABLE);
+      Arrays.fill(this.distB, ShortestPathTree.UNREACHABLE);
+      this.heapF = new IndexedMinHeap(capacity);
+      this.heapB = new IndexedMinHeap(capacity);
+      this.touched = new int[capacity];
+      this.numTouched = 0;
+    } // Query(int)
+
+    /**
+     * Run the two upward searches.
+     *
+     * @param idx
+     *   The index.
+     * @param source
+     *   The source vertex.
+     * @param sink
+     *   The sink vertex.
+     *
+     * @return the length of the shortest path, or UNREACHABLE.
+     */
+    long search(Index idx, int source, int sink) {
+      int capacity = idx.rank.length;
+      if ((source < 0) || (source >= capacity) || (idx.rank[source] < 0)
+          || (sink < 0) || (sink >= capacity) || (idx.rank[sink] < 0)) {
+        return ShortestPathTree.UNREACHABLE;
+      } // if
+      long best = ShortestPathTree.UNREACHABLE;
+      this.meet = -1;
+      this.touch(source);
+      this.distF[source] = 0;
+      this.slotF[source] = -1;
+      this.heapF.insertOrDecrease(source, 0);
+      this.touch(sink);
+      this.distB[sink] = 0;
+      this.slotB[sink] = -1;
+      this.heapB.insertOrDecrease(sink, 0);
+
+      while (true) {
+        boolean forward = !this.heapF.isEmpty() && (this.heapF.minKey() < best);
+        boolean backward = !this.heapB.isEmpty() && (this.heapB.minKey() < best);
+        if (!forward && !backward) {
+          break;
+        } // if
+        if (forward && (!backward || (this.heapF.minKey() <= this.heapB.minKey()))) {
+          int u = this.heapF.removeMin();
+          long du = this.distF[u];
+          if ((this.distB[u] != ShortestPathTree.UNREACHABLE)
+              && (du + this.distB[u] < best)) {
+            best = du + this.distB[u];
+            this.meet = u;
+          } // if
+          for (int pos = idx.upOffsets[u]; pos < idx.upOffsets[u + 1]; pos++) {
+            int x = idx.upTargets[pos];
+            long d = du + idx.upWeights[pos];
+            if (d < this.distF[x]) {
+              this.touch(x);
+              this.distF[x] = d;
+              this.slotF[x] = pos;
+              this.parentF[x] = u;
+              this.heapF.insertOrDecrease(x, d);
+            } // if
+          } // for
+        } else {
+          int x = this.heapB.removeMin();
+          long dx = this.distB[x];
+          if ((this.distF[x] != ShortestPathTree.UNREACHABLE)
+              && (dx + this.distF[x] < best)) {
+            best = dx + this.distF[x];
+            this.meet = x;
+          } // if
+          for (int pos = idx.downOffsets[x]; pos < idx.downOffsets[x + 1]; pos++) {
+            int u = idx.downSources[pos];
+            long d = dx + idx.downWeights[pos];
+            if (d < this.distB[u]) {
+              this.touch(u);
+              this.distB[u] = d;
+              this.slotB[u] = pos;
+              this.parentB[u] = x;
+              this.heapB.insertOrDecrease(u, d);
+            } // if
+          } // for
+        } // if/else
+      } // while
+      return best;
+    } // search(Index, int, int)
+
+    /**
+     * Rebuild the path found by the last search.
+     *
+     * @param idx
+     *   The index.
+     * @param source
+     *   The source vertex.
+     * @param sink
+     *   The sink vertex.
+     *
+     * @return the path, in terms of original edges.
+     */
+    List<Edge> path(Index idx, int source, int sink) {
+      // The hierarchy edges, as {from, to, weight, middle}, in order.
+      ArrayList<int[]> hops = new ArrayList<int[]>();
+      for (int v = this.meet; v != source; ) {
+        int pos = this.slotF[v];
+        int u = this.parentF[v];
+        hops.add(new int[] {u, v, idx.upWeights[pos], idx.upMiddles[pos]});
+        v = u;
+      } // for
+      Collections.reverse(hops);
+      for (int u = this.meet; u != sink; ) {
+        int pos = this.slotB[u];
+        int x = this.parentB[u];
+        hops.add(new int[] {u, x, idx.downWeights[pos], idx.downMiddles[pos]});
+        u = x;
+      } // for
+
+      ArrayList<Edge> path = new ArrayList<Edge>();
+      for (int[] hop : hops) {
+        unpack(idx, hop, path);
+      } // for
+      return path;
+    } // path(Index, int, int)
+
+    /**
+     * Reset the workspace after a query.
+     */
+    void reset() {
+      for (int i = 0; i < this.numTouched; i++) {
+        int v = this.touched[i];
+        this.distF[v] = ShortestPathTree.UNREACHABLE;
+        this.distB[v] = ShortestPathTree.UNREACHABLE;
+      } // for
+      this.numTouched = 0;
+      this.heapF.clear();
+      this.heapB.clear();
+    } // reset()
+
+    /**
+     * Note that we are about to change the distances of a vertex.
+     *
+     * @param v
+     *   The vertex.
+     */
+    private void touch(int v) {
+      if ((this.distF[v] == ShortestPathTree.UNREACHABLE)
+          && (this.distB[v] == ShortestPathTree.UNREACHABLE)) {
+        this.touched[this.numTouched++] = v;
+      } // if
+    } // touch(int)
+
+    /**
+     * Unpack a hierarchy edge into original edges.
+     *
+     * @param idx
+     *   The index.
+     * @param hop
+     *   The edge, as {from, to, weight, middle}.
+     * @param path
+     *   The list to which we add the original edges.
+     */
+    private static void unpack(Index idx, int[] hop, List<Edge> path) {
+      ArrayDeque<int[]> stack = new ArrayDeque<int[]>();
+      stack.push(hop);
+      while (!stack.isEmpty()) {
+        int[] edge = stack.pop();
+        int from = edge[0];
+        int to = edge[1];
+        int mid = edge[3];
+        if (mid == -1) {
+          path.add(new Edge(from, to, edge[2]));
+          continue;
+        } // if
+        // from -> mid is a downward edge stored with mid; mid -> to is
+        // an upward edge stored with mid.
+        int[] second = null;
+        for (int pos = idx.upOffsets[mid]; pos < idx.upOffsets[mid + 1]; pos++) {
+          if (idx.upTargets[pos] == to) {
+            second = new int[] {mid, to, idx.upWeights[pos], idx.upMiddles[pos]};
+          } // if
+        } // for
+        int[] first = null;
+        for (int pos = idx.downOffsets[mid]; pos < idx.downOffsets[mid + 1]; pos++) {
+          if (idx.downSources[pos] == from) {
+            first = new int[] {from, mid, idx.downWeights[pos], idx.downMiddles[pos]};
+          } // if
+        } // for
+        stack.push(second);
+        stack.push(first);
+      } // while
+    } // unpack(Index, int[], List<Edge>)
+  } // class Query
+
+  /**
+   * The preprocessing step: contracts the vertices and builds an Index.
+   */
+  static final class Builder {
+    /**
+     * The graph we are contracting.
+     */
+    final CsrGraph csr;
+
+    /**
+     * The number of vertex slots.
+     */
+    final int capacity;
+
+    /**
+     * The remaining out-edges of each vertex: targets.
+     */
+    final int[][] outTo;
+
+    /**
+     * The remaining out-edges of each vertex: weights.
+     */
+    final int[][] outWeight;
+
+    /**
+     * The remaining out-edges of each vertex: middles.
+     */
+    final int[][] outMid;
+
+    /**
+     * The number of remaining out-edges of each vertex.
+     */
+    final int[] outSize;
+
+    /**
+     * The remaining in-edges of each vertex: sources.
+     */
+    final int[][] inFrom;
+
+    /**
+     * The remaining in-edges of each vertex: weights.
+     */
+    final int[][] inWeight;
+
+    /**
+     * The remaining in-edges of each vertex: middles.
+     */
+    final int[][] inMid;
+
+    /**
+     * The number of remaining in-edges of each vertex.
+     */
+    final int[] inSize;
+
+    /**
+     * The number of contracted neighbors of each vertex.
+     */
+    final int[] contractedNeighbors;
+
+    /**
+     * The rank of each vertex (-1 until contracted).
+     */
+    final int[] rank;
+
+    /**
+     * The upward edges of each vertex as {targets, weights, middles}.
+     */
+    final int[][][] up;
+
+    /**
+     * The downward edges of each vertex as {sources, weights, middles}.
+     */
+    final int[][][] down;
+
+    /**
+     * Witness-search distances.
+     */
+    final long[] dist;
+
+    /**
+     * Witness-search heap.
+     */
+    final IndexedMinHeap heap;
+
+    /**
+     * Vertices whose witness distances need resetting.
+     */
+    final int[] touched;
+
+    /**
+     * The number of touched vertices.
+     */
+    int numTouched;
+
+    /**
+     * The number of shortcuts added so far.
+     */
+    int numShortcuts;
+
+    /**
+     * Set up the builder.
+     *
+     * @param csr
+     *   The graph to contract.
+     */
+    Builder(CsrGraph csr) {
+      this.csr = csr;
+      this.capacity = csr.capacity();
+      int n = this.capacity;
+      this.outTo = new int[n][];
+      this.outWeight = new int[n][];
+      this.outMid = new int[n][];
+      this.outSize = new int[n];
+      this.inFrom = new int[n][];
+      this.inWeight = new int[n][];
+      this.inMid = new int[n][];
+      this.inSize = new int[n];
+      this.contractedNeighbors = new int[n];
+      this.rank = new int[n];
+      this.up = new int[n][][];
+      this.down = new int[n][][];
+      this.dist = new long[n];
+      this.heap = new IndexedMinHeap(n);
+      this.touched = new int[n];
+      Arrays.fill(this.rank, -1);
+      Arrays.fill(this.dist, ShortestPathTree.UNREACHABLE);
+
+      CsrGraph rev = csr.transpose();
+      for (int v = 0; v < n; v++) {
+        int outDegree = csr.degree(v);
+        this.outTo[v] = new int[Math.max(outDegree, 2)];
+        this.outWeight[v] = new int[Math.max(outDegree, 2)];
+        this.outMid[v] = new int[Math.max(outDegree, 2)];
+        for (int i = 0; i < outDegree; i++) {
+          this.outTo[v][i] = csr.target(v, i);
+          this.outWeight[v][i] = csr.weight(v, i);
+          this.outMid[v][i] = -1;
+        } // for
+        this.outSize[v] = outDegree;
+        int inDegree = rev.degree(v);
+        this.inFrom[v] = new int[Math.max(inDegree, 2)];
+        this.inWeight[v] = new int[Math.max(inDegree, 2)];
+        this.inMid[v] = new int[Math.max(inDegree, 2)];
+        for (int i = 0; i < inDegree; i++) {
+          this.inFrom[v][i] = rev.target(v, i);
+          this.inWeight[v][i] = rev.weight(v, i);
+          this.inMid[v][i] = -1;
+        } // for
+        this.inSize[v] = inDegree;
+      } // for
+    } // Builder(CsrGraph)
+
+    /**
+     * Contract every vertex and build the index.
+     *
+     * @return the index.
+     */
+    Index build() {
+      IndexedMinHeap order = new IndexedMinHeap(this.capacity);
+      for (int v = 0; v < this.capacity; v++) {
+        if (this.csr.validVertex(v)) {
+          order.insertOrDecrease(v, this.priority(v));
+        } // if
+      } // for
+      int next = 0;
+      while (!order.isEmpty()) {
+        int v = order.removeMin();
+        // Lazy update: the priority may have grown since we computed it.
+        long p = this.priority(v);
+        if (!order.isEmpty() && (p > order.minKey())) {
+          order.insertOrDecrease(v, p);
+          continue;
+        } // if
+        this.contract(v);
+        this.rank[v] = next++;
+      } // while
+      return this.flatten();
+    } // build()
+
+    /**
+     * Compute the contraction priority of a vertex: the number of edges
+     * that contracting it would add, less the number it would remove,
+     * plus the number of neighbors already contracted.
+     *
+     * @param v
+     *   The vertex.
+     *
+     * @return the priority (lower is contracted sooner).
+     */
+    long priority(int v) {
+      int shortcuts = this.shortcuts(v, false);
+      return shortcuts - this.inSize[v] - this.outSize[v]
+          + this.contractedNeighbors[v];
+    } // priority(int)
+
+    /**
+     * Contract a vertex: add its shortcuts, record its upward and
+     * downward edges, and remove it from the remaining graph.
+     *
+     * @param v
+     *   The vertex.
+     */
+    void contract(int v) {
+      this.up[v] = new int[][] {
+          Arrays.copyOf(this.outTo[v], this.outSize[v]),
+          Arrays.copyOf(this.outWeight[v], this.outSize[v]),
+          Arrays.copyOf(this.outMid[v], this.outSize[v])};
+      this.down[v] = new int[][] {
+          Arrays.copyOf(this.inFrom[v], this.inSize[v]),
+          Arrays.copyOf(this.inWeight[v], this.inSize[v]),
+          Arrays.copyOf(this.inMid[v], this.inSize[v])};
+      this.numShortcuts += this.shortcuts(v, true);
+      for (int i = 0; i < this.outSize[v]; i++) {
+        int x = this.outTo[v][i];
+        removeIn(x, v);
+        ++this.contractedNeighbors[x];
+      } // for
+      for (int i = 0; i < this.inSize[v]; i++) {
+        int u = this.inFrom[v][i];
+        removeOut(u, v);
+        ++this.contractedNeighbors[u];
+      } // for
+      this.outSize[v] = 0;
+      this.inSize[v] = 0;
+    } // contract(int)
+
+    /**
+     * Count (and optionally add) the shortcuts needed to contract a
+     * vertex.
+     *
+     * @param v
+     *   The vertex.
+     * @param add
+     *   Whether to add the shortcuts to the remaining graph.
+     *
+     * @return the number of shortcuts.
+     */
+    int shortcuts(int v, boolean add) {
+      int count = 0;
+      int numIn = this.inSize[v];
+      int numOut = this.outSize[v];
+      for (int i = 0; i < numIn; i++) {
+        int u = this.inFrom[v][i];
+        long wu = this.inWeight[v][i];
+        long bound = -1;
+        for (int j = 0; j < numOut; j++) {
+          if (this.outTo[v][j] != u) {
+            bound = Math.max(bound, wu + this.outWeight[v][j]);
+          } // if
+        } // for
+        if (bound < 0) {
+          continue;
+        } // if
+        this.witness(u, v, bound);
+        for (int j = 0; j < numOut; j++) {
+          int x = this.outTo[v][j];
+          long via = wu + this.outWeight[v][j];
+          if ((x != u) && (this.dist[x] > via)) {
+            ++count;
+            if (add) {
+              this.addShortcut(u, x, (int) via, v);
+            } // if
+          } // if
+        } // for
+        this.resetWitness();
+      } // for
+      return count;
+    } // shortcuts(int, boolean)
+
+    /**
+     * Run a limited Dijkstra from a vertex in the remaining graph,
+     * avoiding one vertex.
+     *
+     * @param source
+     *   Where to start.
+     * @param avoid
+     *   The vertex being contracted.
+     * @param bound
+     *   The largest distance of interest.
+     */
+    void witness(int source, int avoid, long bound) {
+      this.touchWitness(source);
+      this.dist[source] = 0;
+      this.heap.insertOrDecrease(source, 0);
+      int settled = 0;
+      while (!this.heap.isEmpty() && (this.heap.minKey() <= bound)
+          && (settled < WITNESS_LIMIT)) {
+        int u = this.heap.removeMin();
+        ++settled;
+        long du = this.dist[u];
+        for (int i = 0; i < this.outSize[u]; i++) {
+          int x = this.outTo[u][i];
+          if (x == avoid) {
+            continue;
+          } // if
+          long d = du + this.outWeight[u][i];
+          if (d < this.dist[x]) {
+            this.touchWitness(x);
+            this.dist[x] = d;
+            this.heap.insertOrDecrease(x, d);
+          } // if
+        } // for
+      } // while
+      this.heap.clear();
+    } // witness(int, int, long)
+
+    /**
+     * Note that a witness distance is about to change.
+     *
+     * @param v
+     *   The vertex.
+     */
+    void touchWitness(int v) {
+      if (this.dist[v] == ShortestPathTree.UNREACHABLE) {
+        this.touched[this.numTouched++] = v;
+      } // if
+    } // touchWitness(int)
+
+    /**
+     * Reset the witness distances.
+     */
+    void resetWitness() {
+      for (int i = 0; i < this.numTouched; i++) {
+        this.dist[this.touched[i]] = ShortestPathTree.UNREACHABLE;
+      } // for
+      this.numTouched = 0;
+    } // resetWitness()
+
+    /**
+     * Add a shortcut, or improve an existing edge between the same two
+     * vertices.
+     *
+     * @param u
+     *   The source.
+     * @param x
+     *   The target.
+     * @param weight
+     *   The weight of the shortcut.
+     * @param mid
+     *   The vertex the shortcut bypasses.
+     */
+    void addShortcut(int u, int x, int weight, int mid) {
+      for (int i = 0; i < this.outSize[u]; i++) {
+        if (this.outTo[u][i] == x) {
+          if (weight < this.outWeight[u][i]) {
+            this.outWeight[u][i] = weight;
+            this.outMid[u][i] = mid;
+            for (int j = 0; j < this.inSize[x]; j++) {
+              if (this.inFrom[x][j] == u) {
+                this.inWeight[x][j] = weight;
+                this.inMid[x][j] = mid;
+              } // if
+            } // for
+          } // if
+          return;
+        } // if
+      } // for
+      if (this.outSize[u] == this.outTo[u].length) {
+        int size = this.outTo[u].length * 2;
+        this.outTo[u] = Arrays.copyOf(this.outTo[u], size);
+        this.outWeight[u] = Arrays.copyOf(this.outWeight[u], size);
+        this.outMid[u] = Arrays.copyOf(this.outMid[u], size);
+      } // if
+      int i = this.outSize[u]++;
+      this.outTo[u][i] = x;
+      this.outWeight[u][i] = weight;
+      this.outMid[u][i] = mid;
+      if (this.inSize[x] == this.inFrom[x].length) {
+        int size = this.inFrom[x].length * 2;
+        this.inFrom[x] = Arrays.copyOf(this.inFrom[x], size);
+        this.inWeight[x] = Arrays.copyOf(this.inWeight[x], size);
+        this.inMid[x] = Arrays.copyOf(this.inMid[x], size);
+      } // if
+      int j = this.inSize[x]++;
+      this.inFrom[x][j] = u;
+      this.inWeight[x][j] = weight;
+      this.inMid[x][j] = mid;
+    } // addShortcut(int, int, int, int)
+
+    /**
+     * Remove the in-edge from u to x.
+     *
+     * @param x
+     *   The vertex whose in-edges we change.
+     * @param u
+     *   The source of the edge to remove.
+     */
+    void removeIn(int x, int u) {
+      for (int i = 0; i < this.inSize[x]; i++) {
+        if (this.inFrom[x][i] == u) {
+          int last = --this.inSize[x];
+          this.inFrom[x][i] = this.inFrom[x][last];
+          this.inWeight[x][i] = this.inWeight[x][last];
+          this.inMid[x][i] = this.inMid[x][last];
+          return;
+        } // if
+      } // for
+    } // removeIn(int, int)
+
+    /**
+     * Remove the out-edge from u to x.
+     *
+     * @param u
+     *   The vertex whose out-edges we change.
+     * @param x
+     *   The target of the edge to remove.
+     */
+    void removeOut(int u, int x) {
+      for (int i = 0; i < this.outSize[u]; i++) {
+        if (this.outTo[u][i] == x) {
+          int last = --this.outSize[u];
+          this.outTo[u][i] = this.outTo[u][last];
+          this.outWeight[u][i] = this.outWeight[u][last];
+          this.outMid[u][i] = this.outMid[u][last];
+          return;
+        } // if
+      } // for
+    } // removeOut(int, int)
+
+    /**
+     * Turn the recorded upward and downward edges into CSR arrays.
+     *
+     * @return the finished index.
+     */
+    Index flatten() {
+      Index idx = new Index();
+      idx.version = this.csr.version();
+      idx.rank = this.rank;
+      idx.numShortcuts = this.numShortcuts;
+      idx.upOffsets = new int[this.capacity + 1];
+      idx.downOffsets = new int[this.capacity + 1];
+      for (int v = 0; v < this.capacity; v++) {
+        int numUp = (this.up[v] == null) ? 0 : this.up[v][0].length;
+        int numDown = (this.down[v] == null) ? 0 : this.down[v][0].length;
+        idx.upOffsets[v + 1] = idx.upOffsets[v] + numUp;
+        idx.downOffsets[v + 1] = idx.downOffsets[v] + numDown;
+      } // for
+      idx.upTargets = new int[idx.upOffsets[this.capacity]];
+      idx.upWeights = new int[idx.upOffsets[this.capacity]];
+      idx.upMiddles = new int[idx.upOffsets[this.capacity]];
+      idx.downSources = new int[idx.downOffsets[this.capacity]];
+      idx.downWeights = new int[idx.downOffsets[this.capacity]];
+      idx.downMiddles = new int[idx.downOffsets[this.capacity]];
+      for (int v = 0; v < this.capacity; v++) {
+        if (this.up[v] != null) {
+          int len = this.up[v][0].length;
+          System.arraycopy(this.up[v][0], 0, idx.upTargets, idx.upOffsets[v], len);
+          System.arraycopy(this.up[v][1], 0, idx.upWeights, idx.upOffsets[v], len);
+          System.arraycopy(this.up[v][2], 0, idx.upMiddles, idx.upOffsets[v], len);
+        } // if
+        if (this.down[v] != null) {
+          int len = this.down[v][0].length;
+          System.arraycopy(this.down[v][0], 0, idx.downSources, idx.downOffsets[v], len);
+          System.arraycopy(this.down[v][1], 0, idx.downWeights, idx.downOffsets[v], len);
+          System.arraycopy(this.down[v][2], 0, idx.downMiddles, idx.downOffsets[v], len);
+        } // if
+      } // for
+      return idx;
+    } // flatten()
+  } // class Builder
+} // class ContractionHierarchy
@@ -0,0 +1,633 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, compressed-sparse-row (CSR) snapshot of a graph. Intended
+ * for read-heavy workloads in which the graph does not change between
+ * queries.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public final class CsrGraph implements Adjacency {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * We store all of the edges in three parallel arrays. The edges from
+   * vertex v occupy positions offsets[v] (inclusive) through offsets[v+1]
+   * (exclusive) of targets and weights.
+   *
+   * Vertex numbers are the same as in the graph the snapshot was built
+   * from, so removed vertices leave "holes": they have no name and no
+   * edges.
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of vertices in the graph.
+   */
+  final int numVertices;
+
+  /**
+   * Where the edges of each vertex start. The edges from vertex v are
+   * stored in positions offsets[v] .. offsets[v+1]-1.
+   */
+  final int[] offsets;
+
+  /**
+   * The targets of the edges.
+   */
+  final int[] targets;
+
+  /**
+   * The weights of the edges.
+   */
+  final int[] weights;
+
+  /**
+   * The names of the vertices. Null for unused vertex numbers.
+   */
+  final String[] vertexNames;
+
+  /**
+   * The numbers of the vertices, indexed by name.
+   */
+  final NameTable vertexNumbers;
+
+  /**
+   * The version of the graph that this snapshot was built from.
+   */
+  final long version;
+
+  /**
+   * The reverse of this graph, built on demand by transpose().
+   */
+  CsrGraph reverse;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a snapshot directly from its parts.
+   *
+   * @param numVertices
+   *   The number of (used) vertices.
+   * @param offsets
+   *   The row offsets (of length capacity + 1).
+   * @param targets
+   *   The edge targets.
+   * @param weights
+   *   The edge weights.
+   * @param vertexNames
+   *   The vertex names (of length capacity).
+   * @param version
+   *   The version of the originating graph.
+   */
+  CsrGraph(int numVertices, int[] offsets, int[] targets, int[] weights,
+      String[] vertexNames, long version) {
+    this(numVertices, offsets, targets, weights, vertexNames,
+        NameTable.of(vertexNames), version);
+  } // CsrGraph(int, int[], int[], int[], String[], long)
+
+  /**
+   * Build a snapshot from its parts, sharing an existing name table.
+   *
+   * @param numVertices
+   *   The number of (used) vertices.
+   * @param offsets
+   *   The row offsets (of length capacity + 1).
+   * @param targets
+   *   The edge targets.
+   * @param weights
+   *   The edge weights.
+   * @param vertexNames
+   *   The vertex names (of length capacity).
+   * @param vertexNumbers
+   *   The vertex numbers, indexed by name.
+   * @param version
+   *   The version of the originating graph.
+   */
+  private CsrGraph(int numVertices, int[] offsets, int[] targets, int[] weights,
+      String[] vertexNames, NameTable vertexNumbers, long version) {
+    this.numVertices = numVertices;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.vertexNames = vertexNames;
+    this.vertexNumbers = vertexNumbers;
+    this.version = version;
+  } // CsrGraph(int, int[], int[], int[], String[], NameTable, long)
+
+  /**
+   * Build a snapshot of a graph.
+   *
+   * @param graph
+   *   The graph to copy.
+   *
+   * @return the snapshot.
+   */
+  public static CsrGraph of(Graph graph) {
+    int capacity = graph.vertices.length;
+    int[] offsets = new int[capacity + 1];
+    for (int v = 0; v < capacity; v++) {
+      offsets[v + 1] = offsets[v] + graph.vertices[v].size();
+    } // for
+    int[] targets = new int[offsets[capacity]];
+    int[] weights = new int[offsets[capacity]];
+    for (int v = 0; v < capacity; v++) {
+      EdgeList edges = graph.vertices[v];
+      System.arraycopy(edges.targets, 0, targets, offsets[v], edges.size());
+      System.arraycopy(edges.weights, 0, weights, offsets[v], edges.size());
+    } // for
+    // Copying the graph's name table is cheaper than hashing every name
+    // again. (We cannot share it, since the graph will change.)
+    return new CsrGraph(graph.numVertices, offsets, targets, weights,
+        Arrays.copyOf(graph.vertexNames, capacity),
+        new NameTable(graph.vertexNumbers), graph.version);
+  } // of(Graph)
+
+  /**
+   * Load a graph saved by save. The file is memory-mapped and its
+   * sections copied directly into the snapshot's arrays.
+   *
+   * @param fname
+   *   The name of the file.
+   *
+   * @return the graph.
+   *
+   * @throws IOException
+   *   If the file cannot be read or is not a valid graph file.
+   */
+  public static CsrGraph load(String fname) throws IOException {
+    return GraphFile.read(fname);
+  } // load(String)
+
+  /**
+   * Get the reverse of this graph, in which every edge points the other
+   * way. The reverse is built the first time it is needed and shares
+   * this graph's vertex names.
+   *
+   * @return the reversed graph.
+   */
+  public CsrGraph transpose() {
+    if (this.reverse == null) {
+      int capacity = this.vertexNames.length;
+      int[] revOffsets = new int[capacity + 1];
+      for (int pos = 0; pos < this.targets.length; pos++) {
+        ++revOffsets[this.targets[pos] + 1];
+      } // for
+      for (int v = 0; v < capacity; v++) {
+        revOffsets[v + 1] += revOffsets[v];
+      } // for
+      int[] next = Arrays.copyOf(revOffsets, capacity);
+      int[] revTargets = new int[this.targets.length];
+      int[] revWeights = new int[this.targets.length];
+      for (int u = 0; u < capacity; u++) {
+        for (int pos = this.offsets[u]; pos < this.offsets[u + 1]; pos++) {
+          int slot = next[this.targets[pos]]++;
+          revTargets[slot] = u;
+          revWeights[slot] = this.weights[pos];
+        } // for
+      } // for
+      CsrGraph result = new CsrGraph(this.numVertices, revOffsets, revTargets,
+          revWeights, this.vertexNames, this.vertexNumbers, this.version);
+      result.reverse = this;
+      this.reverse = result;
+    } // if
+    return this.reverse;
+  } // transpose()
+
+  /**
+   * Save the graph in binary form, so that it can be loaded quickly with
+   * load. Vertex numbers and the version are preserved.
+   *
+   * @param fname
+   *   The name of the file to write.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  public void save(String fname) throws IOException {
+    GraphFile.write(this, fname);
+  } // save(String)
+
+  // +----------------------+----------------------------------------
+  // | Vertex names/numbers |
+  // +----------------------+
+
+  /**
+   * Given a vertex number, get the corresponding vertex name.
+   *
+   * @param vertexNumber
+   *   The number of a vertex.
+   *
+   * @return The corresponding vertex name. If there is no corresponding
+   *   vertex name, returns null.
+   */
+  public String vertexName(int vertexNumber) {
+    if (!validVertex(vertexNumber)) {
+      return null;
+    } else {
+      return this.vertexNames[vertexNumber];
+    } // if/else
+  } // vertexName(int)
+
+  /**
+   * Given a vertex name, get the corresponding vertex number.
+   *
+   * @param vertexName
+   *   The name of the vertex.
+   *
+   * @return
+   *   The corresponding vertex number. If there is no corresponding vertex
+   *   number, returns -1.
+   */
+  public int vertexNumber(String vertexName) {
+    return (vertexName == null) ? -1 : this.vertexNumbers.get(vertexName);
+  } // vertexNumber(String)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of edges.
+   *
+   * @return the number of edges.
+   */
+  public int numEdges() {
+    return this.targets.length;
+  } // numEdges()
+
+  /**
+   * Get the number of vertices.
+   *
+   * @return the number of vertices.
+   */
+  public int numVertices() {
+    return this.numVertices;
+  } // numVertices()
+
+  /**
+   * Get the number of vertex slots (one more than the largest possible
+   * vertex number).
+   *
+   * @return the capacity.
+   */
+  public int capacity() {
+    return this.vertexNames.length;
+  } // capacity()
+
+  /**
+   * Get the version of the graph this snapshot was built from.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Get the number of edges from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the out-degree of the vertex, or 0 for an invalid vertex.
+   */
+  public int degree(int vertex) {
+    if (!validVertex(vertex)) {
+      return 0;
+    } // if
+    return this.offsets[vertex + 1] - this.offsets[vertex];
+  } // degree(int)
+
+  /**
+   * Get an iterable for the vertices.
+   *
+   * @return an iterable whose iterator method returns an iterator
+   *   for all the vertices.
+   */
+  public Iterable<Integer> vertices() {
+    return () -> {
+      return new Iterator<Integer>() {
+        // The next vertex to consider
+        int vertex = nextVertex(0);
+
+        public boolean hasNext() {
+          return this.vertex < CsrGraph.this.vertexNames.length;
+        } // hasNext()
+
+        public Integer next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          int result = this.vertex;
+          this.vertex = nextVertex(this.vertex + 1);
+          return result;
+        } // next()
+      }; // new Iterator<Integer>
+    };
+  } // vertices()
+
+  /**
+   * Get all of the edges from a particular vertex.
+   *
+   * @param vertex
+   *   The vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesFrom(int vertex) {
+    final int start = validVertex(vertex) ? this.offsets[vertex] : 0;
+    final int end = validVertex(vertex) ? this.offsets[vertex + 1] : 0;
+    return () -> {
+      return new Iterator<Edge>() {
+        // The position of the next edge
+        int pos = start;
+
+        public boolean hasNext() {
+          return this.pos < end;
+        } // hasNext()
+
+        public Edge next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          Edge e = new Edge(vertex, CsrGraph.this.targets[this.pos],
+              CsrGraph.this.weights[this.pos]);
+          ++this.pos;
+          return e;
+        } // next()
+      }; // new Iterator<Edge>
+    };
+  } // edgesFrom(int)
+
+  /**
+   * Get all of the edges from a particular vertex.
+   *
+   * @param vertex
+   *   The vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesFrom(String vertex) {
+    return this.edgesFrom(vertexNumber(vertex));
+  } // edgesFrom(String)
+
+  // +------------+--------------------------------------------------
+  // | Algorithms |
+  // +------------+
+
+  /**
+   * Get a path from start to finish (using BFS).
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  public List<Edge> path(int start, int finish) {
+    if (!validVertex(start) || !validVertex(finish)) {
+      return null;
+    } // if
+
+    // incoming[v] is the position of the edge that first reached v, or -1.
+    int[] incoming = new int[this.vertexNames.length];
+    Arrays.fill(incoming, -1);
+    // from[v] is the source of that edge.
+    int[] from = new int[this.vertexNames.length];
+
+    // An array-based queue; each vertex is enqueued at most once.
+    int[] queue = new int[this.vertexNames.length];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = start;
+
+    while ((incoming[finish] == -1) && (head < tail)) {
+      int v = queue[head++];
+      for (int pos = this.offsets[v]; pos < this.offsets[v + 1]; pos++) {
+        int to = this.targets[pos];
+        if (incoming[to] == -1) {
+          incoming[to] = pos;
+          from[to] = v;
+          queue[tail++] = to;
+        } // if
+      } // for
+    } // while
+
+    if (incoming[finish] == -1) {
+      return null;
+    } // if
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    int current = finish;
+    do {
+      int pos = incoming[current];
+      path.add(new Edge(from[current], current, this.weights[pos]));
+      current = from[current];
+    } while (current != start);
+    Collections.reverse(path);
+    return path;
+  } // path(int, int)
+
+  /**
+   * Get a path from start to finish. If no such path exists, returns null.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  public List<Edge> path(String start, String finish) {
+    return path(this.vertexNumber(start), this.vertexNumber(finish));
+  } // path(String, String)
+
+  /**
+   * Find the shortest path using Dijkstra's algorithm. The search stops
+   * as soon as the sink is settled.
+   *
+   * @param source
+   *    Start node
+   * @param sink
+   *    End node
+   * @return
+   *    An array of predecessors, indexed by vertex number. Following the
+   *    predecessors from the sink leads back to the source. Vertices the
+   *    search did not settle have a null predecessor.
+   */
+  public Integer[] shortestPath(int source, int sink) {
+    return Dijkstra.run(this, source, sink).predecessors();
+  } // shortestPath(int, int)
+
+  /**
+   * Find the shortest paths from a source to every reachable vertex,
+   * using Dijkstra's algorithm.
+   *
+   * @param source
+   *    Start node
+   * @return
+   *    The shortest-path tree rooted at source.
+   */
+  public ShortestPathTree shortestPaths(int source) {
+    return Dijkstra.run(this, source, -1);
+  } // shortestPaths(int)
+
+  /**
+   * Get a path with the fewest edges from start to finish, searching
+   * forward from start and backward from finish at the same time.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  public List<Edge> bidirectionalPath(int start, int finish) {
+    if (start == finish) {
+      return this.path(start, finish);
+    } // if
+    return BidirectionalSearch.path(this, this.transpose(), start, finish);
+  } // bidirectionalPath(int, int)
+
+  /**
+   * Find a shortest path from source to sink using A* search. With
+   * Landmarks as the heuristic, this is the ALT algorithm.
+   *
+   * @param source
+   *    Start node
+   * @param sink
+   *    End node
+   * @param heuristic
+   *    An admissible estimate of the remaining distance.
+   * @return
+   *    The edges of a shortest path from source to sink, or null if
+   *    there is no such path.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight, or the
+   *    heuristic is Landmarks computed on another version of the graph.
+   */
+  public List<Edge> aStarPath(int source, int sink, Heuristic heuristic) {
+    if (heuristic instanceof Landmarks) {
+      ((Landmarks) heuristic).check(this.capacity(), this.version);
+    } // if
+    return AStar.run(this, source, sink, heuristic);
+  } // aStarPath(int, int, Heuristic)
+
+  /**
+   * Find a shortest path from source to sink using bidirectional
+   * Dijkstra.
+   *
+   * @param source
+   *    Start node
+   * @param sink
+   *    End node
+   * @return
+   *    The edges of a shortest path from source to sink, or null if
+   *    there is no such path.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight.
+   */
+  public List<Edge> bidirectionalShortestPath(int source, int sink) {
+    return BidirectionalSearch.shortestPath(this, this.transpose(), source, sink);
+  } // bidirectionalShortestPath(int, int)
+
+  /**
+   * Find the vertices reachable from one or more sources (including the
+   * sources themselves), in a single sweep. Invalid sources are ignored.
+   * (See ParallelReachability for a parallel version.)
+   *
+   * @param sources
+   *   The vertices to start from.
+   *
+   * @return the set of reachable vertex numbers.
+   */
+  public BitSet reachable(int... sources) {
+    return BitSet.valueOf(Reachability.sweep(this, sources));
+  } // reachable(int...)
+
+  // +-----------+---------------------------------------------------
+  // | Adjacency |
+  // +-----------+
+
+  /**
+   * Get one of the targets of a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the target of the edge.
+   */
+  public int target(int vertex, int i) {
+    return this.targets[this.offsets[vertex] + i];
+  } // target(int, int)
+
+  /**
+   * Get the weight of one of the edges from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the weight of the edge.
+   */
+  public int weight(int vertex, int i) {
+    return this.weights[this.offsets[vertex] + i];
+  } // weight(int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Find the first used vertex number at or after a position.
+   *
+   * @param vertex
+   *   The position to start looking.
+   *
+   * @return the next used vertex number, or the capacity if there is none.
+   */
+  private int nextVertex(int vertex) {
+    while ((vertex < this.vertexNames.length)
+        && (this.vertexNames[vertex] == null)) {
+      ++vertex;
+    } // while
+    return vertex;
+  } // nextVertex(int)
+
+  /**
+   * Determine if a vertex is valid.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return true if the vertex if valid and false otherwise.
+   */
+  public boolean validVertex(int vertex) {
+    return ((vertex >= 0) && (vertex < this.vertexNames.length)
+        && (this.vertexNames[vertex] != null));
+  } // validVertex(int)
+} // class CsrGraph
@@ -0,0 +1,428 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single-source shortest paths using delta-stepping, run on a
+ * fork-join pool. Produces the same distances as Dijkstra's algorithm.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class DeltaStepping {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Vertices are kept in buckets by tentative distance: bucket i holds
+   * the vertices whose distance is in [i*delta, (i+1)*delta). We empty
+   * the smallest nonempty bucket by repeatedly relaxing, in parallel, the
+   * "light" edges (weight <= delta) of the vertices in it, since those
+   * can put vertices back into the same bucket. Once the bucket stays
+   * empty, its vertices have their final distances, and we relax their
+   * "heavy" edges once.
+   *
+   * Updates to a vertex's distance and predecessor happen together under
+   * one of a set of striped locks, so the predecessor always matches the
+   * distance. Distances only decrease, so the predecessors form a
+   * shortest-path tree. (When there are ties, the tree may differ from
+   * the one Dijkstra's algorithm picks.)
+   *
+   * Each parallel step records the vertices it improved in a local list;
+   * we file them into buckets between steps. Stale bucket entries (for
+   * vertices that have since moved to a lower bucket) are skipped.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of frontier vertices below which a task stops splitting.
+   */
+  static final int GRAIN = 256;
+
+  /**
+   * The number of lock stripes (a power of two).
+   */
+  static final int STRIPES = 1024;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph we search.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The bucket width.
+   */
+  final int delta;
+
+  /**
+   * The pool we run on.
+   */
+  final ForkJoinPool pool;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a solver that uses the common pool.
+   *
+   * @param graph
+   *   The graph to search. Weights must be non-negative.
+   * @param delta
+   *   The bucket width. Roughly the average edge weight is a good start.
+   */
+  public DeltaStepping(CsrGraph graph, int delta) {
+    this(graph, delta, ForkJoinPool.commonPool());
+  } // DeltaStepping(CsrGraph, int)
+
+  /**
+   * Create a solver that runs on an existing pool.
+   *
+   * @param graph
+   *   The graph to search. Weights must be non-negative.
+   * @param delta
+   *   The bucket width.
+   * @param pool
+   *   The pool to run on. The caller owns it and shuts it down.
+   */
+  public DeltaStepping(CsrGraph graph, int delta, ForkJoinPool pool) {
+    if (delta < 1) {
+      throw new IllegalArgumentException("delta must be positive");
+    } // if
+    this.graph = graph;
+    this.delta = delta;
+    this.pool = pool;
+  } // DeltaStepping(CsrGraph, int, ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Compute the shortest paths from a source to every reachable vertex.
+   *
+   * @param source
+   *   The source vertex.
+   *
+   * @return the shortest-path tree rooted at source.
+   *
+   * @throws IllegalArgumentException
+   *   If the graph has negative weights.
+   */
+  public ShortestPathTree run(int source) {
+    for (int v = 0; v < this.graph.capacity(); v++) {
+      for (int i = 0; i < this.graph.degree(v); i++) {
+        if (this.graph.weight(v, i) < 0) {
+          throw new IllegalArgumentException("Negative weight from " + v);
+        } // if
+      } // for
+    } // for
+    Search search = new Search();
+    if (this.graph.validVertex(source)) {
+      search.run(source);
+    } // if
+    long[] distances = new long[search.dist.length()];
+    for (int v = 0; v < distances.length; v++) {
+      distances[v] = search.dist.get(v);
+    } // for
+    return new ShortestPathTree(source, distances, search.pred);
+  } // run(int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The state of one search.
+   */
+  class Search {
+    /**
+     * Tentative distances.
+     */
+    final AtomicLongArray dist;
+
+    /**
+     * Predecessors (written only while holding the vertex's stripe lock).
+     */
+    final int[] pred;
+
+    /**
+     * The lock stripes.
+     */
+    final Object[] locks;
+
+    /**
+     * The buckets, by index. Each bucket is a list of vertices.
+     */
+    final TreeMap<Long, IntList> buckets = new TreeMap<Long, IntList>();
+
+    /**
+     * The frontier in which each vertex last appeared (used to remove
+     * duplicates).
+     */
+    final int[] frontierStamp;
+
+    /**
+     * The bucket in which each vertex was last settled.
+     */
+    final int[] settledStamp;
+
+    /**
+     * The number of frontiers so far.
+     */
+    int frontierRound;
+
+    /**
+     * The number of buckets processed so far.
+     */
+    int bucketRound;
+
+    /**
+     * Set up a search.
+     */
+    Search() {
+      int capacity = DeltaStepping.this.graph.capacity();
+      this.dist = new AtomicLongArray(capacity);
+      this.pred = new int[capacity];
+      this.frontierStamp = new int[capacity];
+      this.settledStamp = new int[capacity];
+      this.locks = new Object[STRIPES];
+      for (int i = 0; i < capacity; i++) {
+        this.dist.set(i, ShortestPathTree.UNREACHABLE);
+      } // for
+      Arrays.fill(this.pred, -1);
+      for (int i = 0; i < STRIPES; i++) {
+        this.locks[i] = new Object();
+      } // for
+    } // Search()
+
+    /**
+     * Run the search.
+     *
+     * @param source
+     *   The source vertex.
+     */
+    void run(int source) {
+      this.dist.set(source, 0);
+      this.file(source);
+      while (!this.buckets.isEmpty()) {
+        Map.Entry<Long, IntList> first = this.buckets.pollFirstEntry();
+        long index = first.getKey();
+        IntList settled = new IntList();
+        ++this.bucketRound;
+        IntList pending = first.getValue();
+        while (pending != null) {
+          int[] frontier = this.frontier(pending, index, settled);
+          if (frontier.length > 0) {
+            this.relax(frontier, true);
+          } // if
+          pending = this.buckets.remove(index);
+        } // while
+        this.relax(settled.toArray(), false);
+      } // while
+    } // run(int)
+
+    /**
+     * Turn a bucket's contents into a frontier, dropping stale and
+     * duplicate entries and noting the vertices settled in this bucket.
+     *
+     * @param pending
+     *   The contents of the bucket.
+     * @param index
+     *   The bucket index.
+     * @param settled
+     *   The vertices settled in this bucket so far.
+     *
+     * @return the frontier.
+     */
+    int[] frontier(IntList pending, long index, IntList settled) {
+      ++this.frontierRound;
+      IntList result = new IntList();
+      long delta = DeltaStepping.this.delta;
+      for (int i = 0; i < pending.size(); i++) {
+        int v = pending.get(i);
+        if ((this.dist.get(v) / delta == index)
+            && (this.frontierStamp[v] != this.frontierRound)) {
+          this.frontierStamp[v] = this.frontierRound;
+          result.add(v);
+          if (this.settledStamp[v] != this.bucketRound) {
+            this.settledStamp[v] = this.bucketRound;
+            settled.add(v);
+          } // if
+        } // if
+      } // for
+      return result.toArray();
+    } // frontier(IntList, long, IntList)
+
+    /**
+     * Relax the light or heavy edges of a set of vertices in parallel,
+     * then file the improved vertices into buckets.
+     *
+     * @param vertices
+     *   The vertices.
+     * @param light
+     *   True to relax light edges, false to relax heavy edges.
+     */
+    void relax(int[] vertices, boolean light) {
+      ConcurrentLinkedQueue<IntList> improved = new ConcurrentLinkedQueue<IntList>();
+      DeltaStepping.this.pool.invoke(
+          new RelaxTask(this, vertices, 0, vertices.length, light, improved));
+      for (IntList list : improved) {
+        for (int i = 0; i < list.size(); i++) {
+          this.file(list.get(i));
+        } // for
+      } // for
+    } // relax(int[], boolean)
+
+    /**
+     * Put a vertex in the bucket for its current distance.
+     *
+     * @param v
+     *   The vertex.
+     */
+    void file(int v) {
+      long index = this.dist.get(v) / DeltaStepping.this.delta;
+      IntList bucket = this.buckets.get(index);
+      if (bucket == null) {
+        bucket = new IntList();
+        this.buckets.put(index, bucket);
+      } // if
+      bucket.add(v);
+    } // file(int)
+
+    /**
+     * Try to improve the distance to a vertex.
+     *
+     * @param v
+     *   The vertex.
+     * @param d
+     *   The new distance.
+     * @param u
+     *   The predecessor on the path of length d.
+     *
+     * @return true if the distance improved and false otherwise.
+     */
+    boolean improve(int v, long d, int u) {
+      if (d >= this.dist.get(v)) {
+        return false;
+      } // if
+      synchronized (this.locks[v & (STRIPES - 1)]) {
+        if (d >= this.dist.get(v)) {
+          return false;
+        } // if
+        this.dist.set(v, d);
+        this.pred[v] = u;
+        return true;
+      } // synchronized
+    } // improve(int, long, int)
+  } // class Search
+
+  /**
+   * Relax the edges of a range of frontier vertices, splitting the range
+   * among workers.
+   */
+  @SuppressWarnings("serial")
+  class RelaxTask extends RecursiveAction {
+    /**
+     * The search.
+     */
+    final Search search;
+
+    /**
+     * The frontier.
+     */
+    final int[] vertices;
+
+    /**
+     * The start of our range (inclusive).
+     */
+    final int lo;
+
+    /**
+     * The end of our range (exclusive).
+     */
+    final int hi;
+
+    /**
+     * Whether to relax light (true) or heavy (false) edges.
+     */
+    final boolean light;
+
+    /**
+     * Where to put the lists of improved vertices.
+     */
+    final ConcurrentLinkedQueue<IntList> improved;
+
+    /**
+     * Create a task.
+     *
+     * @param search
+     *   The search.
+     * @param vertices
+     *   The frontier.
+     * @param lo
+     *   The start of the range.
+     * @param hi
+     *   The end of the range.
+     * @param light
+     *   Whether to relax light edges.
+     * @param improved
+     *   Where to put the improved vertices.
+     */
+    RelaxTask(Search search, int[] vertices, int lo, int hi, boolean light,
+        ConcurrentLinkedQueue<IntList> improved) {
+      this.search = search;
+      this.vertices = vertices;
+      this.lo = lo;
+      this.hi = hi;
+      this.light = light;
+      this.improved = improved;
+    } // RelaxTask
+
+    /**
+     * Relax the edges, or split the work.
+     */
+    protected void compute() {
+      if (this.hi - this.lo > GRAIN) {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(
+            new RelaxTask(this.search, this.vertices, this.lo, mid, this.light, this.improved),
+            new RelaxTask(this.search, this.vertices, mid, this.hi, this.light, this.improved));
+        return;
+      } // if
+      CsrGraph g = DeltaStepping.this.graph;
+      int delta = DeltaStepping.this.delta;
+      IntList mine = new IntList();
+      for (int i = this.lo; i < this.hi; i++) {
+        int u = this.vertices[i];
+        long du = this.search.dist.get(u);
+        for (int pos = g.offsets[u]; pos < g.offsets[u + 1]; pos++) {
+          int w = g.weights[pos];
+          if ((w <= delta) == this.light) {
+            int v = g.targets[pos];
+            if (this.search.improve(v, du + w, u)) {
+              mine.add(v);
+            } // if
+          } // if
+        } // for
+      } // for
+      if (mine.size() > 0) {
+        this.improved.add(mine);
+      } // if
+    } // compute()
+  } // class RelaxTask
+} // class DeltaStepping
@@ -0,0 +1,96 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's shortest-path algorithm, using an indexed binary heap with
+ * decrease-key. Weights must be non-negative.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class Dijkstra {
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private Dijkstra() {
+  } // Dijkstra()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Search from a source. If sink is a valid vertex, the search stops
+   * as soon as the sink is settled, and the resulting tree contains only
+   * the settled vertices. Otherwise, it computes the full tree.
+   *
+   * @param graph
+   *   The graph to search.
+   * @param source
+   *   The source vertex.
+   * @param sink
+   *   The vertex at which to stop, or -1 to search the whole graph.
+   *
+   * @return the shortest-path tree.
+   *
+   * @throws IllegalArgumentException
+   *   If the search reaches an edge with a negative weight.
+   */
+  static ShortestPathTree run(Adjacency graph, int source, int sink) {
+    int capacity = graph.capacity();
+    long[] distances = new long[capacity];
+    int[] predecessors = new int[capacity];
+    Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+    Arrays.fill(predecessors, -1);
+    if (!graph.validVertex(source)) {
+      return new ShortestPathTree(source, distances, predecessors);
+    } // if
+
+    IndexedMinHeap heap = new IndexedMinHeap(capacity);
+    int settled = 0;
+    long relaxed = 0;
+    distances[source] = 0;
+    heap.insertOrDecrease(source, 0);
+    while (!heap.isEmpty()) {
+      int u = heap.removeMin();
+      ++settled;
+      if (u == sink) {
+        break;
+      } // if
+      long du = distances[u];
+      int degree = graph.degree(u);
+      relaxed += degree;
+      for (int i = 0; i < degree; i++) {
+        int v = graph.target(u, i);
+        int w = graph.weight(u, i);
+        if (w < 0) {
+          // A settled vertex could otherwise go back on the heap, and a
+          // negative cycle would keep it cycling forever.
+          throw new IllegalArgumentException("Negative weight from " + u);
+        } // if
+        long d = du + w;
+        if (d < distances[v]) {
+          distances[v] = d;
+          predecessors[v] = u;
+          heap.insertOrDecrease(v, d);
+        } // if
+      } // for
+    } // while
+
+    // Anything left in the heap has only a tentative distance.
+    for (int i = 0; i < heap.size(); i++) {
+      int v = heap.get(i);
+      distances[v] = ShortestPathTree.UNREACHABLE;
+      predecessors[v] = -1;
+    } // for
+    ShortestPathTree tree = new ShortestPathTree(source, distances, predecessors);
+    tree.settled = settled;
+    tree.relaxed = relaxed;
+    return tree;
+  } // run(Adjacency, int, int)
+} // class Dijkstra
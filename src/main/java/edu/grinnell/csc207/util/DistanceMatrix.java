@@ -0,0 +1,259 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The distances between every pair of vertices in a graph, as computed
+ * by AllPairs, and optionally the first step of a shortest path between
+ * each pair.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class DistanceMatrix implements AutoCloseable {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * The matrices have one row and column for each valid vertex, in
+   * order of vertex number, so removed vertices take no space. Distances
+   * are ints, with INFINITY (Integer.MAX_VALUE) for "no path"; next hops
+   * are row numbers, with -1 for "no path".
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The stored distance for unreachable pairs.
+   */
+  static final int INFINITY = Integer.MAX_VALUE;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The vertex for each row.
+   */
+  final int[] vertices;
+
+  /**
+   * The row for each vertex, or -1 for invalid vertices.
+   */
+  final int[] rows;
+
+  /**
+   * The distances.
+   */
+  final IntMatrix distances;
+
+  /**
+   * The next hops, or null if we do not keep them.
+   */
+  final IntMatrix nextHops;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a matrix for a graph. The contents are left to AllPairs.
+   *
+   * @param graph
+   *   The graph.
+   * @param distances
+   *   Where to store the distances.
+   * @param nextHops
+   *   Where to store the next hops, or null.
+   */
+  DistanceMatrix(CsrGraph graph, IntMatrix distances, IntMatrix nextHops) {
+    this.graph = graph;
+    this.vertices = rowVertices(graph);
+    this.rows = new int[graph.capacity()];
+    Arrays.fill(this.rows, -1);
+    for (int r = 0; r < this.vertices.length; r++) {
+      this.rows[this.vertices[r]] = r;
+    } // for
+    this.distances = distances;
+    this.nextHops = nextHops;
+  } // DistanceMatrix(CsrGraph, IntMatrix, IntMatrix)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the number of vertices covered.
+   *
+   * @return the number of vertices.
+   */
+  public int size() {
+    return this.vertices.length;
+  } // size()
+
+  /**
+   * Determine if the matrix includes next hops (and so can produce
+   * paths).
+   *
+   * @return true if it does and false otherwise.
+   */
+  public boolean hasNextHops() {
+    return this.nextHops != null;
+  } // hasNextHops()
+
+  /**
+   * Get the length of a shortest path between two vertices.
+   *
+   * @param source
+   *   The start of the path.
+   * @param target
+   *   The end of the path.
+   *
+   * @return the length, or ShortestPathTree.UNREACHABLE if there is no
+   *   path (or either vertex is invalid).
+   */
+  public long distance(int source, int target) {
+    int s = this.row(source);
+    int t = this.row(target);
+    if ((s == -1) || (t == -1)) {
+      return ShortestPathTree.UNREACHABLE;
+    } // if
+    int d = this.distances.get(s, t);
+    return (d == INFINITY) ? ShortestPathTree.UNREACHABLE : d;
+  } // distance(int, int)
+
+  /**
+   * Get the vertex after source on a shortest path to target.
+   *
+   * @param source
+   *   The start of the path.
+   * @param target
+   *   The end of the path.
+   *
+   * @return the next vertex, or -1 if there is no path or they are the
+   *   same.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has no next hops.
+   */
+  public int nextHop(int source, int target) {
+    if (this.nextHops == null) {
+      throw new IllegalStateException("No next hops were computed");
+    } // if
+    int s = this.row(source);
+    int t = this.row(target);
+    if ((s == -1) || (t == -1)) {
+      return -1;
+    } // if
+    int next = this.nextHops.get(s, t);
+    return (next == -1) ? -1 : this.vertices[next];
+  } // nextHop(int, int)
+
+  /**
+   * Get a shortest path between two vertices.
+   *
+   * @param source
+   *   The start of the path.
+   * @param target
+   *   The end of the path.
+   *
+   * @return the edges of the path (empty if source and target are the
+   *   same valid vertex), or null if there is no path.
+   *
+   * @throws IllegalStateException
+   *   If the matrix has no next hops.
+   */
+  public List<Edge> path(int source, int target) {
+    if (this.distance(source, target) == ShortestPathTree.UNREACHABLE) {
+      return null;
+    } // if
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    int u = source;
+    while (u != target) {
+      int v = this.nextHop(u, target);
+      path.add(new Edge(u, v, this.edgeWeight(u, v)));
+      u = v;
+    } // while
+    return path;
+  } // path(int, int)
+
+  /**
+   * Release the memory-mapped files, if any. The matrix should not be
+   * used afterwards.
+   *
+   * @throws IOException
+   *   If the files cannot be closed.
+   */
+  public void close() throws IOException {
+    this.distances.close();
+    if (this.nextHops != null) {
+      this.nextHops.close();
+    } // if
+  } // close()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Get the row of a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the row, or -1 if the vertex is invalid.
+   */
+  int row(int vertex) {
+    return ((vertex < 0) || (vertex >= this.rows.length)) ? -1 : this.rows[vertex];
+  } // row(int)
+
+  /**
+   * Get the weight of the edge between two vertices.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge, which must exist.
+   *
+   * @return the weight.
+   */
+  private int edgeWeight(int source, int target) {
+    int degree = this.graph.degree(source);
+    for (int i = 0; i < degree; i++) {
+      if (this.graph.target(source, i) == target) {
+        return this.graph.weight(source, i);
+      } // if
+    } // for
+    throw new IllegalStateException("Missing edge " + source + " -> " + target);
+  } // edgeWeight(int, int)
+
+  /**
+   * List the valid vertices of a graph.
+   *
+   * @param graph
+   *   The graph.
+   *
+   * @return the valid vertices, in increasing order.
+   */
+  static int[] rowVertices(CsrGraph graph) {
+    int[] result = new int[graph.numVertices()];
+    int r = 0;
+    for (int v = 0; v < graph.capacity(); v++) {
+      if (graph.validVertex(v)) {
+        result[r++] = v;
+      } // if
+    } // for
+    return result;
+  } // rowVertices(CsrGraph)
+} // class DistanceMatrix
@@ -0,0 +1,454 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Shortest-path trees from a set of sources, kept up to date as the
+ * graph changes. After each change, only the vertices whose distances
+ * might change are revisited, rather than searching from scratch.
+ * Weights must be non-negative.
+ *
+ * <pre>
+ *   DynamicShortestPaths trees = new DynamicShortestPaths(graph);
+ *   trees.addSource(depot);
+ *   graph.addEdge(u, v, 5);          // trees are updated here
+ *   long d = trees.distance(depot, v);
+ * </pre>
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class DynamicShortestPaths {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * We follow Ramalingam and Reps. When an edge u -> v appears or gets
+   * lighter, the only vertices that can get closer are v and the
+   * vertices reached through it, so we run Dijkstra's algorithm from v
+   * alone, stopping wherever distances fail to improve.
+   *
+   * When an edge u -> v disappears or gets heavier, distances can grow
+   * only if it was v's tree edge, and then only in the subtree below v.
+   * We collect that subtree (the children of x are the targets of x's
+   * edges whose predecessor is x), forget their distances, give each
+   * the best distance available through an edge from outside the
+   * subtree, and run Dijkstra's algorithm among them from there. That
+   * needs the edges into each vertex, so we ask the graph to index them.
+   *
+   * Removing a vertex is like removing all of its edges at once: we are
+   * told before it happens, treat its subtree as above, and never give
+   * the vertex itself a distance.
+   *
+   * Ties may leave a different (equally short) tree than a search from
+   * scratch would.
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph.
+   */
+  final Graph graph;
+
+  /**
+   * The trees, indexed by source.
+   */
+  final HashMap<Integer, Tree> trees = new HashMap<Integer, Tree>();
+
+  /**
+   * The queue for the searches (empty between updates).
+   */
+  IndexedMinHeap heap;
+
+  /**
+   * Which vertices are in the subtree being repaired.
+   */
+  boolean[] affected;
+
+  /**
+   * The vertices in the subtree being repaired.
+   */
+  IntList subtree = new IntList();
+
+  /**
+   * The number of vertices the updates have visited.
+   */
+  long work;
+
+  /**
+   * Our connection to the graph.
+   */
+  final GraphListener listener = new GraphListener() {
+    @Override
+    public void edgeChanged(int source, int target, Integer oldWeight, Integer newWeight) {
+      DynamicShortestPaths.this.edgeChanged(source, target, oldWeight, newWeight);
+    } // edgeChanged(int, int, Integer, Integer)
+
+    @Override
+    public void vertexRemoving(int vertex) {
+      DynamicShortestPaths.this.vertexRemoving(vertex);
+    } // vertexRemoving(int)
+  };
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Start tracking shortest paths in a graph. (No sources yet.) Also
+   * makes the graph index its incoming edges.
+   *
+   * @param graph
+   *   The graph.
+   */
+  public DynamicShortestPaths(Graph graph) {
+    this.graph = graph;
+    graph.indexIncomingEdges();
+    graph.addListener(this.listener);
+    this.heap = new IndexedMinHeap(graph.vertices.length);
+    this.affected = new boolean[graph.vertices.length];
+  } // DynamicShortestPaths(Graph)
+
+  // +---------+-----------------------------------------------------
+  // | Sources |
+  // +---------+
+
+  /**
+   * Start tracking the shortest paths from a source. Does nothing if
+   * we already track it.
+   *
+   * @param source
+   *   The source.
+   *
+   * @throws IllegalArgumentException
+   *   If the source is not a valid vertex.
+   */
+  public void addSource(int source) {
+    if (this.graph.vertexName(source) == null) {
+      throw new IllegalArgumentException("Invalid source: " + source);
+    } // if
+    if (!this.trees.containsKey(source)) {
+      this.ensureCapacity();
+      ShortestPathTree tree = Dijkstra.run(this.graph.adjacency(), source, -1);
+      this.trees.put(source, new Tree(tree.distances, tree.predecessors));
+    } // if
+  } // addSource(int)
+
+  /**
+   * Stop tracking the shortest paths from a source.
+   *
+   * @param source
+   *   The source.
+   */
+  public void removeSource(int source) {
+    this.trees.remove(source);
+  } // removeSource(int)
+
+  /**
+   * Stop tracking everything and stop listening to the graph.
+   */
+  public void close() {
+    this.trees.clear();
+    this.graph.removeListener(this.listener);
+  } // close()
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the distance from a source to a vertex.
+   *
+   * @param source
+   *   The source, which must be tracked.
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the distance, or ShortestPathTree.UNREACHABLE.
+   */
+  public long distance(int source, int vertex) {
+    long[] distances = this.tree(source).distances;
+    return ((vertex < 0) || (vertex >= distances.length))
+        ? ShortestPathTree.UNREACHABLE : distances[vertex];
+  } // distance(int, int)
+
+  /**
+   * Get the predecessor of a vertex on a shortest path from a source.
+   *
+   * @param source
+   *   The source, which must be tracked.
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the predecessor, or -1 if the vertex is the source or is
+   *   unreachable.
+   */
+  public int predecessor(int source, int vertex) {
+    int[] predecessors = this.tree(source).predecessors;
+    return ((vertex < 0) || (vertex >= predecessors.length)) ? -1 : predecessors[vertex];
+  } // predecessor(int, int)
+
+  /**
+   * Get a copy of the current tree from a source.
+   *
+   * @param source
+   *   The source, which must be tracked.
+   *
+   * @return the tree.
+   */
+  public ShortestPathTree shortestPaths(int source) {
+    Tree tree = this.tree(source);
+    int capacity = this.graph.vertices.length;
+    long[] distances = Arrays.copyOf(tree.distances, capacity);
+    int[] predecessors = Arrays.copyOf(tree.predecessors, capacity);
+    for (int v = tree.distances.length; v < capacity; v++) {
+      distances[v] = ShortestPathTree.UNREACHABLE;
+      predecessors[v] = -1;
+    } // for
+    return new ShortestPathTree(source, distances, predecessors);
+  } // shortestPaths(int)
+
+  /**
+   * Get the number of vertices the updates have visited so far (a
+   * measure of how much work they did).
+   *
+   * @return the number of vertices.
+   */
+  public long work() {
+    return this.work;
+  } // work()
+
+  // +---------+-----------------------------------------------------
+  // | Updates |
+  // +---------+
+
+  /**
+   * Update the trees after an edge changes.
+   *
+   * @param u
+   *   The source of the edge.
+   * @param v
+   *   The target of the edge.
+   * @param oldWeight
+   *   The old weight, or null if the edge is new.
+   * @param newWeight
+   *   The new weight, or null if the edge is gone.
+   */
+  void edgeChanged(int u, int v, Integer oldWeight, Integer newWeight) {
+    this.ensureCapacity();
+    for (Tree tree : this.trees.values()) {
+      if ((newWeight != null) && ((oldWeight == null) || (newWeight < oldWeight))) {
+        this.decrease(tree, u, v, newWeight);
+      } else if ((oldWeight != null) && ((newWeight == null) || (newWeight > oldWeight))
+          && (tree.predecessors[v] == u)) {
+        this.repair(tree, v, -1);
+      } // if/else
+    } // for
+  } // edgeChanged(int, int, Integer, Integer)
+
+  /**
+   * Update the trees before a vertex is removed.
+   *
+   * @param vertex
+   *   The vertex.
+   */
+  void vertexRemoving(int vertex) {
+    this.ensureCapacity();
+    this.trees.remove(vertex);
+    for (Tree tree : this.trees.values()) {
+      if (tree.distances[vertex] != ShortestPathTree.UNREACHABLE) {
+        this.repair(tree, vertex, vertex);
+      } // if
+    } // for
+  } // vertexRemoving(int)
+
+  /**
+   * Handle an edge that appeared or got lighter.
+   *
+   * @param tree
+   *   The tree to update.
+   * @param u
+   *   The source of the edge.
+   * @param v
+   *   The target of the edge.
+   * @param weight
+   *   Its new weight.
+   */
+  void decrease(Tree tree, int u, int v, int weight) {
+    long du = tree.distances[u];
+    if ((du == ShortestPathTree.UNREACHABLE) || (du + weight >= tree.distances[v])) {
+      return;
+    } // if
+    tree.distances[v] = du + weight;
+    tree.predecessors[v] = u;
+    this.heap.insertOrDecrease(v, du + weight);
+    this.propagate(tree, -1);
+  } // decrease(Tree, int, int, int)
+
+  /**
+   * Recompute the distances of the subtree below a vertex, after edges
+   * into it disappeared or got heavier.
+   *
+   * @param tree
+   *   The tree to update.
+   * @param root
+   *   The root of the subtree.
+   * @param removed
+   *   A vertex that is being removed (and must get no distance), or -1.
+   */
+  void repair(Tree tree, int root, int removed) {
+    // Collect the subtree.
+    this.subtree.clear();
+    this.subtree.add(root);
+    this.affected[root] = true;
+    for (int i = 0; i < this.subtree.size(); i++) {
+      int x = this.subtree.get(i);
+      EdgeList edges = this.graph.vertices[x];
+      for (int j = 0; j < edges.size(); j++) {
+        int y = edges.target(j);
+        if ((tree.predecessors[y] == x) && !this.affected[y]) {
+          this.affected[y] = true;
+          this.subtree.add(y);
+        } // if
+      } // for
+    } // for
+    for (int i = 0; i < this.subtree.size(); i++) {
+      int x = this.subtree.get(i);
+      tree.distances[x] = ShortestPathTree.UNREACHABLE;
+      tree.predecessors[x] = -1;
+    } // for
+
+    // Find the best way into each vertex from outside.
+    for (int i = 0; i < this.subtree.size(); i++) {
+      int x = this.subtree.get(i);
+      if (x == removed) {
+        continue;
+      } // if
+      EdgeList in = this.graph.incoming[x];
+      for (int j = 0; j < in.size(); j++) {
+        int y = in.target(j);
+        long dy = tree.distances[y];
+        if (!this.affected[y] && (dy != ShortestPathTree.UNREACHABLE)
+            && (dy + in.weight(j) < tree.distances[x])) {
+          tree.distances[x] = dy + in.weight(j);
+          tree.predecessors[x] = y;
+        } // if
+      } // for
+      if (tree.distances[x] != ShortestPathTree.UNREACHABLE) {
+        this.heap.insertOrDecrease(x, tree.distances[x]);
+      } // if
+    } // for
+    this.work += this.subtree.size();
+    for (int i = 0; i < this.subtree.size(); i++) {
+      this.affected[this.subtree.get(i)] = false;
+    } // for
+
+    this.propagate(tree, removed);
+  } // repair(Tree, int, int)
+
+  /**
+   * Run Dijkstra's algorithm from the vertices in the heap, improving
+   * distances wherever possible.
+   *
+   * @param tree
+   *   The tree to update.
+   * @param removed
+   *   A vertex that is being removed (and must get no distance), or -1.
+   */
+  void propagate(Tree tree, int removed) {
+    while (!this.heap.isEmpty()) {
+      int x = this.heap.removeMin();
+      ++this.work;
+      long dx = tree.distances[x];
+      EdgeList edges = this.graph.vertices[x];
+      for (int j = 0; j < edges.size(); j++) {
+        int y = edges.target(j);
+        long d = dx + edges.weight(j);
+        if ((y != removed) && (d < tree.distances[y])) {
+          tree.distances[y] = d;
+          tree.predecessors[y] = x;
+          this.heap.insertOrDecrease(y, d);
+        } // if
+      } // for
+    } // while
+  } // propagate(Tree, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The distances and predecessors from one source.
+   */
+  static final class Tree {
+    /**
+     * The distance to each vertex, or UNREACHABLE.
+     */
+    long[] distances;
+
+    /**
+     * The predecessor of each vertex, or -1.
+     */
+    int[] predecessors;
+
+    /**
+     * Create a tree.
+     *
+     * @param distances
+     *   The distances.
+     * @param predecessors
+     *   The predecessors.
+     */
+    Tree(long[] distances, int[] predecessors) {
+      this.distances = distances;
+      this.predecessors = predecessors;
+    } // Tree(long[], int[])
+  } // class Tree
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Get the tree for a source.
+   *
+   * @param source
+   *   The source.
+   *
+   * @return the tree.
+   *
+   * @throws IllegalArgumentException
+   *   If we do not track the source.
+   */
+  private Tree tree(int source) {
+    Tree tree = this.trees.get(source);
+    if (tree == null) {
+      throw new IllegalArgumentException("Not a tracked source: " + source);
+    } // if
+    return tree;
+  } // tree(int)
+
+  /**
+   * Make room for any vertices the graph has grown to hold.
+   */
+  private void ensureCapacity() {
+    int capacity = this.graph.vertices.length;
+    if (this.affected.length >= capacity) {
+      return;
+    } // if
+    this.heap = new IndexedMinHeap(capacity);
+    this.affected = new boolean[capacity];
+    for (Tree tree : this.trees.values()) {
+      int old = tree.distances.length;
+      tree.distances = Arrays.copyOf(tree.distances, capacity);
+      tree.predecessors = Arrays.copyOf(tree.predecessors, capacity);
+      Arrays.fill(tree.distances, old, capacity, ShortestPathTree.UNREACHABLE);
+      Arrays.fill(tree.predecessors, old, capacity, -1);
+    } // for
+  } // ensureCapacity()
+} // class DynamicShortestPaths
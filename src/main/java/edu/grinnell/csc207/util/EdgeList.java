@@ -0,0 +1,391 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The edges from one vertex of a graph, stored as parallel arrays of
+ * targets and weights. Once a vertex has more than a few edges, the list
+ * also keeps a hash index from target to position, so that finding,
+ * adding, and removing an edge take constant expected time however high
+ * the degree.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class EdgeList implements Iterable<Edge> {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * The edges occupy positions 0 .. size-1 of targets and weights. There
+   * is at most one edge to any target.
+   *
+   * Small lists are searched linearly, which is as fast as hashing for a
+   * handful of edges and costs no extra space. When a list grows past
+   * INDEX_THRESHOLD edges we build the index, an open-addressing table
+   * (with linear probing) that holds position + 1 for each edge, so that
+   * 0 means "empty". The table is kept at most half full. Deletions use
+   * backward shifting rather than tombstones, so the table never fills
+   * with dead entries.
+   *
+   * To remove an edge in constant time we move the last edge into its
+   * place. Removing an edge may therefore change the order of the other
+   * edges from the same vertex.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of edges above which we keep a hash index.
+   */
+  static final int INDEX_THRESHOLD = 16;
+
+  /**
+   * The index entry for an empty slot.
+   */
+  static final int EMPTY = 0;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The vertex these edges come from.
+   */
+  final int source;
+
+  /**
+   * The targets of the edges.
+   */
+  int[] targets;
+
+  /**
+   * The weights of the edges.
+   */
+  int[] weights;
+
+  /**
+   * The number of edges.
+   */
+  int size;
+
+  /**
+   * The index from target to position + 1, or null if the list is small.
+   */
+  int[] index;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty list.
+   *
+   * @param source
+   *   The vertex the edges come from.
+   */
+  EdgeList(int source) {
+    this(source, 2);
+  } // EdgeList(int)
+
+  /**
+   * Create an empty list with room for some edges.
+   *
+   * @param source
+   *   The vertex the edges come from.
+   * @param capacity
+   *   The number of edges to make room for.
+   */
+  EdgeList(int source, int capacity) {
+    this.source = source;
+    this.targets = new int[capacity];
+    this.weights = new int[capacity];
+    this.size = 0;
+  } // EdgeList(int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of edges.
+   *
+   * @return the number of edges.
+   */
+  int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Get the target of an edge.
+   *
+   * @param i
+   *   The position of the edge, in the range 0 .. size()-1.
+   *
+   * @return the target.
+   */
+  int target(int i) {
+    return this.targets[i];
+  } // target(int)
+
+  /**
+   * Get the weight of an edge.
+   *
+   * @param i
+   *   The position of the edge, in the range 0 .. size()-1.
+   *
+   * @return the weight.
+   */
+  int weight(int i) {
+    return this.weights[i];
+  } // weight(int)
+
+  /**
+   * Find the edge to a target.
+   *
+   * @param target
+   *   The target.
+   *
+   * @return the position of the edge, or -1 if there is no such edge.
+   */
+  int indexOf(int target) {
+    if (this.index == null) {
+      for (int i = 0; i < this.size; i++) {
+        if (this.targets[i] == target) {
+          return i;
+        } // if
+      } // for
+      return -1;
+    } // if
+    int mask = this.index.length - 1;
+    for (int slot = hash(target) & mask; ; slot = (slot + 1) & mask) {
+      int entry = this.index[slot];
+      if (entry == EMPTY) {
+        return -1;
+      } else if (this.targets[entry - 1] == target) {
+        return entry - 1;
+      } // if/else
+    } // for
+  } // indexOf(int)
+
+  /**
+   * Iterate the edges.
+   *
+   * @return an iterator for the edges, in order of position.
+   */
+  public Iterator<Edge> iterator() {
+    return new Iterator<Edge>() {
+      // The position of the next edge
+      int pos = 0;
+
+      public boolean hasNext() {
+        return this.pos < EdgeList.this.size;
+      } // hasNext()
+
+      public Edge next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        } // if
+        int i = this.pos++;
+        return new Edge(EdgeList.this.source, EdgeList.this.targets[i],
+            EdgeList.this.weights[i]);
+      } // next()
+    }; // new Iterator<Edge>
+  } // iterator()
+
+  /**
+   * Make a copy of this list that can be changed without affecting it.
+   *
+   * @return the copy.
+   */
+  EdgeList copy() {
+    EdgeList result = new EdgeList(this.source, Math.max(this.size, 2));
+    System.arraycopy(this.targets, 0, result.targets, 0, this.size);
+    System.arraycopy(this.weights, 0, result.weights, 0, this.size);
+    result.size = this.size;
+    result.index = (this.index == null) ? null : this.index.clone();
+    return result;
+  } // copy()
+
+  // +----------+----------------------------------------------------
+  // | Mutators |
+  // +----------+
+
+  /**
+   * Add an edge, or change its weight if it is already present.
+   *
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @return true if the edge is new and false if it replaced an edge.
+   */
+  boolean put(int target, int weight) {
+    int i = this.indexOf(target);
+    if (i != -1) {
+      this.weights[i] = weight;
+      return false;
+    } // if
+    this.append(target, weight);
+    return true;
+  } // put(int, int)
+
+  /**
+   * Add an edge to a target that is not already in the list.
+   *
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   */
+  void append(int target, int weight) {
+    if (this.size == this.targets.length) {
+      int capacity = Math.max(4, this.size * 2);
+      this.targets = Arrays.copyOf(this.targets, capacity);
+      this.weights = Arrays.copyOf(this.weights, capacity);
+    } // if
+    int i = this.size++;
+    this.targets[i] = target;
+    this.weights[i] = weight;
+    if (this.index != null) {
+      if (this.size * 2 > this.index.length) {
+        this.reindex(this.index.length * 2);
+      } else {
+        this.insert(i);
+      } // if/else
+    } else if (this.size > INDEX_THRESHOLD) {
+      this.reindex(Integer.highestOneBit(this.size) * 4);
+    } // if/else
+  } // append(int, int)
+
+  /**
+   * Remove the edge to a target, if there is one. The last edge moves
+   * into its place.
+   *
+   * @param target
+   *   The target of the edge.
+   *
+   * @return true if an edge was removed and false otherwise.
+   */
+  boolean remove(int target) {
+    int i = this.indexOf(target);
+    if (i == -1) {
+      return false;
+    } // if
+    int last = --this.size;
+    if (this.index != null) {
+      this.unindex(i);
+      if (i != last) {
+        this.index[this.slotOf(this.targets[last])] = i + 1;
+      } // if
+    } // if
+    this.targets[i] = this.targets[last];
+    this.weights[i] = this.weights[last];
+    return true;
+  } // remove(int)
+
+  /**
+   * Remove every edge.
+   */
+  void clear() {
+    this.size = 0;
+    this.index = null;
+  } // clear()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Find the index slot that holds the edge to a target. The edge must
+   * be present.
+   *
+   * @param target
+   *   The target.
+   *
+   * @return the slot.
+   */
+  private int slotOf(int target) {
+    int mask = this.index.length - 1;
+    int slot = hash(target) & mask;
+    while (this.targets[this.index[slot] - 1] != target) {
+      slot = (slot + 1) & mask;
+    } // while
+    return slot;
+  } // slotOf(int)
+
+  /**
+   * Add the edge at a position to the index.
+   *
+   * @param i
+   *   The position.
+   */
+  private void insert(int i) {
+    int mask = this.index.length - 1;
+    int slot = hash(this.targets[i]) & mask;
+    while (this.index[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    } // while
+    this.index[slot] = i + 1;
+  } // insert(int)
+
+  /**
+   * Remove the edge at a position from the index, shifting later entries
+   * of its probe run back so that lookups still find them.
+   *
+   * @param i
+   *   The position.
+   */
+  private void unindex(int i) {
+    int mask = this.index.length - 1;
+    int hole = this.slotOf(this.targets[i]);
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      int entry = this.index[slot];
+      if (entry == EMPTY) {
+        break;
+      } // if
+      int home = hash(this.targets[entry - 1]) & mask;
+      // Move the entry into the hole unless its home lies cyclically
+      // in (hole, slot].
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        this.index[hole] = entry;
+        hole = slot;
+      } // if
+    } // while
+    this.index[hole] = EMPTY;
+  } // unindex(int)
+
+  /**
+   * Rebuild the index with a new number of slots.
+   *
+   * @param numSlots
+   *   The number of slots (a power of two).
+   */
+  private void reindex(int numSlots) {
+    this.index = new int[numSlots];
+    for (int i = 0; i < this.size; i++) {
+      this.insert(i);
+    } // for
+  } // reindex(int)
+
+  /**
+   * Hash a target.
+   *
+   * @param target
+   *   The target.
+   *
+   * @return the hash code.
+   */
+  private static int hash(int target) {
+    int h = target * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  } // hash(int)
+} // class EdgeList
@@ -0,0 +1,403 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A reader for edge-list files (lines of the form FROM TO WEIGHT) that
+ * works directly on the bytes of the file. Large files are split into
+ * chunks that are parsed in parallel and then added to the graph in
+ * order.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class EdgeListReader {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Each chunk of the file is memory-mapped and parsed on its own. The
+   * parser never builds a String for a weight; it builds one for a name
+   * only the first time the chunk sees that name. Within a chunk, names
+   * are numbered in order of appearance using a NameTable keyed by the
+   * raw bytes, and edges are recorded as three int lists.
+   *
+   * Chunks end just after a newline, so no line is split. After all of
+   * the chunks are parsed we check them for errors (reporting the first
+   * bad line by its line number in the whole file) and then, in file
+   * order, translate each chunk's names into vertex numbers and add its
+   * edges. Adding in file order preserves the "last edge wins" behavior
+   * of reading line by line.
+   *
+   * Fields are separated by spaces or tabs. Blank lines are skipped.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The approximate size of each chunk, in bytes.
+   */
+  static final int CHUNK_SIZE = 64 << 20;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private EdgeListReader() {
+  } // EdgeListReader()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Read the edges in a file into a graph.
+   *
+   * @param graph
+   *   The graph to add edges to.
+   * @param fname
+   *   The name of the file.
+   *
+   * @throws Exception
+   *   If the file cannot be read or contains a malformed line.
+   */
+  static void read(Graph graph, String fname) throws Exception {
+    List<Chunk> chunks = parse(fname, CHUNK_SIZE);
+    long lineBase = 0;
+    for (Chunk chunk : chunks) {
+      if (chunk.error != null) {
+        throw new Exception(fname + ", line " + (lineBase + chunk.errorLine)
+            + ": " + chunk.error);
+      } // if
+      lineBase += chunk.lines;
+    } // for
+    for (Chunk chunk : chunks) {
+      chunk.addTo(graph);
+    } // for
+  } // read(Graph, String)
+
+  /**
+   * Split a file into chunks and parse them in parallel.
+   *
+   * @param fname
+   *   The name of the file.
+   * @param chunkSize
+   *   The approximate size of each chunk.
+   *
+   * @return the parsed chunks, in file order.
+   *
+   * @throws Exception
+   *   If the file cannot be read.
+   */
+  static List<Chunk> parse(String fname, int chunkSize) throws Exception {
+    try (FileChannel channel = FileChannel.open(Paths.get(fname),
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      ArrayList<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+      long start = 0;
+      while (start < size) {
+        long end = Math.min(start + chunkSize, size);
+        end = lineEnd(channel, end, size);
+        MappedByteBuffer buffer =
+            channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        tasks.add(() -> new Chunk(buffer).parse());
+        start = end;
+      } // while
+
+      ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+      if (tasks.size() == 1) {
+        chunks.add(tasks.get(0).call());
+      } else {
+        for (Future<Chunk> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+          try {
+            chunks.add(future.get());
+          } catch (ExecutionException e) {
+            throw new IOException("Could not parse " + fname, e.getCause());
+          } // try/catch
+        } // for
+      } // if/else
+      return chunks;
+    } // try
+  } // parse(String, int)
+
+  /**
+   * Find the end of the line containing a position.
+   *
+   * @param channel
+   *   The file.
+   * @param pos
+   *   The position.
+   * @param size
+   *   The size of the file.
+   *
+   * @return the position just after the next newline at or after pos, or
+   *   the size of the file.
+   */
+  private static long lineEnd(FileChannel channel, long pos, long size)
+      throws IOException {
+    if (pos >= size) {
+      return size;
+    } // if
+    ByteBuffer one = ByteBuffer.allocate(4096);
+    while (pos < size) {
+      one.clear();
+      int n = channel.read(one, pos);
+      for (int i = 0; i < n; i++) {
+        if (one.get(i) == '\n') {
+          return pos + i + 1;
+        } // if
+      } // for
+      pos += n;
+    } // while
+    return size;
+  } // lineEnd(FileChannel, long, long)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * One parsed chunk of a file.
+   */
+  static final class Chunk {
+    /**
+     * The bytes of the chunk.
+     */
+    final MappedByteBuffer buffer;
+
+    /**
+     * The names in this chunk, numbered in order of appearance.
+     */
+    final NameTable names = new NameTable(1024);
+
+    /**
+     * The (chunk-local) sources of the edges.
+     */
+    final IntList sources = new IntList(1024);
+
+    /**
+     * The (chunk-local) targets of the edges.
+     */
+    final IntList targets = new IntList(1024);
+
+    /**
+     * The weights of the edges.
+     */
+    final IntList weights = new IntList(1024);
+
+    /**
+     * The number of lines in the chunk.
+     */
+    long lines;
+
+    /**
+     * A description of the first malformed line, or null.
+     */
+    String error;
+
+    /**
+     * The line number (within the chunk) of the first malformed line.
+     */
+    long errorLine;
+
+    /**
+     * Scratch space for names.
+     */
+    byte[] scratch = new byte[64];
+
+    /**
+     * Create a chunk.
+     *
+     * @param buffer
+     *   The bytes of the chunk.
+     */
+    Chunk(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+    } // Chunk(MappedByteBuffer)
+
+    /**
+     * Parse the chunk. Parsing stops at the first malformed line.
+     *
+     * @return this chunk.
+     */
+    Chunk parse() {
+      MappedByteBuffer buf = this.buffer;
+      int limit = buf.limit();
+      int pos = 0;
+      while (pos < limit) {
+        ++this.lines;
+        int from = -1;
+        int to = -1;
+        long weight = 0;
+        int fields = 0;
+        while (true) {
+          // Skip spaces
+          while ((pos < limit) && isSpace(buf.get(pos))) {
+            ++pos;
+          } // while
+          if ((pos >= limit) || (buf.get(pos) == '\n')) {
+            ++pos;
+            break;
+          } // if
+          int start = pos;
+          while ((pos < limit) && !isSpace(buf.get(pos)) && (buf.get(pos) != '\n')) {
+            ++pos;
+          } // while
+          ++fields;
+          if (fields <= 2) {
+            int vertex = this.name(buf, start, pos);
+            if (fields == 1) {
+              from = vertex;
+            } else {
+              to = vertex;
+            } // if/else
+          } else if (fields == 3) {
+            weight = parseWeight(buf, start, pos);
+            if (weight == Long.MIN_VALUE) {
+              return this.fail("invalid weight");
+            } // if
+          } // if/else
+        } // while
+        if (fields == 0) {
+          continue;
+        } else if (fields != 3) {
+          return this.fail("expected FROM TO WEIGHT, found " + fields + " fields");
+        } else if (from == to) {
+          return this.fail("Cannot add an edge from a vertex to itself");
+        } // if/else
+        this.sources.add(from);
+        this.targets.add(to);
+        this.weights.add((int) weight);
+      } // while
+      return this;
+    } // parse()
+
+    /**
+     * Add the edges of this chunk to a graph, adding vertices as needed.
+     *
+     * @param graph
+     *   The graph.
+     *
+     * @throws Exception
+     *   If the graph rejects an edge.
+     */
+    void addTo(Graph graph) throws Exception {
+      int[] vertices = new int[this.names.size()];
+      for (int entry = 0; entry < vertices.length; entry++) {
+        vertices[entry] = graph.safeVertexNumber(this.names.name(entry));
+      } // for
+      for (int i = 0; i < this.sources.size(); i++) {
+        graph.addEdge(vertices[this.sources.get(i)], vertices[this.targets.get(i)],
+            this.weights.get(i));
+      } // for
+    } // addTo(Graph)
+
+    /**
+     * Record an error on the current line.
+     *
+     * @param message
+     *   What went wrong.
+     *
+     * @return this chunk.
+     */
+    private Chunk fail(String message) {
+      this.error = message;
+      this.errorLine = this.lines;
+      return this;
+    } // fail(String)
+
+    /**
+     * Look up (or number) the name in bytes start .. end-1.
+     *
+     * @param buf
+     *   The bytes.
+     * @param start
+     *   The start of the name.
+     * @param end
+     *   The end of the name.
+     *
+     * @return the chunk-local number of the name.
+     */
+    private int name(MappedByteBuffer buf, int start, int end) {
+      int len = end - start;
+      if (len > this.scratch.length) {
+        this.scratch = new byte[Math.max(len, this.scratch.length * 2)];
+      } // if
+      buf.get(start, this.scratch, 0, len);
+      int result = this.names.get(this.scratch, 0, len);
+      if (result == -1) {
+        result = this.names.size();
+        this.names.add(this.scratch, 0, len, result);
+      } // if
+      return result;
+    } // name(MappedByteBuffer, int, int)
+
+    /**
+     * Parse a (possibly signed) decimal int.
+     *
+     * @param buf
+     *   The bytes.
+     * @param start
+     *   The start of the number.
+     * @param end
+     *   The end of the number.
+     *
+     * @return the number, or Long.MIN_VALUE if the bytes are not an int.
+     */
+    private static long parseWeight(MappedByteBuffer buf, int start, int end) {
+      boolean negative = false;
+      if ((buf.get(start) == '-') || (buf.get(start) == '+')) {
+        negative = buf.get(start) == '-';
+        ++start;
+      } // if
+      if (start == end) {
+        return Long.MIN_VALUE;
+      } // if
+      long result = 0;
+      for (int i = start; i < end; i++) {
+        int digit = buf.get(i) - '0';
+        if ((digit < 0) || (digit > 9)) {
+          return Long.MIN_VALUE;
+        } // if
+        result = result * 10 + digit;
+        if (result > (long) Integer.MAX_VALUE + 1) {
+          return Long.MIN_VALUE;
+        } // if
+      } // for
+      result = negative ? -result : result;
+      if ((result < Integer.MIN_VALUE) || (result > Integer.MAX_VALUE)) {
+        return Long.MIN_VALUE;
+      } // if
+      return result;
+    } // parseWeight(MappedByteBuffer, int, int)
+
+    /**
+     * Determine if a byte separates fields.
+     *
+     * @param b
+     *   The byte.
+     *
+     * @return true if b is a space, tab, or carriage return.
+     */
+    private static boolean isSpace(byte b) {
+      return (b == ' ') || (b == '\t') || (b == '\r');
+    } // isSpace(byte)
+  } // class Chunk
+} // class EdgeListReader
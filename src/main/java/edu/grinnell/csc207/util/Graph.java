@@ -1,17 +1,14 @@
 package edu.grinnell.csc207.util;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.PrintWriter;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.ConcurrentModificationException;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.Queue;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -28,7 +25,8 @@ public class Graph {
 
   /*
    * We implement our graphs using adjacency lists. For each vertex, v, we
-   * store a list of edges from that vertex.
+   * store a list of edges from that vertex. (See EdgeList for how those
+   * lists are indexed for high-degree vertices.)
    *
    * For convenience, you can refer to vertices by number or by name. However,
    * it is more efficient to refer to them by number.
@@ -101,7 +99,7 @@ public class Graph {
    * The vertices in the graph. The edges from vertex v are stored in
    * vertices[v].
    */
-  List<Edge>[] vertices;
+  EdgeList[] vertices;
 
   /**
    * The names of the vertices. The name of vertex v is stored in
@@ -110,9 +108,16 @@ public class Graph {
   String[] vertexNames;
 
   /**
-   * Marks on the vertices.
+   * The marks used by mark, isMarked, and unmark. (Traversals that need
+   * marks of their own should use markContext.)
    */
-  byte[] marks;
+  MarkContext marks;
+
+  /**
+   * Mark contexts that have been released and may be reused.
+   */
+  final ConcurrentLinkedQueue<MarkContext> markPool =
+      new ConcurrentLinkedQueue<MarkContext>();
 
   /**
    * The unused vertices.
@@ -123,7 +128,7 @@ public class Graph {
    * The numbers of the vertices. The vertex with name n is given by
    * vertexNumbers.get(n).
    */
-  HashMap<String, Integer> vertexNumbers;
+  NameTable vertexNumbers;
 
   /**
    * The version of the graph. (Essentially, the number of times we've modified
@@ -131,6 +136,34 @@ public class Graph {
    */
   long version;
 
+  /**
+   * The most recent CSR snapshot of the graph. (Rebuilt by freeze()
+   * whenever the version changes.)
+   */
+  CsrGraph frozen;
+
+  /**
+   * The edges into each vertex, or null if we are not keeping track of
+   * them. For each edge u->v with weight w, incoming[v] holds an entry
+   * with target u and weight w.
+   */
+  EdgeList[] incoming;
+
+  /**
+   * The operation metrics, or null if they are disabled.
+   */
+  MetricsRecorder metrics;
+
+  /**
+   * The cache of path queries, or null if it is disabled.
+   */
+  PathCache cache;
+
+  /**
+   * The objects to tell about changes, or null if there are none.
+   */
+  GraphListener[] listeners;
+
   // +--------------+------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -148,20 +181,51 @@ public class Graph {
    * @param initialCapacity
    *   The initial capacity of the graph.
    */
-  @SuppressWarnings("unchecked")
   public Graph(int initialCapacity) {
-    this.vertices = (ArrayList<Edge>[]) new ArrayList[initialCapacity];
+    this.vertices = new EdgeList[initialCapacity];
     this.vertexNames = new String[initialCapacity];
-    this.marks = new byte[initialCapacity];
-    this.vertexNumbers = new HashMap<String, Integer>();
+    this.marks = new MarkContext(initialCapacity);
+    this.vertexNumbers = new NameTable(initialCapacity);
     this.unusedVertices = new LinkedList<Integer>();
     this.version = 0;
     for (int i = 0; i < this.vertices.length; i++) {
-      this.vertices[i] = new ArrayList<Edge>();
+      this.vertices[i] = new EdgeList(i);
       this.unusedVertices.add(i);
     } // for
   } // Graph(int)
 
+  /**
+   * Create a graph from prebuilt parts. Vertex numbers from numVertices
+   * to the end of the arrays are unused.
+   *
+   * @param vertexNames
+   *   The names of the vertices; entries 0 .. numVertices-1 must be
+   *   distinct and non-null, and the rest null.
+   * @param vertexNumbers
+   *   A table mapping each name to its vertex number, which the graph
+   *   takes over.
+   * @param vertices
+   *   The adjacency lists (of the same length as vertexNames).
+   * @param numVertices
+   *   The number of vertices.
+   * @param numEdges
+   *   The total number of edges in the adjacency lists.
+   */
+  Graph(String[] vertexNames, NameTable vertexNumbers, EdgeList[] vertices,
+      int numVertices, int numEdges) {
+    this.vertices = vertices;
+    this.vertexNames = vertexNames;
+    this.marks = new MarkContext(vertices.length);
+    this.vertexNumbers = vertexNumbers;
+    this.unusedVertices = new LinkedList<Integer>();
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.version = 0;
+    for (int v = numVertices; v < vertices.length; v++) {
+      this.unusedVertices.add(v);
+    } // for
+  } // Graph(String[], NameTable, EdgeList[], int, int)
+
   /**
    * Create a new graph, reading the edges from a file. Edges must have the form
    * FROM TO WEIGHT, with one edge per line.
@@ -206,14 +270,63 @@ public class Graph {
    *   number, returns -1.
    */
   public int vertexNumber(String vertexName) {
-    Integer result = this.vertexNumbers.get(vertexName);
-    if (result == null) {
-      return -1;
-    } else {
-      return result;
-    } // if/else
+    return (vertexName == null) ? -1 : this.vertexNumbers.get(vertexName);
   } // vertexNumber(String)
 
+  /**
+   * Given a vertex name as UTF-8 bytes, get the corresponding vertex
+   * number, without building a String.
+   *
+   * @param bytes
+   *   An array containing the name.
+   * @param off
+   *   Where the name starts.
+   * @param len
+   *   The number of bytes in the name.
+   *
+   * @return
+   *   The corresponding vertex number. If there is no corresponding vertex
+   *   number, returns -1.
+   */
+  public int vertexNumber(byte[] bytes, int off, int len) {
+    return this.vertexNumbers.get(bytes, off, len);
+  } // vertexNumber(byte[], int, int)
+
+  /**
+   * Given a batch of vertex names, get the corresponding vertex numbers.
+   *
+   * @param vertexNames
+   *   The names of the vertices.
+   *
+   * @return
+   *   An array whose ith element is the number of the ith name, or -1
+   *   if there is no such vertex.
+   */
+  public int[] vertexNumbers(String... vertexNames) {
+    int[] result = new int[vertexNames.length];
+    this.vertexNumbers.getAll(vertexNames, result);
+    return result;
+  } // vertexNumbers(String...)
+
+  /**
+   * Given a batch of vertex names as consecutive slices of a byte
+   * array, get the corresponding vertex numbers.
+   *
+   * @param bytes
+   *   An array containing the names, in UTF-8.
+   * @param bounds
+   *   Name i is bytes[bounds[i]] .. bytes[bounds[i+1]-1].
+   *
+   * @return
+   *   An array whose ith element is the number of the ith name, or -1
+   *   if there is no such vertex.
+   */
+  public int[] vertexNumbers(byte[] bytes, int[] bounds) {
+    int[] result = new int[Math.max(0, bounds.length - 1)];
+    this.vertexNumbers.getAll(bytes, bounds, result);
+    return result;
+  } // vertexNumbers(byte[], int[])
+
   // +-----------+---------------------------------------------------
   // | Observers |
   // +-----------+
@@ -275,11 +388,30 @@ public class Graph {
    *   The name of the file to use.
    */
   public void save(String fname) throws Exception {
+    long start = this.startTiming();
+    GraphEvents.FileEvent event = new GraphEvents.FileEvent();
+    event.begin();
     PrintWriter fileWriter = new PrintWriter(new File(fname));
     this.write(fileWriter);
     fileWriter.close();
+    this.fileDone(GraphMetrics.Operation.SAVE, start, event, fname);
   } // save(String)
 
+  /**
+   * Save the graph in the binary form read by CsrGraph.load. Much faster
+   * to load than the text form written by save.
+   *
+   * @param fname
+   *   The name of the file to use.
+   */
+  public void saveBinary(String fname) throws Exception {
+    long start = this.startTiming();
+    GraphEvents.FileEvent event = new GraphEvents.FileEvent();
+    event.begin();
+    this.freeze().save(fname);
+    this.fileDone(GraphMetrics.Operation.SAVE, start, event, fname);
+  } // saveBinary(String)
+
   /**
    * Write the graph in the form expected by readGraph.
    *
@@ -297,6 +429,20 @@ public class Graph {
     } // for
   } // write(PrintWriter)
 
+  /**
+   * Get an immutable, compressed-sparse-row snapshot of the graph. The
+   * snapshot is cached, so repeated calls without intervening
+   * modifications are cheap.
+   *
+   * @return a snapshot of the current state of the graph.
+   */
+  public CsrGraph freeze() {
+    if ((this.frozen == null) || (this.frozen.version() != this.version)) {
+      this.frozen = CsrGraph.of(this);
+    } // if
+    return this.frozen;
+  } // freeze()
+
   /**
    * Get the number of edges.
    *
@@ -315,6 +461,66 @@ public class Graph {
     return this.numVertices;
   } // numVertices
 
+  /**
+   * Determine if there is an edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return true if the edge exists and false otherwise.
+   */
+  public boolean hasEdge(int source, int target) {
+    return validVertex(source) && (this.vertices[source].indexOf(target) != -1);
+  } // hasEdge(int, int)
+
+  /**
+   * Determine if there is an edge from one vertex to another.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   *
+   * @return true if the edge exists and false otherwise.
+   */
+  public boolean hasEdge(String source, String target) {
+    return hasEdge(this.vertexNumber(source), this.vertexNumber(target));
+  } // hasEdge(String, String)
+
+  /**
+   * Get the weight of the edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return the weight of the edge, or null if there is no such edge.
+   */
+  public Integer edgeWeight(int source, int target) {
+    if (!validVertex(source)) {
+      return null;
+    } // if
+    int i = this.vertices[source].indexOf(target);
+    return (i == -1) ? null : this.vertices[source].weight(i);
+  } // edgeWeight(int, int)
+
+  /**
+   * Get the weight of the edge from one vertex to another.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   *
+   * @return the weight of the edge, or null if there is no such edge.
+   */
+  public Integer edgeWeight(String source, String target) {
+    return edgeWeight(this.vertexNumber(source), this.vertexNumber(target));
+  } // edgeWeight(String, String)
+
   /**
    * Get an iterable for the edges.
    *
@@ -421,6 +627,73 @@ public class Graph {
     return this.edgesFrom(vertexNumber(vertex));
   } // edgesFrom(String)
 
+  /**
+   * Get all of the edges to a particular vertex. Takes time proportional
+   * to the number of such edges if the graph indexes incoming edges (or
+   * is undirected), and a scan of the whole graph otherwise.
+   *
+   * @param vertex
+   *   The vertex whose incoming edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesTo(int vertex) {
+    IntList sources = new IntList();
+    IntList weights = new IntList();
+    if (validVertex(vertex)) {
+      EdgeList in = this.sourcesOf(vertex);
+      if (in != null) {
+        for (int i = 0; i < in.size(); i++) {
+          sources.add(in.target(i));
+          weights.add(in.weight(i));
+        } // for
+      } else {
+        for (int u = 0; u < this.vertices.length; u++) {
+          int i = this.vertices[u].indexOf(vertex);
+          if (i != -1) {
+            sources.add(u);
+            weights.add(this.vertices[u].weight(i));
+          } // if
+        } // for
+      } // if/else
+    } // if
+    return () -> {
+      return new Iterator<Edge>() {
+        // The version number of the graph when this iterator was created
+        long version = Graph.this.version;
+        // The position of the next edge
+        int pos = 0;
+
+        public boolean hasNext() {
+          failFast(this.version);
+          return this.pos < sources.size();
+        } // hasNext()
+
+        public Edge next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          int i = this.pos++;
+          return new Edge(sources.get(i), vertex, weights.get(i));
+        } // next()
+      }; // new Iterator<Edge>
+    };
+  } // edgesTo(int)
+
+  /**
+   * Get all of the edges to a particular vertex.
+   *
+   * @param vertex
+   *   The name of the vertex whose incoming edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesTo(String vertex) {
+    return edgesTo(vertexNumber(vertex));
+  } // edgesTo(String)
+
   /**
    * Get a path from start to finish.
    *
@@ -432,26 +705,64 @@ public class Graph {
    * @return A path from start to finish. If no such path exists, returns null.
    */
   public List<Edge> path(int start, int finish) {
+    if (!validVertex(start) || !validVertex(finish)) {
+      return null;
+    } // if
+    PathCache cache = this.cache;
+    if (cache == null) {
+      return this.searchPath(start, finish);
+    } // if
+    Edge[] cached = cache.path(this.version, start, finish);
+    if (cached != null) {
+      return (cached == PathCache.NO_PATH) ? null : new LinkedList<Edge>(Arrays.asList(cached));
+    } // if
+    List<Edge> path = this.searchPath(start, finish);
+    cache.putPath(start, finish, path);
+    return path;
+  } // path(int, int)
+
+  /**
+   * Search for a path from start to finish, which must be valid.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  private List<Edge> searchPath(int start, int finish) {
+
     // An array of the edges that lead to vertices. incoming[i]
     // is an edge that leads to vertex i. This approach is derived
     // from one by GM and GT.
     Edge[] incoming = new Edge[vertices.length];
 
-    // Vertices left to process. (We use BFS.)
-    Queue<Integer> remaining = new LinkedList<Integer>();
-    remaining.add(start);
+    // Vertices left to process. (We use BFS, with an array as the queue;
+    // each vertex is enqueued at most once, plus start may reappear.)
+    int[] remaining = new int[vertices.length + 1];
+    int head = 0;
+    int tail = 0;
+    remaining[tail++] = start;
+    long timer = this.startTiming();
+    GraphEvents.TraversalEvent event = new GraphEvents.TraversalEvent();
+    event.begin();
+    long relaxed = 0;
 
     // Keep going until we reach finish or run out of edges
-    while ((incoming[finish] == null) && (!remaining.isEmpty())) {
-      Integer v = remaining.remove();
-      for (Edge e : this.edgesFrom(v)) {
+    while ((incoming[finish] == null) && (head < tail)) {
+      int v = remaining[head++];
+      relaxed += this.vertices[v].size();
+      for (Edge e : this.vertices[v]) {
         int to = e.target();
         if (incoming[to] == null) {
-          remaining.add(to);
+          remaining[tail++] = to;
           incoming[to] = e;
         } // if
-      } // while
+      } // for
     } // while
+    this.traversalDone(GraphMetrics.Operation.PATH, timer, event, start, finish,
+        head, relaxed);
 
     // Return the appropriate list
     if (incoming[finish] == null) {
@@ -466,7 +777,7 @@ public class Graph {
       } while (current != start);
       return path;
     } // if/else
-  } // path(int, int)
+  } // searchPath(int, int)
 
   /**
    * Get a path from start to finish. If no such path exists, returns null.
@@ -482,6 +793,46 @@ public class Graph {
     return path(this.vertexNumber(start), this.vertexNumber(finish));
   } // path(String, String)
 
+  /**
+   * Get a path with the fewest edges from start to finish, searching
+   * forward from start and backward from finish at the same time. The
+   * backward search follows the index from indexIncomingEdges. Without
+   * that index it uses the snapshot from freeze(), so the first query
+   * after a change pays to rebuild it.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  public List<Edge> bidirectionalPath(int start, int finish) {
+    Adjacency backward = this.reverseAdjacency();
+    if (backward == null) {
+      return this.freeze().bidirectionalPath(start, finish);
+    } // if
+    if (start == finish) {
+      return this.path(start, finish);
+    } // if
+    return BidirectionalSearch.path(this.adjacency(), backward, start, finish);
+  } // bidirectionalPath(int, int)
+
+  /**
+   * Get a path with the fewest edges from start to finish, searching
+   * in both directions.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return A path from start to finish. If no such path exists, returns null.
+   */
+  public List<Edge> bidirectionalPath(String start, String finish) {
+    return bidirectionalPath(this.vertexNumber(start), this.vertexNumber(finish));
+  } // bidirectionalPath(String, String)
+
   /**
    * Get an iterable for the vertices.
    *
@@ -516,6 +867,7 @@ public class Graph {
           while (Graph.this.vertexNames[this.vertex] == null) {
             ++this.vertex;
           } // while
+          ++this.pos;
           return this.vertex++;
         } // next()
       }; // new Iterator<Integer>
@@ -546,17 +898,22 @@ public class Graph {
     if (source == target) {
       throw new Exception("Cannot add an edge from a vertex to itself");
     } // if
+    if (this.metrics != null) {
+      this.metrics.count(GraphMetrics.Operation.ADD_EDGE);
+    } // if
     ++this.version;
-    Edge newEdge = new Edge(source, target, weight);
-    ListIterator<Edge> edges = this.vertices[source].listIterator();
-    while (edges.hasNext()) {
-      if (edges.next().target() == target) {
-        edges.set(newEdge);
-        return;
-      } // if
-    } // while
-    edges.add(newEdge);
-    ++this.numEdges;
+    Integer oldWeight = (this.listeners == null) ? null : this.edgeWeight(source, target);
+    if (this.vertices[source].put(target, weight)) {
+      ++this.numEdges;
+    } // if
+    if (this.incoming != null) {
+      this.incoming[target].put(source, weight);
+    } // if
+    if (this.listeners != null) {
+      for (GraphListener listener : this.listeners) {
+        listener.edgeChanged(source, target, oldWeight, weight);
+      } // for
+    } // if
   } // addEdge(int, int, int)
 
   /**
@@ -611,34 +968,24 @@ public class Graph {
   } // addVertex()
 
   /**
-   * Read a graph from a file. If there are edges in the current graph,
+   * Read a graph from a file. Each nonblank line of the file should have
+   * the form FROM TO WEIGHT. If there are edges in the current graph,
    * may overwrite them with a new weight.
    *
    * @param fname
-   *   THe name of the file to read from.
+   *   The name of the file to read from.
    *
    * @throws Exception
-   *   If any of the lines * have the wrong form.
+   *   If the file cannot be read or any of the lines have the wrong form.
+   *   The message gives the number of the first bad line; no edges are
+   *   added in that case.
    */
   public void readGraph(String fname) throws Exception {
-    BufferedReader lines = new BufferedReader(new FileReader(fname));
-    // Since the only way to determine if no lines are left in a
-    // BufferedReader is to see if readLine() throws an exception,
-    // we put our loop in a try/catch clause.
-    try {
-      while (true) {
-        String line = lines.readLine();
-        String[] parts = line.split("[\\s*]");
-        if (parts.length == 3) {
-          int from = this.safeVertexNumber(parts[0]);
-          int to = this.safeVertexNumber(parts[1]);
-          int weight = Integer.parseInt(parts[2]);
-          this.addEdge(from, to, weight);
-        } // if
-      } // while
-    } catch (Exception e) {
-    } // try/catch
-    lines.close();
+    long start = this.startTiming();
+    GraphEvents.FileEvent event = new GraphEvents.FileEvent();
+    event.begin();
+    EdgeListReader.read(this, fname);
+    this.fileDone(GraphMetrics.Operation.READ, start, event, fname);
   } // readGraph()
 
   /**
@@ -650,16 +997,22 @@ public class Graph {
    *   The target of the edge.
    */
   public void removeEdge(int source, int target) {
-    Iterator<Edge> ie = this.vertices[source].iterator();
-    while (ie.hasNext()) {
-      if (ie.next().target() == target) {
-        ie.remove();
-        --this.numEdges;
-        ++this.version;
-        // We could probably break out of the loop at this point,
-        // but it's safer to go through the whole list.
+    Integer oldWeight = (this.listeners == null) ? null : this.edgeWeight(source, target);
+    if (validVertex(source) && this.vertices[source].remove(target)) {
+      if (this.metrics != null) {
+        this.metrics.count(GraphMetrics.Operation.REMOVE_EDGE);
       } // if
-    } // while
+      --this.numEdges;
+      ++this.version;
+      if (this.incoming != null) {
+        this.incoming[target].remove(source);
+      } // if
+      if (this.listeners != null) {
+        for (GraphListener listener : this.listeners) {
+          listener.edgeChanged(source, target, oldWeight, null);
+        } // for
+      } // if
+    } // if
   } // removeEdge(int, int)
 
   /**
@@ -687,24 +1040,46 @@ public class Graph {
     } // if
 
     // Note the change to the graph
+    if (this.listeners != null) {
+      for (GraphListener listener : this.listeners) {
+        listener.vertexRemoving(vertex);
+      } // for
+    } // if
+    if (this.metrics != null) {
+      this.metrics.count(GraphMetrics.Operation.REMOVE_VERTEX);
+    } // if
     ++this.version;
     --this.numVertices;
-    this.numEdges -= this.vertices[vertex].size();
 
-    // Clear out the entries associated with the vertex
-    this.vertices[vertex].clear();
-    this.vertexNames[vertex] = null;
-
-    // Clear out edges to that vertex
-    for (int i = 0; i < this.vertices.length; i++) {
-      Iterator<Edge> ie = this.vertices[i].iterator();
-      while (ie.hasNext()) {
-        if (ie.next().target() == vertex) {
-          ie.remove();
+    // Clear out edges to that vertex. If we know where they come from,
+    // we need only visit those vertices.
+    EdgeList in = this.sourcesOf(vertex);
+    if (in != null) {
+      for (int i = 0; i < in.size(); i++) {
+        if (this.vertices[in.target(i)].remove(vertex)) {
           --this.numEdges;
         } // if
-      } // while
-    } // for
+      } // for
+    } else {
+      for (int i = 0; i < this.vertices.length; i++) {
+        if (this.vertices[i].remove(vertex)) {
+          --this.numEdges;
+        } // if
+      } // for
+    } // if/else
+
+    // Clear out the entries associated with the vertex
+    EdgeList out = this.vertices[vertex];
+    if (this.incoming != null) {
+      for (int i = 0; i < out.size(); i++) {
+        this.incoming[out.target(i)].remove(vertex);
+      } // for
+      this.incoming[vertex].clear();
+    } // if
+    this.numEdges -= out.size();
+    out.clear();
+    this.vertexNumbers.remove(this.vertexNames[vertex]);
+    this.vertexNames[vertex] = null;
 
     // Note that the vertex is once again available to use.
     this.unusedVertices.add(vertex);
@@ -720,15 +1095,72 @@ public class Graph {
     this.removeVertex(this.vertexNumber(vertex));
   } // removeVertex(String)
 
+  /**
+   * Keep an index of the edges into each vertex, so that edgesTo and
+   * removeVertex need only visit a vertex's neighbors. The index costs
+   * about as much memory as the edges themselves and is kept up to date
+   * by every later change. Does nothing if the index already exists.
+   */
+  public void indexIncomingEdges() {
+    if (this.incoming != null) {
+      return;
+    } // if
+    EdgeList[] index = new EdgeList[this.vertices.length];
+    for (int v = 0; v < index.length; v++) {
+      index[v] = new EdgeList(v);
+    } // for
+    for (int u = 0; u < this.vertices.length; u++) {
+      EdgeList edges = this.vertices[u];
+      for (int i = 0; i < edges.size(); i++) {
+        index[edges.target(i)].append(u, edges.weight(i));
+      } // for
+    } // for
+    this.incoming = index;
+  } // indexIncomingEdges()
+
+  /**
+   * Start telling a listener about changes to the edges.
+   *
+   * @param listener
+   *   The listener.
+   */
+  public void addListener(GraphListener listener) {
+    GraphListener[] old = (this.listeners == null) ? new GraphListener[0] : this.listeners;
+    GraphListener[] updated = Arrays.copyOf(old, old.length + 1);
+    updated[old.length] = listener;
+    this.listeners = updated;
+  } // addListener(GraphListener)
+
+  /**
+   * Stop telling a listener about changes. Does nothing if it is not
+   * listening.
+   *
+   * @param listener
+   *   The listener.
+   */
+  public void removeListener(GraphListener listener) {
+    if (this.listeners == null) {
+      return;
+    } // if
+    GraphListener[] updated = new GraphListener[this.listeners.length];
+    int count = 0;
+    for (GraphListener l : this.listeners) {
+      if (l != listener) {
+        updated[count++] = l;
+      } // if
+    } // for
+    this.listeners = (count == 0) ? null : Arrays.copyOf(updated, count);
+  } // removeListener(GraphListener)
+
   // +------------------+--------------------------------------------
   // | Marking vertices |
   // +------------------+
 
   /**
-   * Remove all of the marks.
+   * Remove all of the marks. Takes constant time.
    */
   public void clearMarks() {
-    this.marks = new byte[this.marks.length];
+    this.marks.clear();
   } // clearMarks
 
   /**
@@ -743,7 +1175,7 @@ public class Graph {
    *    and false otherwise.
    */
   boolean isMarked(int vertex, byte mark) {
-    return (this.validVertex(vertex) && ((this.marks[vertex] & mark) != 0));
+    return (this.validVertex(vertex) && this.marks.isMarked(vertex, mark));
   } // isMarked(int, byte)
 
   /**
@@ -755,7 +1187,7 @@ public class Graph {
    * @return true if the vertex has been marked and false otherwise.
    */
   boolean isMarked(int vertex) {
-    return (this.validVertex(vertex) && (this.marks[vertex] != 0));
+    return (this.validVertex(vertex) && this.marks.isMarked(vertex));
   } // isMarked(int)
 
   /**
@@ -795,7 +1227,7 @@ public class Graph {
    */
   void mark(int vertex, byte mark) {
     if (validVertex(vertex)) {
-      this.marks[vertex] |= mark;
+      this.marks.mark(vertex, mark);
     } // if validVertex
   } // mark(int, byte)
 
@@ -841,10 +1273,7 @@ public class Graph {
    */
   void unmark(int vertex, byte mark) {
     if (validVertex(vertex)) {
-      // This approach makes Charlie uncomfortable. However, the more sensible
-      // thing (commented out below) does not seem to work.
-      this.marks[vertex] = (byte) ((this.marks[vertex] | mark) - mark);
-      // this.marks[vertex] |= (byte) ~mark;
+      this.marks.unmark(vertex, mark);
     } // if validVertex
   } // unmark(int, byte)
 
@@ -856,7 +1285,7 @@ public class Graph {
    */
   void unmark(int vertex) {
     if (validVertex(vertex)) {
-      this.marks[vertex] = 0;
+      this.marks.unmark(vertex);
     } // validVertex
   } // unmark(int)
 
@@ -882,10 +1311,300 @@ public class Graph {
     this.unmark(this.vertexNumber(vertex));
   } // unmark(String)
 
+  /**
+   * Get a mark context for a traversal of this graph, with no marks.
+   * Contexts are pooled: close the context when done with it so that a
+   * later traversal can reuse it. Different threads may use different
+   * contexts at the same time.
+   *
+   * @return a cleared context with room for every vertex.
+   */
+  public MarkContext markContext() {
+    MarkContext context = this.markPool.poll();
+    if (context == null) {
+      return new MarkContext(this.vertices.length, this);
+    } // if
+    context.pooled = false;
+    context.ensureCapacity(this.vertices.length);
+    context.clear();
+    return context;
+  } // markContext()
+
+  /**
+   * Determine if a vertex has a particular mark in a context.
+   *
+   * @param context
+   *   The marks to check.
+   * @param vertex
+   *   The number of the vertex to check.
+   * @param mark
+   *   The mark to check for.
+   *
+   * @return true if the vertex has the mark and false otherwise.
+   */
+  public boolean isMarked(MarkContext context, int vertex, int mark) {
+    return this.validVertex(vertex) && context.isMarked(vertex, mark);
+  } // isMarked(MarkContext, int, int)
+
+  /**
+   * Determine if a vertex has any mark in a context.
+   *
+   * @param context
+   *   The marks to check.
+   * @param vertex
+   *   The number of the vertex to check.
+   *
+   * @return true if the vertex is marked and false otherwise.
+   */
+  public boolean isMarked(MarkContext context, int vertex) {
+    return this.validVertex(vertex) && context.isMarked(vertex);
+  } // isMarked(MarkContext, int)
+
+  /**
+   * Mark a vertex in a context.
+   *
+   * @param context
+   *   The marks to change.
+   * @param vertex
+   *   The number of the vertex to mark.
+   * @param mark
+   *   The mark to add.
+   */
+  public void mark(MarkContext context, int vertex, int mark) {
+    if (validVertex(vertex)) {
+      context.mark(vertex, mark);
+    } // if
+  } // mark(MarkContext, int, int)
+
+  /**
+   * Mark a vertex in a context with the default mark.
+   *
+   * @param context
+   *   The marks to change.
+   * @param vertex
+   *   The number of the vertex to mark.
+   */
+  public void mark(MarkContext context, int vertex) {
+    this.mark(context, vertex, MarkContext.MARK);
+  } // mark(MarkContext, int)
+
+  /**
+   * Remove a mark from a vertex in a context.
+   *
+   * @param context
+   *   The marks to change.
+   * @param vertex
+   *   The number of the vertex to unmark.
+   * @param mark
+   *   The mark to remove.
+   */
+  public void unmark(MarkContext context, int vertex, int mark) {
+    if (validVertex(vertex)) {
+      context.unmark(vertex, mark);
+    } // if
+  } // unmark(MarkContext, int, int)
+
+  /**
+   * Remove all marks from a vertex in a context.
+   *
+   * @param context
+   *   The marks to change.
+   * @param vertex
+   *   The number of the vertex to unmark.
+   */
+  public void unmark(MarkContext context, int vertex) {
+    this.unmark(context, vertex, -1);
+  } // unmark(MarkContext, int)
+
+  // +---------+-----------------------------------------------------
+  // | Metrics |
+  // +---------+
+
+  /**
+   * Start counting operations, the work searches do, and how long they
+   * take. Counting starts from zero. While metrics are disabled (as they
+   * are initially), they cost almost nothing.
+   */
+  public void enableMetrics() {
+    this.metrics = new MetricsRecorder();
+  } // enableMetrics()
+
+  /**
+   * Stop counting operations.
+   */
+  public void disableMetrics() {
+    this.metrics = null;
+  } // disableMetrics()
+
+  /**
+   * Get a snapshot of the metrics counted since they were enabled.
+   *
+   * @return the snapshot, or null if metrics are disabled.
+   */
+  public GraphMetrics metrics() {
+    MetricsRecorder recorder = this.metrics;
+    return (recorder == null) ? null : recorder.snapshot();
+  } // metrics()
+
+  // +-------+-------------------------------------------------------
+  // | Cache |
+  // +-------+
+
+  /**
+   * Start caching the results of path, shortestPath, and shortestPaths,
+   * replacing any existing cache. The cache holds full shortest-path
+   * trees (for shortestPaths), trees that stopped at a sink (for
+   * shortestPath with that source and sink only), and unweighted paths.
+   * When it outgrows its budget, it drops the least recently used
+   * results; when the graph changes, it drops them all.
+   *
+   * Cached shortest-path trees are shared between callers, and cached
+   * searches are not counted in the metrics.
+   *
+   * @param maxBytes
+   *   The (estimated) memory the cache may use.
+   */
+  public void enableCache(long maxBytes) {
+    this.cache = new PathCache(maxBytes, this.version);
+  } // enableCache(long)
+
+  /**
+   * Stop caching path queries, and drop anything cached.
+   */
+  public void disableCache() {
+    this.cache = null;
+  } // disableCache()
+
+  /**
+   * Get the statistics of the query cache.
+   *
+   * @return the statistics, or null if the cache is disabled.
+   */
+  public CacheStats cacheStats() {
+    PathCache current = this.cache;
+    return (current == null) ? null : current.stats();
+  } // cacheStats()
+
   // +-----------+---------------------------------------------------
   // | Utilities |
   // +-----------+
 
+  /**
+   * Run Dijkstra's algorithm, recording metrics and events.
+   *
+   * @param source
+   *   The source vertex.
+   * @param sink
+   *   The vertex at which to stop, or -1 to search the whole graph.
+   *
+   * @return the shortest-path tree.
+   */
+  private ShortestPathTree dijkstra(int source, int sink) {
+    PathCache cache = this.cache;
+    if (cache != null) {
+      ShortestPathTree cached = cache.tree(this.version, source, sink);
+      if (cached != null) {
+        return cached;
+      } // if
+    } // if
+    long start = this.startTiming();
+    GraphEvents.TraversalEvent event = new GraphEvents.TraversalEvent();
+    event.begin();
+    ShortestPathTree tree = Dijkstra.run(this.adjacency(), source, sink);
+    this.traversalDone(GraphMetrics.Operation.SHORTEST_PATH, start, event,
+        source, sink, tree.settled, tree.relaxed);
+    if (cache != null) {
+      cache.putTree(source, sink, tree);
+    } // if
+    return tree;
+  } // dijkstra(int, int)
+
+  /**
+   * Note the start of a timed operation.
+   *
+   * @return the time, or 0 if metrics are disabled.
+   */
+  private long startTiming() {
+    return (this.metrics == null) ? 0 : System.nanoTime();
+  } // startTiming()
+
+  /**
+   * Record the end of a search in the metrics and, if it is slow
+   * enough, in the flight recorder.
+   *
+   * @param op
+   *   The operation.
+   * @param start
+   *   The value of startTiming() when the search began.
+   * @param event
+   *   The event begun when the search began.
+   * @param source
+   *   The source of the search.
+   * @param target
+   *   The target of the search, or -1.
+   * @param visited
+   *   The number of vertices visited.
+   * @param relaxed
+   *   The number of edges relaxed.
+   */
+  private void traversalDone(GraphMetrics.Operation op, long start,
+      GraphEvents.TraversalEvent event, int source, int target, long visited,
+      long relaxed) {
+    MetricsRecorder recorder = this.metrics;
+    if (recorder != null) {
+      recorder.record(op, start, visited, relaxed);
+    } // if
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = op.name();
+      event.source = source;
+      event.target = target;
+      event.graphVertices = this.numVertices;
+      event.verticesVisited = visited;
+      event.edgesRelaxed = relaxed;
+      event.commit();
+    } // if
+  } // traversalDone(Operation, long, TraversalEvent, int, int, long, long)
+
+  /**
+   * Record the end of a read or save in the metrics and, if it is slow
+   * enough, in the flight recorder.
+   *
+   * @param op
+   *   The operation.
+   * @param start
+   *   The value of startTiming() when the operation began.
+   * @param event
+   *   The event begun when the operation began.
+   * @param fname
+   *   The name of the file.
+   */
+  private void fileDone(GraphMetrics.Operation op, long start,
+      GraphEvents.FileEvent event, String fname) {
+    MetricsRecorder recorder = this.metrics;
+    if (recorder != null) {
+      recorder.record(op, start, 0, 0);
+    } // if
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = op.name();
+      event.file = fname;
+      event.edges = this.numEdges;
+      event.bytes = new File(fname).length();
+      event.commit();
+    } // if
+  } // fileDone(Operation, long, FileEvent, String)
+
+  /**
+   * Return a mark context to the pool.
+   *
+   * @param context
+   *   The context.
+   */
+  void release(MarkContext context) {
+    this.markPool.add(context);
+  } // release(MarkContext)
+
   /**
    * Add a vertex name / vertex number pair.  Assumes neither the name
    * or number have been used.
@@ -898,9 +1617,12 @@ public class Graph {
    * @return v (mostly for convenience)
    */
   private int addVertex(String name, int v) {
+    if (this.metrics != null) {
+      this.metrics.count(GraphMetrics.Operation.ADD_VERTEX);
+    } // if
     ++this.version;
     ++this.numVertices;
-    this.vertexNumbers.put(name, v);
+    this.vertexNumbers.add(name, v);
     this.vertexNames[v] = name;
     return v;
   } // addVertex(String, int)
@@ -912,12 +1634,18 @@ public class Graph {
     int oldSize = this.vertices.length;
     int newSize = oldSize * 2;
     this.vertexNames = Arrays.copyOf(this.vertexNames, newSize);
-    this.marks = Arrays.copyOf(this.marks, newSize);
+    this.marks.ensureCapacity(newSize);
     this.vertices = Arrays.copyOf(this.vertices, newSize);
     for (int i = oldSize; i < newSize; i++) {
-      this.vertices[i] = new ArrayList<Edge>();
+      this.vertices[i] = new EdgeList(i);
       this.unusedVertices.add(i);
     } // for
+    if (this.incoming != null) {
+      this.incoming = Arrays.copyOf(this.incoming, newSize);
+      for (int i = oldSize; i < newSize; i++) {
+        this.incoming[i] = new EdgeList(i);
+      } // for
+    } // if
   } // expand()
 
   /**
@@ -947,6 +1675,20 @@ public class Graph {
         && (this.vertexNames[vertex] != null));
   } // validVertex
 
+  /**
+   * Get the sources of the edges into a vertex, if we know them without
+   * a search.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return a list whose targets are the sources of the edges into
+   *   vertex (with their weights), or null if we would have to search.
+   */
+  EdgeList sourcesOf(int vertex) {
+    return (this.incoming == null) ? null : this.incoming[vertex];
+  } // sourcesOf(int)
+
   /**
    * Get the next unused vertex number.
    *
@@ -968,7 +1710,7 @@ public class Graph {
    *
    * @return the corresponding vertex number.
    */
-  private int safeVertexNumber(String vertex) throws Exception {
+  int safeVertexNumber(String vertex) throws Exception {
     int num = this.vertexNumber(vertex);
     if (num == -1) {
       num = this.addVertex(vertex);
@@ -976,95 +1718,200 @@ public class Graph {
     return num;
   } // safeVertexNumber(String)
 
-
+  /**
+   * Print the names of the vertices reachable from a vertex, one per
+   * line, in depth-first order. Does not use or change the marks.
+   *
+   * @param pen
+   *   Where to print the names.
+   * @param vertex
+   *   The vertex to start from.
+   */
   public void reachableFrom(PrintWriter pen, int vertex) {
-    pen.println(vertexName(vertex));
-    mark(vertex);
-    List<Edge> children = vertices[vertex];
-    for (Edge ch : children) {
-      if (!isMarked(ch.target())) {
-        reachableFrom(pen, ch.target());
-      } // if
-    } // for
+    if (!validVertex(vertex)) {
+      return;
+    } // if
+    Reachability.preorder(this.adjacency(), vertex,
+        (v) -> pen.println(this.vertexNames[v]));
   } // reachableFrom()
 
   /**
-   * Finds the shortest path using Djikstra's.
+   * Find the vertices reachable from one or more sources (including the
+   * sources themselves), in a single sweep of the graph. Invalid sources
+   * are ignored.
+   *
+   * @param sources
+   *   The vertices to start from.
+   *
+   * @return the set of reachable vertex numbers. (Use its stream method
+   *   to get them as an IntStream.)
+   */
+  public BitSet reachable(int... sources) {
+    return BitSet.valueOf(Reachability.sweep(this.adjacency(), sources));
+  } // reachable(int...)
+
+  /**
+   * Mark the vertices reachable from one or more sources in a context.
+   * Vertices already marked in the context count as visited: they are
+   * not marked again and the search does not continue past them. So
+   * calling this repeatedly with the same context explores each part of
+   * the graph only once.
+   *
+   * @param context
+   *   The marks to use.
+   * @param sources
+   *   The vertices to start from. Invalid sources are ignored.
+   *
+   * @return the number of vertices newly marked.
+   */
+  public int markReachable(MarkContext context, int... sources) {
+    return Reachability.sweep(this.adjacency(), sources, context);
+  } // markReachable(MarkContext, int...)
+
+  /**
+   * Finds the shortest path using Djikstra's. The search stops as soon
+   * as the sink is settled.
    *
    * @param source
    *    Start node
    * @param sink
    *    End node
    * @return
-   *    A list which gives the best path if
-   *    followed starting at the end node and
-   *    ending at the start node.
+   *    An array of predecessors, indexed by vertex number. Following the
+   *    predecessors from the sink leads back to the source. Vertices the
+   *    search did not settle have a null predecessor.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight.
    */
   public Integer[] shortestPath(int source, int sink) {
+    return this.dijkstra(source, sink).predecessors();
+  } // shortestPath(int, int)
 
-    // The distances from SOURCE.
-    Integer[] distances = new Integer[numVertices()];
-    for (int i = 0; i < distances.length; i++) {
-      distances[i] = null;
-    } // for
-    distances[source] = 0;
-    // mark(source);
-
-    // The preceding vertex in the stortest path to each vertex.
-    Integer[] prevNodes = new Integer[numVertices()];
-    for (int i = 0; i < prevNodes.length; i++) {
-      prevNodes[i] = null;
-    } // for
-
-    // Process the first loop manually.
-    int prevNode = source;
-    List<Edge> current = vertices[source];
-    mark(source);
-
-    // Loop while SINK is unmarked.
-    while (!isMarked(sink)) {
-
-      // Update distances[].
-      for (Edge l : current) {
-        // Indicate the target vertex for simplicity.
-        int tar = l.target();
+  /**
+   * Find the shortest paths from a source to every reachable vertex,
+   * using Dijkstra's algorithm.
+   *
+   * @param source
+   *    Start node
+   * @return
+   *    The shortest-path tree rooted at source.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight.
+   */
+  public ShortestPathTree shortestPaths(int source) {
+    return this.dijkstra(source, -1);
+  } // shortestPaths(int)
 
-        // Indicate the current vertex for simplicity.
-        int cur = l.source();
+  /**
+   * Find a shortest path from source to sink using A* search. With
+   * Landmarks as the heuristic, this is the ALT algorithm.
+   *
+   * @param source
+   *    Start node
+   * @param sink
+   *    End node
+   * @param heuristic
+   *    An admissible estimate of the remaining distance.
+   * @return
+   *    The edges of a shortest path from source to sink, or null if
+   *    there is no such path.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight, or the
+   *    heuristic is Landmarks computed on another version of the graph.
+   */
+  public List<Edge> aStarPath(int source, int sink, Heuristic heuristic) {
+    if (heuristic instanceof Landmarks) {
+      ((Landmarks) heuristic).check(this.vertices.length, this.version);
+    } // if
+    return AStar.run(this.adjacency(), source, sink, heuristic);
+  } // aStarPath(int, int, Heuristic)
 
-        // Indicate the weight for simplicity.
-        int weight = l.weight();
+  /**
+   * Find a shortest path from source to sink using bidirectional
+   * Dijkstra. (Like bidirectionalPath, this searches backward through
+   * the incoming-edge index, or through the snapshot from freeze() if
+   * there is no index.)
+   *
+   * @param source
+   *    Start node
+   * @param sink
+   *    End node
+   * @return
+   *    The edges of a shortest path from source to sink, or null if
+   *    there is no such path.
+   * @throws IllegalArgumentException
+   *    If the search reaches an edge with a negative weight.
+   */
+  public List<Edge> bidirectionalShortestPath(int source, int sink) {
+    Adjacency backward = this.reverseAdjacency();
+    if (backward == null) {
+      return this.freeze().bidirectionalShortestPath(source, sink);
+    } // if
+    return BidirectionalSearch.shortestPath(this.adjacency(), backward, source, sink);
+  } // bidirectionalShortestPath(int, int)
 
-        if (!isMarked(tar)) {
-          if (distances[tar] == null || distances[cur] + weight < distances[tar]) {
-            distances[tar] = distances[cur] + weight;
-          } // if/if
-        } // if
-      } // for
+  /**
+   * Get a primitive view of the adjacency lists, for use by the graph
+   * algorithms. The view reflects later changes to the graph.
+   *
+   * @return the view.
+   */
+  Adjacency adjacency() {
+    return new Adjacency() {
+      public int capacity() {
+        return Graph.this.vertices.length;
+      } // capacity()
 
-      // Find the minimum in distances[].
-      int min = -1;
-      for (int i = 0; i < distances.length; i++) {
-        // Make sure the index (vertex) isn't marked or unreachable.
-        if (!isMarked(i) && distances[i] != null) {
-          if (min == -1|| distances[min] < distances[i]) {
-            min = i;
-          } // if/if
-        } // if
-      } // for
+      public boolean validVertex(int vertex) {
+        return Graph.this.validVertex(vertex);
+      } // validVertex(int)
 
-      // Update prevNodes[] and prevNode.
-      prevNodes[min] = prevNode;
-      prevNode = min;
+      public int degree(int vertex) {
+        return Graph.this.vertices[vertex].size();
+      } // degree(int)
 
-      // Mark the min vertex.
-      mark(prevNode);
+      public int target(int vertex, int i) {
+        return Graph.this.vertices[vertex].target(i);
+      } // target(int, int)
 
-      // Set the min vertex to the current vertex (U).
-      // Get all the edges which exit the (now) current vertex.
-      current = vertices[prevNode];
-    } // while
+      public int weight(int vertex, int i) {
+        return Graph.this.vertices[vertex].weight(i);
+      } // weight(int, int)
+    }; // new Adjacency()
+  } // adjacency()
 
-    return prevNodes;
-  } // shortestPath(int, int)
+  /**
+   * Get a primitive view of the edges into each vertex, in which the
+   * targets of a vertex are the sources of its incoming edges. The view
+   * reflects later changes to the graph.
+   *
+   * @return the view, or null if the graph does not index its incoming
+   *   edges.
+   */
+  Adjacency reverseAdjacency() {
+    if (this.incoming == null) {
+      return null;
+    } // if
+    return new Adjacency() {
+      public int capacity() {
+        return Graph.this.vertices.length;
+      } // capacity()
+
+      public boolean validVertex(int vertex) {
+        return Graph.this.validVertex(vertex);
+      } // validVertex(int)
+
+      public int degree(int vertex) {
+        return Graph.this.incoming[vertex].size();
+      } // degree(int)
+
+      public int target(int vertex, int i) {
+        return Graph.this.incoming[vertex].target(i);
+      } // target(int, int)
+
+      public int weight(int vertex, int i) {
+        return Graph.this.incoming[vertex].weight(i);
+      } // weight(int, int)
+    }; // new Adjacency()
+  } // reverseAdjacency()
 } // class Graph
@@ -0,0 +1,349 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * A builder for graphs with many edges. Edges are collected in bulk and
+ * the graph is built in one pass, with each adjacency list allocated at
+ * its final size, rather than by repeated calls to Graph.addEdge.
+ *
+ * As with addEdge, if the same edge is added more than once, the graph
+ * gets the last weight given.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class GraphBuilder {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Vertices are numbered 0, 1, 2, ... in the order they are added, and
+   * keep those numbers in the graph we build.
+   *
+   * Edges are stored as three parallel int lists. To build, we group the
+   * edges by source with a (stable) counting sort, then walk each group
+   * in order, using a per-target stamp to spot repeated targets. The
+   * first time we see a target we claim the next position for it; after
+   * that we just overwrite its weight. That gives each edge the position
+   * of its first addition and the weight of its last, exactly as a
+   * sequence of addEdge calls would.
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The names of the vertices, in order of vertex number.
+   */
+  final ArrayList<String> vertexNames;
+
+  /**
+   * The numbers of the vertices, indexed by name.
+   */
+  final NameTable vertexNumbers;
+
+  /**
+   * The sources of the edges.
+   */
+  final IntList sources;
+
+  /**
+   * The targets of the edges.
+   */
+  final IntList targets;
+
+  /**
+   * The weights of the edges.
+   */
+  final IntList weights;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a builder.
+   */
+  public GraphBuilder() {
+    this(Graph.INITIAL_CAPACITY, Graph.INITIAL_CAPACITY);
+  } // GraphBuilder()
+
+  /**
+   * Create a builder with room for a number of vertices and edges.
+   *
+   * @param expectedVertices
+   *   The number of vertices we expect.
+   * @param expectedEdges
+   *   The number of edges we expect.
+   */
+  public GraphBuilder(int expectedVertices, int expectedEdges) {
+    this.vertexNames = new ArrayList<String>(expectedVertices);
+    this.vertexNumbers = new NameTable(expectedVertices);
+    this.sources = new IntList(expectedEdges);
+    this.targets = new IntList(expectedEdges);
+    this.weights = new IntList(expectedEdges);
+  } // GraphBuilder(int, int)
+
+  // +----------+----------------------------------------------------
+  // | Vertices |
+  // +----------+
+
+  /**
+   * Add a vertex with a particular name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   *
+   * @exception Exception if there is already a vertex with that name.
+   */
+  public int addVertex(String name) throws Exception {
+    if (this.vertexNumbers.get(name) != -1) {
+      throw new Exception("Already have a node named " + name);
+    } // if
+    return this.newVertex(name);
+  } // addVertex(String)
+
+  /**
+   * Add an unnamed vertex. As in Graph, vertex v is named "v" followed by
+   * v (with more v's in front if that name is taken).
+   *
+   * @return the number of the vertex.
+   */
+  public int addVertex() {
+    String name = "v" + this.vertexNames.size();
+    while (this.vertexNumbers.get(name) != -1) {
+      name = "v" + name;
+    } // while
+    return this.newVertex(name);
+  } // addVertex()
+
+  /**
+   * Add a number of unnamed vertices.
+   *
+   * @param count
+   *   The number of vertices to add.
+   *
+   * @return the number of the first vertex added. The rest follow it
+   *   consecutively.
+   */
+  public int addVertices(int count) {
+    int first = this.vertexNames.size();
+    for (int i = 0; i < count; i++) {
+      this.addVertex();
+    } // for
+    return first;
+  } // addVertices(int)
+
+  /**
+   * Get the number of a vertex, adding the vertex if there is none with
+   * that name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   */
+  public int vertex(String name) {
+    int result = this.vertexNumbers.get(name);
+    if (result == -1) {
+      return this.newVertex(name);
+    } // if
+    return result;
+  } // vertex(String)
+
+  /**
+   * Get the number of vertices added so far.
+   *
+   * @return the number of vertices.
+   */
+  public int numVertices() {
+    return this.vertexNames.size();
+  } // numVertices()
+
+  // +-------+-------------------------------------------------------
+  // | Edges |
+  // +-------+
+
+  /**
+   * Add an edge. The ends are checked when the graph is built.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @return this builder.
+   */
+  public GraphBuilder addEdge(int source, int target, int weight) {
+    this.sources.add(source);
+    this.targets.add(target);
+    this.weights.add(weight);
+    return this;
+  } // addEdge(int, int, int)
+
+  /**
+   * Add an edge between two named vertices, adding the vertices if they
+   * are not already present.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @return this builder.
+   */
+  public GraphBuilder addEdge(String source, String target, int weight) {
+    return this.addEdge(this.vertex(source), this.vertex(target), weight);
+  } // addEdge(String, String, int)
+
+  /**
+   * Add many edges at once. Edge i goes from sources[i] to targets[i]
+   * with weight weights[i].
+   *
+   * @param sources
+   *   The sources of the edges.
+   * @param targets
+   *   The targets of the edges.
+   * @param weights
+   *   The weights of the edges.
+   *
+   * @return this builder.
+   *
+   * @throws IllegalArgumentException
+   *   If the arrays are not all the same length.
+   */
+  public GraphBuilder addEdges(int[] sources, int[] targets, int[] weights) {
+    if ((sources.length != targets.length) || (sources.length != weights.length)) {
+      throw new IllegalArgumentException("Edge arrays differ in length");
+    } // if
+    this.sources.addAll(sources, 0, sources.length);
+    this.targets.addAll(targets, 0, targets.length);
+    this.weights.addAll(weights, 0, weights.length);
+    return this;
+  } // addEdges(int[], int[], int[])
+
+  /**
+   * Add a stream of edges, in stream order. (Unweighted edges get
+   * weight 0.)
+   *
+   * @param edges
+   *   The edges.
+   *
+   * @return this builder.
+   */
+  public GraphBuilder addEdges(Stream<Edge> edges) {
+    edges.forEachOrdered((e) -> this.addEdge(e.source(), e.target(), e.weight()));
+    return this;
+  } // addEdges(Stream<Edge>)
+
+  // +-------+-------------------------------------------------------
+  // | Build |
+  // +-------+
+
+  /**
+   * Build a graph from the vertices and edges added so far. The builder
+   * may continue to be used afterwards.
+   *
+   * @return the new graph.
+   *
+   * @throws Exception
+   *   If some edge has an invalid end or goes from a vertex to itself.
+   */
+  public Graph build() throws Exception {
+    int n = this.vertexNames.size();
+    int m = this.sources.size();
+
+    // Check the edges and count the edges from each source.
+    int[] offsets = new int[n + 1];
+    for (int i = 0; i < m; i++) {
+      int source = this.sources.get(i);
+      int target = this.targets.get(i);
+      if ((source < 0) || (source >= n) || (target < 0) || (target >= n)) {
+        throw new Exception("Invalid ends");
+      } // if
+      if (source == target) {
+        throw new Exception("Cannot add an edge from a vertex to itself");
+      } // if
+      ++offsets[source + 1];
+    } // for
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] += offsets[v];
+    } // for
+
+    // Group the edges by source, keeping them in order.
+    int[] next = Arrays.copyOf(offsets, n);
+    int[] grouped = new int[m];
+    int[] groupedWeights = new int[m];
+    for (int i = 0; i < m; i++) {
+      int pos = next[this.sources.get(i)]++;
+      grouped[pos] = this.targets.get(i);
+      groupedWeights[pos] = this.weights.get(i);
+    } // for
+
+    // Remove duplicates within each group, keeping the last weight.
+    int capacity = Math.max(n, Graph.INITIAL_CAPACITY);
+    EdgeList[] vertices = new EdgeList[capacity];
+    int[] stamp = new int[n];
+    int[] slot = new int[n];
+    Arrays.fill(stamp, -1);
+    int numEdges = 0;
+    for (int u = 0; u < n; u++) {
+      int out = offsets[u];
+      for (int pos = offsets[u]; pos < offsets[u + 1]; pos++) {
+        int v = grouped[pos];
+        if (stamp[v] == u) {
+          groupedWeights[slot[v]] = groupedWeights[pos];
+        } else {
+          stamp[v] = u;
+          slot[v] = out;
+          grouped[out] = v;
+          groupedWeights[out] = groupedWeights[pos];
+          ++out;
+        } // if/else
+      } // for
+      EdgeList edges = new EdgeList(u, out - offsets[u]);
+      for (int pos = offsets[u]; pos < out; pos++) {
+        edges.append(grouped[pos], groupedWeights[pos]);
+      } // for
+      vertices[u] = edges;
+      numEdges += edges.size();
+    } // for
+    for (int v = n; v < capacity; v++) {
+      vertices[v] = new EdgeList(v);
+    } // for
+
+    String[] names = this.vertexNames.toArray(new String[capacity]);
+    // The builder may go on adding names, so the graph gets a copy.
+    return new Graph(names, new NameTable(this.vertexNumbers), vertices, n, numEdges);
+  } // build()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Add a vertex whose name is not yet in use.
+   *
+   * @param name
+   *   The name.
+   *
+   * @return the number of the new vertex.
+   */
+  private int newVertex(String name) {
+    int v = this.vertexNames.size();
+    this.vertexNames.add(name);
+    this.vertexNumbers.add(name, v);
+    return v;
+  } // newVertex(String)
+} // class GraphBuilder
@@ -0,0 +1,98 @@
+package edu.grinnell.csc207.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events for slow graph operations. They are
+ * recorded only while a recording with them enabled is running (e.g.,
+ * java -XX:StartFlightRecording ...), and otherwise cost about as much
+ * as a branch. By default, only operations that take at least 20 ms are
+ * recorded; change the threshold in the recording settings.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class GraphEvents {
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private GraphEvents() {
+  } // GraphEvents()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A search of a graph.
+   */
+  @Name("edu.grinnell.csc207.Traversal")
+  @Label("Graph Traversal")
+  @Category({"Graphs"})
+  @Description("A path or shortest-path search")
+  @Threshold("20 ms")
+  @StackTrace(true)
+  static final class TraversalEvent extends Event {
+    /** The kind of search. */
+    @Label("Operation")
+    String operation;
+
+    /** The source vertex. */
+    @Label("Source")
+    int source;
+
+    /** The target vertex, or -1 for none. */
+    @Label("Target")
+    int target;
+
+    /** The number of vertices in the graph. */
+    @Label("Graph Vertices")
+    int graphVertices;
+
+    /** The number of vertices visited (settled). */
+    @Label("Vertices Visited")
+    long verticesVisited;
+
+    /** The number of edges relaxed. */
+    @Label("Edges Relaxed")
+    long edgesRelaxed;
+  } // class TraversalEvent
+
+  /**
+   * A graph read from or written to a file.
+   */
+  @Name("edu.grinnell.csc207.GraphFile")
+  @Label("Graph File")
+  @Category({"Graphs"})
+  @Description("Reading or saving a graph")
+  @Threshold("20 ms")
+  static final class FileEvent extends Event {
+    /** Whether the graph was read or saved. */
+    @Label("Operation")
+    String operation;
+
+    /** The name of the file. */
+    @Label("File")
+    String file;
+
+    /** The number of edges in the graph afterwards. */
+    @Label("Edges")
+    int edges;
+
+    /** The size of the file. */
+    @Label("Size")
+    @DataAmount
+    long bytes;
+  } // class FileEvent
+} // class GraphEvents
@@ -0,0 +1,318 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The binary file format for CSR graphs. A saved graph can be loaded by
+ * mapping the file, without parsing any text or creating any per-edge
+ * objects.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class GraphFile {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * A graph file contains, in order (all ints are big-endian):
+   *
+   *   header       MAGIC, FORMAT, capacity, numVertices, numEdges (ints)
+   *                and the graph version (a long)
+   *   names        capacity ints giving the length in bytes of each
+   *                vertex name (-1 for an unused vertex number), then
+   *                the UTF-8 bytes of the names, one after another
+   *   offsets      capacity + 1 ints
+   *   targets      numEdges ints
+   *   weights      numEdges ints
+   *
+   * These are exactly the arrays of a CsrGraph, so loading maps each
+   * section and copies it into its array in bulk. Sections larger than
+   * WINDOW bytes are mapped a window at a time, since a single mapping
+   * is limited to 2GB.
+   *
+   * FORMAT changes whenever the layout does; we refuse to load files
+   * with a different FORMAT.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of a graph file.
+   */
+  static final int MAGIC = 0x47524631; // "GRF1"
+
+  /**
+   * The version of the layout.
+   */
+  static final int FORMAT = 1;
+
+  /**
+   * The number of bytes in the header.
+   */
+  static final int HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+  /**
+   * The largest number of bytes we map at once.
+   */
+  static final int WINDOW = 1 << 30;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private GraphFile() {
+  } // GraphFile()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Write a graph to a file.
+   *
+   * @param graph
+   *   The graph.
+   * @param fname
+   *   The name of the file.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  static void write(CsrGraph graph, String fname) throws IOException {
+    int capacity = graph.capacity();
+    byte[][] names = new byte[capacity][];
+    for (int v = 0; v < capacity; v++) {
+      if (graph.vertexNames[v] != null) {
+        names[v] = graph.vertexNames[v].getBytes(StandardCharsets.UTF_8);
+      } // if
+    } // for
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(fname), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT);
+      out.writeInt(capacity);
+      out.writeInt(graph.numVertices);
+      out.writeInt(graph.targets.length);
+      out.writeLong(graph.version);
+      for (byte[] name : names) {
+        out.writeInt((name == null) ? -1 : name.length);
+      } // for
+      for (byte[] name : names) {
+        if (name != null) {
+          out.write(name);
+        } // if
+      } // for
+      writeInts(out, graph.offsets);
+      writeInts(out, graph.targets);
+      writeInts(out, graph.weights);
+    } // try
+  } // write(CsrGraph, String)
+
+  /**
+   * Load a graph written by write.
+   *
+   * @param fname
+   *   The name of the file.
+   *
+   * @return the graph.
+   *
+   * @throws IOException
+   *   If the file cannot be read or is not a valid graph file.
+   */
+  static CsrGraph read(String fname) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(fname),
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE) {
+        throw new IOException(fname + " is not a graph file");
+      } // if
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        throw new IOException(fname + " is not a graph file");
+      } // if
+      int format = header.getInt();
+      if (format != FORMAT) {
+        throw new IOException(fname + " has format " + format + ", expected " + FORMAT);
+      } // if
+      int capacity = header.getInt();
+      int numVertices = header.getInt();
+      int numEdges = header.getInt();
+      long version = header.getLong();
+      if ((capacity < 0) || (capacity == Integer.MAX_VALUE) || (numVertices < 0)
+          || (numVertices > capacity) || (numEdges < 0)) {
+        throw new IOException(fname + ": bad header");
+      } // if
+      // Check that the fixed-size sections fit before allocating them,
+      // so that a corrupt header cannot make us allocate gigabytes.
+      long fixed = HEADER_SIZE + (long) Integer.BYTES * capacity
+          + (long) Integer.BYTES * (capacity + 1L)
+          + 2L * Integer.BYTES * numEdges;
+      if (fixed > size) {
+        throw new IOException(fname + " is truncated: the header implies at least "
+            + fixed + " bytes, but the file has " + size);
+      } // if
+      long pos = HEADER_SIZE;
+
+      // The names
+      int[] lengths = new int[capacity];
+      pos = readInts(channel, pos, size, lengths, fname);
+      long nameBytes = 0;
+      for (int len : lengths) {
+        if (len < -1) {
+          throw new IOException(fname + ": bad name length " + len);
+        } // if
+        nameBytes += Math.max(len, 0);
+      } // for
+      if (pos + nameBytes > size) {
+        throw new IOException(fname + " is truncated");
+      } // if
+      String[] vertexNames = new String[capacity];
+      int used = 0;
+      byte[] scratch = new byte[64];
+      ByteBuffer window = null;
+      long windowStart = pos;
+      for (int v = 0; v < capacity; v++) {
+        int len = lengths[v];
+        if (len == -1) {
+          continue;
+        } // if
+        if ((window == null) || (pos + len > windowStart + window.capacity())) {
+          windowStart = pos;
+          window = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+              Math.min(Math.max(WINDOW, len), size - pos));
+        } // if
+        if (len > scratch.length) {
+          scratch = new byte[Math.max(len, scratch.length * 2)];
+        } // if
+        window.get((int) (pos - windowStart), scratch, 0, len);
+        vertexNames[v] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        pos += len;
+        ++used;
+      } // for
+      if (used != numVertices) {
+        throw new IOException(fname + ": expected " + numVertices
+            + " vertices, found " + used);
+      } // if
+
+      // The edges
+      int[] offsets = new int[capacity + 1];
+      int[] targets = new int[numEdges];
+      int[] weights = new int[numEdges];
+      pos = readInts(channel, pos, size, offsets, fname);
+      pos = readInts(channel, pos, size, targets, fname);
+      pos = readInts(channel, pos, size, weights, fname);
+      if (pos != size) {
+        throw new IOException(fname + " has " + (size - pos) + " extra bytes");
+      } // if
+      check(offsets, targets, vertexNames, fname);
+      return new CsrGraph(numVertices, offsets, targets, weights, vertexNames, version);
+    } // try
+  } // read(String)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Make sure that the edge arrays describe a graph, so that later
+   * searches cannot index out of bounds.
+   *
+   * @param offsets
+   *   The row offsets.
+   * @param targets
+   *   The edge targets.
+   * @param vertexNames
+   *   The vertex names.
+   * @param fname
+   *   The name of the file (for error messages).
+   *
+   * @throws IOException
+   *   If they do not.
+   */
+  private static void check(int[] offsets, int[] targets, String[] vertexNames,
+      String fname) throws IOException {
+    int capacity = vertexNames.length;
+    if ((offsets[0] != 0) || (offsets[capacity] != targets.length)) {
+      throw new IOException(fname + ": bad offsets");
+    } // if
+    for (int v = 0; v < capacity; v++) {
+      if ((offsets[v + 1] < offsets[v])
+          || ((vertexNames[v] == null) && (offsets[v + 1] != offsets[v]))) {
+        throw new IOException(fname + ": bad offsets for vertex " + v);
+      } // if
+    } // for
+    for (int target : targets) {
+      if ((target < 0) || (target >= capacity) || (vertexNames[target] == null)) {
+        throw new IOException(fname + ": bad edge target " + target);
+      } // if
+    } // for
+  } // check(int[], int[], String[], String)
+
+  /**
+   * Write an array of ints.
+   *
+   * @param out
+   *   Where to write.
+   * @param values
+   *   The ints.
+   *
+   * @throws IOException
+   *   If the ints cannot be written.
+   */
+  private static void writeInts(DataOutputStream out, int[] values)
+      throws IOException {
+    for (int value : values) {
+      out.writeInt(value);
+    } // for
+  } // writeInts(DataOutputStream, int[])
+
+  /**
+   * Fill an array with ints from a file, mapping the file a window at a
+   * time.
+   *
+   * @param channel
+   *   The file.
+   * @param pos
+   *   Where the ints start.
+   * @param size
+   *   The size of the file.
+   * @param values
+   *   The array to fill.
+   * @param fname
+   *   The name of the file (for error messages).
+   *
+   * @return the position just after the ints.
+   *
+   * @throws IOException
+   *   If the file is too short.
+   */
+  private static long readInts(FileChannel channel, long pos, long size,
+      int[] values, String fname) throws IOException {
+    if (pos + (long) values.length * Integer.BYTES > size) {
+      throw new IOException(fname + " is truncated");
+    } // if
+    int perWindow = WINDOW / Integer.BYTES;
+    for (int i = 0; i < values.length; i += perWindow) {
+      int count = Math.min(perWindow, values.length - i);
+      channel.map(FileChannel.MapMode.READ_ONLY, pos, (long) count * Integer.BYTES)
+          .asIntBuffer().get(values, i, count);
+      pos += (long) count * Integer.BYTES;
+    } // for
+    return pos;
+  } // readInts(FileChannel, long, long, int[], String)
+} // class GraphFile
@@ -0,0 +1,34 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Something that wants to hear about changes to the edges of a graph.
+ * Register with Graph.addListener.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public interface GraphListener {
+  /**
+   * Note that an edge was added, removed, or given a new weight. Called
+   * after the change.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   * @param oldWeight
+   *   The weight before the change, or null if the edge is new.
+   * @param newWeight
+   *   The weight after the change, or null if the edge was removed.
+   */
+  void edgeChanged(int source, int target, Integer oldWeight, Integer newWeight);
+
+  /**
+   * Note that a vertex is about to be removed, along with every edge into
+   * or out of it. Called before the change; the removals of the edges
+   * are not reported separately.
+   *
+   * @param vertex
+   *   The vertex.
+   */
+  void vertexRemoving(int vertex);
+} // interface GraphListener
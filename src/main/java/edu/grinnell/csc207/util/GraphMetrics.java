@@ -0,0 +1,296 @@
+package edu.grinnell.csc207.util;
+
+import java.util.EnumMap;
+
+/**
+ * A snapshot of the operation metrics of a graph: how many times each
+ * operation ran, how much work the searches did, and how long the timed
+ * operations took. Get one from Graph.metrics() after calling
+ * Graph.enableMetrics().
+ *
+ * @author Samuel A. Rebelsky
+ */
+public final class GraphMetrics {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Latencies are kept as histograms with one bucket per power of two:
+   * bucket b counts operations that took from 2^b to 2^(b+1)-1
+   * nanoseconds (bucket 0 also counts 0). That is coarse, but recording
+   * costs just a couple of instructions, and a factor of two is enough to
+   * tell a 1 ms search from a 100 ms one.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of buckets in a latency histogram.
+   */
+  public static final int BUCKETS = 64;
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The operations we count.
+   */
+  public enum Operation {
+    /** Adding a vertex. */
+    ADD_VERTEX(false),
+    /** Adding or replacing an edge (each direction, for undirected graphs). */
+    ADD_EDGE(false),
+    /** Removing an edge (each direction, for undirected graphs). */
+    REMOVE_EDGE(false),
+    /** Removing a vertex. */
+    REMOVE_VERTEX(false),
+    /** Unweighted path search (path). */
+    PATH(true),
+    /** Shortest-path search (shortestPath, shortestPaths). */
+    SHORTEST_PATH(true),
+    /** Reading a graph (readGraph). */
+    READ(true),
+    /** Saving a graph (save, saveBinary). */
+    SAVE(true);
+
+    /**
+     * Whether we record latencies for the operation.
+     */
+    final boolean timed;
+
+    /**
+     * Create an operation.
+     *
+     * @param timed
+     *   Whether we record latencies for the operation.
+     */
+    Operation(boolean timed) {
+      this.timed = timed;
+    } // Operation(boolean)
+
+    /**
+     * Determine if we record latencies for the operation. (We do not
+     * time mutations, since reading the clock would cost more than most
+     * of them.)
+     *
+     * @return true if the operation is timed and false otherwise.
+     */
+    public boolean isTimed() {
+      return this.timed;
+    } // isTimed()
+  } // enum Operation
+
+  /**
+   * The metrics of one operation.
+   */
+  static final class Stats {
+    /**
+     * The number of times the operation ran.
+     */
+    final long count;
+
+    /**
+     * The total number of vertices the operation visited (for searches).
+     */
+    final long verticesVisited;
+
+    /**
+     * The total number of edges the operation examined (for searches).
+     */
+    final long edgesRelaxed;
+
+    /**
+     * The total time spent in the operation (for timed operations).
+     */
+    final long totalNanos;
+
+    /**
+     * The latency histogram (for timed operations).
+     */
+    final long[] histogram;
+
+    /**
+     * Create the metrics of an operation.
+     *
+     * @param count
+     *   The number of calls.
+     * @param verticesVisited
+     *   The vertices visited.
+     * @param edgesRelaxed
+     *   The edges relaxed.
+     * @param totalNanos
+     *   The total time.
+     * @param histogram
+     *   The latency histogram.
+     */
+    Stats(long count, long verticesVisited, long edgesRelaxed, long totalNanos,
+        long[] histogram) {
+      this.count = count;
+      this.verticesVisited = verticesVisited;
+      this.edgesRelaxed = edgesRelaxed;
+      this.totalNanos = totalNanos;
+      this.histogram = histogram;
+    } // Stats(long, long, long, long, long[])
+  } // class Stats
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The metrics of each operation.
+   */
+  final EnumMap<Operation, Stats> stats;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a snapshot.
+   *
+   * @param stats
+   *   The metrics of each operation.
+   */
+  GraphMetrics(EnumMap<Operation, Stats> stats) {
+    this.stats = stats;
+  } // GraphMetrics(EnumMap)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the number of times an operation ran.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the count.
+   */
+  public long count(Operation op) {
+    return this.stats.get(op).count;
+  } // count(Operation)
+
+  /**
+   * Get the total number of changes to the graph.
+   *
+   * @return the number of vertices and edges added and removed.
+   */
+  public long mutations() {
+    return this.count(Operation.ADD_VERTEX) + this.count(Operation.ADD_EDGE)
+        + this.count(Operation.REMOVE_EDGE) + this.count(Operation.REMOVE_VERTEX);
+  } // mutations()
+
+  /**
+   * Get the total number of vertices visited (settled, for shortest
+   * paths) by a search operation.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the number of vertices.
+   */
+  public long verticesVisited(Operation op) {
+    return this.stats.get(op).verticesVisited;
+  } // verticesVisited(Operation)
+
+  /**
+   * Get the total number of edges examined by a search operation.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the number of edges.
+   */
+  public long edgesRelaxed(Operation op) {
+    return this.stats.get(op).edgesRelaxed;
+  } // edgesRelaxed(Operation)
+
+  /**
+   * Get the total time spent in a timed operation.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the time, in nanoseconds.
+   */
+  public long totalNanos(Operation op) {
+    return this.stats.get(op).totalNanos;
+  } // totalNanos(Operation)
+
+  /**
+   * Get the latency histogram of a timed operation.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return an array of BUCKETS counts; element b is the number of
+   *   calls that took from 2^b to 2^(b+1)-1 nanoseconds.
+   */
+  public long[] histogram(Operation op) {
+    return this.stats.get(op).histogram.clone();
+  } // histogram(Operation)
+
+  /**
+   * Estimate a percentile of the latency of a timed operation.
+   *
+   * @param op
+   *   The operation.
+   * @param p
+   *   The percentile, between 0 and 100.
+   *
+   * @return an upper bound on the latency (in nanoseconds) of p percent
+   *   of the calls (accurate to within a factor of two), or 0 if there
+   *   were no calls.
+   */
+  public long percentileNanos(Operation op, double p) {
+    long[] histogram = this.stats.get(op).histogram;
+    long total = 0;
+    for (long n : histogram) {
+      total += n;
+    } // for
+    long wanted = (long) Math.ceil(total * p / 100.0);
+    long seen = 0;
+    for (int b = 0; b < BUCKETS; b++) {
+      seen += histogram[b];
+      if ((seen >= wanted) && (seen > 0)) {
+        return (b == BUCKETS - 1) ? Long.MAX_VALUE : (1L << (b + 1)) - 1;
+      } // if
+    } // for
+    return 0;
+  } // percentileNanos(Operation, double)
+
+  /**
+   * Summarize the metrics, one operation per line, skipping operations
+   * that never ran.
+   *
+   * @return the summary.
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    for (Operation op : Operation.values()) {
+      Stats s = this.stats.get(op);
+      if (s.count == 0) {
+        continue;
+      } // if
+      result.append(op).append(": ").append(s.count);
+      if (s.verticesVisited > 0) {
+        result.append(", visited ").append(s.verticesVisited);
+        result.append(", relaxed ").append(s.edgesRelaxed);
+      } // if
+      if (op.timed) {
+        result.append(", mean ").append(s.totalNanos / s.count).append(" ns");
+        result.append(", p99 <= ").append(this.percentileNanos(op, 99)).append(" ns");
+      } // if
+      result.append('\n');
+    } // for
+    return result.toString();
+  } // toString()
+} // class GraphMetrics
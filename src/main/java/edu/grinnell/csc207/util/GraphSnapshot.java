@@ -0,0 +1,386 @@
+package edu.grinnell.csc207.util;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable version of a VersionedGraph. Snapshots may be read by any
+ * number of threads while the graph continues to change.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public final class GraphSnapshot implements Adjacency {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * The vertices are split into chunks of VersionedGraph.CHUNK_SIZE.
+   * Vertex v lives in slot v % CHUNK_SIZE of chunk v / CHUNK_SIZE. A
+   * chunk holds the names and edge lists of its vertices; a null name
+   * marks an unused vertex number, and a null edge list an empty one.
+   *
+   * Nothing reachable from a snapshot ever changes. Successive snapshots
+   * share every chunk and edge list that did not change between them.
+   */
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The chunks of vertices.
+   */
+  final VersionedGraph.Chunk[] chunks;
+
+  /**
+   * The number of vertex slots.
+   */
+  final int capacity;
+
+  /**
+   * The number of vertices.
+   */
+  final int numVertices;
+
+  /**
+   * The number of edges.
+   */
+  final int numEdges;
+
+  /**
+   * The version of the graph.
+   */
+  final long version;
+
+  /**
+   * The number assigned to each name (shared by every version; a name
+   * keeps its number even while the vertex is absent).
+   */
+  final ConcurrentHashMap<String, Integer> numbers;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a snapshot.
+   *
+   * @param chunks
+   *   The chunks of vertices.
+   * @param capacity
+   *   The number of vertex slots.
+   * @param numVertices
+   *   The number of vertices.
+   * @param numEdges
+   *   The number of edges.
+   * @param version
+   *   The version.
+   * @param numbers
+   *   The numbers of the names.
+   */
+  GraphSnapshot(VersionedGraph.Chunk[] chunks, int capacity, int numVertices,
+      int numEdges, long version, ConcurrentHashMap<String, Integer> numbers) {
+    this.chunks = chunks;
+    this.capacity = capacity;
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.version = version;
+    this.numbers = numbers;
+  } // GraphSnapshot
+
+  // +----------------------+----------------------------------------
+  // | Vertex names/numbers |
+  // +----------------------+
+
+  /**
+   * Given a vertex number, get the corresponding vertex name.
+   *
+   * @param vertexNumber
+   *   The number of a vertex.
+   *
+   * @return the name, or null if there is no such vertex.
+   */
+  public String vertexName(int vertexNumber) {
+    if ((vertexNumber < 0) || (vertexNumber >= this.capacity)) {
+      return null;
+    } // if
+    return this.chunks[vertexNumber >>> VersionedGraph.CHUNK_BITS]
+        .names[vertexNumber & VersionedGraph.CHUNK_MASK];
+  } // vertexName(int)
+
+  /**
+   * Given a vertex name, get the corresponding vertex number.
+   *
+   * @param vertexName
+   *   The name of the vertex.
+   *
+   * @return the number, or -1 if there is no such vertex in this version.
+   */
+  public int vertexNumber(String vertexName) {
+    Integer v = this.numbers.get(vertexName);
+    if ((v == null) || !this.validVertex(v)) {
+      return -1;
+    } // if
+    return v;
+  } // vertexNumber(String)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the version of the graph this snapshot captures.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Get the number of vertices.
+   *
+   * @return the number of vertices.
+   */
+  public int numVertices() {
+    return this.numVertices;
+  } // numVertices()
+
+  /**
+   * Get the number of edges.
+   *
+   * @return the number of edges.
+   */
+  public int numEdges() {
+    return this.numEdges;
+  } // numEdges()
+
+  /**
+   * Get the number of vertex slots.
+   *
+   * @return the capacity.
+   */
+  public int capacity() {
+    return this.capacity;
+  } // capacity()
+
+  /**
+   * Determine if a vertex is valid.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return true if the vertex is valid and false otherwise.
+   */
+  public boolean validVertex(int vertex) {
+    return this.vertexName(vertex) != null;
+  } // validVertex(int)
+
+  /**
+   * Get the number of edges from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the out-degree, or 0 for an invalid vertex.
+   */
+  public int degree(int vertex) {
+    EdgeList edges = this.edges(vertex);
+    return (edges == null) ? 0 : edges.size();
+  } // degree(int)
+
+  /**
+   * Get the target of one of a vertex's edges.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the target.
+   */
+  public int target(int vertex, int i) {
+    return this.edges(vertex).target(i);
+  } // target(int, int)
+
+  /**
+   * Get the weight of one of a vertex's edges.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the weight.
+   */
+  public int weight(int vertex, int i) {
+    return this.edges(vertex).weight(i);
+  } // weight(int, int)
+
+  /**
+   * Determine if there is an edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return true if the edge exists and false otherwise.
+   */
+  public boolean hasEdge(int source, int target) {
+    EdgeList edges = this.edges(source);
+    return (edges != null) && (edges.indexOf(target) != -1);
+  } // hasEdge(int, int)
+
+  /**
+   * Get the weight of the edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return the weight, or null if there is no such edge.
+   */
+  public Integer edgeWeight(int source, int target) {
+    EdgeList edges = this.edges(source);
+    int i = (edges == null) ? -1 : edges.indexOf(target);
+    return (i == -1) ? null : edges.weight(i);
+  } // edgeWeight(int, int)
+
+  /**
+   * Get an iterable for the vertices.
+   *
+   * @return an iterable whose iterator method returns an iterator
+   *   for all the vertices.
+   */
+  public Iterable<Integer> vertices() {
+    return () -> {
+      return new Iterator<Integer>() {
+        // The next vertex to consider
+        int vertex = nextVertex(0);
+
+        public boolean hasNext() {
+          return this.vertex < GraphSnapshot.this.capacity;
+        } // hasNext()
+
+        public Integer next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          int result = this.vertex;
+          this.vertex = nextVertex(this.vertex + 1);
+          return result;
+        } // next()
+      }; // new Iterator<Integer>
+    };
+  } // vertices()
+
+  /**
+   * Get all of the edges from a particular vertex.
+   *
+   * @param vertex
+   *   The vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesFrom(int vertex) {
+    EdgeList edges = this.edges(vertex);
+    return (edges == null) ? new EdgeList(vertex, 0) : edges;
+  } // edgesFrom(int)
+
+  // +------------+--------------------------------------------------
+  // | Algorithms |
+  // +------------+
+
+  /**
+   * Compute the shortest paths from a source to every reachable vertex.
+   *
+   * @param source
+   *   The source vertex.
+   *
+   * @return the shortest-path tree rooted at source.
+   */
+  public ShortestPathTree shortestPaths(int source) {
+    return Dijkstra.run(this, source, -1);
+  } // shortestPaths(int)
+
+  /**
+   * Find the vertices reachable from one or more sources.
+   *
+   * @param sources
+   *   The vertices to start from.
+   *
+   * @return the set of reachable vertex numbers.
+   */
+  public BitSet reachable(int... sources) {
+    return BitSet.valueOf(Reachability.sweep(this, sources));
+  } // reachable(int...)
+
+  /**
+   * Copy this snapshot into a CSR graph, for the algorithms that need
+   * one.
+   *
+   * @return the CSR graph.
+   */
+  public CsrGraph toCsr() {
+    int[] offsets = new int[this.capacity + 1];
+    String[] names = new String[this.capacity];
+    for (int v = 0; v < this.capacity; v++) {
+      names[v] = this.vertexName(v);
+      offsets[v + 1] = offsets[v] + this.degree(v);
+    } // for
+    int[] targets = new int[offsets[this.capacity]];
+    int[] weights = new int[offsets[this.capacity]];
+    for (int v = 0; v < this.capacity; v++) {
+      EdgeList edges = this.edges(v);
+      if (edges != null) {
+        System.arraycopy(edges.targets, 0, targets, offsets[v], edges.size());
+        System.arraycopy(edges.weights, 0, weights, offsets[v], edges.size());
+      } // if
+    } // for
+    return new CsrGraph(this.numVertices, offsets, targets, weights, names,
+        this.version);
+  } // toCsr()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Get the edges from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the edges, or null if there are none or the vertex is
+   *   invalid.
+   */
+  EdgeList edges(int vertex) {
+    if ((vertex < 0) || (vertex >= this.capacity)) {
+      return null;
+    } // if
+    return this.chunks[vertex >>> VersionedGraph.CHUNK_BITS]
+        .edges[vertex & VersionedGraph.CHUNK_MASK];
+  } // edges(int)
+
+  /**
+   * Find the first used vertex number at or after a position.
+   *
+   * @param vertex
+   *   The position to start looking.
+   *
+   * @return the next used vertex number, or the capacity if there is none.
+   */
+  private int nextVertex(int vertex) {
+    while ((vertex < this.capacity) && !this.validVertex(vertex)) {
+      ++vertex;
+    } // while
+    return vertex;
+  } // nextVertex(int)
+} // class GraphSnapshot
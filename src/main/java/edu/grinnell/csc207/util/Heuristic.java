@@ -0,0 +1,25 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * An estimate of the distance between two vertices, used to guide A*
+ * search. An estimate must never exceed the true distance (that is, it
+ * must be admissible), or the search may return paths that are not
+ * shortest.
+ *
+ * @author Samuel A. Rebelsky
+ */
+@FunctionalInterface
+public interface Heuristic {
+  /**
+   * Estimate the distance from one vertex to another.
+   *
+   * @param vertex
+   *   The vertex we are at.
+   * @param target
+   *   The vertex we are heading to.
+   *
+   * @return a lower bound on the length of a shortest path from vertex
+   *   to target.
+   */
+  long estimate(int vertex, int target);
+} // interface Heuristic
@@ -0,0 +1,230 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of vertex numbers keyed by long priorities, with
+ * support for decrease-key. Each vertex may appear at most once.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class IndexedMinHeap {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The vertices in heap order.
+   */
+  private final int[] heap;
+
+  /**
+   * The position of each vertex in the heap, or -1 if it is not there.
+   */
+  private final int[] pos;
+
+  /**
+   * The key of each vertex.
+   */
+  private final long[] keys;
+
+  /**
+   * The number of vertices currently in the heap.
+   */
+  private int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new heap for vertices 0 .. capacity-1.
+   *
+   * @param capacity
+   *   One more than the largest vertex number.
+   */
+  IndexedMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.pos = new int[capacity];
+    this.keys = new long[capacity];
+    Arrays.fill(this.pos, -1);
+    this.size = 0;
+  } // IndexedMinHeap(int)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Determine if the heap is empty.
+   *
+   * @return true if the heap is empty and false otherwise.
+   */
+  boolean isEmpty() {
+    return this.size == 0;
+  } // isEmpty()
+
+  /**
+   * Get the number of vertices in the heap.
+   *
+   * @return the size of the heap.
+   */
+  int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Determine if a vertex is in the heap.
+   *
+   * @param vertex
+   *   The vertex to look for.
+   *
+   * @return true if the vertex is in the heap and false otherwise.
+   */
+  boolean contains(int vertex) {
+    return this.pos[vertex] != -1;
+  } // contains(int)
+
+  /**
+   * Get the smallest key in the heap.
+   *
+   * @return the smallest key.
+   */
+  long minKey() {
+    if (this.size == 0) {
+      throw new NoSuchElementException();
+    } // if
+    return this.keys[this.heap[0]];
+  } // minKey()
+
+  /**
+   * Get the vertex at a position in the heap array. (Used by clients
+   * that need to sweep the remaining vertices.)
+   *
+   * @param i
+   *   A position in the range 0 .. size()-1.
+   *
+   * @return the vertex at that position.
+   */
+  int get(int i) {
+    return this.heap[i];
+  } // get(int)
+
+  // +----------+----------------------------------------------------
+  // | Mutators |
+  // +----------+
+
+  /**
+   * Add a vertex or, if it is already present, lower its key. Does
+   * nothing if the vertex is present with a key no larger than key.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param key
+   *   Its new key.
+   *
+   * @return true if the heap changed and false otherwise.
+   */
+  boolean insertOrDecrease(int vertex, long key) {
+    int i = this.pos[vertex];
+    if (i == -1) {
+      i = this.size++;
+      this.heap[i] = vertex;
+      this.pos[vertex] = i;
+    } else if (key >= this.keys[vertex]) {
+      return false;
+    } // if/else
+    this.keys[vertex] = key;
+    siftUp(i);
+    return true;
+  } // insertOrDecrease(int, long)
+
+  /**
+   * Remove the vertex with the smallest key.
+   *
+   * @return that vertex.
+   */
+  int removeMin() {
+    if (this.size == 0) {
+      throw new NoSuchElementException();
+    } // if
+    int result = this.heap[0];
+    this.pos[result] = -1;
+    --this.size;
+    if (this.size > 0) {
+      int last = this.heap[this.size];
+      this.heap[0] = last;
+      this.pos[last] = 0;
+      siftDown(0);
+    } // if
+    return result;
+  } // removeMin()
+
+  /**
+   * Remove every vertex from the heap.
+   */
+  void clear() {
+    for (int i = 0; i < this.size; i++) {
+      this.pos[this.heap[i]] = -1;
+    } // for
+    this.size = 0;
+  } // clear()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Move the vertex at position i up until the heap property holds.
+   *
+   * @param i
+   *   The position.
+   */
+  private void siftUp(int i) {
+    int vertex = this.heap[i];
+    long key = this.keys[vertex];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      int pv = this.heap[parent];
+      if (this.keys[pv] <= key) {
+        break;
+      } // if
+      this.heap[i] = pv;
+      this.pos[pv] = i;
+      i = parent;
+    } // while
+    this.heap[i] = vertex;
+    this.pos[vertex] = i;
+  } // siftUp(int)
+
+  /**
+   * Move the vertex at position i down until the heap property holds.
+   *
+   * @param i
+   *   The position.
+   */
+  private void siftDown(int i) {
+    int vertex = this.heap[i];
+    long key = this.keys[vertex];
+    int half = this.size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if ((right < this.size)
+          && (this.keys[this.heap[right]] < this.keys[this.heap[child]])) {
+        child = right;
+      } // if
+      int cv = this.heap[child];
+      if (key <= this.keys[cv]) {
+        break;
+      } // if
+      this.heap[i] = cv;
+      this.pos[cv] = i;
+      i = child;
+    } // while
+    this.heap[i] = vertex;
+    this.pos[vertex] = i;
+  } // siftDown(int)
+} // class IndexedMinHeap
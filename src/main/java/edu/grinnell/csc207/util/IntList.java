@@ -0,0 +1,130 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints, for algorithms that would otherwise box
+ * every vertex number.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class IntList {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The values, in positions 0 .. size-1.
+   */
+  private int[] items;
+
+  /**
+   * The number of values.
+   */
+  private int size;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty list.
+   */
+  IntList() {
+    this(8);
+  } // IntList()
+
+  /**
+   * Create an empty list with a particular initial capacity.
+   *
+   * @param capacity
+   *   The initial capacity.
+   */
+  IntList(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+    this.size = 0;
+  } // IntList(int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Add a value to the end of the list.
+   *
+   * @param value
+   *   The value to add.
+   */
+  void add(int value) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.items.length * 2);
+    } // if
+    this.items[this.size++] = value;
+  } // add(int)
+
+  /**
+   * Add a range of values to the end of the list.
+   *
+   * @param values
+   *   An array containing the values.
+   * @param off
+   *   The index of the first value to add.
+   * @param len
+   *   The number of values to add.
+   */
+  void addAll(int[] values, int off, int len) {
+    if (this.size + len > this.items.length) {
+      this.items = Arrays.copyOf(this.items,
+          Math.max(this.items.length * 2, this.size + len));
+    } // if
+    System.arraycopy(values, off, this.items, this.size, len);
+    this.size += len;
+  } // addAll(int[], int, int)
+
+  /**
+   * Get a value.
+   *
+   * @param i
+   *   The index of the value, in the range 0 .. size()-1.
+   *
+   * @return the value.
+   */
+  int get(int i) {
+    return this.items[i];
+  } // get(int)
+
+  /**
+   * Remove the last value.
+   *
+   * @return the value removed.
+   */
+  int removeLast() {
+    return this.items[--this.size];
+  } // removeLast()
+
+  /**
+   * Get the number of values.
+   *
+   * @return the size of the list.
+   */
+  int size() {
+    return this.size;
+  } // size()
+
+  /**
+   * Remove every value.
+   */
+  void clear() {
+    this.size = 0;
+  } // clear()
+
+  /**
+   * Copy the values into an array.
+   *
+   * @return an array of exactly size() values.
+   */
+  int[] toArray() {
+    return Arrays.copyOf(this.items, this.size);
+  } // toArray()
+} // class IntList
@@ -0,0 +1,194 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A square matrix of ints, stored in pages of whole rows on the heap,
+ * in direct buffers, or in a memory-mapped file. Matrices too large
+ * for a single Java array are fine.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class IntMatrix implements AutoCloseable {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest number of ints in a page (512 MiB).
+   */
+  static final int PAGE_INTS = 1 << 27;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of rows (and columns).
+   */
+  final int size;
+
+  /**
+   * The number of rows in each page.
+   */
+  final int pageRows;
+
+  /**
+   * The pages.
+   */
+  final IntBuffer[] pages;
+
+  /**
+   * The file the pages are mapped from, or null.
+   */
+  final FileChannel file;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a matrix, filled with zeros.
+   *
+   * @param size
+   *   The number of rows and columns.
+   * @param offHeap
+   *   Whether to use direct buffers rather than the heap. (Ignored if
+   *   file is non-null.)
+   * @param fname
+   *   The file to map the matrix to, or null. Anything already in the
+   *   file is overwritten.
+   *
+   * @throws IOException
+   *   If the file cannot be mapped.
+   */
+  IntMatrix(int size, boolean offHeap, Path fname) throws IOException {
+    this.size = size;
+    this.pageRows = Math.max(1, PAGE_INTS / Math.max(1, size));
+    this.pages = new IntBuffer[(size + this.pageRows - 1) / this.pageRows];
+    if (fname == null) {
+      this.file = null;
+    } else {
+      this.file = FileChannel.open(fname, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+    } // if/else
+    for (int p = 0; p < this.pages.length; p++) {
+      int rows = Math.min(this.pageRows, size - p * this.pageRows);
+      int ints = rows * size;
+      if (this.file != null) {
+        long start = (long) p * this.pageRows * size * Integer.BYTES;
+        this.pages[p] = this.file.map(FileChannel.MapMode.READ_WRITE, start,
+            (long) ints * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+      } else if (offHeap) {
+        this.pages[p] = ByteBuffer.allocateDirect(ints * Integer.BYTES)
+            .order(ByteOrder.nativeOrder()).asIntBuffer();
+      } else {
+        this.pages[p] = IntBuffer.wrap(new int[ints]);
+      } // if/else
+    } // for
+  } // IntMatrix(int, boolean, Path)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get one entry.
+   *
+   * @param row
+   *   The row.
+   * @param col
+   *   The column.
+   *
+   * @return the entry.
+   */
+  int get(int row, int col) {
+    return this.pages[row / this.pageRows].get(this.offset(row) + col);
+  } // get(int, int)
+
+  /**
+   * Copy consecutive rows into an array.
+   *
+   * @param row
+   *   The first row.
+   * @param count
+   *   The number of rows.
+   * @param dst
+   *   Where to put them, one after another.
+   */
+  void getRows(int row, int count, int[] dst) {
+    for (int r = 0; r < count; r++) {
+      this.pages[(row + r) / this.pageRows].get(this.offset(row + r), dst,
+          r * this.size, this.size);
+    } // for
+  } // getRows(int, int, int[])
+
+  /**
+   * Copy consecutive rows from an array.
+   *
+   * @param row
+   *   The first row.
+   * @param count
+   *   The number of rows.
+   * @param src
+   *   The rows, one after another.
+   */
+  void putRows(int row, int count, int[] src) {
+    for (int r = 0; r < count; r++) {
+      this.pages[(row + r) / this.pageRows].put(this.offset(row + r), src,
+          r * this.size, this.size);
+    } // for
+  } // putRows(int, int, int[])
+
+  /**
+   * Copy consecutive columns of every row into an array.
+   *
+   * @param col
+   *   The first column.
+   * @param count
+   *   The number of columns.
+   * @param dst
+   *   Where to put them, count entries per row.
+   */
+  void getColumns(int col, int count, int[] dst) {
+    for (int r = 0; r < this.size; r++) {
+      this.pages[r / this.pageRows].get(this.offset(r) + col, dst, r * count, count);
+    } // for
+  } // getColumns(int, int, int[])
+
+  /**
+   * Release the mapped file, if any.
+   *
+   * @throws IOException
+   *   If the file cannot be closed.
+   */
+  public void close() throws IOException {
+    if (this.file != null) {
+      this.file.close();
+    } // if
+  } // close()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Find where a row starts in its page.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the index of its first entry.
+   */
+  private int offset(int row) {
+    return (row % this.pageRows) * this.size;
+  } // offset(int)
+} // class IntMatrix
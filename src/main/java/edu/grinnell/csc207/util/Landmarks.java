@@ -0,0 +1,400 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Precomputed distances to and from a few "landmark" vertices, used as
+ * an A* heuristic (the ALT technique: A*, Landmarks, Triangle
+ * inequality).
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class Landmarks implements Heuristic {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * For a landmark L and vertices v and t, the triangle inequality gives
+   *
+   *   d(v,t) >= d(L,t) - d(L,v)   and   d(v,t) >= d(v,L) - d(t,L),
+   *
+   * so the largest of these bounds over all landmarks is an admissible
+   * (and consistent) estimate of d(v,t).
+   *
+   * The tables are stored vertex-major: the distances for vertex v are
+   * in positions v*k .. v*k+k-1, so that estimating for one vertex reads
+   * one small, contiguous block. UNKNOWN marks vertices that are not
+   * connected to a landmark (or whose distance does not fit in an int).
+   *
+   * The tables are only valid for the graph they were computed on: on
+   * any other graph, estimate may index past the tables or overestimate.
+   * A saved file therefore records the graph's vertex count, capacity
+   * and a fingerprint of its edges, and load refuses a file whose values
+   * do not match the graph it is given. Landmarks also remember the
+   * version of the snapshot they describe, and aStarPath refuses them
+   * for a graph with another capacity or version.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The table entry for an unknown distance.
+   */
+  static final int UNKNOWN = -1;
+
+  /**
+   * The first four bytes of a saved landmark file.
+   */
+  static final int MAGIC = 0x414c5432; // "ALT2"
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of vertices in the graph the tables were computed on.
+   */
+  final int numVertices;
+
+  /**
+   * The capacity of the graph the tables were computed on.
+   */
+  final int capacity;
+
+  /**
+   * The fingerprint of the graph the tables were computed on.
+   */
+  final long fingerprint;
+
+  /**
+   * The version of the graph the tables were computed on.
+   */
+  final long version;
+
+  /**
+   * The landmark vertices.
+   */
+  final int[] landmarks;
+
+  /**
+   * Distances from each landmark: from[v*k + i] = d(landmarks[i], v).
+   */
+  final int[] from;
+
+  /**
+   * Distances to each landmark: to[v*k + i] = d(v, landmarks[i]).
+   */
+  final int[] to;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a set of landmarks from precomputed tables.
+   *
+   * @param numVertices
+   *   The number of vertices in the graph.
+   * @param capacity
+   *   The capacity of the graph.
+   * @param fingerprint
+   *   The fingerprint of the graph.
+   * @param version
+   *   The version of the graph.
+   * @param landmarks
+   *   The landmark vertices.
+   * @param from
+   *   The distances from the landmarks.
+   * @param to
+   *   The distances to the landmarks.
+   */
+  Landmarks(int numVertices, int capacity, long fingerprint, long version,
+      int[] landmarks, int[] from, int[] to) {
+    this.numVertices = numVertices;
+    this.capacity = capacity;
+    this.fingerprint = fingerprint;
+    this.version = version;
+    this.landmarks = landmarks;
+    this.from = from;
+    this.to = to;
+  } // Landmarks(int, int, long, long, int[], int[], int[])
+
+  /**
+   * Select k landmarks for a graph and compute their distance tables.
+   * Landmarks are chosen greedily: each new landmark is the vertex
+   * farthest from the landmarks chosen so far.
+   *
+   * @param graph
+   *   The graph. Weights must be non-negative.
+   * @param k
+   *   The number of landmarks to choose.
+   *
+   * @return the landmarks.
+   */
+  public static Landmarks select(CsrGraph graph, int k) {
+    int capacity = graph.capacity();
+    k = Math.min(k, graph.numVertices());
+    int[] landmarks = new int[k];
+    int[] from = new int[capacity * k];
+    int[] to = new int[capacity * k];
+    CsrGraph reverse = graph.transpose();
+
+    // The smallest distance from any chosen landmark (in either
+    // direction) to each vertex.
+    long[] nearest = new long[capacity];
+    Arrays.fill(nearest, Long.MAX_VALUE);
+
+    // Start from the vertex with the largest out-degree.
+    int next = -1;
+    for (int v : graph.vertices()) {
+      if ((next == -1) || (graph.degree(v) > graph.degree(next))) {
+        next = v;
+      } // if
+    } // for
+
+    for (int i = 0; i < k; i++) {
+      landmarks[i] = next;
+      ShortestPathTree forward = Dijkstra.run(graph, next, -1);
+      ShortestPathTree backward = Dijkstra.run(reverse, next, -1);
+      for (int v = 0; v < capacity; v++) {
+        from[v * k + i] = compact(forward.distance(v));
+        to[v * k + i] = compact(backward.distance(v));
+        long near = Math.min(forward.distance(v), backward.distance(v));
+        nearest[v] = Math.min(nearest[v], near);
+      } // for
+
+      // Choose the farthest vertex that some landmark can reach.
+      // Vertices that no landmark reaches get a landmark of their own.
+      next = -1;
+      for (int v : graph.vertices()) {
+        if ((next == -1) || (nearest[v] > nearest[next])) {
+          next = v;
+        } // if
+      } // for
+    } // for
+    return new Landmarks(graph.numVertices(), capacity, fingerprint(graph),
+        graph.version(), landmarks, from, to);
+  } // select(CsrGraph, int)
+
+  /**
+   * Load landmarks saved by save, for use with a graph.
+   *
+   * @param fname
+   *   The name of the file.
+   * @param graph
+   *   The graph the landmarks will be used with.
+   *
+   * @return the landmarks.
+   *
+   * @throws IOException
+   *   If the file cannot be read, is not a landmark file, or was not
+   *   computed for this graph.
+   */
+  public static Landmarks load(String fname, CsrGraph graph)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(fname)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(fname + " is not a landmark file");
+      } // if
+      int k = in.readInt();
+      int numVertices = in.readInt();
+      int capacity = in.readInt();
+      long fingerprint = in.readLong();
+      if ((numVertices != graph.numVertices())
+          || (capacity != graph.capacity())) {
+        throw new IOException(fname + " is for a graph of " + numVertices
+            + " vertices (capacity " + capacity + "), not "
+            + graph.numVertices() + " (capacity " + graph.capacity() + ")");
+      } // if
+      if ((k < 0) || (k > numVertices)) {
+        throw new IOException(fname + " has an invalid landmark count " + k);
+      } // if
+      if (fingerprint != fingerprint(graph)) {
+        throw new IOException(fname + " is for a different graph");
+      } // if
+      int[] landmarks = new int[k];
+      int[] from = new int[capacity * k];
+      int[] to = new int[capacity * k];
+      for (int i = 0; i < k; i++) {
+        landmarks[i] = in.readInt();
+        if (!graph.validVertex(landmarks[i])) {
+          throw new IOException(fname + " has an invalid landmark "
+              + landmarks[i]);
+        } // if
+      } // for
+      for (int i = 0; i < from.length; i++) {
+        from[i] = in.readInt();
+      } // for
+      for (int i = 0; i < to.length; i++) {
+        to[i] = in.readInt();
+      } // for
+      return new Landmarks(numVertices, capacity, fingerprint,
+          graph.version(), landmarks, from, to);
+    } // try
+  } // load(String, CsrGraph)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Save the landmark tables, so that they can be loaded with the graph
+   * rather than recomputed.
+   *
+   * @param fname
+   *   The name of the file to write.
+   *
+   * @throws IOException
+   *   If the file cannot be written.
+   */
+  public void save(String fname) throws IOException {
+    int k = this.landmarks.length;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(fname)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(k);
+      out.writeInt(this.numVertices);
+      out.writeInt(this.capacity);
+      out.writeLong(this.fingerprint);
+      for (int landmark : this.landmarks) {
+        out.writeInt(landmark);
+      } // for
+      for (int d : this.from) {
+        out.writeInt(d);
+      } // for
+      for (int d : this.to) {
+        out.writeInt(d);
+      } // for
+    } // try
+  } // save(String)
+
+  /**
+   * Get the landmark vertices.
+   *
+   * @return a copy of the landmarks.
+   */
+  public int[] landmarks() {
+    return this.landmarks.clone();
+  } // landmarks()
+
+  /**
+   * Make sure that the tables describe a graph, so that estimate neither
+   * indexes past them nor overestimates.
+   *
+   * @param capacity
+   *   The capacity of the graph.
+   * @param version
+   *   The version of the graph.
+   *
+   * @throws IllegalArgumentException
+   *   If the tables were computed on a graph with another capacity or
+   *   version.
+   */
+  void check(int capacity, long version) {
+    if ((capacity != this.capacity) || (version != this.version)) {
+      throw new IllegalArgumentException("Landmarks are for version "
+          + this.version + " of a graph of capacity " + this.capacity
+          + ", not version " + version + " of capacity " + capacity);
+    } // if
+  } // check(int, long)
+
+  /**
+   * Estimate the distance between two vertices using the triangle
+   * inequality.
+   *
+   * @param vertex
+   *   The vertex we are at.
+   * @param target
+   *   The vertex we are heading to.
+   *
+   * @return a lower bound on the distance from vertex to target.
+   */
+  public long estimate(int vertex, int target) {
+    int k = this.landmarks.length;
+    int vbase = vertex * k;
+    int tbase = target * k;
+    long best = 0;
+    for (int i = 0; i < k; i++) {
+      int lv = this.from[vbase + i];
+      int lt = this.from[tbase + i];
+      if ((lv != UNKNOWN) && (lt != UNKNOWN) && (lt - lv > best)) {
+        best = lt - lv;
+      } // if
+      int vl = this.to[vbase + i];
+      int tl = this.to[tbase + i];
+      if ((vl != UNKNOWN) && (tl != UNKNOWN) && (vl - tl > best)) {
+        best = vl - tl;
+      } // if
+    } // for
+    return best;
+  } // estimate(int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Summarize a graph's edges, so that we can tell whether saved tables
+   * were computed on it.
+   *
+   * @param graph
+   *   The graph.
+   *
+   * @return a 64-bit hash of the graph's vertices, edges and weights.
+   */
+  static long fingerprint(CsrGraph graph) {
+    long h = mix(graph.numVertices(), graph.capacity());
+    for (int v = 0; v < graph.capacity(); v++) {
+      int degree = graph.degree(v);
+      h = mix(h, graph.validVertex(v) ? degree : -1);
+      for (int i = 0; i < degree; i++) {
+        long edge = ((long) graph.target(v, i) << 32)
+            | (graph.weight(v, i) & 0xffffffffL);
+        h = mix(h, edge);
+      } // for
+    } // for
+    return h;
+  } // fingerprint(CsrGraph)
+
+  /**
+   * Fold a value into a hash.
+   *
+   * @param h
+   *   The hash so far.
+   * @param x
+   *   The value.
+   *
+   * @return the new hash.
+   */
+  private static long mix(long h, long x) {
+    long z = (h ^ x) * 0x9e3779b97f4a7c15L;
+    return z ^ (z >>> 29);
+  } // mix(long, long)
+
+  /**
+   * Convert a distance to a table entry.
+   *
+   * @param distance
+   *   The distance.
+   *
+   * @return the distance as an int, or UNKNOWN.
+   */
+  private static int compact(long distance) {
+    if ((distance < 0) || (distance > Integer.MAX_VALUE)) {
+      return UNKNOWN;
+    } // if
+    return (int) distance;
+  } // compact(long)
+} // class Landmarks
@@ -0,0 +1,231 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of marks on the vertices of a graph, for the use of one
+ * traversal (or one thread). Each context has its own marks, so several
+ * traversals can run on the same graph at once, and clearing a context
+ * takes constant time.
+ *
+ * Get a context from Graph.markContext() and close it when you are done
+ * so that it can be reused, ideally with try-with-resources.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public final class MarkContext implements AutoCloseable {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Each vertex has a stamp and a set of mark bits. The bits count only
+   * if the stamp equals the current epoch; otherwise the vertex has no
+   * marks. Clearing the context just starts a new epoch. In the unlikely
+   * event that the epoch wraps around, we reset the stamps for real.
+   *
+   * A mark is any nonzero int; its bits are the individual marks, so
+   * there are 32 of them. Graph.MARK01 .. Graph.MARK07 are the first
+   * seven.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The mark used when none is given.
+   */
+  public static final int MARK = 1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The epoch in which each vertex was last marked.
+   */
+  int[] stamps;
+
+  /**
+   * The marks on each vertex (valid only if its stamp is current).
+   */
+  int[] bits;
+
+  /**
+   * The current epoch.
+   */
+  int epoch;
+
+  /**
+   * The graph this context came from, or null.
+   */
+  final Graph owner;
+
+  /**
+   * Whether the context is in its owner's pool (that is, has been
+   * closed and not handed out again).
+   */
+  boolean pooled;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a context with room for some vertices.
+   *
+   * @param capacity
+   *   The number of vertex slots.
+   * @param owner
+   *   The graph to return the context to when it is closed, or null.
+   */
+  MarkContext(int capacity, Graph owner) {
+    this.stamps = new int[capacity];
+    this.bits = new int[capacity];
+    this.epoch = 1;
+    this.owner = owner;
+  } // MarkContext(int, Graph)
+
+  /**
+   * Create a stand-alone context (one that does not belong to a graph's
+   * pool).
+   *
+   * @param capacity
+   *   The number of vertex slots. The context grows as needed.
+   */
+  public MarkContext(int capacity) {
+    this(capacity, null);
+  } // MarkContext(int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine if a vertex has a particular mark.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param mark
+   *   The mark (or marks) to look for.
+   *
+   * @return true if the vertex has any of the bits of mark.
+   */
+  public boolean isMarked(int vertex, int mark) {
+    return (vertex >= 0) && (vertex < this.stamps.length)
+        && (this.stamps[vertex] == this.epoch) && ((this.bits[vertex] & mark) != 0);
+  } // isMarked(int, int)
+
+  /**
+   * Determine if a vertex has any mark.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return true if the vertex has been marked.
+   */
+  public boolean isMarked(int vertex) {
+    return this.isMarked(vertex, -1);
+  } // isMarked(int)
+
+  /**
+   * Mark a vertex.
+   *
+   * @param vertex
+   *   The vertex (a non-negative number).
+   * @param mark
+   *   The mark (or marks) to add.
+   *
+   * @return true if the vertex did not already have all of those marks.
+   */
+  public boolean mark(int vertex, int mark) {
+    if (vertex >= this.stamps.length) {
+      this.ensureCapacity(vertex + 1);
+    } // if
+    if (this.stamps[vertex] != this.epoch) {
+      this.stamps[vertex] = this.epoch;
+      this.bits[vertex] = mark;
+      return true;
+    } // if
+    int old = this.bits[vertex];
+    this.bits[vertex] = old | mark;
+    return (old & mark) != mark;
+  } // mark(int, int)
+
+  /**
+   * Mark a vertex with the default mark.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return true if the vertex did not already have the mark.
+   */
+  public boolean mark(int vertex) {
+    return this.mark(vertex, MARK);
+  } // mark(int)
+
+  /**
+   * Remove some marks from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param mark
+   *   The mark (or marks) to remove.
+   */
+  public void unmark(int vertex, int mark) {
+    if (this.isMarked(vertex)) {
+      this.bits[vertex] &= ~mark;
+    } // if
+  } // unmark(int, int)
+
+  /**
+   * Remove all marks from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   */
+  public void unmark(int vertex) {
+    this.unmark(vertex, -1);
+  } // unmark(int)
+
+  /**
+   * Remove all of the marks.
+   */
+  public void clear() {
+    if (++this.epoch == 0) {
+      Arrays.fill(this.stamps, 0);
+      this.epoch = 1;
+    } // if
+  } // clear()
+
+  /**
+   * Return the context to the graph it came from. The context should not
+   * be used afterwards. Closing a context again does nothing.
+   */
+  public void close() {
+    if ((this.owner != null) && !this.pooled) {
+      this.pooled = true;
+      this.owner.release(this);
+    } // if
+  } // close()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Make room for a number of vertices.
+   *
+   * @param capacity
+   *   The number of vertex slots needed.
+   */
+  void ensureCapacity(int capacity) {
+    if (capacity > this.stamps.length) {
+      int size = Math.max(capacity, this.stamps.length * 2);
+      this.stamps = Arrays.copyOf(this.stamps, size);
+      this.bits = Arrays.copyOf(this.bits, size);
+    } // if
+  } // ensureCapacity(int)
+} // class MarkContext
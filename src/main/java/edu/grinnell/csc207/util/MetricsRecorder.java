@@ -0,0 +1,124 @@
+package edu.grinnell.csc207.util;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters behind GraphMetrics. A graph has a recorder only while
+ * metrics are enabled, so that disabled metrics cost one null check per
+ * operation.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class MetricsRecorder {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of calls to each operation.
+   */
+  final LongAdder[] counts;
+
+  /**
+   * The vertices visited by each operation.
+   */
+  final LongAdder[] visited;
+
+  /**
+   * The edges relaxed by each operation.
+   */
+  final LongAdder[] relaxed;
+
+  /**
+   * The time spent in each operation.
+   */
+  final LongAdder[] nanos;
+
+  /**
+   * The latency histogram of each operation.
+   */
+  final AtomicLongArray[] histograms;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a recorder with every counter zero.
+   */
+  MetricsRecorder() {
+    int n = GraphMetrics.Operation.values().length;
+    this.counts = new LongAdder[n];
+    this.visited = new LongAdder[n];
+    this.relaxed = new LongAdder[n];
+    this.nanos = new LongAdder[n];
+    this.histograms = new AtomicLongArray[n];
+    for (int i = 0; i < n; i++) {
+      this.counts[i] = new LongAdder();
+      this.visited[i] = new LongAdder();
+      this.relaxed[i] = new LongAdder();
+      this.nanos[i] = new LongAdder();
+      this.histograms[i] = new AtomicLongArray(GraphMetrics.BUCKETS);
+    } // for
+  } // MetricsRecorder()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Count a call to an untimed operation.
+   *
+   * @param op
+   *   The operation.
+   */
+  void count(GraphMetrics.Operation op) {
+    this.counts[op.ordinal()].increment();
+  } // count(Operation)
+
+  /**
+   * Record a call to a timed operation.
+   *
+   * @param op
+   *   The operation.
+   * @param start
+   *   The value of System.nanoTime() when the call began.
+   * @param vertices
+   *   The number of vertices it visited.
+   * @param edges
+   *   The number of edges it relaxed.
+   */
+  void record(GraphMetrics.Operation op, long start, long vertices, long edges) {
+    long elapsed = Math.max(0, System.nanoTime() - start);
+    int i = op.ordinal();
+    this.counts[i].increment();
+    this.visited[i].add(vertices);
+    this.relaxed[i].add(edges);
+    this.nanos[i].add(elapsed);
+    this.histograms[i].incrementAndGet(63 - Long.numberOfLeadingZeros(elapsed | 1));
+  } // record(Operation, long, long, long)
+
+  /**
+   * Take a snapshot of the counters. (Calls that finish while the
+   * snapshot is being taken may be partly included.)
+   *
+   * @return the snapshot.
+   */
+  GraphMetrics snapshot() {
+    EnumMap<GraphMetrics.Operation, GraphMetrics.Stats> stats =
+        new EnumMap<GraphMetrics.Operation, GraphMetrics.Stats>(GraphMetrics.Operation.class);
+    for (GraphMetrics.Operation op : GraphMetrics.Operation.values()) {
+      int i = op.ordinal();
+      long[] histogram = new long[GraphMetrics.BUCKETS];
+      for (int b = 0; b < histogram.length; b++) {
+        histogram[b] = this.histograms[i].get(b);
+      } // for
+      stats.put(op, new GraphMetrics.Stats(this.counts[i].sum(), this.visited[i].sum(),
+          this.relaxed[i].sum(), this.nanos[i].sum(), histogram));
+    } // for
+    return new GraphMetrics(stats);
+  } // snapshot()
+} // class MetricsRecorder
@@ -0,0 +1,613 @@
+package edu.grinnell.csc207.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A hash table from names (stored as UTF-8 bytes) to ints, using open
+ * addressing. Lookups can take a slice of a byte array, so callers that
+ * read bytes need not build a String for every name. Unlike a
+ * HashMap<String, Integer>, the table needs no object per name: a
+ * name costs its bytes plus a few ints.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class NameTable {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Each name we add becomes an "entry", numbered from 0. The bytes of
+   * all the names live one after another in a shared arena; for each
+   * entry we record where its bytes start, how many there are, its hash
+   * code, and its value.
+   *
+   * The slots array is the hash table proper. It uses linear probing and
+   * holds entry numbers plus one, so that 0 means "empty". Removing a
+   * name shifts later slots of its probe run back, as in EdgeList, and
+   * marks its entry dead (with a start of -1). When more than half the
+   * entries are dead, we compact the entries and the arena, which
+   * renumbers the entries (but not the values).
+   *
+   * Most names are ASCII, and for those a String's chars are exactly its
+   * UTF-8 bytes. We hash and compare such Strings char by char, so
+   * String lookups neither encode nor allocate.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The slot value for an empty slot.
+   */
+  static final int EMPTY = 0;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The hash table: entry number + 1, or EMPTY.
+   */
+  int[] slots;
+
+  /**
+   * The bytes of all of the names.
+   */
+  byte[] arena;
+
+  /**
+   * The number of bytes of the arena in use.
+   */
+  int arenaSize;
+
+  /**
+   * Where each entry's name starts in the arena.
+   */
+  int[] starts;
+
+  /**
+   * The length of each entry's name.
+   */
+  int[] lengths;
+
+  /**
+   * The hash code of each entry's name.
+   */
+  int[] hashes;
+
+  /**
+   * The value of each entry.
+   */
+  int[] values;
+
+  /**
+   * The number of entries (live and dead).
+   */
+  int size;
+
+  /**
+   * The number of live entries.
+   */
+  int live;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty table.
+   *
+   * @param expected
+   *   The number of names we expect to store.
+   */
+  NameTable(int expected) {
+    int capacity = Math.max(expected, 8);
+    this.slots = new int[tableSize(capacity)];
+    this.arena = new byte[capacity * 8];
+    this.starts = new int[capacity];
+    this.lengths = new int[capacity];
+    this.hashes = new int[capacity];
+    this.values = new int[capacity];
+  } // NameTable(int)
+
+  /**
+   * Copy a table. The copy shares nothing with the original, and no
+   * name is hashed again.
+   *
+   * @param other
+   *   The table to copy.
+   */
+  NameTable(NameTable other) {
+    this.slots = other.slots.clone();
+    this.arena = other.arena.clone();
+    this.arenaSize = other.arenaSize;
+    this.starts = other.starts.clone();
+    this.lengths = other.lengths.clone();
+    this.hashes = other.hashes.clone();
+    this.values = other.values.clone();
+    this.size = other.size;
+    this.live = other.live;
+  } // NameTable(NameTable)
+
+  /**
+   * Build a table that maps each name in an array to its index.
+   *
+   * @param names
+   *   The names, which must be distinct. Null entries are skipped.
+   *
+   * @return the table.
+   */
+  static NameTable of(String[] names) {
+    int count = 0;
+    for (String name : names) {
+      if (name != null) {
+        ++count;
+      } // if
+    } // for
+    NameTable table = new NameTable(count);
+    for (int i = 0; i < names.length; i++) {
+      if (names[i] != null) {
+        table.add(names[i], i);
+      } // if
+    } // for
+    return table;
+  } // of(String[])
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the number of names.
+   *
+   * @return the number of names in the table.
+   */
+  int size() {
+    return this.live;
+  } // size()
+
+  /**
+   * Look up a name.
+   *
+   * @param bytes
+   *   An array containing the name, in UTF-8.
+   * @param off
+   *   Where the name starts.
+   * @param len
+   *   The number of bytes in the name.
+   *
+   * @return the value associated with the name, or -1 if there is none.
+   */
+  int get(byte[] bytes, int off, int len) {
+    int entry = this.find(bytes, off, len, hash(bytes, off, len));
+    return (entry == -1) ? -1 : this.values[entry];
+  } // get(byte[], int, int)
+
+  /**
+   * Look up a name.
+   *
+   * @param name
+   *   The name.
+   *
+   * @return the value associated with the name, or -1 if there is none.
+   */
+  int get(String name) {
+    if (!isAscii(name)) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      return this.get(bytes, 0, bytes.length);
+    } // if
+    int entry = this.find(name, hash(name));
+    return (entry == -1) ? -1 : this.values[entry];
+  } // get(String)
+
+  /**
+   * Look up a batch of names, given as consecutive slices of a byte
+   * array. Hashing every name before probing for any lets the processor
+   * overlap the (cache-missing) probes.
+   *
+   * @param bytes
+   *   An array containing the names, in UTF-8.
+   * @param bounds
+   *   Name i is bytes[bounds[i]] .. bytes[bounds[i+1]-1].
+   * @param values
+   *   Where to put the values (-1 for names not in the table), of
+   *   length at least bounds.length - 1.
+   */
+  void getAll(byte[] bytes, int[] bounds, int[] values) {
+    int n = bounds.length - 1;
+    int mask = this.slots.length - 1;
+    for (int i = 0; i < n; i++) {
+      values[i] = hash(bytes, bounds[i], bounds[i + 1] - bounds[i]);
+    } // for
+    // Touch each home slot before the full probes.
+    int touched = 0;
+    for (int i = 0; i < n; i++) {
+      touched |= this.slots[values[i] & mask];
+    } // for
+    for (int i = 0; i < n; i++) {
+      int entry = (touched == EMPTY) ? -1
+          : this.find(bytes, bounds[i], bounds[i + 1] - bounds[i], values[i]);
+      values[i] = (entry == -1) ? -1 : this.values[entry];
+    } // for
+  } // getAll(byte[], int[], int[])
+
+  /**
+   * Look up a batch of names.
+   *
+   * @param names
+   *   The names, any of which may be null.
+   * @param values
+   *   Where to put the values (-1 for null names and names not in the
+   *   table), of length at least names.length.
+   */
+  void getAll(String[] names, int[] values) {
+    int mask = this.slots.length - 1;
+    boolean[] ascii = new boolean[names.length];
+    for (int i = 0; i < names.length; i++) {
+      ascii[i] = (names[i] != null) && isAscii(names[i]);
+      values[i] = ascii[i] ? hash(names[i]) : 0;
+    } // for
+    int touched = 0;
+    for (int i = 0; i < names.length; i++) {
+      touched |= this.slots[values[i] & mask];
+    } // for
+    for (int i = 0; i < names.length; i++) {
+      if (names[i] == null) {
+        values[i] = -1;
+      } else if (!ascii[i]) {
+        values[i] = this.get(names[i]);
+      } else {
+        int entry = (touched == EMPTY) ? -1 : this.find(names[i], values[i]);
+        values[i] = (entry == -1) ? -1 : this.values[entry];
+      } // if/else
+    } // for
+  } // getAll(String[], int[])
+
+  /**
+   * Add a name that is not already in the table.
+   *
+   * @param name
+   *   The name.
+   * @param value
+   *   The value to associate with the name.
+   *
+   * @return the entry number of the new name.
+   */
+  int add(String name, int value) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    return this.add(bytes, 0, bytes.length, value);
+  } // add(String, int)
+
+  /**
+   * Add a name that is not already in the table.
+   *
+   * @param bytes
+   *   An array containing the name, in UTF-8.
+   * @param off
+   *   Where the name starts.
+   * @param len
+   *   The number of bytes in the name.
+   * @param value
+   *   The value to associate with the name.
+   *
+   * @return the entry number of the new name.
+   */
+  int add(byte[] bytes, int off, int len, int value) {
+    if ((this.size == this.starts.length) && (this.live * 2 < this.size)) {
+      this.compact();
+    } // if
+    if (this.size == this.starts.length) {
+      int capacity = this.size * 2;
+      this.starts = Arrays.copyOf(this.starts, capacity);
+      this.lengths = Arrays.copyOf(this.lengths, capacity);
+      this.hashes = Arrays.copyOf(this.hashes, capacity);
+      this.values = Arrays.copyOf(this.values, capacity);
+    } // if
+    if (this.arenaSize + len > this.arena.length) {
+      this.arena = Arrays.copyOf(this.arena,
+          Math.max(this.arena.length * 2, this.arenaSize + len));
+    } // if
+    if ((this.live + 1) * 2 > this.slots.length) {
+      this.rehash(this.slots.length * 2);
+    } // if
+    int entry = this.size++;
+    System.arraycopy(bytes, off, this.arena, this.arenaSize, len);
+    this.starts[entry] = this.arenaSize;
+    this.lengths[entry] = len;
+    this.hashes[entry] = hash(bytes, off, len);
+    this.values[entry] = value;
+    this.arenaSize += len;
+    ++this.live;
+    this.insert(entry);
+    return entry;
+  } // add(byte[], int, int, int)
+
+  /**
+   * Remove a name, if it is in the table.
+   *
+   * @param name
+   *   The name.
+   *
+   * @return the value that was associated with the name, or -1 if the
+   *   name was not in the table.
+   */
+  int remove(String name) {
+    if (!isAscii(name)) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      return this.removeEntry(
+          this.find(bytes, 0, bytes.length, hash(bytes, 0, bytes.length)));
+    } // if
+    return this.removeEntry(this.find(name, hash(name)));
+  } // remove(String)
+
+  /**
+   * Get the name of an entry.
+   *
+   * @param entry
+   *   The entry number.
+   *
+   * @return the name, decoded from UTF-8.
+   */
+  String name(int entry) {
+    return new String(this.arena, this.starts[entry], this.lengths[entry],
+        StandardCharsets.UTF_8);
+  } // name(int)
+
+  /**
+   * Get the value of an entry.
+   *
+   * @param entry
+   *   The entry number.
+   *
+   * @return the value.
+   */
+  int value(int entry) {
+    return this.values[entry];
+  } // value(int)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Find the entry for a name that is all ASCII.
+   *
+   * @param name
+   *   The name.
+   * @param hash
+   *   The hash of the name.
+   *
+   * @return the entry number, or -1 if the name is not in the table.
+   */
+  private int find(String name, int hash) {
+    int mask = this.slots.length - 1;
+    int len = name.length();
+    for (int i = hash & mask; ; i = (i + 1) & mask) {
+      int slot = this.slots[i];
+      if (slot == EMPTY) {
+        return -1;
+      } // if
+      int entry = slot - 1;
+      if ((this.hashes[entry] == hash) && (this.lengths[entry] == len)
+          && this.sameChars(entry, name)) {
+        return entry;
+      } // if
+    } // for
+  } // find(String, int)
+
+  /**
+   * Determine if an entry's bytes match an ASCII name.
+   *
+   * @param entry
+   *   The entry.
+   * @param name
+   *   The name, of the same length as the entry's.
+   *
+   * @return true if they match and false otherwise.
+   */
+  private boolean sameChars(int entry, String name) {
+    int start = this.starts[entry];
+    for (int i = 0; i < name.length(); i++) {
+      if (this.arena[start + i] != name.charAt(i)) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // sameChars(int, String)
+
+  /**
+   * Remove an entry.
+   *
+   * @param entry
+   *   The entry, or -1 to do nothing.
+   *
+   * @return the entry's value, or -1 if entry is -1.
+   */
+  private int removeEntry(int entry) {
+    if (entry == -1) {
+      return -1;
+    } // if
+    int mask = this.slots.length - 1;
+    int hole = this.hashes[entry] & mask;
+    while (this.slots[hole] != entry + 1) {
+      hole = (hole + 1) & mask;
+    } // while
+    int i = hole;
+    while (true) {
+      i = (i + 1) & mask;
+      int slot = this.slots[i];
+      if (slot == EMPTY) {
+        break;
+      } // if
+      int home = this.hashes[slot - 1] & mask;
+      // Move the slot into the hole unless its home lies cyclically in
+      // (hole, i].
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        this.slots[hole] = slot;
+        hole = i;
+      } // if
+    } // while
+    this.slots[hole] = EMPTY;
+    this.starts[entry] = -1;
+    --this.live;
+    return this.values[entry];
+  } // removeEntry(int)
+
+  /**
+   * Drop the dead entries, moving the live ones (and their bytes) down.
+   */
+  private void compact() {
+    int to = 0;
+    int bytes = 0;
+    for (int entry = 0; entry < this.size; entry++) {
+      if (this.starts[entry] != -1) {
+        int len = this.lengths[entry];
+        System.arraycopy(this.arena, this.starts[entry], this.arena, bytes, len);
+        this.starts[to] = bytes;
+        this.lengths[to] = len;
+        this.hashes[to] = this.hashes[entry];
+        this.values[to] = this.values[entry];
+        bytes += len;
+        ++to;
+      } // if
+    } // for
+    this.size = to;
+    this.arenaSize = bytes;
+    this.rehash(this.slots.length);
+  } // compact()
+
+  /**
+   * Find the entry for a name.
+   *
+   * @param bytes
+   *   An array containing the name.
+   * @param off
+   *   Where the name starts.
+   * @param len
+   *   The number of bytes in the name.
+   * @param hash
+   *   The hash of the name.
+   *
+   * @return the entry number, or -1 if the name is not in the table.
+   */
+  private int find(byte[] bytes, int off, int len, int hash) {
+    int mask = this.slots.length - 1;
+    for (int i = hash & mask; ; i = (i + 1) & mask) {
+      int slot = this.slots[i];
+      if (slot == EMPTY) {
+        return -1;
+      } // if
+      int entry = slot - 1;
+      if ((this.hashes[entry] == hash) && (this.lengths[entry] == len)
+          && Arrays.equals(this.arena, this.starts[entry], this.starts[entry] + len,
+              bytes, off, off + len)) {
+        return entry;
+      } // if
+    } // for
+  } // find(byte[], int, int, int)
+
+  /**
+   * Put an entry in the first free slot for its hash.
+   *
+   * @param entry
+   *   The entry number.
+   */
+  private void insert(int entry) {
+    int mask = this.slots.length - 1;
+    int i = this.hashes[entry] & mask;
+    while (this.slots[i] != EMPTY) {
+      i = (i + 1) & mask;
+    } // while
+    this.slots[i] = entry + 1;
+  } // insert(int)
+
+  /**
+   * Rebuild the hash table with a new number of slots.
+   *
+   * @param numSlots
+   *   The new number of slots (a power of two).
+   */
+  private void rehash(int numSlots) {
+    this.slots = new int[numSlots];
+    for (int entry = 0; entry < this.size; entry++) {
+      if (this.starts[entry] != -1) {
+        this.insert(entry);
+      } // if
+    } // for
+  } // rehash(int)
+
+  /**
+   * Hash a name.
+   *
+   * @param bytes
+   *   An array containing the name.
+   * @param off
+   *   Where the name starts.
+   * @param len
+   *   The number of bytes in the name.
+   *
+   * @return the hash code.
+   */
+  static int hash(byte[] bytes, int off, int len) {
+    int h = 0x811c9dc5;
+    for (int i = off; i < off + len; i++) {
+      h = (h ^ bytes[i]) * 0x01000193;
+    } // for
+    // Spread the bits, since we index by the low bits.
+    return h ^ (h >>> 16);
+  } // hash(byte[], int, int)
+
+  /**
+   * Hash an ASCII name, giving the same result as hashing its bytes.
+   *
+   * @param name
+   *   The name, which must be all ASCII.
+   *
+   * @return the hash code.
+   */
+  static int hash(String name) {
+    int h = 0x811c9dc5;
+    for (int i = 0; i < name.length(); i++) {
+      h = (h ^ name.charAt(i)) * 0x01000193;
+    } // for
+    return h ^ (h >>> 16);
+  } // hash(String)
+
+  /**
+   * Determine if a name is all ASCII.
+   *
+   * @param name
+   *   The name.
+   *
+   * @return true if every char is below 0x80 and false otherwise.
+   */
+  static boolean isAscii(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) >= 0x80) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // isAscii(String)
+
+  /**
+   * Pick a table size (a power of two) with room for some entries at a
+   * load factor of at most one half.
+   *
+   * @param capacity
+   *   The number of entries.
+   *
+   * @return the table size.
+   */
+  private static int tableSize(int capacity) {
+    int size = 16;
+    while (size < capacity * 2) {
+      size *= 2;
+    } // while
+    return size;
+  } // tableSize(int)
+} // class NameTable
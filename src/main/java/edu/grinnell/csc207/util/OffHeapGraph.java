@@ -0,0 +1,1088 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A weighted, directed graph whose edges and marks live outside the Java
+ * heap, in direct buffers or in a memory-mapped file. The heap holds
+ * only the vertex names and a few small tables, so its size does not
+ * grow with the number of edges, and the garbage collector never has to
+ * scan the edges.
+ *
+ * Supports the same operations as Graph.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class OffHeapGraph implements Adjacency, AutoCloseable {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Memory comes in pages, each a ByteBuffer, allocated as needed. There
+   * are two kinds.
+   *
+   * Vertex pages hold a 16-byte header for each of VERTEX_PAGE_SIZE
+   * vertices:
+   *
+   *   bytes 0-7    the address of the vertex's edge block, or -1
+   *   bytes 8-11   the number of edges from the vertex
+   *   byte  12     log2 of the capacity of the edge block
+   *   byte  13     the vertex's marks
+   *
+   * Edge pages hold 2^edgePageBits edges of 8 bytes (target, then
+   * weight). An address names an edge slot: page address >>> edgePageBits,
+   * slot address & edgePageMask. The edges of a vertex occupy a block of
+   * 2^k consecutive slots within one page. When a block fills, we move
+   * the edges to a block twice the size and free the old one.
+   *
+   * Free blocks of each size are kept on a linked list threaded through
+   * the blocks themselves (the first 8 bytes of a free block hold the
+   * address of the next), so the free lists cost no heap either. New
+   * blocks are carved from the end of the current page; a block that
+   * does not fit starts a new page.
+   *
+   * As in EdgeList, removing an edge moves the last edge into its place.
+   * Since blocks have no hash index, finding an edge takes time
+   * proportional to the degree.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * log2 of the number of vertices per vertex page.
+   */
+  static final int VERTEX_PAGE_BITS = 14;
+
+  /**
+   * The number of vertices per vertex page.
+   */
+  static final int VERTEX_PAGE_SIZE = 1 << VERTEX_PAGE_BITS;
+
+  /**
+   * The number of bytes in a vertex header.
+   */
+  static final int HEADER_BYTES = 16;
+
+  /**
+   * The number of bytes in an edge.
+   */
+  static final int EDGE_BYTES = 8;
+
+  /**
+   * The default log2 of the number of edges per edge page (32 MB pages).
+   */
+  static final int DEFAULT_EDGE_PAGE_BITS = 22;
+
+  /**
+   * The address of no block.
+   */
+  static final long NONE = -1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * log2 of the number of edges per edge page.
+   */
+  final int edgePageBits;
+
+  /**
+   * The mask for an edge's slot in its page.
+   */
+  final long edgePageMask;
+
+  /**
+   * The vertex pages.
+   */
+  ByteBuffer[] vertexPages = new ByteBuffer[0];
+
+  /**
+   * The edge pages.
+   */
+  ByteBuffer[] edgePages = new ByteBuffer[0];
+
+  /**
+   * The address of the next unallocated edge slot.
+   */
+  long nextSlot;
+
+  /**
+   * The first free block of each size (indexed by log2 of the size).
+   */
+  final long[] freeBlocks;
+
+  /**
+   * The file the pages are mapped from, or null for direct buffers.
+   */
+  final FileChannel file;
+
+  /**
+   * The number of bytes of the file mapped so far.
+   */
+  long fileSize;
+
+  /**
+   * The names of the vertices (null for unused numbers).
+   */
+  String[] vertexNames = new String[0];
+
+  /**
+   * The numbers of the vertices.
+   */
+  final NameTable vertexNumbers = new NameTable(16);
+
+  /**
+   * The vertex numbers available for reuse.
+   */
+  final IntList unusedVertices = new IntList();
+
+  /**
+   * The number of vertices.
+   */
+  int numVertices;
+
+  /**
+   * The number of edges.
+   */
+  long numEdges;
+
+  /**
+   * The number of times the graph has changed.
+   */
+  long version;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty graph in direct buffers.
+   */
+  public OffHeapGraph() {
+    this(DEFAULT_EDGE_PAGE_BITS);
+  } // OffHeapGraph()
+
+  /**
+   * Create an empty graph in direct buffers with a particular page size.
+   *
+   * @param edgePageBits
+   *   log2 of the number of edges per page. A vertex can have at most
+   *   this many edges.
+   */
+  public OffHeapGraph(int edgePageBits) {
+    this(edgePageBits, null);
+  } // OffHeapGraph(int)
+
+  /**
+   * Create an empty graph in a memory-mapped file. Anything already in
+   * the file is overwritten.
+   *
+   * @param fname
+   *   The file to use.
+   * @param edgePageBits
+   *   log2 of the number of edges per page.
+   *
+   * @throws IOException
+   *   If the file cannot be opened.
+   */
+  public OffHeapGraph(Path fname, int edgePageBits) throws IOException {
+    this(edgePageBits, FileChannel.open(fname, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE));
+  } // OffHeapGraph(Path, int)
+
+  /**
+   * Create an empty graph.
+   *
+   * @param edgePageBits
+   *   log2 of the number of edges per page.
+   * @param file
+   *   The file to map pages from, or null for direct buffers.
+   */
+  private OffHeapGraph(int edgePageBits, FileChannel file) {
+    if ((edgePageBits < 1) || (edgePageBits > 27)) {
+      throw new IllegalArgumentException("Invalid page size: " + edgePageBits);
+    } // if
+    this.edgePageBits = edgePageBits;
+    this.edgePageMask = (1L << edgePageBits) - 1;
+    this.freeBlocks = new long[edgePageBits + 1];
+    Arrays.fill(this.freeBlocks, NONE);
+    this.file = file;
+  } // OffHeapGraph(int, FileChannel)
+
+  // +----------------------+----------------------------------------
+  // | Vertex names/numbers |
+  // +----------------------+
+
+  /**
+   * Given a vertex number, get the corresponding vertex name.
+   *
+   * @param vertexNumber
+   *   The number of a vertex.
+   *
+   * @return the name, or null if there is no such vertex.
+   */
+  public String vertexName(int vertexNumber) {
+    return this.validVertex(vertexNumber) ? this.vertexNames[vertexNumber] : null;
+  } // vertexName(int)
+
+  /**
+   * Given a vertex name, get the corresponding vertex number.
+   *
+   * @param vertexName
+   *   The name of the vertex.
+   *
+   * @return the number, or -1 if there is no such vertex.
+   */
+  public int vertexNumber(String vertexName) {
+    return (vertexName == null) ? -1 : this.vertexNumbers.get(vertexName);
+  } // vertexNumber(String)
+
+  // +-----------+---------------------------------------------------
+  // | Observers |
+  // +-----------+
+
+  /**
+   * Get the number of vertices.
+   *
+   * @return the number of vertices.
+   */
+  public int numVertices() {
+    return this.numVertices;
+  } // numVertices()
+
+  /**
+   * Get the number of edges.
+   *
+   * @return the number of edges.
+   */
+  public long numEdges() {
+    return this.numEdges;
+  } // numEdges()
+
+  /**
+   * Get the number of bytes of off-heap memory in use.
+   *
+   * @return the number of bytes.
+   */
+  public long offHeapBytes() {
+    return (long) this.vertexPages.length * VERTEX_PAGE_SIZE * HEADER_BYTES
+        + ((long) this.edgePages.length << this.edgePageBits) * EDGE_BYTES;
+  } // offHeapBytes()
+
+  /**
+   * Get the number of vertex slots.
+   *
+   * @return the capacity.
+   */
+  public int capacity() {
+    return this.vertexNames.length;
+  } // capacity()
+
+  /**
+   * Determine if a vertex is valid.
+   *
+   * @param vertex
+   *   The number of the vertex.
+   *
+   * @return true if the vertex is valid and false otherwise.
+   */
+  public boolean validVertex(int vertex) {
+    return (vertex >= 0) && (vertex < this.vertexNames.length)
+        && (this.vertexNames[vertex] != null);
+  } // validVertex(int)
+
+  /**
+   * Get the number of edges from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the out-degree.
+   */
+  public int degree(int vertex) {
+    return this.header(vertex).getInt(headerOffset(vertex) + 8);
+  } // degree(int)
+
+  /**
+   * Get the target of one of a vertex's edges.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the target.
+   */
+  public int target(int vertex, int i) {
+    long slot = this.block(vertex) + i;
+    return this.edgePage(slot).getInt(this.edgeOffset(slot));
+  } // target(int, int)
+
+  /**
+   * Get the weight of one of a vertex's edges.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param i
+   *   The index of the edge, in the range 0 .. degree(vertex)-1.
+   *
+   * @return the weight.
+   */
+  public int weight(int vertex, int i) {
+    long slot = this.block(vertex) + i;
+    return this.edgePage(slot).getInt(this.edgeOffset(slot) + 4);
+  } // weight(int, int)
+
+  /**
+   * Determine if there is an edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return true if the edge exists and false otherwise.
+   */
+  public boolean hasEdge(int source, int target) {
+    return this.validVertex(source) && (this.indexOf(source, target) != -1);
+  } // hasEdge(int, int)
+
+  /**
+   * Get the weight of the edge from one vertex to another.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   *
+   * @return the weight, or null if there is no such edge.
+   */
+  public Integer edgeWeight(int source, int target) {
+    int i = this.validVertex(source) ? this.indexOf(source, target) : -1;
+    return (i == -1) ? null : this.weight(source, i);
+  } // edgeWeight(int, int)
+
+  /**
+   * Get all of the edges from a particular vertex.
+   *
+   * @param vertex
+   *   The vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesFrom(int vertex) {
+    return () -> {
+      return new Iterator<Edge>() {
+        // The version number of the graph when this iterator was created
+        long version = OffHeapGraph.this.version;
+        // The position of the next edge
+        int pos = 0;
+        // The number of edges
+        int degree = validVertex(vertex) ? degree(vertex) : 0;
+
+        public boolean hasNext() {
+          failFast(this.version);
+          return this.pos < this.degree;
+        } // hasNext()
+
+        public Edge next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          int i = this.pos++;
+          return new Edge(vertex, target(vertex, i), weight(vertex, i));
+        } // next()
+      }; // new Iterator<Edge>
+    };
+  } // edgesFrom(int)
+
+  /**
+   * Get all of the edges from a particular vertex.
+   *
+   * @param vertex
+   *   The name of the vertex whose edges we seek.
+   *
+   * @return
+   *   An iterable whose iterator method returns an iterator for the edges.
+   */
+  public Iterable<Edge> edgesFrom(String vertex) {
+    return this.edgesFrom(this.vertexNumber(vertex));
+  } // edgesFrom(String)
+
+  /**
+   * Get an iterable for the vertices.
+   *
+   * @return an iterable whose iterator method returns an iterator
+   *   for all the vertices.
+   */
+  public Iterable<Integer> vertices() {
+    return () -> {
+      return new Iterator<Integer>() {
+        // The version number of the graph when this iterator was created
+        long version = OffHeapGraph.this.version;
+        // The next vertex to consider
+        int vertex = nextVertex(0);
+
+        public boolean hasNext() {
+          failFast(this.version);
+          return this.vertex < OffHeapGraph.this.vertexNames.length;
+        } // hasNext()
+
+        public Integer next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          } // if
+          int result = this.vertex;
+          this.vertex = nextVertex(this.vertex + 1);
+          return result;
+        } // next()
+      }; // new Iterator<Integer>
+    };
+  } // vertices()
+
+  // +----------+----------------------------------------------------
+  // | Mutators |
+  // +----------+
+
+  /**
+   * Add a vertex with a particular name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   *
+   * @throws Exception
+   *   If there is already a vertex with that name.
+   */
+  public int addVertex(String name) throws Exception {
+    if (this.vertexNumber(name) != -1) {
+      throw new Exception("Already have a node named " + name);
+    } // if
+    return this.addVertex(name, this.newVertexNumber());
+  } // addVertex(String)
+
+  /**
+   * Add an unnamed vertex.
+   *
+   * @return the number of the vertex.
+   */
+  public int addVertex() {
+    int v = this.newVertexNumber();
+    String name = "v" + v;
+    // On the off chance there is already a vertex with that name,
+    // we try some other names.
+    while (this.vertexNumber(name) != -1) {
+      name = "v" + name;
+    } // while
+    return this.addVertex(name, v);
+  } // addVertex()
+
+  /**
+   * Add an edge between two vertices. If the edge already exists, replace it.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, they are the same, or the
+   *   source already has as many edges as fit in a page.
+   */
+  public void addEdge(int source, int target, int weight) throws Exception {
+    if (!this.validVertex(source) || !this.validVertex(target)) {
+      throw new Exception("Invalid ends");
+    } // if
+    if (source == target) {
+      throw new Exception("Cannot add an edge from a vertex to itself");
+    } // if
+    ++this.version;
+    int i = this.indexOf(source, target);
+    if (i != -1) {
+      long slot = this.block(source) + i;
+      this.edgePage(slot).putInt(this.edgeOffset(slot) + 4, weight);
+      return;
+    } // if
+    ByteBuffer header = this.header(source);
+    int pos = headerOffset(source);
+    int degree = header.getInt(pos + 8);
+    int sizeClass = header.get(pos + 12);
+    long block = header.getLong(pos);
+    if ((block == NONE) || (degree == (1 << sizeClass))) {
+      int newClass = (block == NONE) ? 1 : sizeClass + 1;
+      if (newClass > this.edgePageBits) {
+        throw new Exception("Too many edges from " + this.vertexNames[source]);
+      } // if
+      long newBlock = this.allocate(newClass);
+      for (int j = 0; j < degree; j++) {
+        this.copyEdge(block + j, newBlock + j);
+      } // for
+      if (block != NONE) {
+        this.free(block, sizeClass);
+      } // if
+      block = newBlock;
+      header.putLong(pos, block);
+      header.put(pos + 12, (byte) newClass);
+    } // if
+    long slot = block + degree;
+    ByteBuffer page = this.edgePage(slot);
+    int off = this.edgeOffset(slot);
+    page.putInt(off, target);
+    page.putInt(off + 4, weight);
+    header.putInt(pos + 8, degree + 1);
+    ++this.numEdges;
+  } // addEdge(int, int, int)
+
+  /**
+   * Add an edge between two vertices. If the edge already exists, replace it.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, or they are the same.
+   */
+  public void addEdge(String source, String target, int weight)
+      throws Exception {
+    this.addEdge(this.vertexNumber(source), this.vertexNumber(target), weight);
+  } // addEdge(String, String, int)
+
+  /**
+   * Remove an edge. If the edge does not exist, does nothing.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   */
+  public void removeEdge(int source, int target) {
+    int i = this.validVertex(source) ? this.indexOf(source, target) : -1;
+    if (i != -1) {
+      this.removeEdgeAt(source, i);
+    } // if
+  } // removeEdge(int, int)
+
+  /**
+   * Remove an edge. If the edge does not exist, does nothing.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   */
+  public void removeEdge(String source, String target) {
+    this.removeEdge(this.vertexNumber(source), this.vertexNumber(target));
+  } // removeEdge(String, String)
+
+  /**
+   * Remove a vertex and its edges. If the vertex does not exist, does
+   * nothing.
+   *
+   * @param vertex
+   *   The vertex to remove.
+   */
+  public void removeVertex(int vertex) {
+    if (!this.validVertex(vertex)) {
+      return;
+    } // if
+    for (int u = 0; u < this.vertexNames.length; u++) {
+      if (this.vertexNames[u] != null) {
+        int i = this.indexOf(u, vertex);
+        if (i != -1) {
+          this.removeEdgeAt(u, i);
+        } // if
+      } // if
+    } // for
+    ByteBuffer header = this.header(vertex);
+    int pos = headerOffset(vertex);
+    long block = header.getLong(pos);
+    if (block != NONE) {
+      this.free(block, header.get(pos + 12));
+    } // if
+    this.numEdges -= header.getInt(pos + 8);
+    this.clearHeader(vertex);
+    ++this.version;
+    --this.numVertices;
+    this.vertexNumbers.remove(this.vertexNames[vertex]);
+    this.vertexNames[vertex] = null;
+    this.unusedVertices.add(vertex);
+  } // removeVertex(int)
+
+  /**
+   * Remove a vertex and its edges. If the vertex does not exist, does
+   * nothing.
+   *
+   * @param vertex
+   *   The name of the vertex to remove.
+   */
+  public void removeVertex(String vertex) {
+    this.removeVertex(this.vertexNumber(vertex));
+  } // removeVertex(String)
+
+  /**
+   * Release the memory-mapped file, if any. The graph should not be used
+   * afterwards.
+   *
+   * @throws IOException
+   *   If the file cannot be closed.
+   */
+  public void close() throws IOException {
+    if (this.file != null) {
+      this.file.close();
+    } // if
+  } // close()
+
+  // +-------+-------------------------------------------------------
+  // | Marks |
+  // +-------+
+
+  /**
+   * Determine if a vertex has a particular mark.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param mark
+   *   The mark (or marks) to look for.
+   *
+   * @return true if the vertex has any of the bits of mark.
+   */
+  public boolean isMarked(int vertex, byte mark) {
+    return this.validVertex(vertex)
+        && ((this.header(vertex).get(headerOffset(vertex) + 13) & mark) != 0);
+  } // isMarked(int, byte)
+
+  /**
+   * Mark a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param mark
+   *   The mark (or marks) to add.
+   */
+  public void mark(int vertex, byte mark) {
+    if (this.validVertex(vertex)) {
+      ByteBuffer header = this.header(vertex);
+      int pos = headerOffset(vertex) + 13;
+      header.put(pos, (byte) (header.get(pos) | mark));
+    } // if
+  } // mark(int, byte)
+
+  /**
+   * Remove some marks from a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   * @param mark
+   *   The mark (or marks) to remove.
+   */
+  public void unmark(int vertex, byte mark) {
+    if (this.validVertex(vertex)) {
+      ByteBuffer header = this.header(vertex);
+      int pos = headerOffset(vertex) + 13;
+      header.put(pos, (byte) (header.get(pos) & ~mark));
+    } // if
+  } // unmark(int, byte)
+
+  /**
+   * Remove all of the marks.
+   */
+  public void clearMarks() {
+    for (int v = 0; v < this.vertexNames.length; v++) {
+      this.header(v).put(headerOffset(v) + 13, (byte) 0);
+    } // for
+  } // clearMarks()
+
+  // +------------+--------------------------------------------------
+  // | Algorithms |
+  // +------------+
+
+  /**
+   * Find an unweighted path from one vertex to another, using the fewest
+   * edges.
+   *
+   * @param start
+   *   The vertex to start from.
+   * @param finish
+   *   The vertex to end at.
+   *
+   * @return the edges of the path, or null if there is no path.
+   */
+  public List<Edge> path(int start, int finish) {
+    if (!this.validVertex(start) || !this.validVertex(finish)) {
+      return null;
+    } // if
+    int capacity = this.capacity();
+    // from[v] is the position + 1 of the edge that first reached v
+    // (so 0 means "not reached"), and parent[v] is its source.
+    int[] from = new int[capacity];
+    int[] parent = new int[capacity];
+    int[] queue = new int[capacity];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = start;
+    while ((from[finish] == 0) && (head < tail)) {
+      int u = queue[head++];
+      int degree = this.degree(u);
+      for (int i = 0; i < degree; i++) {
+        int v = this.target(u, i);
+        if ((from[v] == 0) && (v != start)) {
+          from[v] = i + 1;
+          parent[v] = u;
+          queue[tail++] = v;
+        } // if
+      } // for
+    } // while
+    if (from[finish] == 0) {
+      return null;
+    } // if
+    LinkedList<Edge> path = new LinkedList<Edge>();
+    for (int v = finish; v != start; v = parent[v]) {
+      int u = parent[v];
+      path.addFirst(new Edge(u, v, this.weight(u, from[v] - 1)));
+    } // for
+    return path;
+  } // path(int, int)
+
+  /**
+   * Find an unweighted path from one vertex to another, using the fewest
+   * edges.
+   *
+   * @param start
+   *   The name of the vertex to start from.
+   * @param finish
+   *   The name of the vertex to end at.
+   *
+   * @return the edges of the path, or null if there is no path.
+   */
+  public List<Edge> path(String start, String finish) {
+    return this.path(this.vertexNumber(start), this.vertexNumber(finish));
+  } // path(String, String)
+
+  /**
+   * Find the shortest path from source to sink.
+   *
+   * @param source
+   *   The source vertex.
+   * @param sink
+   *   The sink vertex.
+   *
+   * @return an array of predecessors, as for Graph.shortestPath.
+   */
+  public Integer[] shortestPath(int source, int sink) {
+    return Dijkstra.run(this, source, sink).predecessors();
+  } // shortestPath(int, int)
+
+  /**
+   * Compute the shortest paths from a source to every reachable vertex.
+   *
+   * @param source
+   *   The source vertex.
+   *
+   * @return the shortest-path tree rooted at source.
+   */
+  public ShortestPathTree shortestPaths(int source) {
+    return Dijkstra.run(this, source, -1);
+  } // shortestPaths(int)
+
+  /**
+   * Find the vertices reachable from one or more sources.
+   *
+   * @param sources
+   *   The vertices to start from.
+   *
+   * @return the set of reachable vertex numbers.
+   */
+  public BitSet reachable(int... sources) {
+    return BitSet.valueOf(Reachability.sweep(this, sources));
+  } // reachable(int...)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Name a vertex.
+   *
+   * @param name
+   *   The name.
+   * @param v
+   *   The unused vertex number.
+   *
+   * @return v
+   */
+  private int addVertex(String name, int v) {
+    ++this.version;
+    ++this.numVertices;
+    this.vertexNumbers.add(name, v);
+    this.vertexNames[v] = name;
+    return v;
+  } // addVertex(String, int)
+
+  /**
+   * Get an unused vertex number, adding a vertex page if necessary.
+   *
+   * @return the number.
+   */
+  private int newVertexNumber() {
+    if (this.unusedVertices.size() == 0) {
+      int old = this.vertexNames.length;
+      this.vertexPages = Arrays.copyOf(this.vertexPages, this.vertexPages.length + 1);
+      this.vertexPages[this.vertexPages.length - 1] =
+          this.allocatePage(VERTEX_PAGE_SIZE * HEADER_BYTES);
+      this.vertexNames = Arrays.copyOf(this.vertexNames, old + VERTEX_PAGE_SIZE);
+      // Hand out the new numbers in increasing order.
+      for (int v = old + VERTEX_PAGE_SIZE - 1; v >= old; v--) {
+        this.clearHeader(v);
+        this.unusedVertices.add(v);
+      } // for
+    } // if
+    return this.unusedVertices.removeLast();
+  } // newVertexNumber()
+
+  /**
+   * Find the position of the edge from source to target.
+   *
+   * @param source
+   *   The source, which must be valid.
+   * @param target
+   *   The target.
+   *
+   * @return the position, or -1 if there is no such edge.
+   */
+  private int indexOf(int source, int target) {
+    int degree = this.degree(source);
+    long block = this.block(source);
+    for (int i = 0; i < degree; i++) {
+      long slot = block + i;
+      if (this.edgePage(slot).getInt(this.edgeOffset(slot)) == target) {
+        return i;
+      } // if
+    } // for
+    return -1;
+  } // indexOf(int, int)
+
+  /**
+   * Remove an edge, moving the last edge into its place.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param i
+   *   The position of the edge.
+   */
+  private void removeEdgeAt(int source, int i) {
+    ByteBuffer header = this.header(source);
+    int pos = headerOffset(source);
+    int last = header.getInt(pos + 8) - 1;
+    long block = header.getLong(pos);
+    this.copyEdge(block + last, block + i);
+    header.putInt(pos + 8, last);
+    --this.numEdges;
+    ++this.version;
+  } // removeEdgeAt(int, int)
+
+  /**
+   * Copy an edge from one slot to another.
+   *
+   * @param from
+   *   The address of the edge to copy.
+   * @param to
+   *   The address to copy it to.
+   */
+  private void copyEdge(long from, long to) {
+    ByteBuffer src = this.edgePage(from);
+    ByteBuffer dest = this.edgePage(to);
+    dest.putLong(this.edgeOffset(to), src.getLong(this.edgeOffset(from)));
+  } // copyEdge(long, long)
+
+  /**
+   * Allocate a block of edge slots.
+   *
+   * @param sizeClass
+   *   log2 of the number of slots.
+   *
+   * @return the address of the block.
+   */
+  private long allocate(int sizeClass) {
+    long block = this.freeBlocks[sizeClass];
+    if (block != NONE) {
+      this.freeBlocks[sizeClass] = this.edgePage(block).getLong(this.edgeOffset(block));
+      return block;
+    } // if
+    long size = 1L << sizeClass;
+    long available = (this.nextSlot == 0) ? 0
+        : ((long) this.edgePages.length << this.edgePageBits) - this.nextSlot;
+    if (available < size) {
+      this.edgePages = Arrays.copyOf(this.edgePages, this.edgePages.length + 1);
+      this.edgePages[this.edgePages.length - 1] =
+          this.allocatePage(EDGE_BYTES << this.edgePageBits);
+      this.nextSlot = (long) (this.edgePages.length - 1) << this.edgePageBits;
+    } // if
+    block = this.nextSlot;
+    this.nextSlot += size;
+    return block;
+  } // allocate(int)
+
+  /**
+   * Free a block of edge slots.
+   *
+   * @param block
+   *   The address of the block.
+   * @param sizeClass
+   *   log2 of the number of slots.
+   */
+  private void free(long block, int sizeClass) {
+    this.edgePage(block).putLong(this.edgeOffset(block), this.freeBlocks[sizeClass]);
+    this.freeBlocks[sizeClass] = block;
+  } // free(long, int)
+
+  /**
+   * Get a new page of off-heap memory, filled with zeros.
+   *
+   * @param bytes
+   *   The size of the page.
+   *
+   * @return the page.
+   */
+  private ByteBuffer allocatePage(int bytes) {
+    ByteBuffer page;
+    if (this.file == null) {
+      page = ByteBuffer.allocateDirect(bytes);
+    } else {
+      try {
+        page = this.file.map(FileChannel.MapMode.READ_WRITE, this.fileSize, bytes);
+        this.fileSize += bytes;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } // try/catch
+    } // if/else
+    return page.order(ByteOrder.nativeOrder());
+  } // allocatePage(int)
+
+  /**
+   * Reset a vertex's header to "no edges, no marks".
+   *
+   * @param vertex
+   *   The vertex.
+   */
+  private void clearHeader(int vertex) {
+    ByteBuffer header = this.header(vertex);
+    int pos = headerOffset(vertex);
+    header.putLong(pos, NONE);
+    header.putLong(pos + 8, 0);
+  } // clearHeader(int)
+
+  /**
+   * Get the page holding a vertex's header.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the page.
+   */
+  private ByteBuffer header(int vertex) {
+    return this.vertexPages[vertex >>> VERTEX_PAGE_BITS];
+  } // header(int)
+
+  /**
+   * Get the position of a vertex's header in its page.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the byte offset.
+   */
+  private static int headerOffset(int vertex) {
+    return (vertex & (VERTEX_PAGE_SIZE - 1)) * HEADER_BYTES;
+  } // headerOffset(int)
+
+  /**
+   * Get the address of a vertex's edge block.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the address, or NONE.
+   */
+  private long block(int vertex) {
+    return this.header(vertex).getLong(headerOffset(vertex));
+  } // block(int)
+
+  /**
+   * Get the page holding an edge slot.
+   *
+   * @param slot
+   *   The address of the slot.
+   *
+   * @return the page.
+   */
+  private ByteBuffer edgePage(long slot) {
+    return this.edgePages[(int) (slot >>> this.edgePageBits)];
+  } // edgePage(long)
+
+  /**
+   * Get the position of an edge slot in its page.
+   *
+   * @param slot
+   *   The address of the slot.
+   *
+   * @return the byte offset.
+   */
+  private int edgeOffset(long slot) {
+    return (int) (slot & this.edgePageMask) * EDGE_BYTES;
+  } // edgeOffset(long)
+
+  /**
+   * Find the first used vertex number at or after a position.
+   *
+   * @param vertex
+   *   The position to start looking.
+   *
+   * @return the next used vertex number, or the capacity if there is none.
+   */
+  private int nextVertex(int vertex) {
+    while ((vertex < this.vertexNames.length) && (this.vertexNames[vertex] == null)) {
+      ++vertex;
+    } // while
+    return vertex;
+  } // nextVertex(int)
+
+  /**
+   * Compare an expected version to the current version. Die if they do
+   * not match.
+   *
+   * @param expectedVersion
+   *   The expected version of the graph.
+   */
+  private void failFast(long expectedVersion) {
+    if (this.version != expectedVersion) {
+      throw new ConcurrentModificationException();
+    } // if
+  } // failFast(long)
+} // class OffHeapGraph
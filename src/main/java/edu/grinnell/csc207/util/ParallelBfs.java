@@ -0,0 +1,531 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A parallel, direction-optimizing breadth-first search. Each level is
+ * expanded either top-down (the frontier looks at its out-edges) or
+ * bottom-up (unvisited vertices look for a parent in the frontier),
+ * whichever is expected to examine fewer edges.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ParallelBfs {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Top-down levels keep the frontier as an int array. Workers claim
+   * newly discovered vertices with a compare-and-set on parents, and
+   * collect them in local lists that we concatenate into the next
+   * frontier.
+   *
+   * Bottom-up levels keep the frontier as a bitset (a long[] with one bit
+   * per vertex). Each worker owns a range of whole 64-bit words, so it
+   * can set bits in the next frontier without synchronization. A vertex
+   * scans its in-edges (from the transpose) and stops at the first
+   * parent it finds in the frontier.
+   *
+   * We switch using the heuristic of Beamer, Asanovic and Patterson:
+   * go bottom-up when the edges leaving the frontier exceed 1/ALPHA of
+   * the edges leaving unvisited vertices, and back to top-down when the
+   * frontier shrinks below 1/BETA of the vertices.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * Top-down to bottom-up threshold.
+   */
+  static final int ALPHA = 14;
+
+  /**
+   * Bottom-up to top-down threshold.
+   */
+  static final int BETA = 24;
+
+  /**
+   * The number of frontier vertices below which a top-down task stops
+   * splitting.
+   */
+  static final int GRAIN = 512;
+
+  /**
+   * The number of bitset words below which a bottom-up task stops
+   * splitting.
+   */
+  static final int WORD_GRAIN = 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph we search.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The reverse of the graph (for bottom-up steps).
+   */
+  final CsrGraph reverse;
+
+  /**
+   * The pool we run on.
+   */
+  final ForkJoinPool pool;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a searcher that uses the common pool.
+   *
+   * @param graph
+   *   The graph to search.
+   */
+  public ParallelBfs(CsrGraph graph) {
+    this(graph, ForkJoinPool.commonPool());
+  } // ParallelBfs(CsrGraph)
+
+  /**
+   * Create a searcher that runs on a particular pool.
+   *
+   * @param graph
+   *   The graph to search.
+   * @param pool
+   *   The pool to run on.
+   */
+  public ParallelBfs(CsrGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.reverse = graph.transpose();
+    this.pool = pool;
+  } // ParallelBfs(CsrGraph, ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Search the whole graph from a source.
+   *
+   * @param source
+   *   The source vertex.
+   *
+   * @return the levels and parents of all reachable vertices.
+   */
+  public BfsTree run(int source) {
+    return new Search(source, -1).run();
+  } // run(int)
+
+  /**
+   * Find a path with the fewest edges. The search stops after the level
+   * that reaches finish.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return the path, or null if there is none.
+   */
+  public List<Edge> path(int start, int finish) {
+    if (!this.graph.validVertex(finish)) {
+      return null;
+    } // if
+    return new Search(start, finish).run().pathTo(finish);
+  } // path(int, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The state of one search.
+   */
+  class Search {
+    /**
+     * The source.
+     */
+    final int source;
+
+    /**
+     * The vertex at which to stop, or -1.
+     */
+    final int sink;
+
+    /**
+     * The number of vertex slots.
+     */
+    final int capacity;
+
+    /**
+     * The parent of each vertex (-1 if unvisited; the source is its own
+     * parent during the search).
+     */
+    final AtomicIntegerArray parents;
+
+    /**
+     * The level of each vertex, or -1.
+     */
+    final int[] levels;
+
+    /**
+     * The number of vertices discovered in the current step.
+     */
+    final LongAdder discovered = new LongAdder();
+
+    /**
+     * The total out-degree of the vertices discovered in the current step.
+     */
+    final LongAdder discoveredEdges = new LongAdder();
+
+    /**
+     * Set up a search.
+     *
+     * @param source
+     *   The source.
+     * @param sink
+     *   The vertex at which to stop, or -1.
+     */
+    Search(int source, int sink) {
+      this.source = source;
+      this.sink = sink;
+      this.capacity = ParallelBfs.this.graph.capacity();
+      this.parents = new AtomicIntegerArray(this.capacity);
+      this.levels = new int[this.capacity];
+      for (int i = 0; i < this.capacity; i++) {
+        this.parents.set(i, -1);
+      } // for
+      Arrays.fill(this.levels, -1);
+    } // Search(int, int)
+
+    /**
+     * Run the search.
+     *
+     * @return the result.
+     */
+    BfsTree run() {
+      CsrGraph g = ParallelBfs.this.graph;
+      int[] result = new int[this.capacity];
+      Arrays.fill(result, -1);
+      if (!g.validVertex(this.source)) {
+        return new BfsTree(g, this.source, this.levels, result, 0);
+      } // if
+
+      this.parents.set(this.source, this.source);
+      this.levels[this.source] = 0;
+      int[] frontier = new int[] {this.source};
+      long[] frontierBits = null;
+      long frontierSize = 1;
+      long frontierEdges = g.degree(this.source);
+      long unexploredEdges = g.numEdges() - frontierEdges;
+      long numReached = 1;
+      int level = 0;
+
+      while ((frontierSize > 0) && ((this.sink == -1) || (this.levels[this.sink] == -1))) {
+        this.discovered.reset();
+        this.discoveredEdges.reset();
+        boolean bottomUp = (frontierBits != null)
+            ? (frontierSize >= g.numVertices() / BETA)
+            : (frontierEdges > unexploredEdges / ALPHA);
+        if (bottomUp) {
+          if (frontierBits == null) {
+            frontierBits = toBits(frontier);
+          } // if
+          long[] next = new long[frontierBits.length];
+          ParallelBfs.this.pool.invoke(
+              new BottomUp(this, frontierBits, next, 0, next.length, level + 1));
+          frontierBits = next;
+        } else {
+          if (frontierBits != null) {
+            frontier = fromBits(frontierBits);
+            frontierBits = null;
+          } // if
+          ConcurrentLinkedQueue<IntList> found = new ConcurrentLinkedQueue<IntList>();
+          ParallelBfs.this.pool.invoke(
+              new TopDown(this, frontier, 0, frontier.length, level + 1, found));
+          frontier = concat(found);
+        } // if/else
+        frontierSize = this.discovered.sum();
+        frontierEdges = this.discoveredEdges.sum();
+        unexploredEdges -= frontierEdges;
+        numReached += frontierSize;
+        ++level;
+      } // while
+
+      for (int v = 0; v < this.capacity; v++) {
+        result[v] = this.parents.get(v);
+      } // for
+      result[this.source] = -1;
+      return new BfsTree(g, this.source, this.levels, result, (int) numReached);
+    } // run()
+
+    /**
+     * Record a newly discovered vertex.
+     *
+     * @param v
+     *   The vertex.
+     * @param level
+     *   Its level.
+     */
+    void found(int v, int level) {
+      this.levels[v] = level;
+      this.discovered.increment();
+      this.discoveredEdges.add(ParallelBfs.this.graph.degree(v));
+    } // found(int, int)
+
+    /**
+     * Convert a frontier array to a bitset.
+     *
+     * @param frontier
+     *   The frontier.
+     *
+     * @return the bitset.
+     */
+    long[] toBits(int[] frontier) {
+      long[] bits = new long[(this.capacity + 63) >>> 6];
+      for (int v : frontier) {
+        bits[v >>> 6] |= 1L << v;
+      } // for
+      return bits;
+    } // toBits(int[])
+
+    /**
+     * Convert a frontier bitset to an array.
+     *
+     * @param bits
+     *   The bitset.
+     *
+     * @return the frontier.
+     */
+    int[] fromBits(long[] bits) {
+      IntList result = new IntList();
+      for (int w = 0; w < bits.length; w++) {
+        long word = bits[w];
+        while (word != 0) {
+          result.add((w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        } // while
+      } // for
+      return result.toArray();
+    } // fromBits(long[])
+
+    /**
+     * Concatenate the lists found by a top-down step.
+     *
+     * @param found
+     *   The lists.
+     *
+     * @return their contents, in one array.
+     */
+    int[] concat(ConcurrentLinkedQueue<IntList> found) {
+      int total = 0;
+      for (IntList list : found) {
+        total += list.size();
+      } // for
+      int[] result = new int[total];
+      int pos = 0;
+      for (IntList list : found) {
+        for (int i = 0; i < list.size(); i++) {
+          result[pos++] = list.get(i);
+        } // for
+      } // for
+      return result;
+    } // concat(ConcurrentLinkedQueue)
+  } // class Search
+
+  /**
+   * A top-down step over part of the frontier.
+   */
+  @SuppressWarnings("serial")
+  class TopDown extends RecursiveAction {
+    /**
+     * The search.
+     */
+    final Search search;
+
+    /**
+     * The frontier.
+     */
+    final int[] frontier;
+
+    /**
+     * The start of our range (inclusive).
+     */
+    final int lo;
+
+    /**
+     * The end of our range (exclusive).
+     */
+    final int hi;
+
+    /**
+     * The level of the vertices we discover.
+     */
+    final int level;
+
+    /**
+     * Where to put the discovered vertices.
+     */
+    final ConcurrentLinkedQueue<IntList> found;
+
+    /**
+     * Create a task.
+     *
+     * @param search
+     *   The search.
+     * @param frontier
+     *   The frontier.
+     * @param lo
+     *   The start of our range.
+     * @param hi
+     *   The end of our range.
+     * @param level
+     *   The level of the vertices we discover.
+     * @param found
+     *   Where to put the discovered vertices.
+     */
+    TopDown(Search search, int[] frontier, int lo, int hi, int level,
+        ConcurrentLinkedQueue<IntList> found) {
+      this.search = search;
+      this.frontier = frontier;
+      this.lo = lo;
+      this.hi = hi;
+      this.level = level;
+      this.found = found;
+    } // TopDown
+
+    /**
+     * Expand our part of the frontier, or split the work.
+     */
+    protected void compute() {
+      if (this.hi - this.lo > GRAIN) {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(
+            new TopDown(this.search, this.frontier, this.lo, mid, this.level, this.found),
+            new TopDown(this.search, this.frontier, mid, this.hi, this.level, this.found));
+        return;
+      } // if
+      CsrGraph g = ParallelBfs.this.graph;
+      IntList mine = new IntList();
+      for (int i = this.lo; i < this.hi; i++) {
+        int u = this.frontier[i];
+        for (int pos = g.offsets[u]; pos < g.offsets[u + 1]; pos++) {
+          int v = g.targets[pos];
+          if ((this.search.parents.get(v) == -1)
+              && this.search.parents.compareAndSet(v, -1, u)) {
+            this.search.found(v, this.level);
+            mine.add(v);
+          } // if
+        } // for
+      } // for
+      if (mine.size() > 0) {
+        this.found.add(mine);
+      } // if
+    } // compute()
+  } // class TopDown
+
+  /**
+   * A bottom-up step over a range of bitset words.
+   */
+  @SuppressWarnings("serial")
+  class BottomUp extends RecursiveAction {
+    /**
+     * The search.
+     */
+    final Search search;
+
+    /**
+     * The current frontier.
+     */
+    final long[] frontier;
+
+    /**
+     * The next frontier.
+     */
+    final long[] next;
+
+    /**
+     * The first word in our range (inclusive).
+     */
+    final int lo;
+
+    /**
+     * The last word in our range (exclusive).
+     */
+    final int hi;
+
+    /**
+     * The level of the vertices we discover.
+     */
+    final int level;
+
+    /**
+     * Create a task.
+     *
+     * @param search
+     *   The search.
+     * @param frontier
+     *   The current frontier.
+     * @param next
+     *   The next frontier.
+     * @param lo
+     *   The first word in our range.
+     * @param hi
+     *   The last word in our range.
+     * @param level
+     *   The level of the vertices we discover.
+     */
+    BottomUp(Search search, long[] frontier, long[] next, int lo, int hi,
+        int level) {
+      this.search = search;
+      this.frontier = frontier;
+      this.next = next;
+      this.lo = lo;
+      this.hi = hi;
+      this.level = level;
+    } // BottomUp
+
+    /**
+     * Look for parents of our unvisited vertices, or split the work.
+     */
+    protected void compute() {
+      if (this.hi - this.lo > WORD_GRAIN) {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(
+            new BottomUp(this.search, this.frontier, this.next, this.lo, mid, this.level),
+            new BottomUp(this.search, this.frontier, this.next, mid, this.hi, this.level));
+        return;
+      } // if
+      CsrGraph g = ParallelBfs.this.graph;
+      CsrGraph rev = ParallelBfs.this.reverse;
+      int end = Math.min(this.hi << 6, this.search.capacity);
+      for (int v = this.lo << 6; v < end; v++) {
+        if ((this.search.parents.get(v) != -1) || !g.validVertex(v)) {
+          continue;
+        } // if
+        for (int pos = rev.offsets[v]; pos < rev.offsets[v + 1]; pos++) {
+          int u = rev.targets[pos];
+          if ((this.frontier[u >>> 6] & (1L << u)) != 0) {
+            this.search.parents.set(v, u);
+            this.search.found(v, this.level);
+            this.next[v >>> 6] |= 1L << v;
+            break;
+          } // if
+        } // for
+      } // for
+    } // compute()
+  } // class BottomUp
+} // class ParallelBfs
@@ -0,0 +1,292 @@
+package edu.grinnell.csc207.util;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel connected components, using the Afforest algorithm. For
+ * directed graphs, finds the weakly connected components.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ParallelComponents {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Afforest (Sutton, Ben-Nun, and Barak) is a union-find in which many
+   * threads link trees at once. Each vertex starts as its own tree. To
+   * link two trees, we compare-and-set the root with the larger number
+   * to point to the other root, retrying if another thread got there
+   * first. Since links always point to smaller numbers, no cycles can
+   * form, and each root is the smallest vertex of its tree.
+   *
+   * Rather than processing every edge, we first link each vertex along
+   * its first few edges (SAMPLE_ROUNDS of them) and flatten the trees.
+   * In most real graphs that already puts most vertices into one big
+   * component, which we identify by sampling. Then we process the rest
+   * of the edges of vertices outside that component only. That is
+   * enough when every edge appears in both directions, since an edge
+   * between the big component and another vertex is then seen from the
+   * other vertex. For graphs that are not symmetric, we process the
+   * rest of every vertex's edges.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of edges per vertex in the sampling phase.
+   */
+  static final int SAMPLE_ROUNDS = 2;
+
+  /**
+   * The number of vertices we sample to find the biggest component.
+   */
+  static final int SAMPLES = 1024;
+
+  /**
+   * The number of vertices below which a task stops splitting.
+   */
+  static final int GRAIN = 4096;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph.
+   */
+  final CsrGraph graph;
+
+  /**
+   * Whether each edge appears in both directions.
+   */
+  final boolean symmetric;
+
+  /**
+   * The pool we run on.
+   */
+  final ForkJoinPool pool;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prepare to find the components of a graph on the common pool.
+   *
+   * @param graph
+   *   The graph.
+   * @param symmetric
+   *   Whether each edge appears in both directions (as in a snapshot of
+   *   an UndirectedGraph).
+   */
+  public ParallelComponents(CsrGraph graph, boolean symmetric) {
+    this(graph, symmetric, ForkJoinPool.commonPool());
+  } // ParallelComponents(CsrGraph, boolean)
+
+  /**
+   * Prepare to find the components of a graph on a particular pool.
+   *
+   * @param graph
+   *   The graph.
+   * @param symmetric
+   *   Whether each edge appears in both directions.
+   * @param pool
+   *   The pool to run on.
+   */
+  public ParallelComponents(CsrGraph graph, boolean symmetric, ForkJoinPool pool) {
+    this.graph = graph;
+    this.symmetric = symmetric;
+    this.pool = pool;
+  } // ParallelComponents(CsrGraph, boolean, ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Label every vertex with its component.
+   *
+   * @return an array, indexed by vertex number, giving the smallest
+   *   vertex in each vertex's component, or -1 for invalid vertices.
+   */
+  public int[] run() {
+    CsrGraph g = this.graph;
+    int capacity = g.capacity();
+    AtomicIntegerArray parent = new AtomicIntegerArray(capacity);
+    this.forEach(capacity, (v) -> parent.set(v, v));
+
+    for (int r = 0; r < SAMPLE_ROUNDS; r++) {
+      int round = r;
+      this.forEach(capacity, (v) -> {
+        int pos = g.offsets[v] + round;
+        if (pos < g.offsets[v + 1]) {
+          link(parent, v, g.targets[pos]);
+        } // if
+      });
+      this.forEach(capacity, (v) -> compress(parent, v));
+    } // for
+
+    int big = this.symmetric ? biggest(parent, g) : -1;
+    this.forEach(capacity, (v) -> {
+      if (parent.get(v) != big) {
+        for (int pos = g.offsets[v] + SAMPLE_ROUNDS; pos < g.offsets[v + 1]; pos++) {
+          link(parent, v, g.targets[pos]);
+        } // for
+      } // if
+    });
+    this.forEach(capacity, (v) -> compress(parent, v));
+
+    int[] labels = new int[capacity];
+    for (int v = 0; v < capacity; v++) {
+      labels[v] = g.validVertex(v) ? parent.get(v) : -1;
+    } // for
+    return labels;
+  } // run()
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Link the trees of two vertices.
+   *
+   * @param parent
+   *   The parents.
+   * @param u
+   *   One vertex.
+   * @param v
+   *   The other vertex.
+   */
+  static void link(AtomicIntegerArray parent, int u, int v) {
+    int p1 = parent.get(u);
+    int p2 = parent.get(v);
+    while (p1 != p2) {
+      int high = Math.max(p1, p2);
+      int low = Math.min(p1, p2);
+      int pHigh = parent.get(high);
+      if ((pHigh == low) || ((pHigh == high) && parent.compareAndSet(high, high, low))) {
+        return;
+      } // if
+      p1 = parent.get(parent.get(high));
+      p2 = parent.get(low);
+    } // while
+  } // link(AtomicIntegerArray, int, int)
+
+  /**
+   * Point a vertex directly at its root.
+   *
+   * @param parent
+   *   The parents.
+   * @param v
+   *   The vertex.
+   */
+  static void compress(AtomicIntegerArray parent, int v) {
+    while (parent.get(v) != parent.get(parent.get(v))) {
+      parent.set(v, parent.get(parent.get(v)));
+    } // while
+  } // compress(AtomicIntegerArray, int)
+
+  /**
+   * Guess the biggest component by sampling.
+   *
+   * @param parent
+   *   The (flattened) parents.
+   * @param g
+   *   The graph.
+   *
+   * @return the root of the most common component among the samples.
+   */
+  static int biggest(AtomicIntegerArray parent, CsrGraph g) {
+    if (g.capacity() == 0) {
+      return -1;
+    } // if
+    SplittableRandom random = new SplittableRandom(g.capacity());
+    HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
+    int best = -1;
+    int bestCount = 0;
+    for (int i = 0; i < SAMPLES; i++) {
+      int root = parent.get(random.nextInt(g.capacity()));
+      int count = counts.merge(root, 1, Integer::sum);
+      if (count > bestCount) {
+        best = root;
+        bestCount = count;
+      } // if
+    } // for
+    return best;
+  } // biggest(AtomicIntegerArray, CsrGraph)
+
+  /**
+   * Do something for every vertex number, in parallel.
+   *
+   * @param n
+   *   The number of vertex numbers.
+   * @param body
+   *   What to do.
+   */
+  void forEach(int n, IntConsumer body) {
+    this.pool.invoke(new ForEach(0, n, body));
+  } // forEach(int, IntConsumer)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Do something for a range of vertex numbers.
+   */
+  @SuppressWarnings("serial")
+  static class ForEach extends RecursiveAction {
+    /**
+     * The first vertex.
+     */
+    final int lo;
+
+    /**
+     * One past the last vertex.
+     */
+    final int hi;
+
+    /**
+     * What to do.
+     */
+    final IntConsumer body;
+
+    /**
+     * Create a task.
+     *
+     * @param lo
+     *   The first vertex.
+     * @param hi
+     *   One past the last vertex.
+     * @param body
+     *   What to do.
+     */
+    ForEach(int lo, int hi, IntConsumer body) {
+      this.lo = lo;
+      this.hi = hi;
+      this.body = body;
+    } // ForEach(int, int, IntConsumer)
+
+    @Override
+    protected void compute() {
+      if (this.hi - this.lo <= GRAIN) {
+        for (int v = this.lo; v < this.hi; v++) {
+          this.body.accept(v);
+        } // for
+      } else {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(new ForEach(this.lo, mid, this.body), new ForEach(mid, this.hi, this.body));
+      } // if/else
+    } // compute()
+  } // class ForEach
+} // class ParallelComponents
@@ -0,0 +1,238 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel reachability: find every vertex reachable from a set of
+ * sources, sharing the traversal among the workers of a fork-join pool.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ParallelReachability {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * Unlike ParallelBfs, we do not care about levels, so there is no need
+   * to proceed a level at a time. Each task runs a depth-first sweep
+   * from its own stack of vertices. A vertex is claimed by setting its
+   * bit in a shared bitset with a compare-and-set, and only the task
+   * that claims a vertex pushes it, so each vertex is expanded once.
+   *
+   * When a task's stack grows past SPLIT vertices and the pool seems to
+   * have idle workers (the task has no queued work for them to steal),
+   * the task forks off the bottom half of its stack as a new task. Idle
+   * workers steal those tasks, so the work spreads out as the sweep
+   * finds more of the graph.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The stack size at which a task considers handing off work.
+   */
+  static final int SPLIT = 256;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph we search.
+   */
+  final CsrGraph graph;
+
+  /**
+   * The pool we run on.
+   */
+  final ForkJoinPool pool;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a searcher that uses the common pool.
+   *
+   * @param graph
+   *   The graph to search.
+   */
+  public ParallelReachability(CsrGraph graph) {
+    this(graph, ForkJoinPool.commonPool());
+  } // ParallelReachability(CsrGraph)
+
+  /**
+   * Create a searcher that runs on a particular pool.
+   *
+   * @param graph
+   *   The graph to search.
+   * @param pool
+   *   The pool to run on.
+   */
+  public ParallelReachability(CsrGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.pool = pool;
+  } // ParallelReachability(CsrGraph, ForkJoinPool)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find every vertex reachable from at least one of a set of sources
+   * (including the sources themselves). Invalid sources are ignored.
+   *
+   * @param sources
+   *   The sources.
+   *
+   * @return the set of reachable vertices. (Use its stream method to
+   *   get them as an IntStream.)
+   */
+  public BitSet run(int... sources) {
+    AtomicLongArray reached = new AtomicLongArray((this.graph.capacity() + 63) >>> 6);
+    int[] stack = new int[Math.max(sources.length, SPLIT)];
+    int size = 0;
+    for (int source : sources) {
+      if (this.graph.validVertex(source) && claim(reached, source)) {
+        stack[size++] = source;
+      } // if
+    } // for
+    if (size > 0) {
+      this.pool.invoke(new Sweep(reached, stack, size));
+    } // if
+    long[] words = new long[reached.length()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = reached.get(i);
+    } // for
+    return BitSet.valueOf(words);
+  } // run(int...)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Set a vertex's bit, if no other thread has.
+   *
+   * @param bits
+   *   The bitset.
+   * @param v
+   *   The vertex.
+   *
+   * @return true if we set the bit and false if it was already set.
+   */
+  static boolean claim(AtomicLongArray bits, int v) {
+    long bit = 1L << v;
+    int word = v >>> 6;
+    long old = bits.get(word);
+    while ((old & bit) == 0) {
+      if (bits.compareAndSet(word, old, old | bit)) {
+        return true;
+      } // if
+      old = bits.get(word);
+    } // while
+    return false;
+  } // claim(AtomicLongArray, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A depth-first sweep from a stack of claimed vertices.
+   */
+  @SuppressWarnings("serial")
+  class Sweep extends RecursiveAction {
+    /**
+     * The shared bitset of reached vertices.
+     */
+    final AtomicLongArray reached;
+
+    /**
+     * The vertices still to expand, in positions 0 .. size-1.
+     */
+    int[] stack;
+
+    /**
+     * The number of vertices on the stack.
+     */
+    int size;
+
+    /**
+     * Create a sweep.
+     *
+     * @param reached
+     *   The shared bitset.
+     * @param stack
+     *   The vertices to expand (already claimed).
+     * @param size
+     *   The number of vertices to expand.
+     */
+    Sweep(AtomicLongArray reached, int[] stack, int size) {
+      this.reached = reached;
+      this.stack = stack;
+      this.size = size;
+    } // Sweep(AtomicLongArray, int[], int)
+
+    /**
+     * Expand vertices until the stack is empty, handing off work along
+     * the way.
+     */
+    protected void compute() {
+      CsrGraph g = ParallelReachability.this.graph;
+      ArrayList<Sweep> forked = new ArrayList<Sweep>();
+      while (this.size > 0) {
+        int u = this.stack[--this.size];
+        for (int pos = g.offsets[u]; pos < g.offsets[u + 1]; pos++) {
+          int v = g.targets[pos];
+          if (claim(this.reached, v)) {
+            this.push(v);
+          } // if
+        } // for
+        if ((this.size >= SPLIT) && (getSurplusQueuedTaskCount() <= 0)) {
+          forked.add(this.handOff());
+        } // if
+      } // while
+      for (Sweep task : forked) {
+        task.join();
+      } // for
+    } // compute()
+
+    /**
+     * Push a vertex on the stack.
+     *
+     * @param v
+     *   The vertex.
+     */
+    void push(int v) {
+      if (this.size == this.stack.length) {
+        this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+      } // if
+      this.stack[this.size++] = v;
+    } // push(int)
+
+    /**
+     * Fork a task for the bottom half of the stack.
+     *
+     * @return the forked task.
+     */
+    Sweep handOff() {
+      int half = this.size / 2;
+      int[] theirs = Arrays.copyOf(this.stack, Math.max(half, SPLIT));
+      System.arraycopy(this.stack, half, this.stack, 0, this.size - half);
+      this.size -= half;
+      Sweep task = new Sweep(this.reached, theirs, half);
+      task.fork();
+      return task;
+    } // handOff()
+  } // class Sweep
+} // class ParallelReachability
@@ -0,0 +1,367 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A bounded cache of the results of a graph's path queries, valid for
+ * one version of the graph.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class PathCache {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * We keep three kinds of entries: full shortest-path trees (from
+   * shortestPaths), trees that stopped at a sink (from shortestPath),
+   * and unweighted paths (from path). All share one least-recently-used
+   * order, kept by an access-ordered LinkedHashMap, and one budget in
+   * (estimated) bytes, so a few big trees and many small paths compete
+   * fairly for the space.
+   *
+   * Every lookup passes the graph's current version. If it differs from
+   * the version the entries were computed for, we drop them all first.
+   * So mutators need not know about the cache: changing the version is
+   * enough.
+   *
+   * A pair query only ever gets a tree that stopped at its own sink,
+   * never a cached full tree for the same source. A full tree would
+   * have the right path to the sink, but it would also have
+   * predecessors for vertices past the sink, and shortestPath promises
+   * null predecessors for vertices its search did not settle.
+   *
+   * The size estimates count the arrays and objects we hold, with
+   * 16-byte object headers.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * A full shortest-path tree.
+   */
+  static final int TREE = 0;
+
+  /**
+   * A shortest-path tree that stopped at a sink.
+   */
+  static final int PAIR_TREE = 1;
+
+  /**
+   * An unweighted path.
+   */
+  static final int PATH = 2;
+
+  /**
+   * The estimated size of an entry, apart from its value.
+   */
+  static final int ENTRY_BYTES = 96;
+
+  /**
+   * The path we store when there is no path.
+   */
+  static final Edge[] NO_PATH = new Edge[0];
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The entries, in least-recently-used order.
+   */
+  final LinkedHashMap<Key, Entry> entries =
+      new LinkedHashMap<Key, Entry>(64, 0.75f, true);
+
+  /**
+   * The budget, in bytes.
+   */
+  final long maxBytes;
+
+  /**
+   * The estimated size of all entries.
+   */
+  long bytes;
+
+  /**
+   * The version of the graph the entries are for.
+   */
+  long version;
+
+  /**
+   * The number of hits.
+   */
+  long hits;
+
+  /**
+   * The number of misses.
+   */
+  long misses;
+
+  /**
+   * The number of evictions.
+   */
+  long evictions;
+
+  /**
+   * The number of invalidations.
+   */
+  long invalidations;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty cache.
+   *
+   * @param maxBytes
+   *   The budget, in bytes.
+   * @param version
+   *   The current version of the graph.
+   */
+  PathCache(long maxBytes, long version) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Invalid cache size: " + maxBytes);
+    } // if
+    this.maxBytes = maxBytes;
+    this.version = version;
+  } // PathCache(long, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Look up a shortest-path tree.
+   *
+   * @param version
+   *   The current version of the graph.
+   * @param source
+   *   The source of the search.
+   * @param sink
+   *   The sink at which the search stopped, or -1 for a full tree.
+   *
+   * @return the tree, or null if it is not cached.
+   */
+  ShortestPathTree tree(long version, int source, int sink) {
+    this.validate(version);
+    Key key = (sink == -1) ? new Key(TREE, source, -1) : new Key(PAIR_TREE, source, sink);
+    return (ShortestPathTree) this.count(this.entries.get(key));
+  } // tree(long, int, int)
+
+  /**
+   * Look up an unweighted path.
+   *
+   * @param version
+   *   The current version of the graph.
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   *
+   * @return the edges of the path, NO_PATH if there is none, or null if
+   *   it is not cached.
+   */
+  Edge[] path(long version, int start, int finish) {
+    this.validate(version);
+    return (Edge[]) this.count(this.entries.get(new Key(PATH, start, finish)));
+  } // path(long, int, int)
+
+  /**
+   * Remember a shortest-path tree.
+   *
+   * @param source
+   *   The source of the search.
+   * @param sink
+   *   The sink at which it stopped, or -1 for a full tree.
+   * @param tree
+   *   The tree.
+   */
+  void putTree(int source, int sink, ShortestPathTree tree) {
+    Key key = (sink == -1) ? new Key(TREE, source, -1) : new Key(PAIR_TREE, source, sink);
+    this.put(key, tree, 64 + 12L * tree.distances.length);
+  } // putTree(int, int, ShortestPathTree)
+
+  /**
+   * Remember an unweighted path.
+   *
+   * @param start
+   *   The start of the path.
+   * @param finish
+   *   The end of the path.
+   * @param path
+   *   The path, or null if there is none.
+   */
+  void putPath(int start, int finish, List<Edge> path) {
+    if (path == null) {
+      this.put(new Key(PATH, start, finish), NO_PATH, 0);
+    } else {
+      this.put(new Key(PATH, start, finish), path.toArray(new Edge[path.size()]),
+          16 + 40L * path.size());
+    } // if/else
+  } // putPath(int, int, List<Edge>)
+
+  /**
+   * Take a snapshot of the statistics.
+   *
+   * @return the snapshot.
+   */
+  CacheStats stats() {
+    return new CacheStats(this.hits, this.misses, this.evictions,
+        this.invalidations, this.entries.size(), this.bytes, this.maxBytes);
+  } // stats()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A cached value and its estimated size.
+   */
+  static final class Entry {
+    /**
+     * The value.
+     */
+    final Object value;
+
+    /**
+     * The estimated size of the entry, in bytes.
+     */
+    final long size;
+
+    /**
+     * Create an entry.
+     *
+     * @param value
+     *   The value.
+     * @param size
+     *   The estimated size.
+     */
+    Entry(Object value, long size) {
+      this.value = value;
+      this.size = size;
+    } // Entry(Object, long)
+  } // class Entry
+
+  /**
+   * The key of an entry.
+   */
+  static final class Key {
+    /**
+     * The kind of entry (TREE, PAIR_TREE, or PATH).
+     */
+    final int kind;
+
+    /**
+     * The source or start.
+     */
+    final int source;
+
+    /**
+     * The sink or finish, or -1.
+     */
+    final int target;
+
+    /**
+     * Create a key.
+     *
+     * @param kind
+     *   The kind of entry.
+     * @param source
+     *   The source or start.
+     * @param target
+     *   The sink or finish, or -1.
+     */
+    Key(int kind, int source, int target) {
+      this.kind = kind;
+      this.source = source;
+      this.target = target;
+    } // Key(int, int, int)
+
+    @Override
+    public boolean equals(Object other) {
+      return (other instanceof Key) && (((Key) other).kind == this.kind)
+          && (((Key) other).source == this.source)
+          && (((Key) other).target == this.target);
+    } // equals(Object)
+
+    @Override
+    public int hashCode() {
+      return (this.source * 31 + this.target) * 3 + this.kind;
+    } // hashCode()
+  } // class Key
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Drop every entry if the graph has changed.
+   *
+   * @param version
+   *   The current version of the graph.
+   */
+  private void validate(long version) {
+    if (version != this.version) {
+      if (!this.entries.isEmpty()) {
+        this.entries.clear();
+        this.bytes = 0;
+        ++this.invalidations;
+      } // if
+      this.version = version;
+    } // if
+  } // validate(long)
+
+  /**
+   * Count a lookup as a hit or a miss.
+   *
+   * @param entry
+   *   What the lookup found.
+   *
+   * @return the value of the entry, or null if there is none.
+   */
+  private Object count(Entry entry) {
+    if (entry == null) {
+      ++this.misses;
+      return null;
+    } // if
+    ++this.hits;
+    return entry.value;
+  } // count(Entry)
+
+  /**
+   * Add an entry, evicting the least recently used entries to make room.
+   * Entries bigger than the whole budget are not kept.
+   *
+   * @param key
+   *   The key.
+   * @param value
+   *   The value.
+   * @param size
+   *   The estimated size of the value.
+   */
+  private void put(Key key, Object value, long size) {
+    size += ENTRY_BYTES;
+    if (size > this.maxBytes) {
+      return;
+    } // if
+    Entry old = this.entries.remove(key);
+    if (old != null) {
+      this.bytes -= old.size;
+    } // if
+    Iterator<Entry> lru = this.entries.values().iterator();
+    while (this.bytes + size > this.maxBytes) {
+      this.bytes -= lru.next().size;
+      lru.remove();
+      ++this.evictions;
+    } // while
+    this.entries.put(key, new Entry(value, size));
+    this.bytes += size;
+  } // put(Key, Object, long)
+} // class PathCache
@@ -0,0 +1,165 @@
+package edu.grinnell.csc207.util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Iterative reachability over any adjacency structure. The visited set
+ * is a bitset (one bit per vertex) local to each search, so searches do
+ * not touch a graph's marks and cannot overflow the call stack.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class Reachability {
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private Reachability() {
+  } // Reachability()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find every vertex reachable from at least one of a set of sources
+   * (including the sources themselves). Invalid sources are ignored.
+   *
+   * @param graph
+   *   The graph.
+   * @param sources
+   *   The sources.
+   *
+   * @return a bitset in which bit v (bit v%64 of word v/64) is set if
+   *   vertex v is reachable.
+   */
+  static long[] sweep(Adjacency graph, int[] sources) {
+    int capacity = graph.capacity();
+    long[] reached = new long[(capacity + 63) >>> 6];
+    // Each vertex is pushed at most once, when it is first reached.
+    int[] stack = new int[capacity];
+    int top = 0;
+    for (int source : sources) {
+      if (graph.validVertex(source) && claim(reached, source)) {
+        stack[top++] = source;
+      } // if
+    } // for
+    while (top > 0) {
+      int u = stack[--top];
+      int degree = graph.degree(u);
+      for (int i = 0; i < degree; i++) {
+        int v = graph.target(u, i);
+        if (claim(reached, v)) {
+          stack[top++] = v;
+        } // if
+      } // for
+    } // while
+    return reached;
+  } // sweep(Adjacency, int[])
+
+  /**
+   * Mark every vertex reachable from at least one of a set of sources
+   * without passing through a vertex that is already marked.
+   *
+   * @param graph
+   *   The graph.
+   * @param sources
+   *   The sources. Invalid sources are ignored.
+   * @param visited
+   *   The marks. Vertices with any mark are treated as already visited;
+   *   newly reached vertices get the default mark.
+   *
+   * @return the number of vertices newly marked.
+   */
+  static int sweep(Adjacency graph, int[] sources, MarkContext visited) {
+    IntList stack = new IntList();
+    int count = 0;
+    for (int source : sources) {
+      if (graph.validVertex(source) && !visited.isMarked(source)) {
+        visited.mark(source);
+        stack.add(source);
+      } // if
+    } // for
+    while (stack.size() > 0) {
+      int u = stack.removeLast();
+      ++count;
+      int degree = graph.degree(u);
+      for (int i = 0; i < degree; i++) {
+        int v = graph.target(u, i);
+        if (!visited.isMarked(v)) {
+          visited.mark(v);
+          stack.add(v);
+        } // if
+      } // for
+    } // while
+    return count;
+  } // sweep(Adjacency, int[], MarkContext)
+
+  /**
+   * Visit the vertices reachable from a source in depth-first preorder,
+   * following each vertex's edges in order. (This is the order in which
+   * a recursive depth-first search would visit them.)
+   *
+   * @param graph
+   *   The graph.
+   * @param source
+   *   The source. Must be valid.
+   * @param visit
+   *   What to do with each vertex.
+   */
+  static void preorder(Adjacency graph, int source, IntConsumer visit) {
+    int capacity = graph.capacity();
+    long[] reached = new long[(capacity + 63) >>> 6];
+    // The path from the source to the current vertex, with the position
+    // of the next edge to follow from each.
+    int[] path = new int[capacity];
+    int[] next = new int[capacity];
+    int top = 0;
+    claim(reached, source);
+    visit.accept(source);
+    path[0] = source;
+    next[0] = 0;
+    while (top >= 0) {
+      int u = path[top];
+      if (next[top] == graph.degree(u)) {
+        --top;
+      } else {
+        int v = graph.target(u, next[top]++);
+        if (claim(reached, v)) {
+          visit.accept(v);
+          ++top;
+          path[top] = v;
+          next[top] = 0;
+        } // if
+      } // if/else
+    } // while
+  } // preorder(Adjacency, int, IntConsumer)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Set a vertex's bit, if it is not already set.
+   *
+   * @param bits
+   *   The bitset.
+   * @param v
+   *   The vertex.
+   *
+   * @return true if the bit was clear and false otherwise.
+   */
+  static boolean claim(long[] bits, int v) {
+    long bit = 1L << v;
+    int word = v >>> 6;
+    if ((bits[word] & bit) != 0) {
+      return false;
+    } // if
+    bits[word] |= bit;
+    return true;
+  } // claim(long[], int)
+} // class Reachability
@@ -0,0 +1,186 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a single-source shortest-path search: a distance and a
+ * predecessor for every vertex that the search settled.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class ShortestPathTree {
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The distance we report for vertices that were not reached.
+   */
+  public static final long UNREACHABLE = Long.MAX_VALUE;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The source of the search.
+   */
+  final int source;
+
+  /**
+   * The distance from the source to each vertex, or UNREACHABLE.
+   */
+  final long[] distances;
+
+  /**
+   * The predecessor of each vertex on a shortest path, or -1.
+   */
+  final int[] predecessors;
+
+  /**
+   * The number of vertices the search settled.
+   */
+  int settled;
+
+  /**
+   * The number of edges the search relaxed.
+   */
+  long relaxed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new tree from its parts.
+   *
+   * @param source
+   *   The source of the search.
+   * @param distances
+   *   The distances from the source.
+   * @param predecessors
+   *   The predecessors of each vertex.
+   */
+  ShortestPathTree(int source, long[] distances, int[] predecessors) {
+    this.source = source;
+    this.distances = distances;
+    this.predecessors = predecessors;
+  } // ShortestPathTree(int, long[], int[])
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the number of vertices the search settled (removed from its
+   * queue with their final distance).
+   *
+   * @return the number of vertices.
+   */
+  public int settled() {
+    return this.settled;
+  } // settled()
+
+  /**
+   * Get the number of edges the search relaxed (examined from a settled
+   * vertex).
+   *
+   * @return the number of edges.
+   */
+  public long relaxed() {
+    return this.relaxed;
+  } // relaxed()
+
+  /**
+   * Get the source of the search.
+   *
+   * @return the source vertex.
+   */
+  public int source() {
+    return this.source;
+  } // source()
+
+  /**
+   * Determine if a vertex was reached.
+   *
+   * @param vertex
+   *   The vertex to check.
+   *
+   * @return true if the search found a shortest path to vertex and false
+   *   otherwise.
+   */
+  public boolean reached(int vertex) {
+    return (vertex >= 0) && (vertex < this.distances.length)
+        && (this.distances[vertex] != UNREACHABLE);
+  } // reached(int)
+
+  /**
+   * Get the length of the shortest path to a vertex.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the distance from the source, or UNREACHABLE.
+   */
+  public long distance(int vertex) {
+    return reached(vertex) ? this.distances[vertex] : UNREACHABLE;
+  } // distance(int)
+
+  /**
+   * Get the predecessor of a vertex on its shortest path.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the predecessor, or -1 for the source and for vertices that
+   *   were not reached.
+   */
+  public int predecessor(int vertex) {
+    return reached(vertex) ? this.predecessors[vertex] : -1;
+  } // predecessor(int)
+
+  /**
+   * Get the shortest path to a vertex.
+   *
+   * @param vertex
+   *   The destination.
+   *
+   * @return the edges of the path, in order from the source. Returns null
+   *   if the vertex was not reached.
+   */
+  public List<Edge> pathTo(int vertex) {
+    if (!reached(vertex)) {
+      return null;
+    } // if
+    ArrayList<Edge> path = new ArrayList<Edge>();
+    int current = vertex;
+    while (current != this.source) {
+      int prev = this.predecessors[current];
+      path.add(new Edge(prev, current,
+          (int) (this.distances[current] - this.distances[prev])));
+      current = prev;
+    } // while
+    Collections.reverse(path);
+    return path;
+  } // pathTo(int)
+
+  /**
+   * Get the predecessors as an array of the form returned by
+   * Graph.shortestPath.
+   *
+   * @return an array of predecessors, with null for the source and for
+   *   vertices that were not reached.
+   */
+  public Integer[] predecessors() {
+    Integer[] result = new Integer[this.predecessors.length];
+    for (int v = 0; v < result.length; v++) {
+      if (this.predecessors[v] != -1) {
+        result[v] = this.predecessors[v];
+      } // if
+    } // for
+    return result;
+  } // predecessors()
+} // class ShortestPathTree
@@ -1,11 +1,23 @@
 package edu.grinnell.csc207.util;
 
+import java.util.Arrays;
+
 /**
  * A simple implementation of undirected graphs.
  *
  * @author Samuel A. Rebelsky
  */
 public class UndirectedGraph extends Graph {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The components, kept up to date as edges are added, or null if they
+   * must be recomputed (as they are initially, and after any removal).
+   */
+  UnionFind components;
+
   // +--------------+------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -17,6 +29,17 @@ public class UndirectedGraph extends Graph {
     super();
   } // UndirectedGraph()
 
+  /**
+   * Create an undirected graph with a specified initial capacity (number
+   * of nodes).
+   *
+   * @param initialCapacity
+   *   The initial capacity of the graph.
+   */
+  public UndirectedGraph(int initialCapacity) {
+    super(initialCapacity);
+  } // UndirectedGraph(int)
+
   /**
    * Create a basic undirected graph from a file.
    *
@@ -66,6 +89,9 @@ public class UndirectedGraph extends Graph {
   public void addEdge(int u, int v, int weight) throws Exception {
     super.addEdge(u, v, weight);
     super.addEdge(v, u, weight);
+    if (this.components != null) {
+      this.components.union(u, v);
+    } // if
   } // addEdge(int, int, int)
 
   /**
@@ -92,14 +118,171 @@ public class UndirectedGraph extends Graph {
    */
   @Override
   public void removeEdge(int u, int v) {
+    long version = this.version;
     super.removeEdge(u, v);
     super.removeEdge(v, u);
+    if (this.version != version) {
+      this.components = null;
+    } // if
   } // removeEdge(int, int)
 
+  /**
+   * Remove a vertex and its edges. If the vertex does not exist, does
+   * nothing.
+   *
+   * @param vertex
+   *   The vertex to remove.
+   */
+  @Override
+  public void removeVertex(int vertex) {
+    long version = this.version;
+    super.removeVertex(vertex);
+    if (this.version != version) {
+      this.components = null;
+    } // if
+  } // removeVertex(int)
+
+  // +------------+--------------------------------------------------
+  // | Components |
+  // +------------+
+
+  /**
+   * Determine if there is a path between two vertices. After the first
+   * call, components are kept up to date as edges are added, so this
+   * takes nearly constant time; removing an edge or vertex means the
+   * next call recomputes them (in parallel).
+   *
+   * @param u
+   *   One vertex.
+   * @param v
+   *   The other vertex.
+   *
+   * @return true if both are valid and connected, false otherwise.
+   */
+  public boolean connected(int u, int v) {
+    int cu = this.componentOf(u);
+    return (cu != -1) && (cu == this.componentOf(v));
+  } // connected(int, int)
+
+  /**
+   * Determine if there is a path between two vertices.
+   *
+   * @param u
+   *   The name of one vertex.
+   * @param v
+   *   The name of the other vertex.
+   *
+   * @return true if both are valid and connected, false otherwise.
+   */
+  public boolean connected(String u, String v) {
+    return this.connected(this.vertexNumber(u), this.vertexNumber(v));
+  } // connected(String, String)
+
+  /**
+   * Identify the component of a vertex. Two vertices are connected
+   * exactly when they have the same identifier. (Identifiers are vertex
+   * numbers, but may change when the graph changes.)
+   *
+   * @param v
+   *   The vertex.
+   *
+   * @return the identifier, or -1 if the vertex is invalid.
+   */
+  public int componentOf(int v) {
+    if (this.vertexName(v) == null) {
+      return -1;
+    } // if
+    return this.components().find(v);
+  } // componentOf(int)
+
+  /**
+   * Get the number of vertices in a vertex's component.
+   *
+   * @param v
+   *   The vertex.
+   *
+   * @return the size, or 0 if the vertex is invalid.
+   */
+  public int componentSize(int v) {
+    if (this.vertexName(v) == null) {
+      return 0;
+    } // if
+    return this.components().sizeOf(v);
+  } // componentSize(int)
+
+  /**
+   * Get the number of components.
+   *
+   * @return the number of components.
+   */
+  public int numComponents() {
+    return this.numVertices() - this.components().unions;
+  } // numComponents()
+
+  /**
+   * Get the sizes of all of the components.
+   *
+   * @return the sizes, largest first.
+   */
+  public int[] componentSizes() {
+    UnionFind uf = this.components();
+    int[] sizes = new int[this.numComponents()];
+    int i = 0;
+    for (int v : this.vertices()) {
+      if (uf.find(v) == v) {
+        sizes[i++] = uf.sizeOf(v);
+      } // if
+    } // for
+    Arrays.sort(sizes);
+    for (int lo = 0, hi = sizes.length - 1; lo < hi; lo++, hi--) {
+      int tmp = sizes[lo];
+      sizes[lo] = sizes[hi];
+      sizes[hi] = tmp;
+    } // for
+    return sizes;
+  } // componentSizes()
+
   // +---------+-----------------------------------------------------
   // | Helpers |
   // +---------+
 
+  /**
+   * Get the components, computing them if necessary.
+   *
+   * @return the components.
+   */
+  UnionFind components() {
+    if (this.components == null) {
+      this.components = new UnionFind(new ParallelComponents(this.freeze(), true).run());
+    } // if
+    return this.components;
+  } // components()
+
+  /**
+   * Get the sources of the edges into a vertex. Every edge is stored in
+   * both directions, so those are just the targets of its edges.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the edges from vertex.
+   */
+  @Override
+  EdgeList sourcesOf(int vertex) {
+    return this.vertices[vertex];
+  } // sourcesOf(int)
+
+  /**
+   * Get a primitive view of the edges into each vertex. Every edge is
+   * stored in both directions, so that is just the adjacency itself.
+   *
+   * @return the view.
+   */
+  @Override
+  Adjacency reverseAdjacency() {
+    return this.adjacency();
+  } // reverseAdjacency()
+
   /**
    * Get the number of a vertex. If the vertex does not already exist, adds it.
    *
@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A union-find structure over vertex numbers, for keeping track of the
+ * components of a graph as edges are added. Grows as needed; vertex
+ * numbers it has not seen are singletons.
+ *
+ * @author Samuel A. Rebelsky
+ */
+final class UnionFind {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The parent of each vertex (itself, for roots).
+   */
+  int[] parent;
+
+  /**
+   * The size of each root's component.
+   */
+  int[] size;
+
+  /**
+   * The number of successful unions.
+   */
+  int unions;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a structure from component labels.
+   *
+   * @param labels
+   *   The label of each vertex, which must be a vertex of the same
+   *   component that is labeled with itself, or -1 for invalid vertices.
+   */
+  UnionFind(int[] labels) {
+    this.parent = new int[labels.length];
+    this.size = new int[labels.length];
+    for (int v = 0; v < labels.length; v++) {
+      this.parent[v] = (labels[v] == -1) ? v : labels[v];
+      ++this.size[this.parent[v]];
+      if (this.parent[v] != v) {
+        ++this.unions;
+      } // if
+    } // for
+  } // UnionFind(int[])
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find the root of a vertex's component, halving the path on the way.
+   *
+   * @param v
+   *   The vertex.
+   *
+   * @return the root.
+   */
+  int find(int v) {
+    if (v >= this.parent.length) {
+      return v;
+    } // if
+    while (this.parent[v] != v) {
+      this.parent[v] = this.parent[this.parent[v]];
+      v = this.parent[v];
+    } // while
+    return v;
+  } // find(int)
+
+  /**
+   * Merge the components of two vertices.
+   *
+   * @param u
+   *   One vertex.
+   * @param v
+   *   The other vertex.
+   */
+  void union(int u, int v) {
+    this.ensureCapacity(Math.max(u, v) + 1);
+    int ru = this.find(u);
+    int rv = this.find(v);
+    if (ru == rv) {
+      return;
+    } // if
+    if (this.size[ru] < this.size[rv]) {
+      int tmp = ru;
+      ru = rv;
+      rv = tmp;
+    } // if
+    this.parent[rv] = ru;
+    this.size[ru] += this.size[rv];
+    ++this.unions;
+  } // union(int, int)
+
+  /**
+   * Get the size of a vertex's component.
+   *
+   * @param v
+   *   The vertex.
+   *
+   * @return the size.
+   */
+  int sizeOf(int v) {
+    return (v >= this.size.length) ? 1 : this.size[this.find(v)];
+  } // sizeOf(int)
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Make room for vertices up to a capacity.
+   *
+   * @param capacity
+   *   The capacity.
+   */
+  private void ensureCapacity(int capacity) {
+    int old = this.parent.length;
+    if (capacity <= old) {
+      return;
+    } // if
+    capacity = Math.max(capacity, 2 * old);
+    this.parent = Arrays.copyOf(this.parent, capacity);
+    this.size = Arrays.copyOf(this.size, capacity);
+    for (int v = old; v < capacity; v++) {
+      this.parent[v] = v;
+      this.size[v] = 1;
+    } // for
+  } // ensureCapacity(int)
+} // class UnionFind
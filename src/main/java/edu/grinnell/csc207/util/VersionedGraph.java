@@ -0,0 +1,548 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A weighted, directed graph for concurrent use. Readers take an
+ * immutable snapshot of the current version, which they may use for as
+ * long as they like without blocking or being disturbed by writers.
+ * Writers (one at a time) change the graph and publish each change, or
+ * each batch of changes, as a new version.
+ *
+ * @author Samuel A. Rebelsky
+ */
+public class VersionedGraph {
+
+  // +-------+-------------------------------------------------------
+  // | Notes |
+  // +-------+
+
+  /*
+   * The graph is stored copy-on-write, as described in GraphSnapshot: a
+   * top-level array of chunks, each holding the names and edge lists of
+   * CHUNK_SIZE vertices. To change a vertex's edges, the writer copies
+   * the top-level array, the vertex's chunk, and the vertex's edge list
+   * (unless it has already copied them since the last publication), and
+   * changes the copies. Everything else is shared with earlier versions.
+   * We track which chunks and lists have been copied with mark contexts,
+   * which we clear (in constant time) after each publication.
+   *
+   * Publication is a single write to a volatile field, so a reader sees
+   * either all of a version's changes or none of them.
+   *
+   * Names keep their vertex numbers forever: removing a vertex frees its
+   * slot, but only for the same name. That lets every snapshot share a
+   * single concurrent map from names to numbers.
+   *
+   * The writer also keeps a private index of incoming edges, so that
+   * removing a vertex need only visit its neighbors.
+   */
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * log2 of the number of vertices per chunk.
+   */
+  static final int CHUNK_BITS = 10;
+
+  /**
+   * The number of vertices per chunk.
+   */
+  static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  /**
+   * The mask for a vertex's slot in its chunk.
+   */
+  static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The most recently published version.
+   */
+  volatile GraphSnapshot current;
+
+  /**
+   * The number assigned to each name.
+   */
+  final ConcurrentHashMap<String, Integer> numbers =
+      new ConcurrentHashMap<String, Integer>();
+
+  /**
+   * The working chunks (shared with current until changed).
+   */
+  Chunk[] chunks;
+
+  /**
+   * Whether chunks has been copied since the last publication.
+   */
+  boolean chunksCopied;
+
+  /**
+   * The chunks copied since the last publication.
+   */
+  final MarkContext copiedChunks = new MarkContext(16);
+
+  /**
+   * The edge lists copied since the last publication.
+   */
+  final MarkContext copiedLists = new MarkContext(CHUNK_SIZE);
+
+  /**
+   * The edges into each vertex (private to the writer).
+   */
+  EdgeList[] incoming = new EdgeList[0];
+
+  /**
+   * The number of vertex numbers assigned.
+   */
+  int capacity;
+
+  /**
+   * The number of vertices in the working version.
+   */
+  int numVertices;
+
+  /**
+   * The number of edges in the working version.
+   */
+  int numEdges;
+
+  /**
+   * The depth of nested batches.
+   */
+  int depth;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an empty graph.
+   */
+  public VersionedGraph() {
+    this.chunks = new Chunk[0];
+    this.current = new GraphSnapshot(this.chunks, 0, 0, 0, 0, this.numbers);
+  } // VersionedGraph()
+
+  // +---------+-----------------------------------------------------
+  // | Readers |
+  // +---------+
+
+  /**
+   * Get the current version of the graph. Never blocks.
+   *
+   * @return an immutable snapshot of the most recently published
+   *   version.
+   */
+  public GraphSnapshot snapshot() {
+    return this.current;
+  } // snapshot()
+
+  // +---------+-----------------------------------------------------
+  // | Writers |
+  // +---------+
+
+  /**
+   * Make a series of changes and publish them as one version. If the
+   * changes throw an exception, none of them are published. Batches may
+   * be nested; only the outermost publishes.
+   *
+   * @param changes
+   *   The changes to make.
+   *
+   * @throws Exception
+   *   If the changes do.
+   */
+  public synchronized void batch(Changes changes) throws Exception {
+    ++this.depth;
+    boolean done = false;
+    try {
+      changes.apply(this);
+      done = true;
+    } finally {
+      --this.depth;
+      if (this.depth == 0) {
+        if (done) {
+          this.publish();
+        } else {
+          this.rollback();
+        } // if/else
+      } // if
+    } // try/finally
+  } // batch(Changes)
+
+  /**
+   * Add a vertex with a particular name.
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the number of the vertex.
+   *
+   * @throws Exception
+   *   If there is already a vertex with that name.
+   */
+  public synchronized int addVertex(String name) throws Exception {
+    Integer number = this.numbers.get(name);
+    if ((number != null) && this.validVertex(number)) {
+      throw new Exception("Already have a node named " + name);
+    } // if
+    int v = (number == null) ? this.newNumber(name) : number;
+    this.writableChunk(v).names[v & CHUNK_MASK] = name;
+    ++this.numVertices;
+    this.changed();
+    return v;
+  } // addVertex(String)
+
+  /**
+   * Add an edge between two vertices. If the edge already exists,
+   * replace it.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, or they are the same.
+   */
+  public synchronized void addEdge(int source, int target, int weight)
+      throws Exception {
+    if (!this.validVertex(source) || !this.validVertex(target)) {
+      throw new Exception("Invalid ends");
+    } // if
+    if (source == target) {
+      throw new Exception("Cannot add an edge from a vertex to itself");
+    } // if
+    if (this.writableEdges(source).put(target, weight)) {
+      ++this.numEdges;
+    } // if
+    this.incoming[target].put(source, weight);
+    this.changed();
+  } // addEdge(int, int, int)
+
+  /**
+   * Add an edge between two vertices. If the edge already exists,
+   * replace it.
+   *
+   * @param source
+   *   The name of the source of the edge.
+   * @param target
+   *   The name of the target of the edge.
+   * @param weight
+   *   The weight of the edge.
+   *
+   * @throws Exception
+   *   If either or both vertices are invalid, or they are the same.
+   */
+  public synchronized void addEdge(String source, String target, int weight)
+      throws Exception {
+    this.addEdge(this.vertexNumber(source), this.vertexNumber(target), weight);
+  } // addEdge(String, String, int)
+
+  /**
+   * Remove an edge. If the edge does not exist, does nothing.
+   *
+   * @param source
+   *   The source of the edge.
+   * @param target
+   *   The target of the edge.
+   */
+  public synchronized void removeEdge(int source, int target) {
+    EdgeList edges = this.edges(source);
+    if ((edges != null) && (edges.indexOf(target) != -1)) {
+      this.writableEdges(source).remove(target);
+      this.incoming[target].remove(source);
+      --this.numEdges;
+      this.changed();
+    } // if
+  } // removeEdge(int, int)
+
+  /**
+   * Remove a vertex and its edges. If the vertex does not exist, does
+   * nothing.
+   *
+   * @param vertex
+   *   The vertex to remove.
+   */
+  public synchronized void removeVertex(int vertex) {
+    if (!this.validVertex(vertex)) {
+      return;
+    } // if
+    EdgeList in = this.incoming[vertex];
+    for (int i = 0; i < in.size(); i++) {
+      this.writableEdges(in.target(i)).remove(vertex);
+      --this.numEdges;
+    } // for
+    in.clear();
+    EdgeList out = this.edges(vertex);
+    if (out != null) {
+      for (int i = 0; i < out.size(); i++) {
+        this.incoming[out.target(i)].remove(vertex);
+      } // for
+      this.numEdges -= out.size();
+    } // if
+    Chunk chunk = this.writableChunk(vertex);
+    chunk.edges[vertex & CHUNK_MASK] = null;
+    chunk.names[vertex & CHUNK_MASK] = null;
+    // The list is gone, so a re-added vertex needs a new one.
+    this.copiedLists.unmark(vertex);
+    --this.numVertices;
+    this.changed();
+  } // removeVertex(int)
+
+  /**
+   * Remove a vertex and its edges. If the vertex does not exist, does
+   * nothing.
+   *
+   * @param vertex
+   *   The name of the vertex to remove.
+   */
+  public synchronized void removeVertex(String vertex) {
+    this.removeVertex(this.vertexNumber(vertex));
+  } // removeVertex(String)
+
+  /**
+   * Get the number of a vertex in the working version (which, outside a
+   * batch, is the current version).
+   *
+   * @param name
+   *   The name of the vertex.
+   *
+   * @return the vertex number, or -1 if there is no such vertex.
+   */
+  public synchronized int vertexNumber(String name) {
+    Integer v = this.numbers.get(name);
+    return ((v == null) || !this.validVertex(v)) ? -1 : v;
+  } // vertexNumber(String)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A series of changes to make as one version.
+   */
+  @FunctionalInterface
+  public interface Changes {
+    /**
+     * Make the changes.
+     *
+     * @param graph
+     *   The graph to change.
+     *
+     * @throws Exception
+     *   If a change fails.
+     */
+    void apply(VersionedGraph graph) throws Exception;
+  } // interface Changes
+
+  /**
+   * The names and edge lists of a block of CHUNK_SIZE vertices.
+   */
+  static final class Chunk {
+    /**
+     * The names of the vertices (null for unused numbers).
+     */
+    final String[] names;
+
+    /**
+     * The edges from the vertices (null for no edges).
+     */
+    final EdgeList[] edges;
+
+    /**
+     * Create an empty chunk.
+     */
+    Chunk() {
+      this(new String[CHUNK_SIZE], new EdgeList[CHUNK_SIZE]);
+    } // Chunk()
+
+    /**
+     * Create a chunk from its parts.
+     *
+     * @param names
+     *   The names.
+     * @param edges
+     *   The edge lists.
+     */
+    Chunk(String[] names, EdgeList[] edges) {
+      this.names = names;
+      this.edges = edges;
+    } // Chunk(String[], EdgeList[])
+
+    /**
+     * Copy the chunk (but not its edge lists).
+     *
+     * @return the copy.
+     */
+    Chunk copy() {
+      return new Chunk(this.names.clone(), this.edges.clone());
+    } // copy()
+  } // class Chunk
+
+  // +-----------+---------------------------------------------------
+  // | Utilities |
+  // +-----------+
+
+  /**
+   * Note a change, publishing it unless we are in a batch.
+   */
+  private void changed() {
+    if (this.depth == 0) {
+      this.publish();
+    } // if
+  } // changed()
+
+  /**
+   * Publish the working version.
+   */
+  private void publish() {
+    this.current = new GraphSnapshot(this.chunks, this.capacity,
+        this.numVertices, this.numEdges, this.current.version + 1, this.numbers);
+    this.chunksCopied = false;
+    this.copiedChunks.clear();
+    this.copiedLists.clear();
+  } // publish()
+
+  /**
+   * Discard the working version, going back to the current one.
+   */
+  private void rollback() {
+    GraphSnapshot snapshot = this.current;
+    this.numVertices = snapshot.numVertices;
+    this.numEdges = snapshot.numEdges;
+    this.copiedChunks.clear();
+    this.copiedLists.clear();
+    // Names given numbers during the batch keep them, so we keep our
+    // capacity, with empty chunks past the end of the snapshot's.
+    this.chunks = Arrays.copyOf(snapshot.chunks,
+        (this.capacity + CHUNK_MASK) >>> CHUNK_BITS);
+    this.chunksCopied = true;
+    for (int c = 0; c < this.chunks.length; c++) {
+      if (this.chunks[c] == null) {
+        this.chunks[c] = new Chunk();
+        this.copiedChunks.mark(c);
+      } // if
+    } // for
+    for (int v = 0; v < this.capacity; v++) {
+      this.incoming[v] = new EdgeList(v);
+    } // for
+    for (int u = 0; u < snapshot.capacity; u++) {
+      EdgeList edges = snapshot.edges(u);
+      for (int i = 0; (edges != null) && (i < edges.size()); i++) {
+        this.incoming[edges.target(i)].append(u, edges.weight(i));
+      } // for
+    } // for
+  } // rollback()
+
+  /**
+   * Give a new name the next vertex number.
+   *
+   * @param name
+   *   The name.
+   *
+   * @return the number.
+   */
+  private int newNumber(String name) {
+    int v = this.capacity++;
+    if ((v >>> CHUNK_BITS) >= this.chunks.length) {
+      this.writableChunks();
+      this.chunks = Arrays.copyOf(this.chunks, this.chunks.length + 1);
+      this.chunks[this.chunks.length - 1] = new Chunk();
+      this.copiedChunks.mark(this.chunks.length - 1);
+    } // if
+    if (v >= this.incoming.length) {
+      int size = Math.max(16, this.incoming.length * 2);
+      this.incoming = Arrays.copyOf(this.incoming, size);
+    } // if
+    this.incoming[v] = new EdgeList(v);
+    this.numbers.put(name, v);
+    return v;
+  } // newNumber(String)
+
+  /**
+   * Determine if a vertex is valid in the working version.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return true if it is valid and false otherwise.
+   */
+  private boolean validVertex(int vertex) {
+    return (vertex >= 0) && (vertex < this.capacity)
+        && (this.chunks[vertex >>> CHUNK_BITS].names[vertex & CHUNK_MASK] != null);
+  } // validVertex(int)
+
+  /**
+   * Get the edges from a vertex in the working version, for reading.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the edges, or null if there are none.
+   */
+  private EdgeList edges(int vertex) {
+    if ((vertex < 0) || (vertex >= this.capacity)) {
+      return null;
+    } // if
+    return this.chunks[vertex >>> CHUNK_BITS].edges[vertex & CHUNK_MASK];
+  } // edges(int)
+
+  /**
+   * Make sure the top-level array is ours to change.
+   */
+  private void writableChunks() {
+    if (!this.chunksCopied) {
+      this.chunks = this.chunks.clone();
+      this.chunksCopied = true;
+    } // if
+  } // writableChunks()
+
+  /**
+   * Get a vertex's chunk, copying it if it is shared with a published
+   * version.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the chunk, which may be changed.
+   */
+  private Chunk writableChunk(int vertex) {
+    int c = vertex >>> CHUNK_BITS;
+    if (!this.copiedChunks.isMarked(c)) {
+      this.writableChunks();
+      this.chunks[c] = this.chunks[c].copy();
+      this.copiedChunks.mark(c);
+    } // if
+    return this.chunks[c];
+  } // writableChunk(int)
+
+  /**
+   * Get a vertex's edges, copying them if they are shared with a
+   * published version.
+   *
+   * @param vertex
+   *   The vertex.
+   *
+   * @return the edges, which may be changed.
+   */
+  private EdgeList writableEdges(int vertex) {
+    Chunk chunk = this.writableChunk(vertex);
+    int slot = vertex & CHUNK_MASK;
+    if (!this.copiedLists.isMarked(vertex)) {
+      EdgeList edges = chunk.edges[slot];
+      chunk.edges[slot] = (edges == null) ? new EdgeList(vertex) : edges.copy();
+      this.copiedLists.mark(vertex);
+    } // if
+    return chunk.edges[slot];
+  } // writableEdges(int)
+} // class VersionedGraph
@@ -0,0 +1,109 @@
+package edu.grinnell.csc207.generators;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.grinnell.csc207.util.Edge;
+import edu.grinnell.csc207.util.Graph;
+import java.nio.file.Path;
+import java.util.HashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the graph generators.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestGenerators {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Building in parallel should give the same graph as generating the
+   * edges one at a time, and the same seed should give the same graph.
+   */
+  @Test
+  void testDeterministic() throws Exception {
+    GraphGenerator[] generators = {
+      new RMatGenerator(14, 8),
+      new ErdosRenyiGenerator(10000, 600000),
+      new BarabasiAlbertGenerator(100000, 4),
+      new GridGenerator(300, 400).roads(0.2, 0.01),
+    };
+    for (GraphGenerator generator : generators) {
+      generator.seed(42);
+      Graph g = generator.toGraph();
+      HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+      generator.forEachEdge((source, target, weight) -> {
+        assertNotEquals(source, target);
+        assertTrue(weight >= 1);
+        expected.put(((long) source << 32) | target, weight);
+      });
+      assertEquals(generator.numVertices(), g.numVertices());
+      assertEquals(expected.size(), g.numEdges());
+      for (long key : expected.keySet()) {
+        assertEquals(expected.get(key), g.edgeWeight((int) (key >>> 32), (int) key));
+      } // for
+      assertEquals(g.numEdges(), generator.toGraph().numEdges());
+      assertNotEquals(g.numEdges(), generator.seed(43).toGraph().numEdges());
+    } // for
+  } // testDeterministic()
+
+  /**
+   * Chains and full grids have known shapes.
+   */
+  @Test
+  void testShapes() throws Exception {
+    Graph chain = new ChainGenerator(1000).toGraph();
+    assertEquals(999, chain.numEdges());
+    assertEquals(999, chain.path(0, 999).size());
+    assertNull(chain.path(999, 0));
+
+    Graph grid = new GridGenerator(30, 20).toGraph();
+    assertEquals(2 * (29 * 20 + 30 * 19), grid.numEdges());
+    assertEquals(29 + 19, grid.path(0, 599).size());
+  } // testShapes()
+
+  /**
+   * Barabási–Albert graphs should have hubs.
+   */
+  @Test
+  void testHubs() throws Exception {
+    int n = 20000;
+    Graph g = new BarabasiAlbertGenerator(n, 3).seed(5).toGraph();
+    int[] inDegree = new int[n];
+    for (int v : g.vertices()) {
+      for (Edge e : g.edgesFrom(v)) {
+        ++inDegree[e.target()];
+      } // for
+    } // for
+    int biggest = 0;
+    for (int d : inDegree) {
+      biggest = Math.max(biggest, d);
+    } // for
+    assertTrue(biggest > 100, "largest in-degree " + biggest);
+  } // testHubs()
+
+  /**
+   * Written graphs should read back as the same graph.
+   */
+  @Test
+  void testWrite(@TempDir Path dir) throws Exception {
+    GraphGenerator generator = new RMatGenerator(12, 8).seed(3);
+    String fname = dir.resolve("rmat.txt").toString();
+    generator.write(fname);
+    Graph expected = generator.toGraph();
+    Graph actual = new Graph();
+    actual.readGraph(fname);
+    assertEquals(expected.numEdges(), actual.numEdges());
+    for (int v : expected.vertices()) {
+      for (Edge e : expected.edgesFrom(v)) {
+        assertEquals(e.weight(), actual.edgeWeight(
+            actual.vertexNumber(GraphGenerator.vertexName(e.source())),
+            actual.vertexNumber(GraphGenerator.vertexName(e.target()))));
+      } // for
+    } // for
+  } // testWrite(Path)
+} // class TestGenerators
@@ -0,0 +1,120 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of all-pairs shortest paths.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestAllPairs {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Floyd–Warshall should agree with Dijkstra's algorithm from each
+   * source, including on graphs whose size is not a multiple of the
+   * block size.
+   */
+  @Test
+  void testFloydWarshall() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(3, 300, 1500);
+    DistanceMatrix d = new AllPairs(g.freeze()).method(AllPairs.FLOYD_WARSHALL)
+        .nextHops(true).run();
+    check(g, d);
+  } // testFloydWarshall()
+
+  /**
+   * So should Dijkstra's algorithm, in parallel.
+   */
+  @Test
+  void testDijkstra() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(4, 300, 1500);
+    DistanceMatrix d = new AllPairs(g.freeze()).method(AllPairs.DIJKSTRA)
+        .nextHops(true).run();
+    check(g, d);
+  } // testDijkstra()
+
+  /**
+   * Off-heap and mapped matrices should hold the same results.
+   */
+  @Test
+  void testStorage(@TempDir Path dir) throws Exception {
+    Graph g = TestShortestPaths.randomGraph(5, 200, 3000);
+    DistanceMatrix heap = new AllPairs(g.freeze()).run();
+    assertFalse(heap.hasNextHops());
+    assertThrows(IllegalStateException.class, () -> heap.nextHop(0, 1));
+    try (DistanceMatrix offHeap = new AllPairs(g.freeze()).offHeap(true).run();
+        DistanceMatrix mapped = new AllPairs(g.freeze()).mapTo(dir).nextHops(true).run()) {
+      for (int u = 0; u < 200; u++) {
+        for (int v = 0; v < 200; v++) {
+          assertEquals(heap.distance(u, v), offHeap.distance(u, v));
+          assertEquals(heap.distance(u, v), mapped.distance(u, v));
+        } // for
+      } // for
+    } // try
+  } // testStorage(Path)
+
+  /**
+   * The automatic choice should depend on density, and negative weights
+   * should be rejected.
+   */
+  @Test
+  void testChoice() throws Exception {
+    assertFalse(new AllPairs(TestShortestPaths.randomGraph(6, 1000, 3000).freeze())
+        .useFloydWarshall());
+    assertTrue(new AllPairs(TestShortestPaths.randomGraph(6, 300, 60000).freeze())
+        .useFloydWarshall());
+    Graph g = new Graph();
+    g.addVertex("a");
+    g.addVertex("b");
+    g.addEdge("a", "b", -1);
+    assertThrows(IllegalArgumentException.class, () -> new AllPairs(g.freeze()).run());
+  } // testChoice()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Compare a distance matrix with single-source searches, and check
+   * that its paths are real and as short as claimed.
+   *
+   * @param g
+   *   The graph.
+   * @param d
+   *   The matrix.
+   */
+  static void check(Graph g, DistanceMatrix d) {
+    assertEquals(g.numVertices(), d.size());
+    int n = g.vertices.length;
+    for (int u = 0; u < n; u++) {
+      ShortestPathTree tree = g.shortestPaths(u);
+      for (int v = 0; v < n; v++) {
+        assertEquals(tree.distance(v), d.distance(u, v), u + " -> " + v);
+        List<Edge> path = d.path(u, v);
+        if (tree.distance(v) == ShortestPathTree.UNREACHABLE) {
+          assertNull(path);
+        } else {
+          long length = 0;
+          int at = u;
+          for (Edge e : path) {
+            assertEquals(at, e.source());
+            assertEquals(e.weight(), g.edgeWeight(e.source(), e.target()));
+            length += e.weight();
+            at = e.target();
+          } // for
+          assertEquals(v, at);
+          assertEquals(tree.distance(v), length);
+        } // if/else
+      } // for
+    } // for
+  } // check(Graph, DistanceMatrix)
+} // class TestAllPairs
@@ -0,0 +1,189 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of connected components.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestComponents {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Parallel labels should match reachability, for undirected graphs
+   * and (as weak components) for directed ones.
+   */
+  @Test
+  void testParallel() throws Exception {
+    // Just big enough for the tasks to split (see GRAIN).
+    UndirectedGraph u = randomGraph(21, 3 * ParallelComponents.GRAIN, 7000);
+    check(u, new ParallelComponents(u.freeze(), true).run());
+
+    Graph d = TestShortestPaths.randomGraph(22, 3 * ParallelComponents.GRAIN, 7000);
+    int[] labels = new ParallelComponents(d.freeze(), false).run();
+    UndirectedGraph symmetric = new UndirectedGraph();
+    for (int v = 0; v < d.vertices.length; v++) {
+      symmetric.addVertex();
+    } // for
+    for (int v : d.vertices()) {
+      for (Edge e : d.edgesFrom(v)) {
+        symmetric.addEdge(e.source(), e.target(), e.weight());
+      } // for
+    } // for
+    for (int v = 0; v < d.vertices.length; v++) {
+      if (d.vertexName(v) == null) {
+        assertEquals(-1, labels[v]);
+        symmetric.removeVertex(v);
+      } // if
+    } // for
+    check(symmetric, labels);
+  } // testParallel()
+
+  /**
+   * Components should follow additions incrementally, and removals by
+   * recomputing.
+   */
+  @Test
+  void testIncremental() throws Exception {
+    UndirectedGraph g = new UndirectedGraph();
+    for (String name : new String[] {"a", "b", "c", "d", "e"}) {
+      g.addVertex(name);
+    } // for
+    g.addEdge("a", "b", 1);
+    assertTrue(g.connected("a", "b"));
+    assertFalse(g.connected("a", "c"));
+    assertEquals(4, g.numComponents());
+    assertNotNull(g.components);
+
+    g.addEdge("c", "d", 1);
+    g.addEdge("b", "c", 1);
+    assertNotNull(g.components);
+    assertTrue(g.connected("a", "d"));
+    assertEquals(4, g.componentSize(g.vertexNumber("d")));
+    assertEquals(2, g.numComponents());
+    assertArrayEquals(new int[] {4, 1}, g.componentSizes());
+
+    int f = g.addVertex("f");
+    assertEquals(3, g.numComponents());
+    g.addEdge("e", "f", 1);
+    assertEquals(g.componentOf(f), g.componentOf(g.vertexNumber("e")));
+
+    g.removeEdge("b", "c");
+    assertNull(g.components);
+    assertFalse(g.connected("a", "d"));
+    assertArrayEquals(new int[] {2, 2, 2}, g.componentSizes());
+    g.removeVertex("a");
+    assertEquals(1, g.componentSize(g.vertexNumber("b")));
+    assertEquals(-1, g.componentOf(g.vertexNumber("a")));
+    assertFalse(g.connected(g.vertexNumber("a"), g.vertexNumber("a")));
+    assertEquals(3, g.numComponents());
+  } // testIncremental()
+
+  /**
+   * Incremental components should agree with recomputed ones.
+   */
+  @Test
+  void testAgreement() throws Exception {
+    UndirectedGraph g = randomGraph(23, 1000, 30);
+    g.numComponents();
+    Random random = new Random(24);
+    for (int i = 0; i < 700; i++) {
+      int u = random.nextInt(1000);
+      int v = random.nextInt(1000);
+      if ((u != v) && (g.vertexName(u) != null) && (g.vertexName(v) != null)) {
+        g.addEdge(u, v, 1);
+      } // if
+    } // for
+    assertNotNull(g.components);
+    check(g, labels(g));
+  } // testAgreement()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build a random undirected graph.
+   *
+   * @param seed
+   *   The seed.
+   * @param n
+   *   The number of vertices.
+   * @param m
+   *   The number of edges to try to add.
+   *
+   * @return the graph.
+   */
+  static UndirectedGraph randomGraph(long seed, int n, int m) throws Exception {
+    Random random = new Random(seed);
+    UndirectedGraph g = new UndirectedGraph();
+    for (int i = 0; i < n; i++) {
+      g.addVertex();
+    } // for
+    for (int i = 0; i < m; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      if (u != v) {
+        g.addEdge(u, v, 1);
+      } // if
+    } // for
+    g.removeVertex(n / 2);
+    return g;
+  } // randomGraph(long, int, int)
+
+  /**
+   * Get the component identifiers of a graph's vertices.
+   *
+   * @param g
+   *   The graph.
+   *
+   * @return the identifiers, indexed by vertex.
+   */
+  static int[] labels(UndirectedGraph g) {
+    int[] labels = new int[g.vertices.length];
+    for (int v = 0; v < labels.length; v++) {
+      labels[v] = g.componentOf(v);
+    } // for
+    return labels;
+  } // labels(UndirectedGraph)
+
+  /**
+   * Check that labels match reachability in an undirected graph: each
+   * component's vertices share a label, and no other vertex has it.
+   *
+   * @param g
+   *   The graph.
+   * @param labels
+   *   The labels.
+   */
+  static void check(UndirectedGraph g, int[] labels) {
+    HashMap<Integer, Integer> sizes = new HashMap<Integer, Integer>();
+    for (int v : g.vertices()) {
+      sizes.merge(labels[v], 1, Integer::sum);
+    } // for
+    BitSet seen = new BitSet();
+    int components = 0;
+    for (int v : g.vertices()) {
+      if (!seen.get(v)) {
+        ++components;
+        BitSet reached = g.reachable(v);
+        seen.or(reached);
+        for (int w = reached.nextSetBit(0); w >= 0; w = reached.nextSetBit(w + 1)) {
+          assertEquals(labels[v], labels[w], v + " ~ " + w);
+        } // for
+        assertEquals(reached.cardinality(), sizes.get(labels[v]),
+            "size of " + v + "'s component");
+      } // if
+    } // for
+    assertEquals(components, g.numComponents());
+  } // check(UndirectedGraph, int[])
+} // class TestComponents
@@ -0,0 +1,130 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of concurrent graphs.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestConcurrentGraph {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * A concurrent graph should behave like a graph when used by one
+   * thread.
+   */
+  @Test
+  void testSequential() throws Exception {
+    ConcurrentGraph g = new ConcurrentGraph(4);
+    int a = g.addVertex("a");
+    int b = g.addVertex("b");
+    int c = g.addVertex("c");
+    assertThrows(Exception.class, () -> g.addVertex("a"));
+    assertThrows(Exception.class, () -> g.addEdge(a, a, 1));
+    assertThrows(Exception.class, () -> g.addEdge(a, 99, 1));
+    Exception invalid = assertThrows(Exception.class, () -> g.addEdge(-1, -1, 1));
+    assertEquals("Invalid ends", invalid.getMessage());
+    g.addEdge(a, b, 1);
+    g.addEdge("b", "c", 2);
+    g.addEdge(c, a, 3);
+    g.addEdge(a, b, 4);
+    assertEquals(3, g.numVertices());
+    assertEquals(3, g.numEdges());
+    assertEquals(4, g.edgeWeight(a, b));
+
+    g.removeVertex("b");
+    assertEquals(2, g.numVertices());
+    assertEquals(1, g.numEdges());
+    assertFalse(g.hasEdge(a, b));
+    assertEquals(-1, g.vertexNumber("b"));
+    assertEquals(b, g.addVertex("d"));
+    assertFalse(g.edgesFrom(b).iterator().hasNext());
+
+    CsrGraph csr = g.freeze();
+    assertEquals(3, csr.numVertices());
+    assertEquals(1, csr.numEdges());
+    assertEquals(1, csr.degree(c));
+    assertEquals(a, csr.target(c, 0));
+    assertEquals(3, csr.weight(c, 0));
+  } // testSequential()
+
+  /**
+   * Threads adding the same names should get the same vertices, and
+   * threads adding edges should lose none of them. Meanwhile, snapshots
+   * should never show a name twice (as they would if a vertex that lost
+   * a race for its name were briefly visible).
+   */
+  @Test
+  void testConcurrentIngestion() throws Exception {
+    ConcurrentGraph g = new ConcurrentGraph();
+    int numThreads = 8;
+    int numNames = 5000;
+    int edgesPerThread = 20000;
+    ConcurrentHashMap<String, Integer> seen = new ConcurrentHashMap<String, Integer>();
+    ConcurrentHashMap<Long, Boolean> added = new ConcurrentHashMap<Long, Boolean>();
+    AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread[] threads = new Thread[numThreads];
+    for (int t = 0; t < numThreads; t++) {
+      long seed = t;
+      threads[t] = new Thread(() -> {
+        try {
+          Random random = new Random(seed);
+          for (int i = 0; i < edgesPerThread; i++) {
+            String s = "n" + random.nextInt(numNames);
+            String d = "n" + random.nextInt(numNames);
+            int u = g.vertex(s);
+            int v = g.vertex(d);
+            Integer old = seen.putIfAbsent(s, u);
+            assertEquals((old == null) ? u : old, u);
+            if (u != v) {
+              g.addEdge(u, v, 1);
+              added.put(((long) u << 32) | v, true);
+            } // if
+          } // for
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        } // try/catch
+      });
+      threads[t].start();
+    } // for
+    Thread watcher = new Thread(() -> {
+      try {
+        while (threads[numThreads - 1].isAlive()) {
+          HashSet<String> names = new HashSet<String>();
+          for (String name : g.freeze().vertexNames) {
+            assertTrue((name == null) || names.add(name), "two vertices named " + name);
+          } // for
+        } // while
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } // try/catch
+    });
+    watcher.start();
+    for (Thread thread : threads) {
+      thread.join();
+    } // for
+    watcher.join();
+    assertNull(failure.get());
+
+    assertEquals(seen.size(), g.numVertices());
+    assertEquals(new HashSet<Integer>(seen.values()).size(), seen.size());
+    assertEquals(added.size(), g.numEdges());
+    CsrGraph csr = g.freeze();
+    assertEquals(added.size(), csr.numEdges());
+    for (int u = 0; u < csr.capacity(); u++) {
+      for (int i = 0; i < csr.degree(u); i++) {
+        assertTrue(added.containsKey(((long) u << 32) | csr.target(u, i)));
+      } // for
+    } // for
+  } // testConcurrentIngestion()
+} // class TestConcurrentGraph
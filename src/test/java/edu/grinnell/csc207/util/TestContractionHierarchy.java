@@ -0,0 +1,72 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of contraction hierarchies.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestContractionHierarchy {
+
+  /**
+   * Check every query from a few sources against Dijkstra.
+   *
+   * @param g
+   *   The graph.
+   * @param ch
+   *   The hierarchy for g.
+   */
+  static void checkAgainstDijkstra(Graph g, ContractionHierarchy ch) {
+    for (int source = 0; source < 8; source++) {
+      ShortestPathTree tree = g.shortestPaths(source);
+      for (int sink = 0; sink < g.vertices.length; sink++) {
+        assertEquals(tree.distance(sink), ch.distance(source, sink),
+            source + " to " + sink);
+        List<Edge> path = ch.path(source, sink);
+        if (!tree.reached(sink)) {
+          assertNull(path);
+          continue;
+        } // if
+        long total = 0;
+        int current = source;
+        for (Edge e : path) {
+          assertEquals(current, e.source());
+          total += e.weight();
+          current = e.target();
+        } // for
+        assertEquals(sink, current);
+        assertEquals(tree.distance(sink), total);
+      } // for
+    } // for
+  } // checkAgainstDijkstra(Graph, ContractionHierarchy)
+
+  /**
+   * Queries agree with Dijkstra on random graphs.
+   */
+  @Test
+  void testRandomGraphs() throws Exception {
+    for (long seed = 21; seed <= 24; seed++) {
+      Graph g = TestShortestPaths.randomGraph(seed, 80, 320);
+      checkAgainstDijkstra(g, new ContractionHierarchy(g));
+    } // for
+  } // testRandomGraphs()
+
+  /**
+   * The index notices changes to the graph.
+   */
+  @Test
+  void testRebuildOnChange() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(5, 40, 120);
+    ContractionHierarchy ch = new ContractionHierarchy(g);
+    assertTrue(ch.isCurrent());
+    g.addEdge(0, 39, 0);
+    assertFalse(ch.isCurrent());
+    assertEquals(0, ch.distance(0, 39));
+    assertTrue(ch.isCurrent());
+    checkAgainstDijkstra(g, ch);
+  } // testRebuildOnChange()
+} // class TestContractionHierarchy
@@ -0,0 +1,186 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Some simple tests of CSR snapshots of graphs.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestCsrGraph {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The graph we're using.
+   */
+  Graph g;
+
+  // +-------+-------------------------------------------------------
+  // | Setup |
+  // +-------+
+
+  /**
+   * Set up our graph.
+   */
+  @BeforeEach
+  void setup() throws Exception {
+    g = new Graph();
+    for (String name : new String[] {"a", "b", "c", "d", "e"}) {
+      g.addVertex(name);
+    } // for
+    g.addEdge("a", "b", 2);
+    g.addEdge("a", "c", 1);
+    g.addEdge("c", "d", 5);
+    g.addEdge("d", "e", 1);
+    g.addEdge("b", "e", 4);
+  } // setup()
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * The snapshot should have the same vertices and edges as the graph.
+   */
+  @Test
+  void testSameStructure() {
+    CsrGraph csr = g.freeze();
+    assertEquals(g.numVertices(), csr.numVertices());
+    assertEquals(g.numEdges(), csr.numEdges());
+    for (int v : g.vertices()) {
+      assertEquals(g.vertexName(v), csr.vertexName(v));
+      StringBuilder expected = new StringBuilder();
+      for (Edge e : g.edgesFrom(v)) {
+        expected.append(e);
+      } // for
+      StringBuilder actual = new StringBuilder();
+      for (Edge e : csr.edgesFrom(v)) {
+        actual.append(e);
+      } // for
+      assertEquals(expected.toString(), actual.toString());
+    } // for
+  } // testSameStructure()
+
+  /**
+   * Snapshots are cached until the graph changes.
+   */
+  @Test
+  void testFreezeCaching() throws Exception {
+    CsrGraph first = g.freeze();
+    assertSame(first, g.freeze());
+    g.addEdge("e", "a", 3);
+    CsrGraph second = g.freeze();
+    assertNotSame(first, second);
+    assertEquals(5, first.numEdges());
+    assertEquals(6, second.numEdges());
+  } // testFreezeCaching()
+
+  /**
+   * Removed vertices leave holes that the snapshot must respect.
+   */
+  @Test
+  void testHoles() throws Exception {
+    g.removeVertex("c");
+    CsrGraph csr = g.freeze();
+    assertEquals(4, csr.numVertices());
+    assertEquals(-1, csr.vertexNumber("c"));
+    int count = 0;
+    for (int v : csr.vertices()) {
+      assertNotNull(csr.vertexName(v));
+      ++count;
+    } // for
+    assertEquals(4, count);
+    assertNull(csr.path("a", "d"));
+    assertEquals(-1, csr.vertexNumber(null));
+
+    // The snapshot's names do not follow later changes to the graph.
+    g.removeVertex("a");
+    int f = g.addVertex("f");
+    assertEquals(0, csr.vertexNumber("a"));
+    assertEquals(-1, csr.vertexNumber("f"));
+    assertEquals(f, g.freeze().vertexNumber("f"));
+    assertEquals(-1, g.freeze().vertexNumber("a"));
+  } // testHoles()
+
+  /**
+   * Paths and shortest paths.
+   */
+  @Test
+  void testPaths() {
+    CsrGraph csr = g.freeze();
+    List<Edge> path = csr.path("a", "e");
+    assertEquals(2, path.size());
+    assertEquals(csr.vertexNumber("b"), path.get(0).target());
+    assertEquals(csr.vertexNumber("e"), path.get(1).target());
+
+    Integer[] prev = csr.shortestPath(csr.vertexNumber("a"), csr.vertexNumber("e"));
+    assertEquals(csr.vertexNumber("b"), prev[csr.vertexNumber("e")]);
+    assertEquals(csr.vertexNumber("a"), prev[csr.vertexNumber("b")]);
+  } // testPaths()
+
+  /**
+   * Saving and loading the binary form should give the same snapshot,
+   * holes and all.
+   */
+  @Test
+  void testSaveLoad(@TempDir Path dir) throws Exception {
+    g.removeVertex("c");
+    g.addVertex("\u00e9t\u00e9");
+    g.addEdge("\u00e9t\u00e9", "a", 7);
+    String fname = dir.resolve("graph.bin").toString();
+    g.saveBinary(fname);
+    CsrGraph expected = g.freeze();
+    CsrGraph loaded = CsrGraph.load(fname);
+    assertEquals(expected.numVertices(), loaded.numVertices());
+    assertEquals(expected.capacity(), loaded.capacity());
+    assertEquals(expected.version(), loaded.version());
+    assertArrayEquals(expected.offsets, loaded.offsets);
+    assertArrayEquals(expected.targets, loaded.targets);
+    assertArrayEquals(expected.weights, loaded.weights);
+    assertArrayEquals(expected.vertexNames, loaded.vertexNames);
+    assertEquals(g.vertexNumber("\u00e9t\u00e9"), loaded.vertexNumber("\u00e9t\u00e9"));
+  } // testSaveLoad(Path)
+
+  /**
+   * Damaged files should be rejected.
+   */
+  @Test
+  void testLoadBadFile(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("graph.bin");
+    g.saveBinary(file.toString());
+    byte[] bytes = Files.readAllBytes(file);
+
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> CsrGraph.load(file.toString()));
+
+    byte[] badTarget = bytes.clone();
+    badTarget[bytes.length - 4 * g.numEdges() - 1] = 99;
+    Files.write(file, badTarget);
+    assertThrows(IOException.class, () -> CsrGraph.load(file.toString()));
+
+    byte[] badMagic = bytes.clone();
+    badMagic[0] = 0;
+    Files.write(file, badMagic);
+    assertThrows(IOException.class, () -> CsrGraph.load(file.toString()));
+
+    // Header counts too large for the file fail before allocating.
+    for (int field : new int[] {8, 16}) {
+      byte[] huge = bytes.clone();
+      huge[field] = 0x7f;
+      Files.write(file, huge);
+      assertThrows(IOException.class, () -> CsrGraph.load(file.toString()));
+    } // for
+  } // testLoadBadFile(Path)
+} // class TestCsrGraph
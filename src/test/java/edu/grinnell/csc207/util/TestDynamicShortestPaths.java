@@ -0,0 +1,136 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of dynamic shortest paths.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestDynamicShortestPaths {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Through a long series of random changes, the trees should always
+   * match a search from scratch.
+   */
+  @Test
+  void testRandomChanges() throws Exception {
+    int n = 300;
+    Graph g = TestShortestPaths.randomGraph(12, n, 1200);
+    DynamicShortestPaths trees = new DynamicShortestPaths(g);
+    int[] sources = {0, 1, 7, 99};
+    for (int source : sources) {
+      trees.addSource(source);
+    } // for
+    Random random = new Random(13);
+    for (int i = 0; i < 2000; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      int op = random.nextInt(20);
+      if (op < 10) {
+        if ((u != v) && (g.vertexName(u) != null) && (g.vertexName(v) != null)) {
+          g.addEdge(u, v, random.nextInt(20));
+        } // if
+      } else if (op < 19) {
+        g.removeEdge(u, v);
+      } else if ((g.vertexName(u) != null) && (u != 0) && (u != 1)) {
+        g.removeVertex(u);
+      } else {
+        g.addVertex();
+      } // if/else
+      if (i % 50 == 0) {
+        check(g, trees, 0, 1);
+      } // if
+    } // for
+    check(g, trees, 0, 1);
+    assertThrows(IllegalArgumentException.class, () -> trees.distance(12345, 0));
+  } // testRandomChanges()
+
+  /**
+   * Growing the graph should not confuse the trees.
+   */
+  @Test
+  void testGrowth() throws Exception {
+    Graph g = new Graph(4);
+    DynamicShortestPaths trees = new DynamicShortestPaths(g);
+    int a = g.addVertex("a");
+    trees.addSource(a);
+    int previous = a;
+    for (int i = 0; i < 100; i++) {
+      int v = g.addVertex();
+      g.addEdge(previous, v, 1);
+      previous = v;
+    } // for
+    assertEquals(100, trees.distance(a, previous));
+    g.removeEdge(a, g.vertexNumber("v1"));
+    assertEquals(ShortestPathTree.UNREACHABLE, trees.distance(a, previous));
+    assertEquals(-1, trees.predecessor(a, previous));
+  } // testGrowth()
+
+  /**
+   * Changes far from the tree should cost little, and changes that do
+   * not touch tree edges nothing at all.
+   */
+  @Test
+  void testLocality() throws Exception {
+    int n = 10000;
+    Graph g = new Graph(n);
+    for (int v = 0; v < n; v++) {
+      g.addVertex();
+    } // for
+    for (int v = 0; v + 1 < n; v++) {
+      g.addEdge(v, v + 1, 10);
+    } // for
+    DynamicShortestPaths trees = new DynamicShortestPaths(g);
+    trees.addSource(0);
+    g.addEdge(9000, 9005, 1);
+    assertEquals(99941, trees.distance(0, 9999));
+    assertTrue(trees.work() < 1100, "work " + trees.work());
+    long before = trees.work();
+    g.addEdge(5, 0, 3);
+    g.removeEdge(9004, 9005);
+    assertEquals(before, trees.work());
+    assertEquals(99941, trees.distance(0, 9999));
+    g.removeEdge(9000, 9005);
+    assertEquals(ShortestPathTree.UNREACHABLE, trees.distance(0, 9999));
+    trees.close();
+    assertNull(g.listeners);
+  } // testLocality()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Compare the tracked trees with searches from scratch.
+   *
+   * @param g
+   *   The graph.
+   * @param trees
+   *   The trees.
+   * @param sources
+   *   The sources to check.
+   */
+  static void check(Graph g, DynamicShortestPaths trees, int... sources) {
+    for (int source : sources) {
+      ShortestPathTree expected = g.shortestPaths(source);
+      for (int v = 0; v < g.vertices.length; v++) {
+        long d = trees.distance(source, v);
+        assertEquals(expected.distance(v), d, source + " -> " + v);
+        int p = trees.predecessor(source, v);
+        if ((v == source) || (d == ShortestPathTree.UNREACHABLE)) {
+          assertEquals(-1, p);
+        } else {
+          assertEquals(d, trees.distance(source, p) + g.edgeWeight(p, v));
+        } // if/else
+      } // for
+    } // for
+  } // check(Graph, DynamicShortestPaths, int...)
+} // class TestDynamicShortestPaths
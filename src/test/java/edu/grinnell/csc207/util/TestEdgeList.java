@@ -0,0 +1,182 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of indexed adjacency lists and the graph operations built on
+ * them, including the index of incoming edges.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestEdgeList {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Random adds and removes should agree with a map, both below and
+   * above the indexing threshold.
+   */
+  @Test
+  void testAgainstMap() {
+    Random random = new Random(3);
+    for (int range : new int[] {8, 40, 2000}) {
+      EdgeList edges = new EdgeList(0);
+      HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+      for (int step = 0; step < 20000; step++) {
+        int target = random.nextInt(range);
+        if (random.nextInt(3) == 0) {
+          assertEquals(expected.remove(target) != null, edges.remove(target));
+        } else {
+          int weight = random.nextInt(100);
+          assertEquals(expected.put(target, weight) == null, edges.put(target, weight));
+        } // if/else
+        assertEquals(expected.size(), edges.size());
+      } // for
+      for (int target = 0; target < range; target++) {
+        int i = edges.indexOf(target);
+        if (expected.containsKey(target)) {
+          assertEquals(target, edges.target(i));
+          assertEquals((int) expected.get(target), edges.weight(i));
+        } else {
+          assertEquals(-1, i);
+        } // if/else
+      } // for
+    } // for
+  } // testAgainstMap()
+
+  /**
+   * Edge lookups and updates on a hub vertex.
+   */
+  @Test
+  void testHub() throws Exception {
+    Graph g = new Graph();
+    int hub = g.addVertex("hub");
+    for (int i = 0; i < 1000; i++) {
+      g.addEdge(hub, g.addVertex(), i);
+    } // for
+    assertEquals(1000, g.numEdges());
+    int v500 = g.vertexNumber("v500");
+    assertTrue(g.hasEdge(hub, v500));
+    assertFalse(g.hasEdge(v500, hub));
+    assertEquals(499, g.edgeWeight("hub", "v500"));
+    g.addEdge(hub, v500, 7);
+    assertEquals(1000, g.numEdges());
+    assertEquals(7, g.edgeWeight(hub, v500));
+    g.removeEdge(hub, v500);
+    assertEquals(999, g.numEdges());
+    assertFalse(g.hasEdge(hub, v500));
+    assertNull(g.edgeWeight(hub, v500));
+    g.removeVertex("v10");
+    assertEquals(998, g.numEdges());
+    assertEquals(998, g.freeze().degree(hub));
+    assertFalse(g.hasEdge("nobody", "hub"));
+  } // testHub()
+
+  /**
+   * With the incoming index, edgesTo and removeVertex should agree with
+   * an unindexed graph through a series of changes.
+   */
+  @Test
+  void testIncoming() throws Exception {
+    Random random = new Random(5);
+    Graph plain = new Graph();
+    Graph indexed = new Graph();
+    indexed.indexIncomingEdges();
+    for (int step = 0; step < 3000; step++) {
+      int choice = random.nextInt(10);
+      String u = "n" + random.nextInt(60);
+      String v = "n" + random.nextInt(60);
+      if (choice == 0) {
+        plain.removeVertex(u);
+        indexed.removeVertex(u);
+      } else if (choice < 3) {
+        plain.removeEdge(u, v);
+        indexed.removeEdge(u, v);
+      } else if (!u.equals(v)) {
+        int w = random.nextInt(50);
+        plain.addEdge(plain.safeVertexNumber(u), plain.safeVertexNumber(v), w);
+        indexed.addEdge(indexed.safeVertexNumber(u), indexed.safeVertexNumber(v), w);
+      } // if/else
+      if (step == 1000) {
+        // Indexing part way through should pick up the existing edges.
+        plain.indexIncomingEdges();
+        indexed = copy(indexed);
+      } // if
+    } // for
+    assertEquals(plain.numEdges(), indexed.numEdges());
+    for (int v = 0; v < 60; v++) {
+      String name = "n" + v;
+      assertEquals(incoming(plain, name), incoming(indexed, name), name);
+    } // for
+  } // testIncoming()
+
+  /**
+   * Removing a vertex from an undirected graph removes the edges in both
+   * directions.
+   */
+  @Test
+  void testUndirectedRemove() throws Exception {
+    UndirectedGraph g = new UndirectedGraph();
+    g.addEdge("a", "b", 1);
+    g.addEdge("b", "c", 2);
+    g.addEdge("c", "a", 3);
+    g.addEdge("c", "d", 4);
+    assertEquals(8, g.numEdges());
+    g.removeVertex("c");
+    assertEquals(2, g.numEdges());
+    assertFalse(g.hasEdge("d", "c"));
+    assertEquals("[a->b:1]", incoming(g, "b"));
+    assertEquals("[]", incoming(g, "d"));
+  } // testUndirectedRemove()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Describe the edges into a vertex, sorted.
+   *
+   * @param g
+   *   The graph.
+   * @param vertex
+   *   The name of the vertex.
+   *
+   * @return a description of the edges.
+   */
+  static String incoming(Graph g, String vertex) {
+    ArrayList<String> result = new ArrayList<String>();
+    for (Edge e : g.edgesTo(vertex)) {
+      result.add(g.vertexName(e.source()) + "->" + g.vertexName(e.target())
+          + ":" + e.weight());
+    } // for
+    Collections.sort(result);
+    return result.toString();
+  } // incoming(Graph, String)
+
+  /**
+   * Copy a graph by vertex name, indexing the copy's incoming edges
+   * after the edges are in place.
+   *
+   * @param g
+   *   The graph to copy.
+   *
+   * @return the copy.
+   */
+  static Graph copy(Graph g) throws Exception {
+    Graph result = new Graph();
+    for (Edge e : g.edges()) {
+      result.addEdge(result.safeVertexNumber(g.vertexName(e.source())),
+          result.safeVertexNumber(g.vertexName(e.target())), e.weight());
+    } // for
+    result.indexIncomingEdges();
+    return result;
+  } // copy(Graph)
+} // class TestEdgeList
@@ -0,0 +1,111 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of reading edge-list files.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestEdgeListReader {
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * A directory for our files.
+   */
+  @TempDir
+  Path dir;
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Reading a saved graph should give back the same graph.
+   */
+  @Test
+  void testRoundTrip() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(7, 200, 1500);
+    String fname = dir.resolve("random.txt").toString();
+    g.save(fname);
+    Graph copy = new Graph(fname);
+    assertEquals(describe(g), describe(copy));
+  } // testRoundTrip()
+
+  /**
+   * Small chunks should give the same graph as one big chunk, even when
+   * names repeat across chunks and later lines overwrite earlier ones.
+   */
+  @Test
+  void testChunks() throws Exception {
+    Path file = dir.resolve("chunks.txt");
+    Files.writeString(file,
+        "alpha beta 1\n\n  beta\tgamma 2\r\ngamma alpha -3\nalpha beta 4\n"
+        + "delta alpha 5\nbeta delta 6");
+    String fname = file.toString();
+    Graph whole = new Graph(fname);
+    for (int size = 1; size < 24; size++) {
+      List<EdgeListReader.Chunk> chunks = EdgeListReader.parse(fname, size);
+      Graph pieces = new Graph();
+      for (EdgeListReader.Chunk chunk : chunks) {
+        assertNull(chunk.error);
+        chunk.addTo(pieces);
+      } // for
+      assertEquals(describe(whole), describe(pieces), "chunk size " + size);
+    } // for
+    assertEquals(4, whole.numVertices());
+    assertEquals(5, whole.numEdges());
+    assertEquals("alpha", whole.vertexName(0));
+  } // testChunks()
+
+  /**
+   * Malformed lines should be reported by line number, and nothing
+   * should be added.
+   */
+  @Test
+  void testErrors() throws Exception {
+    String[] bad = {"a b", "a b 1 2", "a b x", "a b 99999999999", "a a 1", "a b -"};
+    for (String line : bad) {
+      Path file = dir.resolve("bad.txt");
+      Files.writeString(file, "a b 1\n\nb c 2\n" + line + "\nc d 3\n");
+      Graph g = new Graph();
+      Exception e = assertThrows(Exception.class, () -> g.readGraph(file.toString()));
+      assertTrue(e.getMessage().contains("line 4:"), e.getMessage());
+      assertEquals(0, g.numEdges());
+    } // for
+  } // testErrors()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Describe the edges of a graph by vertex name.
+   *
+   * @param g
+   *   The graph.
+   *
+   * @return the edges, one per line, in the form written by save.
+   */
+  static String describe(Graph g) {
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    g.write(pen);
+    pen.flush();
+    String[] lines = out.toString().split("\n");
+    Arrays.sort(lines);
+    return String.join("\n", lines);
+  } // describe(Graph)
+} // class TestEdgeListReader
@@ -0,0 +1,112 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of building graphs in bulk.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestGraphBuilder {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Building in bulk should give the same graph as adding the edges one
+   * at a time, duplicates included.
+   */
+  @Test
+  void testSameAsAddEdge() throws Exception {
+    Random random = new Random(11);
+    int n = 60;
+    int m = 2000;
+    int[] sources = new int[m];
+    int[] targets = new int[m];
+    int[] weights = new int[m];
+    for (int i = 0; i < m; i++) {
+      // Few sources, so that there are hubs and many duplicates.
+      sources[i] = random.nextInt(5);
+      do {
+        targets[i] = random.nextInt(n);
+      } while (targets[i] == sources[i]);
+      weights[i] = random.nextInt(100);
+    } // for
+
+    Graph expected = new Graph();
+    for (int v = 0; v < n; v++) {
+      expected.addVertex();
+    } // for
+    for (int i = 0; i < m; i++) {
+      expected.addEdge(sources[i], targets[i], weights[i]);
+    } // for
+
+    GraphBuilder builder = new GraphBuilder();
+    builder.addVertices(n);
+    builder.addEdges(sources, targets, weights);
+    Graph built = builder.build();
+
+    assertEquals(expected.numVertices(), built.numVertices());
+    assertEquals(expected.numEdges(), built.numEdges());
+    for (int v = 0; v < n; v++) {
+      assertEquals(expected.vertexName(v), built.vertexName(v));
+      assertEquals(v, built.vertexNumber(expected.vertexName(v)));
+      StringBuilder want = new StringBuilder();
+      for (Edge e : expected.edgesFrom(v)) {
+        want.append(e);
+      } // for
+      StringBuilder got = new StringBuilder();
+      for (Edge e : built.edgesFrom(v)) {
+        got.append(e);
+      } // for
+      assertEquals(want.toString(), got.toString());
+    } // for
+  } // testSameAsAddEdge()
+
+  /**
+   * Names, streams, and the resulting graph's ability to grow.
+   */
+  @Test
+  void testNamesAndStreams() throws Exception {
+    GraphBuilder builder = new GraphBuilder();
+    builder.addEdge("a", "b", 1).addEdge("b", "c", 2).addEdge("a", "b", 3);
+    builder.addEdges(Stream.of(new Edge(2, 0, 4), new Edge(2, 1)));
+    Graph g = builder.build();
+    assertEquals(3, g.numVertices());
+    assertEquals(4, g.numEdges());
+    assertEquals(3, g.edgesFrom("a").iterator().next().weight());
+    assertEquals(2, g.path("a", "c").size());
+
+    for (int i = 0; i < 40; i++) {
+      g.addVertex();
+    } // for
+    g.addEdge("c", "v20", 5);
+    assertEquals(43, g.numVertices());
+    assertEquals(5, g.numEdges());
+    assertThrows(Exception.class, () -> builder.addVertex("a"));
+  } // testNamesAndStreams()
+
+  /**
+   * Bad edges are reported when we build.
+   */
+  @Test
+  void testBadEdges() throws Exception {
+    GraphBuilder loop = new GraphBuilder();
+    loop.addVertices(2);
+    loop.addEdge(1, 1, 0);
+    assertThrows(Exception.class, () -> loop.build());
+
+    GraphBuilder missing = new GraphBuilder();
+    missing.addVertices(2);
+    missing.addEdge(0, 2, 0);
+    assertThrows(Exception.class, () -> missing.build());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> missing.addEdges(new int[1], new int[2], new int[1]));
+  } // testBadEdges()
+} // class TestGraphBuilder
@@ -155,4 +155,104 @@ class TestGraphMarks {
       } // for j
     } // for i
   } // testNamedMarksMultiple()
+
+  /**
+   * Clearing marks removes every mark, and the graph's marks survive
+   * growth.
+   */
+  @Test
+  void testClearMarks() {
+    int v = g.addVertex();
+    g.mark(v, Graph.MARK03);
+    g.clearMarks();
+    assertFalse(g.isMarked(v));
+    for (int i = 0; i < 100; i++) {
+      g.addVertex();
+    } // for
+    int w = g.addVertex();
+    g.mark(w);
+    assertTrue(g.isMarked(w));
+    assertFalse(g.isMarked(v));
+  } // testClearMarks()
+
+  /**
+   * Contexts are independent of each other and of the graph's marks,
+   * and are reused once closed. Closing twice returns a context to the
+   * pool only once.
+   */
+  @Test
+  void testContexts() {
+    int v1 = g.addVertex();
+    int v2 = g.addVertex();
+    MarkContext first = g.markContext();
+    MarkContext second = g.markContext();
+    assertNotSame(first, second);
+    g.mark(first, v1);
+    g.mark(second, v2, 1 << 20);
+    assertTrue(g.isMarked(first, v1));
+    assertFalse(g.isMarked(first, v2));
+    assertTrue(g.isMarked(second, v2, 1 << 20));
+    assertFalse(g.isMarked(second, v2, 1));
+    assertFalse(g.isMarked(v1));
+    g.unmark(second, v2);
+    assertFalse(g.isMarked(second, v2));
+
+    first.close();
+    first.close();
+    try (MarkContext again = g.markContext()) {
+      assertSame(first, again);
+      assertFalse(g.isMarked(again, v1));
+      assertNotSame(again, g.markContext());
+    } // try
+  } // testContexts()
+
+  /**
+   * markReachable does not revisit vertices marked by earlier calls.
+   */
+  @Test
+  void testMarkReachable() throws Exception {
+    for (int i = 0; i < 6; i++) {
+      g.addVertex();
+    } // for
+    g.addEdge(0, 1, 1);
+    g.addEdge(1, 2, 1);
+    g.addEdge(3, 1, 1);
+    g.addEdge(3, 4, 1);
+    try (MarkContext context = g.markContext()) {
+      assertEquals(3, g.markReachable(context, 0));
+      assertEquals(2, g.markReachable(context, 3));
+      assertEquals(0, g.markReachable(context, 4, 2));
+      assertFalse(g.isMarked(context, 5));
+    } // try
+  } // testMarkReachable()
+
+  /**
+   * Traversals in different threads, each with its own context, do not
+   * interfere.
+   */
+  @Test
+  void testConcurrentTraversals() throws Exception {
+    Graph big = TestShortestPaths.randomGraph(9, 2000, 2500);
+    int[] expected = new int[8];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = big.reachable(i * 100).cardinality();
+    } // for
+    int[] found = new int[expected.length];
+    Thread[] threads = new Thread[expected.length];
+    for (int i = 0; i < threads.length; i++) {
+      int t = i;
+      threads[i] = new Thread(() -> {
+        for (int round = 0; round < 20; round++) {
+          try (MarkContext context = big.markContext()) {
+            found[t] = big.markReachable(context, t * 100);
+          } // try
+        } // for
+      });
+      threads[i].start();
+    } // for
+    for (Thread thread : threads) {
+      thread.join();
+    } // for
+    assertArrayEquals(expected, found);
+  } // testConcurrentTraversals()
 } // TestGraphMarks
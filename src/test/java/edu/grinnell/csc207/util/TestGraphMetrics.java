@@ -0,0 +1,115 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.grinnell.csc207.util.GraphMetrics.Operation;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of graph metrics and flight-recorder events.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestGraphMetrics {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Metrics should count operations and the work searches do, and only
+   * while they are enabled.
+   */
+  @Test
+  void testCounts(@TempDir Path dir) throws Exception {
+    Graph g = new Graph();
+    assertNull(g.metrics());
+    g.addVertex("a");
+    g.enableMetrics();
+    g.addVertex("b");
+    g.addVertex("c");
+    g.addEdge("a", "b", 1);
+    g.addEdge("b", "c", 1);
+    g.addEdge("a", "c", 5);
+    g.removeEdge("a", "c");
+    g.removeEdge("a", "c");
+
+    ShortestPathTree tree = g.shortestPaths(0);
+    assertEquals(3, tree.settled());
+    assertEquals(2, tree.relaxed());
+    g.shortestPath(0, 2);
+    g.path(0, 2);
+    String fname = dir.resolve("g.txt").toString();
+    g.save(fname);
+    new Graph().readGraph(fname);
+
+    GraphMetrics m = g.metrics();
+    assertEquals(2, m.count(Operation.ADD_VERTEX));
+    assertEquals(3, m.count(Operation.ADD_EDGE));
+    assertEquals(1, m.count(Operation.REMOVE_EDGE));
+    assertEquals(6, m.mutations());
+    assertEquals(2, m.count(Operation.SHORTEST_PATH));
+    assertEquals(6, m.verticesVisited(Operation.SHORTEST_PATH));
+    assertEquals(4, m.edgesRelaxed(Operation.SHORTEST_PATH));
+    assertEquals(1, m.count(Operation.PATH));
+    assertEquals(2, m.verticesVisited(Operation.PATH));
+    assertEquals(1, m.count(Operation.SAVE));
+    // The read was on another graph.
+    assertEquals(0, m.count(Operation.READ));
+
+    long[] histogram = m.histogram(Operation.SHORTEST_PATH);
+    long total = 0;
+    for (long n : histogram) {
+      total += n;
+    } // for
+    assertEquals(2, total);
+    assertTrue(m.percentileNanos(Operation.SHORTEST_PATH, 50) > 0);
+    assertTrue(m.totalNanos(Operation.SHORTEST_PATH) > 0);
+    assertTrue(m.toString().contains("SHORTEST_PATH: 2"));
+
+    g.disableMetrics();
+    g.addVertex("d");
+    assertNull(g.metrics());
+  } // testCounts()
+
+  /**
+   * Searches and file operations should produce flight-recorder events
+   * when a recording asks for them.
+   */
+  @Test
+  void testEvents(@TempDir Path dir) throws Exception {
+    Graph g = TestShortestPaths.randomGraph(1, 500, 2000);
+    Path jfr = dir.resolve("graph.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("edu.grinnell.csc207.Traversal").withThreshold(java.time.Duration.ZERO);
+      recording.enable("edu.grinnell.csc207.GraphFile").withThreshold(java.time.Duration.ZERO);
+      recording.start();
+      g.shortestPaths(0);
+      g.save(dir.resolve("g.txt").toString());
+      recording.stop();
+      recording.dump(jfr);
+    } // try
+    List<RecordedEvent> events = RecordingFile.readAllEvents(jfr);
+    boolean traversal = false;
+    boolean file = false;
+    for (RecordedEvent e : events) {
+      String name = e.getEventType().getName();
+      if (name.equals("edu.grinnell.csc207.Traversal")) {
+        traversal = true;
+        assertEquals("SHORTEST_PATH", e.getString("operation"));
+        assertTrue(e.getLong("verticesVisited") > 0);
+      } else if (name.equals("edu.grinnell.csc207.GraphFile")) {
+        file = true;
+        assertEquals(g.numEdges(), e.getInt("edges"));
+      } // if/else
+    } // for
+    assertTrue(traversal);
+    assertTrue(file);
+  } // testEvents(Path)
+} // class TestGraphMetrics
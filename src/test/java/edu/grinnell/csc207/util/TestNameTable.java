@@ -0,0 +1,78 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of name tables and the name lookups that use them.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestNameTable {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * A name table should agree with a HashMap through a long series of
+   * additions and removals (including non-ASCII names).
+   */
+  @Test
+  void testRandomOperations() {
+    NameTable table = new NameTable(4);
+    HashMap<String, Integer> expected = new HashMap<String, Integer>();
+    Random random = new Random(3);
+    for (int i = 0; i < 100000; i++) {
+      int k = random.nextInt(2000);
+      String name = (k % 7 == 0) ? ("élève" + k) : ("n" + k);
+      if (random.nextInt(3) == 0) {
+        Integer old = expected.remove(name);
+        assertEquals((old == null) ? -1 : old, table.remove(name));
+      } else if (!expected.containsKey(name)) {
+        expected.put(name, i);
+        table.add(name, i);
+      } // if/else
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      int value = expected.getOrDefault(name, -1);
+      assertEquals(value, table.get(name));
+      assertEquals(value, table.get(bytes, 0, bytes.length));
+    } // for
+    assertEquals(expected.size(), table.size());
+  } // testRandomOperations()
+
+  /**
+   * Bulk lookups should agree with one-at-a-time lookups.
+   */
+  @Test
+  void testBulkLookup() throws Exception {
+    Graph g = new Graph();
+    g.addVertex("a");
+    g.addVertex("b");
+    g.addVertex("γ");
+    g.removeVertex("a");
+    g.addVertex("d");
+    String[] names = {"a", "b", "γ", "d", "e"};
+    int[] expected = new int[names.length];
+    StringBuilder all = new StringBuilder();
+    int[] bounds = new int[names.length + 1];
+    for (int i = 0; i < names.length; i++) {
+      expected[i] = g.vertexNumber(names[i]);
+      all.append(names[i]);
+      bounds[i + 1] = bounds[i] + names[i].getBytes(StandardCharsets.UTF_8).length;
+    } // for
+    assertEquals(-1, expected[0]);
+    assertEquals(-1, expected[4]);
+    assertArrayEquals(expected, g.vertexNumbers(names));
+    byte[] bytes = all.toString().getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(expected, g.vertexNumbers(bytes, bounds));
+    assertEquals(expected[2], g.vertexNumber(bytes, bounds[2], bounds[3] - bounds[2]));
+    assertEquals(-1, g.vertexNumber((String) null));
+    assertArrayEquals(new int[] {expected[1], -1, expected[3]},
+        g.vertexNumbers("b", null, "d"));
+  } // testBulkLookup()
+} // class TestNameTable
@@ -0,0 +1,140 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of off-heap graphs.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestOffHeapGraph {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * An off-heap graph (with small pages, so that edges span many of
+   * them) should agree with a graph through additions, replacements,
+   * and removals.
+   */
+  @Test
+  void testAgreesWithGraph() throws Exception {
+    OffHeapGraph offHeap = new OffHeapGraph(8);
+    check(offHeap);
+  } // testAgreesWithGraph()
+
+  /**
+   * The same, with the pages mapped from a file.
+   */
+  @Test
+  void testMapped(@TempDir Path dir) throws Exception {
+    try (OffHeapGraph offHeap = new OffHeapGraph(dir.resolve("graph.bin"), 10)) {
+      check(offHeap);
+    } // try
+  } // testMapped(Path)
+
+  /**
+   * Names, marks, and paths should work as they do for graphs.
+   */
+  @Test
+  void testNamesAndMarks() throws Exception {
+    OffHeapGraph g = new OffHeapGraph(4);
+    g.addVertex("a");
+    g.addVertex("b");
+    g.addVertex("c");
+    g.addEdge("a", "b", 2);
+    g.addEdge("b", "c", 3);
+    assertThrows(Exception.class, () -> g.addVertex("a"));
+    assertThrows(Exception.class, () -> g.addEdge("a", "a", 1));
+    List<Edge> path = g.path("a", "c");
+    assertEquals(2, path.size());
+    assertEquals(3, path.get(1).weight());
+    assertNull(g.path("c", "a"));
+
+    g.mark(1, Graph.MARK02);
+    assertTrue(g.isMarked(1, Graph.MARK02));
+    assertFalse(g.isMarked(1, Graph.MARK01));
+    g.clearMarks();
+    assertFalse(g.isMarked(1, Graph.MARK02));
+
+    // A vertex has at most 2^4 edges (and a already has one).
+    for (int i = 0; i < 15; i++) {
+      g.addEdge(g.vertexNumber("a"), g.addVertex(), i);
+    } // for
+    assertThrows(Exception.class, () -> g.addEdge(g.vertexNumber("a"), g.addVertex(), 0));
+  } // testNamesAndMarks()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build the same random graph as an off-heap graph and a graph, and
+   * compare them.
+   *
+   * @param offHeap
+   *   An empty off-heap graph.
+   */
+  static void check(OffHeapGraph offHeap) throws Exception {
+    int n = 2000;
+    Graph g = TestShortestPaths.randomGraph(7, n, 6000);
+    for (int v = 0; v < n; v++) {
+      offHeap.addVertex();
+    } // for
+    for (int v : g.vertices()) {
+      for (Edge e : g.edgesFrom(v)) {
+        offHeap.addEdge(e.source(), e.target(), e.weight());
+      } // for
+    } // for
+    offHeap.removeVertex(n / 2);
+    offHeap.removeVertex(n / 3);
+
+    Random random = new Random(11);
+    for (int i = 0; i < 3000; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      if (random.nextBoolean()) {
+        g.removeEdge(u, v);
+        offHeap.removeEdge(u, v);
+      } else if ((u != v) && g.vertexName(u) != null && g.vertexName(v) != null) {
+        g.addEdge(u, v, i % 50);
+        offHeap.addEdge(u, v, i % 50);
+      } // if/else
+    } // for
+    for (int i = 0; i < 10; i++) {
+      int v = random.nextInt(n);
+      g.removeVertex(v);
+      offHeap.removeVertex(v);
+    } // for
+
+    assertEquals(g.numVertices(), offHeap.numVertices());
+    assertEquals(g.numEdges(), offHeap.numEdges());
+    for (int u = 0; u < n; u++) {
+      assertEquals(g.vertexName(u), offHeap.vertexName(u));
+      for (int v = 0; v < n; v += 37) {
+        assertEquals(g.edgeWeight(u, v), offHeap.edgeWeight(u, v));
+      } // for
+    } // for
+    for (int source = 0; source < n; source += 250) {
+      ShortestPathTree expected = g.shortestPaths(source);
+      ShortestPathTree actual = offHeap.shortestPaths(source);
+      for (int v = 0; v < n; v++) {
+        assertEquals(expected.distance(v), actual.distance(v));
+      } // for
+      assertEquals(g.reachable(source), offHeap.reachable(source));
+      List<Edge> path = g.path(source, 1);
+      List<Edge> offHeapPath = offHeap.path(source, 1);
+      assertEquals(path == null, offHeapPath == null);
+      if (path != null) {
+        assertEquals(path.size(), offHeapPath.size());
+      } // if
+    } // for
+  } // check(OffHeapGraph)
+} // class TestOffHeapGraph
@@ -0,0 +1,115 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the query cache.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestPathCache {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Repeated queries should hit the cache and give the same answers as
+   * an uncached graph.
+   */
+  @Test
+  void testHits() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(8, 500, 2000);
+    Graph plain = TestShortestPaths.randomGraph(8, 500, 2000);
+    g.enableCache(1 << 24);
+    for (int round = 0; round < 2; round++) {
+      for (int u = 1; u < 500; u += 50) {
+        ShortestPathTree tree = g.shortestPaths(u);
+        ShortestPathTree expected = plain.shortestPaths(u);
+        for (int v = 0; v < 500; v++) {
+          assertEquals(expected.distance(v), tree.distance(v));
+        } // for
+        assertEquals(String.valueOf(plain.path(u, 7)), String.valueOf(g.path(u, 7)));
+        assertEquals(plain.path(7, u) == null, g.path(7, u) == null);
+      } // for
+    } // for
+    CacheStats stats = g.cacheStats();
+    assertEquals(30, stats.misses());
+    assertEquals(30, stats.hits());
+    assertEquals(30, stats.entries());
+    assertEquals(0.5, stats.hitRate());
+
+    // A pair query does not get the full tree for its source, since
+    // that would give predecessors for vertices the search never
+    // settled. A repeated pair query hits.
+    Integer[] expected = plain.shortestPath(51, 3);
+    assertArrayEquals(expected, g.shortestPath(51, 3));
+    assertEquals(31, g.cacheStats().misses());
+    assertArrayEquals(expected, g.shortestPath(51, 3));
+    assertEquals(31, g.cacheStats().hits());
+  } // testHits()
+
+  /**
+   * Changing the graph should drop the cached results.
+   */
+  @Test
+  void testInvalidation() throws Exception {
+    Graph g = new Graph();
+    g.addVertex("a");
+    g.addVertex("b");
+    g.addVertex("c");
+    g.addEdge("a", "b", 5);
+    g.enableCache(1 << 20);
+    assertNull(g.path("a", "c"));
+    assertNull(g.path("a", "c"));
+    assertEquals(1, g.cacheStats().hits());
+    assertEquals(ShortestPathTree.UNREACHABLE, g.shortestPaths(0).distance(2));
+
+    g.addEdge("b", "c", 1);
+    List<Edge> path = g.path("a", "c");
+    assertEquals(2, path.size());
+    assertEquals(6, g.shortestPaths(0).distance(2));
+    assertEquals(1, g.cacheStats().invalidations());
+    assertEquals(2, g.cacheStats().entries());
+
+    // Changing a returned path must not change the cached one.
+    path.clear();
+    assertEquals(2, g.path("a", "c").size());
+
+    g.disableCache();
+    assertNull(g.cacheStats());
+  } // testInvalidation()
+
+  /**
+   * The cache should stay within its budget by dropping the least
+   * recently used results.
+   */
+  @Test
+  void testEviction() throws Exception {
+    Graph g = TestShortestPaths.randomGraph(9, 1000, 4000);
+    // Room for about three trees.
+    long budget = 3 * (12L * g.vertices.length + 64 + PathCache.ENTRY_BYTES) + 100;
+    g.enableCache(budget);
+    g.shortestPaths(0);
+    g.shortestPaths(1);
+    g.shortestPaths(2);
+    g.shortestPaths(0);
+    g.shortestPaths(3);
+    CacheStats stats = g.cacheStats();
+    assertEquals(1, stats.evictions());
+    assertEquals(3, stats.entries());
+    assertTrue(stats.bytes() <= budget);
+    g.shortestPaths(0);
+    g.shortestPaths(2);
+    assertEquals(3, g.cacheStats().hits());
+    // 1 was evicted, and now 3 is the least recently used.
+    g.shortestPaths(1);
+    g.shortestPaths(0);
+    g.shortestPaths(2);
+    assertEquals(5, g.cacheStats().hits());
+    assertEquals(2, g.cacheStats().evictions());
+  } // testEviction()
+} // class TestPathCache
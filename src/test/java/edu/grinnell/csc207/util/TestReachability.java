@@ -0,0 +1,118 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of reachability.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestReachability {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Sequential and parallel sweeps, from one source or several, should
+   * agree with breadth-first search.
+   */
+  @Test
+  void testRandomGraphs() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (long seed = 1; seed <= 5; seed++) {
+        Graph g = TestShortestPaths.randomGraph(seed, 3000, 3300);
+        CsrGraph csr = g.freeze();
+        ParallelReachability parallel = new ParallelReachability(csr, pool);
+        BitSet union = new BitSet();
+        int[] sources = {0, 17, 1234, g.vertices.length - 1};
+        for (int source : sources) {
+          BitSet expected = bfs(g, source);
+          assertEquals(expected, g.reachable(source));
+          assertEquals(expected, csr.reachable(source));
+          assertEquals(expected, parallel.run(source));
+          union.or(expected);
+        } // for
+        assertEquals(union, g.reachable(sources));
+        assertEquals(union, parallel.run(sources));
+      } // for
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testRandomGraphs()
+
+  /**
+   * A long chain should not overflow the stack, and reachableFrom
+   * should print in depth-first order.
+   */
+  @Test
+  void testChain() throws Exception {
+    int n = 200000;
+    GraphBuilder builder = new GraphBuilder();
+    builder.addVertices(n);
+    for (int v = 0; v + 1 < n; v++) {
+      builder.addEdge(v, v + 1, 1);
+    } // for
+    Graph g = builder.build();
+    assertEquals(n, g.reachable(0).cardinality());
+    assertEquals(n, new ParallelReachability(g.freeze()).run(0).cardinality());
+
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    g.reachableFrom(pen, n - 3);
+    pen.flush();
+    assertEquals(String.format("v%d%nv%d%nv%d%n", n - 3, n - 2, n - 1), out.toString());
+  } // testChain()
+
+  /**
+   * reachableFrom visits in the order a recursive search would.
+   */
+  @Test
+  void testPreorder() throws Exception {
+    Graph g = new Graph();
+    g.addEdge(g.safeVertexNumber("a"), g.safeVertexNumber("b"), 1);
+    g.addEdge(g.safeVertexNumber("a"), g.safeVertexNumber("c"), 1);
+    g.addEdge(g.safeVertexNumber("b"), g.safeVertexNumber("d"), 1);
+    g.addEdge(g.safeVertexNumber("d"), g.safeVertexNumber("a"), 1);
+    g.addEdge(g.safeVertexNumber("c"), g.safeVertexNumber("d"), 1);
+    g.addEdge(g.safeVertexNumber("c"), g.safeVertexNumber("e"), 1);
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out);
+    g.reachableFrom(pen, g.vertexNumber("a"));
+    pen.flush();
+    assertEquals("abdce", out.toString().replaceAll("\\s", ""));
+    assertFalse(g.isMarked("a"));
+  } // testPreorder()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the vertices reachable from a source with the original
+   * breadth-first path search.
+   *
+   * @param g
+   *   The graph.
+   * @param source
+   *   The source.
+   *
+   * @return the reachable vertices.
+   */
+  static BitSet bfs(Graph g, int source) {
+    BitSet result = new BitSet();
+    for (int v : g.vertices()) {
+      if ((v == source) || (g.path(source, v) != null)) {
+        result.set(v);
+      } // if
+    } // for
+    return result;
+  } // bfs(Graph, int)
+} // class TestReachability
@@ -0,0 +1,385 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the shortest-path algorithms.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestShortestPaths {
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build a random graph with some holes in its vertex numbers.
+   *
+   * @param seed
+   *   The seed for the random number generator.
+   * @param n
+   *   The number of vertices to create.
+   * @param m
+   *   The number of edges to attempt to add.
+   *
+   * @return the graph.
+   */
+  static Graph randomGraph(long seed, int n, int m) throws Exception {
+    Random random = new Random(seed);
+    Graph g = new Graph();
+    for (int i = 0; i < n; i++) {
+      g.addVertex();
+    } // for
+    for (int i = 0; i < m; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      if (u != v) {
+        g.addEdge(u, v, random.nextInt(20));
+      } // if
+    } // for
+    g.removeVertex(n / 2);
+    g.removeVertex(n / 3);
+    return g;
+  } // randomGraph(long, int, int)
+
+  /**
+   * Compute distances with Bellman-Ford, for comparison.
+   *
+   * @param g
+   *   The graph.
+   * @param source
+   *   The source vertex.
+   *
+   * @return the distances from source (UNREACHABLE where unreachable).
+   */
+  static long[] bellmanFord(Graph g, int source) {
+    long[] dist = new long[g.vertices.length];
+    java.util.Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+    dist[source] = 0;
+    for (int round = 0; round < dist.length; round++) {
+      for (Edge e : g.edges()) {
+        if ((dist[e.source()] != ShortestPathTree.UNREACHABLE)
+            && (dist[e.source()] + e.weight() < dist[e.target()])) {
+          dist[e.target()] = dist[e.source()] + e.weight();
+        } // if
+      } // for
+    } // for
+    return dist;
+  } // bellmanFord(Graph, int)
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Single-source trees agree with Bellman-Ford, and their paths have
+   * the claimed lengths.
+   */
+  @Test
+  void testSingleSource() throws Exception {
+    for (long seed = 1; seed <= 5; seed++) {
+      Graph g = randomGraph(seed, 60, 300);
+      long[] expected = bellmanFord(g, 0);
+      ShortestPathTree tree = g.shortestPaths(0);
+      for (int v = 0; v < expected.length; v++) {
+        assertEquals(expected[v], tree.distance(v), "distance to " + v);
+        if (tree.reached(v)) {
+          long total = 0;
+          for (Edge e : tree.pathTo(v)) {
+            total += e.weight();
+          } // for
+          assertEquals(expected[v], total, "length of path to " + v);
+        } // if
+      } // for
+    } // for
+  } // testSingleSource()
+
+  /**
+   * Point-to-point queries return a usable predecessor chain.
+   */
+  @Test
+  void testPointToPoint() throws Exception {
+    Graph g = randomGraph(42, 80, 400);
+    long[] expected = bellmanFord(g, 1);
+    for (int sink = 0; sink < expected.length; sink++) {
+      Integer[] prev = g.shortestPath(1, sink);
+      if ((sink == 1) || (expected[sink] == ShortestPathTree.UNREACHABLE)) {
+        assertNull(prev[sink]);
+        continue;
+      } // if
+      long total = 0;
+      int current = sink;
+      while (current != 1) {
+        int p = prev[current];
+        int best = Integer.MAX_VALUE;
+        for (Edge e : g.edgesFrom(p)) {
+          if (e.target() == current) {
+            best = Math.min(best, e.weight());
+          } // if
+        } // for
+        total += best;
+        current = p;
+      } // while
+      assertEquals(expected[sink], total, "distance to " + sink);
+    } // for
+  } // testPointToPoint()
+
+  /**
+   * A negative cycle makes the search fail rather than run forever.
+   */
+  @Test
+  void testNegativeCycle() throws Exception {
+    Graph g = new Graph(4);
+    for (String name : new String[] {"a", "b", "c", "d"}) {
+      g.addVertex(name);
+    } // for
+    g.addEdge(0, 1, 1);
+    g.addEdge(1, 2, -3);
+    g.addEdge(2, 1, 1);
+    g.addEdge(2, 3, 1);
+    assertThrows(IllegalArgumentException.class, () -> g.shortestPath(0, 3));
+    assertThrows(IllegalArgumentException.class, () -> g.shortestPaths(0));
+    assertThrows(IllegalArgumentException.class, () -> g.freeze().shortestPaths(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> g.aStarPath(0, 3, (v, t) -> 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> g.bidirectionalShortestPath(0, 3));
+    assertThrows(IllegalArgumentException.class,
+        () -> new DeltaStepping(g.freeze(), 4).run(0));
+    assertEquals(0, g.shortestPaths(3).distance(3));
+  } // testNegativeCycle()
+
+  /**
+   * The snapshot gives the same distances as the graph.
+   */
+  @Test
+  void testSnapshot() throws Exception {
+    Graph g = randomGraph(7, 50, 200);
+    ShortestPathTree fromGraph = g.shortestPaths(2);
+    ShortestPathTree fromCsr = g.freeze().shortestPaths(2);
+    for (int v = 0; v < g.vertices.length; v++) {
+      assertEquals(fromGraph.distance(v), fromCsr.distance(v));
+    } // for
+    List<Edge> path = fromCsr.pathTo(3);
+    if (path != null) {
+      assertEquals(2, path.get(0).source());
+      assertEquals(3, path.get(path.size() - 1).target());
+    } // if
+  } // testSnapshot()
+
+  /**
+   * Bidirectional Dijkstra finds paths of the same length as Bellman-Ford.
+   */
+  @Test
+  void testBidirectionalShortestPath() throws Exception {
+    for (long seed = 11; seed <= 14; seed++) {
+      Graph g = randomGraph(seed, 70, 250);
+      for (int source = 0; source < 5; source++) {
+        long[] expected = bellmanFord(g, source);
+        for (int sink = 0; sink < expected.length; sink++) {
+          List<Edge> path = g.bidirectionalShortestPath(source, sink);
+          if (expected[sink] == ShortestPathTree.UNREACHABLE) {
+            assertNull(path, source + " to " + sink);
+            continue;
+          } // if
+          long total = 0;
+          int current = source;
+          for (Edge e : path) {
+            assertEquals(current, e.source());
+            total += e.weight();
+            current = e.target();
+          } // for
+          assertEquals(sink, current);
+          assertEquals(expected[sink], total, source + " to " + sink);
+        } // for
+      } // for
+    } // for
+  } // testBidirectionalShortestPath()
+
+  /**
+   * Bidirectional BFS finds paths with as few edges as ordinary BFS.
+   */
+  @Test
+  void testBidirectionalPath() throws Exception {
+    Graph g = randomGraph(99, 100, 220);
+    for (int start = 0; start < 10; start++) {
+      for (int finish = 0; finish < g.vertices.length; finish++) {
+        List<Edge> expected = g.path(start, finish);
+        List<Edge> actual = g.bidirectionalPath(start, finish);
+        if (expected == null) {
+          assertNull(actual);
+        } else {
+          assertEquals(expected.size(), actual.size(), start + " to " + finish);
+          assertEquals(start, actual.get(0).source());
+          assertEquals(finish, actual.get(actual.size() - 1).target());
+        } // if/else
+      } // for
+    } // for
+  } // testBidirectionalPath()
+
+  /**
+   * With an index of incoming edges (or no direction at all), the
+   * bidirectional searches follow the graph's own edges and see
+   * changes made since the last snapshot.
+   */
+  @Test
+  void testBidirectionalLive() throws Exception {
+    Graph g = randomGraph(31, 60, 200);
+    g.indexIncomingEdges();
+    UndirectedGraph u = new UndirectedGraph();
+    for (int i = 0; i < 60; i++) {
+      u.addVertex();
+    } // for
+    Random random = new Random(31);
+    for (int i = 0; i < 90; i++) {
+      int a = random.nextInt(60);
+      int b = random.nextInt(60);
+      if ((a != b) && (u.edgeWeight(a, b) == null)) {
+        u.addEdge(a, b, random.nextInt(20));
+      } // if
+    } // for
+    for (Graph graph : new Graph[] {g, u}) {
+      graph.freeze();
+      for (int finish = 0; finish < graph.vertices.length; finish++) {
+        graph.removeEdge(0, finish);
+      } // for
+      int n = graph.vertices.length;
+      List<List<Edge>> shortest = new ArrayList<List<Edge>>();
+      List<List<Edge>> fewest = new ArrayList<List<Edge>>();
+      for (int finish = 0; finish < n; finish++) {
+        shortest.add(graph.bidirectionalShortestPath(1, finish));
+        fewest.add(graph.bidirectionalPath(1, finish));
+      } // for
+      CsrGraph after = graph.freeze();
+      for (int finish = 0; finish < n; finish++) {
+        List<Edge> expected = after.bidirectionalShortestPath(1, finish);
+        List<Edge> actual = shortest.get(finish);
+        if (expected == null) {
+          assertNull(actual, "1 to " + finish);
+          assertNull(fewest.get(finish), "1 to " + finish);
+          continue;
+        } // if
+        long expectedTotal = 0;
+        for (Edge e : expected) {
+          expectedTotal += e.weight();
+        } // for
+        long actualTotal = 0;
+        for (Edge e : actual) {
+          assertNotEquals(0, e.source());
+          actualTotal += e.weight();
+        } // for
+        assertEquals(expectedTotal, actualTotal, "1 to " + finish);
+        assertEquals(after.bidirectionalPath(1, finish).size(),
+            fewest.get(finish).size(), "1 to " + finish);
+      } // for
+    } // for
+  } // testBidirectionalLive()
+
+  /**
+   * A* with landmarks finds shortest paths, and the landmark tables
+   * survive a round trip through a file.
+   */
+  @Test
+  void testLandmarks() throws Exception {
+    Graph g = randomGraph(31, 90, 360);
+    Landmarks alt = Landmarks.select(g.freeze(), 4);
+    java.io.File file = java.io.File.createTempFile("landmarks", ".alt");
+    file.deleteOnExit();
+    alt.save(file.getPath());
+    Landmarks loaded = Landmarks.load(file.getPath(), g.freeze());
+    assertArrayEquals(alt.landmarks(), loaded.landmarks());
+
+    // Tables for another graph are refused.
+    assertThrows(java.io.IOException.class,
+        () -> Landmarks.load(file.getPath(), randomGraph(32, 90, 360).freeze()));
+    assertThrows(java.io.IOException.class,
+        () -> Landmarks.load(file.getPath(), randomGraph(31, 120, 360).freeze()));
+
+    for (int source = 0; source < 6; source++) {
+      ShortestPathTree tree = g.shortestPaths(source);
+      for (int sink = 0; sink < g.vertices.length; sink++) {
+        assertTrue(loaded.estimate(source, sink) <= tree.distance(sink));
+        List<Edge> path = g.aStarPath(source, sink, loaded);
+        if (!tree.reached(sink)) {
+          assertNull(path);
+          continue;
+        } // if
+        long total = 0;
+        for (Edge e : path) {
+          total += e.weight();
+        } // for
+        assertEquals(tree.distance(sink), total, source + " to " + sink);
+      } // for
+    } // for
+
+    // Once the graph changes, the tables no longer apply to it.
+    CsrGraph before = g.freeze();
+    int v = g.addVertex();
+    assertThrows(IllegalArgumentException.class, () -> g.aStarPath(0, v, loaded));
+    assertThrows(IllegalArgumentException.class,
+        () -> g.freeze().aStarPath(0, v, loaded));
+    assertDoesNotThrow(() -> before.aStarPath(0, 1, loaded));
+  } // testLandmarks()
+
+  /**
+   * Delta-stepping gives the same distances as Dijkstra, and its
+   * predecessors are consistent with those distances.
+   */
+  @Test
+  void testDeltaStepping() throws Exception {
+    Graph g = randomGraph(17, 3000, 15000);
+    CsrGraph csr = g.freeze();
+    ShortestPathTree expected = csr.shortestPaths(0);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int delta : new int[] {1, 5, 50}) {
+        ShortestPathTree actual = new DeltaStepping(csr, delta, pool).run(0);
+        for (int v = 0; v < csr.capacity(); v++) {
+          assertEquals(expected.distance(v), actual.distance(v), "delta " + delta);
+          if (actual.reached(v) && (v != 0)) {
+            assertNotNull(actual.pathTo(v));
+            int p = actual.predecessor(v);
+            assertEquals(actual.distance(v),
+                actual.distance(p) + g.edgeWeight(p, v), "edge " + p + " to " + v);
+          } // if
+        } // for
+      } // for
+    } finally {
+      pool.shutdown();
+    } // try/finally
+  } // testDeltaStepping()
+
+  /**
+   * The parallel BFS agrees with the sequential one about which vertices
+   * are reachable and how far away they are.
+   */
+  @Test
+  void testParallelBfs() throws Exception {
+    Graph g = randomGraph(3, 4000, 40000);
+    CsrGraph csr = g.freeze();
+    BfsTree tree = new ParallelBfs(csr).run(0);
+    int reached = 0;
+    for (int v = 0; v < csr.capacity(); v++) {
+      List<Edge> expected = g.path(0, v);
+      if ((v == 0) || (expected != null)) {
+        ++reached;
+        assertEquals((v == 0) ? 0 : expected.size(), tree.level(v), "level of " + v);
+        if (v != 0) {
+          assertEquals(tree.level(v) - 1, tree.level(tree.parent(v)));
+        } // if
+      } else {
+        assertFalse(tree.reached(v));
+      } // if/else
+    } // for
+    assertEquals(reached, tree.numReached());
+    List<Edge> path = new ParallelBfs(csr).path(0, 7);
+    assertEquals(g.path(0, 7).size(), path.size());
+  } // testParallelBfs()
+} // class TestShortestPaths
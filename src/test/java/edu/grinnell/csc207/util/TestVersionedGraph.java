@@ -0,0 +1,183 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of versioned graphs and their snapshots.
+ *
+ * @author Samuel A. Rebelsky
+ */
+class TestVersionedGraph {
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Old snapshots should not see later changes.
+   */
+  @Test
+  void testIsolation() throws Exception {
+    VersionedGraph g = new VersionedGraph();
+    int a = g.addVertex("a");
+    int b = g.addVertex("b");
+    int c = g.addVertex("c");
+    g.addEdge(a, b, 1);
+    GraphSnapshot before = g.snapshot();
+    g.addEdge("b", "c", 2);
+    g.addEdge(a, b, 5);
+    g.removeVertex("a");
+    GraphSnapshot after = g.snapshot();
+
+    assertEquals(3, before.numVertices());
+    assertEquals(1, before.numEdges());
+    assertEquals(1, before.edgeWeight(a, b));
+    assertFalse(before.hasEdge(b, c));
+    assertEquals(a, before.vertexNumber("a"));
+
+    assertEquals(2, after.numVertices());
+    assertEquals(1, after.numEdges());
+    assertEquals(-1, after.vertexNumber("a"));
+    assertEquals(2, after.edgeWeight(b, c));
+    assertTrue(after.version() > before.version());
+  } // testIsolation()
+
+  /**
+   * Snapshots should share the chunks and lists that did not change.
+   */
+  @Test
+  void testSharing() throws Exception {
+    VersionedGraph g = new VersionedGraph();
+    int n = 3 * VersionedGraph.CHUNK_SIZE;
+    g.batch((graph) -> {
+      for (int v = 0; v < n; v++) {
+        graph.addVertex(Integer.toString(v));
+      } // for
+      for (int v = 0; v + 1 < n; v++) {
+        graph.addEdge(v, v + 1, v);
+      } // for
+    });
+    GraphSnapshot before = g.snapshot();
+    g.addEdge(5, 7, 1);
+    GraphSnapshot after = g.snapshot();
+    assertSame(before.chunks[1], after.chunks[1]);
+    assertSame(before.chunks[2], after.chunks[2]);
+    assertNotSame(before.chunks[0], after.chunks[0]);
+    assertSame(before.edges(6), after.edges(6));
+    assertNotSame(before.edges(5), after.edges(5));
+    assertEquals(before.numEdges() + 1, after.numEdges());
+  } // testSharing()
+
+  /**
+   * A batch should be published all at once, or not at all if it fails.
+   */
+  @Test
+  void testBatch() throws Exception {
+    VersionedGraph g = new VersionedGraph();
+    g.batch((graph) -> {
+      graph.addVertex("a");
+      graph.addVertex("b");
+      graph.addEdge("a", "b", 3);
+    });
+    GraphSnapshot before = g.snapshot();
+    assertEquals(1, before.version());
+    assertThrows(Exception.class, () -> g.batch((graph) -> {
+      graph.removeEdge(0, 1);
+      graph.addVertex("c");
+      graph.addEdge("c", "c", 1);
+    }));
+    assertSame(before, g.snapshot());
+
+    // The failed batch should have left no trace.
+    g.addVertex("d");
+    g.addEdge("b", "a", 4);
+    g.removeVertex("a");
+    GraphSnapshot after = g.snapshot();
+    assertEquals(0, after.numEdges());
+    assertEquals(2, after.numVertices());
+    assertEquals(-1, after.vertexNumber("c"));
+    assertEquals(0, after.degree(1));
+
+    // A vertex removed and re-added within a batch gets a fresh list.
+    g.batch((graph) -> {
+      graph.addVertex("a");
+      graph.addVertex("c");
+      graph.addEdge("a", "b", 1);
+      graph.removeVertex("a");
+      graph.addVertex("a");
+      graph.addEdge("a", "c", 2);
+    });
+    GraphSnapshot readded = g.snapshot();
+    assertEquals(1, readded.numEdges());
+    assertEquals(1, readded.degree(readded.vertexNumber("a")));
+  } // testBatch()
+
+  /**
+   * Readers should see consistent snapshots while a writer changes the
+   * graph.
+   */
+  @Test
+  void testConcurrentReaders() throws Exception {
+    VersionedGraph g = new VersionedGraph();
+    int n = 2000;
+    g.batch((graph) -> {
+      for (int v = 0; v < n; v++) {
+        graph.addVertex(Integer.toString(v));
+      } // for
+    });
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread[] readers = new Thread[3];
+    for (int t = 0; t < readers.length; t++) {
+      readers[t] = new Thread(() -> {
+        try {
+          while (!done.get()) {
+            GraphSnapshot s = g.snapshot();
+            int vertices = 0;
+            int edges = 0;
+            for (int v : s.vertices()) {
+              ++vertices;
+              for (Edge e : s.edgesFrom(v)) {
+                assertTrue(s.validVertex(e.target()));
+                ++edges;
+              } // for
+            } // for
+            assertEquals(s.numVertices(), vertices);
+            assertEquals(s.numEdges(), edges);
+          } // while
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        } // try/catch
+      });
+      readers[t].start();
+    } // for
+    Random random = new Random(1);
+    for (int i = 0; i < 20000; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      int op = random.nextInt(10);
+      if (op < 6) {
+        if (g.vertexNumber(Integer.toString(u)) == u && g.vertexNumber(Integer.toString(v)) == v
+            && u != v) {
+          g.addEdge(u, v, random.nextInt(100));
+        } // if
+      } else if (op < 9) {
+        g.removeEdge(u, v);
+      } else if (g.vertexNumber(Integer.toString(u)) == u) {
+        g.removeVertex(u);
+      } else {
+        g.addVertex(Integer.toString(u));
+      } // if/else
+    } // for
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    } // for
+    assertNull(failure.get());
+  } // testConcurrentReaders()
+} // class TestVersionedGraph